@@ -1,11 +1,12 @@
-import { useState, useEffect } from 'react';
-import { auditoriaApi } from '../services/api';
+import { useState, useEffect, useRef } from 'react';
+import { auditoriaApi, seccionPanel } from '../services/api';
 
 /**
  * Panel de Auditoría (Admin) - Parte 2
  * Vista especial para ver el historial de cambios usando Hibernate Envers
+ * @param {Promise<object>|null} panel - Promesa de /api/dashboard (null si falla); da las estadísticas y los cambios recientes de la primera carga
  */
-export default function AuditPage() {
+export default function AuditPage({ panel = null }) {
   const [registros, setRegistros] = useState([]);
   const [estadisticas, setEstadisticas] = useState(null);
   const [loading, setLoading] = useState(true);
@@ -13,12 +14,16 @@ export default function AuditPage() {
   const [selectedEntity, setSelectedEntity] = useState('recientes');
   const [limite, setLimite] = useState(50);
   const [detailModal, setDetailModal] = useState(null);
+  const primeraCarga = useRef(true);
 
   useEffect(() => {
     cargarDatos();
   }, [selectedEntity, limite]);
 
   const cargarDatos = async () => {
+    // El panel solo sirve para la primera carga; al cambiar de vista se piden datos nuevos
+    const datosPanel = primeraCarga.current ? panel : null;
+    primeraCarga.current = false;
     try {
       setLoading(true);
       let data;
@@ -34,13 +39,16 @@ export default function AuditPage() {
           data = await auditoriaApi.getHistorialUsuarios(limite);
           break;
         default:
-          data = await auditoriaApi.getCambiosRecientes(limite);
+          data = await Promise.resolve(datosPanel).then((datos) =>
+            datos?.auditoriaReciente && datos.limiteAuditoria === limite
+              ? datos.auditoriaReciente
+              : auditoriaApi.getCambiosRecientes(limite));
       }
       
       setRegistros(data);
       
       // Cargar estadísticas generales
-      const stats = await auditoriaApi.getEstadisticas();
+      const stats = await seccionPanel(datosPanel, 'auditoria', auditoriaApi.getEstadisticas);
       setEstadisticas(stats);
       
       setError(null);
@@ -1,13 +1,14 @@
 import { useState, useEffect } from 'react';
-import { facturasApi } from '../services/api';
+import { facturasApi, seccionPanel } from '../services/api';
 
 /**
  * Vista de Facturación - Parte 2
  * Muestra facturas generadas con impuestos calculados y filtros avanzados
  * @param {boolean} isAdmin - Si true, muestra todas las facturas. Si false, solo las del usuario.
  * @param {number} suscripcionId - ID de suscripción del usuario (solo se usa si no es admin)
+ * @param {Promise<object>|null} panel - Promesa de /api/dashboard (null si falla); sus secciones evitan pedir estadísticas y resumen
  */
-export default function BillingPage({ isAdmin = false, suscripcionId = null }) {
+export default function BillingPage({ isAdmin = false, suscripcionId = null, panel = null }) {
   const [facturas, setFacturas] = useState([]);
   const [estadisticas, setEstadisticas] = useState(null);
   const [resumenEstado, setResumenEstado] = useState([]);
@@ -28,10 +29,12 @@ export default function BillingPage({ isAdmin = false, suscripcionId = null }) {
   const [totalPages, setTotalPages] = useState(0);
 
   useEffect(() => {
-    cargarDatos();
+    cargarDatos(true);
   }, [isAdmin, suscripcionId]);
 
-  const cargarDatos = async () => {
+  // El panel solo sirve para la primera carga; al recargar se piden datos nuevos
+  const cargarDatos = async (inicial = false) => {
+    const datosPanel = inicial === true ? panel : null;
     try {
       setLoading(true);
       
@@ -40,8 +43,8 @@ export default function BillingPage({ isAdmin = false, suscripcionId = null }) {
       if (isAdmin) {
         const [data, stats, resumen] = await Promise.all([
           facturasApi.getAll(),
-          facturasApi.getEstadisticas(),
-          facturasApi.getResumenPorEstado()
+          seccionPanel(datosPanel, 'facturacion', facturasApi.getEstadisticas),
+          seccionPanel(datosPanel, 'resumenEstado', facturasApi.getResumenPorEstado)
         ]);
         facturasData = data;
         setEstadisticas(stats);
@@ -1,9 +1,10 @@
-import { useState } from 'react';
+import { useState, useMemo } from 'react';
 import { CreditCard, Calendar, CheckCircle, XCircle, Settings, FileText, Shield, LogOut, Users } from 'lucide-react';
 import PlanesSelector from '../components/PlanesSelector';
 import BillingPage from './BillingPage';
 import AuditPage from './AuditPage';
 import SubscriptionsPage from './SubscriptionsPage';
+import { dashboardApi } from '../services/api';
 
 function DashboardPage({ userData, onLogout }) {
   const [currentUserData, setCurrentUserData] = useState(userData);
@@ -13,6 +14,16 @@ function DashboardPage({ userData, onLogout }) {
   // Tab inicial según rol
   const [activeTab, setActiveTab] = useState(isAdmin ? 'suscripciones' : 'dashboard');
 
+  // Admin: estadísticas de todas las pestañas en una sola petición al entrar. Se pasa la promesa (null si
+  // falla): las pestañas se muestran ya y lanzan sus listados a la vez, solo las estadísticas la esperan
+  const panel = useMemo(() => {
+    if (!isAdmin) return null;
+    return dashboardApi.get().catch((err) => {
+      console.error(err);
+      return null;
+    });
+  }, [isAdmin]);
+
   const formatearFecha = (fecha) => {
     if (!fecha) return 'N/A';
     return new Date(fecha).toLocaleDateString('es-ES', {
@@ -114,17 +125,18 @@ function DashboardPage({ userData, onLogout }) {
             <BillingPage 
               isAdmin={isAdmin}
               suscripcionId={usuario.suscripcionId}
+              panel={panel}
             />
           )}
           
           {activeTab === 'auditoria' && (
             /* Panel de Auditoría */
-            <AuditPage />
+            <AuditPage panel={panel} />
           )}
           
           {activeTab === 'suscripciones' && (
             /* Panel de Suscripciones (Admin) */
-            <SubscriptionsPage />
+            <SubscriptionsPage panel={panel} />
           )}
           
           {activeTab === 'dashboard' && (
@@ -1,27 +1,30 @@
 import { useState, useEffect } from 'react';
 import { Users, Calendar, CreditCard, CheckCircle, XCircle, Clock, RefreshCw } from 'lucide-react';
-import { suscripcionesApi } from '../services/api';
+import { suscripcionesApi, seccionPanel } from '../services/api';
 
 /**
  * Vista de Suscripciones para Admin
  * Muestra todas las suscripciones activas y su estado
+ * @param {Promise<object>|null} panel - Promesa de /api/dashboard (null si falla); si trae cicloVida no se piden las estadísticas
  */
-export default function SubscriptionsPage() {
+export default function SubscriptionsPage({ panel = null }) {
   const [suscripciones, setSuscripciones] = useState([]);
   const [estadisticas, setEstadisticas] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
   useEffect(() => {
-    cargarDatos();
+    cargarDatos(true);
   }, []);
 
-  const cargarDatos = async () => {
+  // El panel solo sirve para la primera carga; al recargar se piden datos nuevos
+  const cargarDatos = async (inicial = false) => {
+    const datosPanel = inicial === true ? panel : null;
     try {
       setLoading(true);
       const [data, stats] = await Promise.all([
         suscripcionesApi.getAll(),
-        suscripcionesApi.getEstadisticasCicloVida()
+        seccionPanel(datosPanel, 'cicloVida', suscripcionesApi.getEstadisticasCicloVida)
       ]);
       setSuscripciones(data);
       setEstadisticas(stats);
@@ -44,6 +44,9 @@ export const facturasApi = {
   getBySuscripcion: async (suscripcionId) => (await api.get(`/facturas/suscripcion/${suscripcionId}`)).data,
   getPendientes: async () => (await api.get('/facturas/pendientes')).data,
   marcarPagada: async (id) => (await api.post(`/facturas/${id}/pagar`)).data,
+  // Remesa de pagos [{ facturaId | numeroFactura, importe, fecha, metodo }]; devuelve el resultado de cada uno
+  liquidar: async (pagos) => (await api.post('/facturas/liquidar', pagos)).data,
+  // Devuelve el trabajo encolado; se sigue con jobsApi.getById
   ejecutarFacturacion: async () => (await api.post('/facturas/ejecutar-facturacion')).data,
   // Filtros avanzados (Parte 2)
   getVencidas: async () => (await api.get('/facturas/vencidas')).data,
@@ -83,4 +86,21 @@ export const auditoriaApi = {
   getEstadisticas: async () => (await api.get('/auditoria/estadisticas')).data,
 };
 
+// Panel de administración en una sola llamada; las secciones que no llegaron a tiempo vienen a null
+export const dashboardApi = {
+  get: async () => (await api.get('/dashboard')).data,
+};
+
+// Sección del panel (promesa de dashboardApi.get o null); si no la trae, se pide con la función indicada
+export const seccionPanel = (panel, seccion, pedir) =>
+  Promise.resolve(panel).then((datos) => datos?.[seccion] ?? pedir());
+
+// Jobs lanzados a mano (facturación y ciclo de vida): estado, progreso y cancelación
+export const jobsApi = {
+  getAll: async () => (await api.get('/jobs')).data,
+  getById: async (id) => (await api.get(`/jobs/${id}`)).data,
+  getResultado: async (id) => (await api.get(`/jobs/${id}/resultado`)).data,
+  cancelar: async (id) => (await api.post(`/jobs/${id}/cancelar`)).data,
+};
+
 export default api;
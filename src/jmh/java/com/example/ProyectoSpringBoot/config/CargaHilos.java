@@ -0,0 +1,338 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.ProyectoSpringBootApplication;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida;
+import com.example.ProyectoSpringBoot.service.HashContrasenas;
+import com.example.ProyectoSpringBoot.service.ImpuestoService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carga HTTP contra la aplicación con hilos de plataforma y con hilos virtuales (spring.threads.virtual.enabled),
+ * para comparar peticiones por segundo y percentiles de latencia.
+ *
+ * Cada modo se ejecuta en su propia JVM (mismos argumentos de JVM que esta) con un H2 en memoria y datos
+ * sintéticos. La latencia de red de MySQL se simula con una espera antes de cada sentencia
+ * (carga.latencia-bd-ms), fuera de cualquier lock del driver. Los clientes son bucles cerrados: con
+ * el servidor saturado esperan, así que los percentiles altos se quedan cortos (omisión coordinada);
+ * sirven para comparar los dos modos, no como cifra absoluta.
+ *
+ * Uso: CargaHilos [--carga.opcion=valor ...] [--propiedad=valor de Spring ...]
+ * (con Maven: mvn -Pjmh -DskipTests test-compile exec:exec@carga-hilos -Dcarga.opciones="...")
+ * - carga.modos (plataforma,virtuales), carga.clientes (400), carga.segundos (30), carga.calentamiento (10)
+ * - carga.latencia-bd-ms (10), carga.suscripciones (5000)
+ * Por defecto el pool de Hikari tiene 100 conexiones, para que el límite sea el de los hilos de Tomcat (200).
+ */
+public class CargaHilos {
+
+    private static final String RESULTADOS = "target/carga-hilos.json";
+    private static final String PREFIJO = "--carga.";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new LinkedHashMap<>(Map.of(
+                "modos", "plataforma,virtuales",
+                "clientes", "400",
+                "segundos", "30",
+                "calentamiento", "10",
+                "latencia-bd-ms", "10",
+                "suscripciones", "5000"));
+        List<String> propiedades = new ArrayList<>();
+        String modo = null;
+        // Desde Maven todas las opciones llegan en un solo argumento (carga.opciones)
+        for (String arg : String.join(" ", args).trim().split("\\s+")) {
+            if (arg.isEmpty()) {
+                continue;
+            }
+            if (arg.startsWith(PREFIJO + "modo=")) {
+                modo = arg.substring((PREFIJO + "modo=").length());
+            } else if (arg.startsWith(PREFIJO)) {
+                String[] partes = arg.substring(PREFIJO.length()).split("=", 2);
+                opciones.put(partes[0], partes[1]);
+            } else {
+                propiedades.add(arg);
+            }
+        }
+
+        if (modo != null) {
+            Map<String, Object> fila = ejecutar(modo, opciones, propiedades);
+            new ObjectMapper().writeValue(archivoModo(modo), fila);
+            return;
+        }
+
+        List<Map<String, Object>> resultados = new ArrayList<>();
+        for (String cadaModo : opciones.get("modos").split(",")) {
+            resultados.add(lanzar(cadaModo.trim(), args));
+        }
+        imprimir(resultados);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(RESULTADOS), resultados);
+        System.out.println("Resultados en " + RESULTADOS);
+    }
+
+    // Un modo en una JVM nueva: sin JIT ni hilos heredados del anterior
+    private static Map<String, Object> lanzar(String modo, String[] args) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(ProcessHandle.current().info().command().orElse("java"));
+        comando.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        comando.addAll(List.of("-cp", System.getProperty("java.class.path"), CargaHilos.class.getName()));
+        comando.addAll(List.of(args));
+        comando.add(PREFIJO + "modo=" + modo);
+        Process proceso = new ProcessBuilder(comando).inheritIO().start();
+        if (proceso.waitFor() != 0) {
+            throw new IllegalStateException("La carga con hilos " + modo + " terminó con código " + proceso.exitValue());
+        }
+        return new ObjectMapper().readValue(archivoModo(modo), new TypeReference<>() {});
+    }
+
+    private static Map<String, Object> ejecutar(String modo, Map<String, String> opciones, List<String> propiedades)
+            throws InterruptedException {
+        boolean virtuales = switch (modo) {
+            case "plataforma" -> false;
+            case "virtuales" -> true;
+            default -> throw new IllegalArgumentException("Modo desconocido: " + modo);
+        };
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.hikari.maximum-pool-size=100",
+                "--spring.threads.virtual.enabled=" + virtuales,
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--app.consultas.cabeceras=false",
+                "--app.eventos.despacho-ms=3600000",
+                "--carga.latencia-bd-ms=" + opciones.get("latencia-bd-ms")));
+        // Las propiedades de la línea de comandos van detrás y prevalecen
+        argumentos.addAll(propiedades);
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(
+                ProyectoSpringBootApplication.class, LatenciaBd.class)
+                .web(WebApplicationType.SERVLET)
+                .run(argumentos.toArray(String[]::new))) {
+            DataSource dataSource = contexto.getBean(DataSource.class);
+            new GeneradorDatosSinteticos(dataSource, contexto.getBean(ImpuestoService.class),
+                    contexto.getBean(HashContrasenas.class).codificar("password123"), 42, 1000)
+                    .generar(Integer.parseInt(opciones.get("suscripciones")), 3);
+            contexto.getBean(ContadoresCicloVida.class).reconciliar();
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            long[] usuarios = rango(jdbc, "usuarios");
+            long[] suscripciones = rango(jdbc, "suscripciones");
+
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            int clientes = Integer.parseInt(opciones.get("clientes"));
+            Carga carga = new Carga(base, usuarios, suscripciones);
+
+            System.out.printf("Hilos %s: calentamiento de %s s con %d clientes%n", modo, opciones.get("calentamiento"), clientes);
+            carga.ejecutar(clientes, Duration.ofSeconds(Long.parseLong(opciones.get("calentamiento"))));
+            carga.reiniciar();
+            ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+            hilos.resetPeakThreadCount();
+            DetectorAnclajes detector = contexto.getBeanProvider(DetectorAnclajes.class).getIfAvailable();
+
+            System.out.printf("Hilos %s: medición de %s s%n", modo, opciones.get("segundos"));
+            long segundos = Long.parseLong(opciones.get("segundos"));
+            carga.ejecutar(clientes, Duration.ofSeconds(segundos));
+            Histogram histograma = carga.recorder.getIntervalHistogram();
+
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("modo", modo);
+            fila.put("clientes", clientes);
+            fila.put("latenciaBdMs", Integer.parseInt(opciones.get("latencia-bd-ms")));
+            fila.put("peticiones", histograma.getTotalCount());
+            fila.put("peticionesPorSegundo", histograma.getTotalCount() / segundos);
+            fila.put("errores", carga.errores.get());
+            fila.put("p50Ms", milisegundos(histograma.getValueAtPercentile(50)));
+            fila.put("p90Ms", milisegundos(histograma.getValueAtPercentile(90)));
+            fila.put("p99Ms", milisegundos(histograma.getValueAtPercentile(99)));
+            fila.put("p999Ms", milisegundos(histograma.getValueAtPercentile(99.9)));
+            fila.put("maxMs", milisegundos(histograma.getMaxValue()));
+            fila.put("picoHilosPlataforma", hilos.getPeakThreadCount());
+            fila.put("anclajes", detector != null
+                    ? detector.anclajes().stream().mapToLong(DetectorAnclajes.Origen::veces).sum() : null);
+            fila.put("origenAnclajes", detector != null && !detector.anclajes().isEmpty()
+                    ? detector.anclajes().get(0).origen() : null);
+            System.out.println(fila);
+            return fila;
+        }
+    }
+
+    private static long[] rango(JdbcTemplate jdbc, String tabla) {
+        return jdbc.queryForObject("SELECT MIN(id), MAX(id) FROM " + tabla,
+                (rs, n) -> new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    private static double milisegundos(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static File archivoModo(String modo) {
+        return new File("target/carga-hilos-" + modo + ".json");
+    }
+
+    private static void imprimir(List<Map<String, Object>> resultados) {
+        System.out.printf("%n%-12s %10s %10s %10s %10s %10s %10s %8s %12s %10s%n",
+                "hilos", "pet/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "errores", "hilos plat.", "anclajes");
+        for (Map<String, Object> fila : resultados) {
+            System.out.printf("%-12s %10s %10s %10s %10s %10s %10s %8s %12s %10s%n", fila.get("modo"),
+                    fila.get("peticionesPorSegundo"), fila.get("p50Ms"), fila.get("p90Ms"), fila.get("p99Ms"),
+                    fila.get("p999Ms"), fila.get("maxMs"), fila.get("errores"), fila.get("picoHilosPlataforma"),
+                    fila.get("anclajes") != null ? fila.get("anclajes") : "-");
+        }
+    }
+
+    /**
+     * Clientes en bucle cerrado sobre una mezcla de lecturas por id: usuario, suscripciones de un
+     * usuario y facturas de una suscripción
+     */
+    private static final class Carga {
+
+        private final String base;
+        private final long[] usuarios;
+        private final long[] suscripciones;
+        private final Recorder recorder = new Recorder(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong errores = new AtomicLong();
+        private final HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        private Carga(String base, long[] usuarios, long[] suscripciones) {
+            this.base = base;
+            this.usuarios = usuarios;
+            this.suscripciones = suscripciones;
+        }
+
+        private void ejecutar(int clientes, Duration duracion) throws InterruptedException {
+            long fin = System.nanoTime() + duracion.toNanos();
+            try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clientes; i++) {
+                    hilos.submit(() -> {
+                        while (System.nanoTime() < fin) {
+                            peticion();
+                        }
+                    });
+                }
+            }
+        }
+
+        private void peticion() {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            String ruta = switch (aleatorio.nextInt(3)) {
+                case 0 -> "/api/usuarios/" + aleatorio.nextLong(usuarios[0], usuarios[1] + 1);
+                case 1 -> "/api/suscripciones/usuario/" + aleatorio.nextLong(usuarios[0], usuarios[1] + 1);
+                default -> "/api/facturas/suscripcion/" + aleatorio.nextLong(suscripciones[0], suscripciones[1] + 1);
+            };
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + ruta)).timeout(Duration.ofSeconds(60)).build();
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<Void> respuesta = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+                if (respuesta.statusCode() >= 500) {
+                    errores.incrementAndGet();
+                }
+            } catch (IOException e) {
+                errores.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio);
+            recorder.recordValue(Math.min(Math.max(micros, 1), TimeUnit.MINUTES.toMicros(1)));
+        }
+
+        private void reiniciar() {
+            recorder.reset();
+            errores.set(0);
+        }
+    }
+
+    /**
+     * Espera carga.latencia-bd-ms antes de cada sentencia, como la ida y vuelta a un MySQL remoto.
+     * La espera es un sleep en nuestro proxy, fuera de los locks del driver
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class LatenciaBd {
+
+        @Bean
+        static BeanPostProcessor latenciaBd(Environment environment) {
+            long milisegundos = environment.getProperty("carga.latencia-bd-ms", Long.class, 0L);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nombre) {
+                    if (milisegundos <= 0 || !(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, dataSource, milisegundos);
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, T destino, long milisegundos) {
+            return (T) Proxy.newProxyInstance(CargaHilos.class.getClassLoader(), new Class<?>[]{tipo},
+                    (p, metodo, argumentos) -> {
+                        if (metodo.getName().startsWith("execute")) {
+                            Thread.sleep(milisegundos);
+                        }
+                        Object resultado;
+                        try {
+                            resultado = metodo.invoke(destino, argumentos);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        // Las conexiones y sentencias también pasan por el proxy
+                        if (resultado instanceof CallableStatement s && metodo.getReturnType() == CallableStatement.class) {
+                            return proxy(CallableStatement.class, s, milisegundos);
+                        }
+                        if (resultado instanceof PreparedStatement s && metodo.getReturnType() == PreparedStatement.class) {
+                            return proxy(PreparedStatement.class, s, milisegundos);
+                        }
+                        if (resultado instanceof Statement s && metodo.getReturnType() == Statement.class) {
+                            return proxy(Statement.class, s, milisegundos);
+                        }
+                        if (resultado instanceof Connection c && metodo.getReturnType() == Connection.class) {
+                            return proxy(Connection.class, c, milisegundos);
+                        }
+                        return resultado;
+                    });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ProyectoSpringBoot.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de FiltroLatencias por petición: buscar la serie y grabar en el Recorder, con varios hilos
+ * a la vez sobre la misma ruta. Con -prof gc, gc.alloc.rate.norm debe quedar en 0 bytes/op
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LatenciasBenchmark {
+
+    private final LatenciasRutas latencias = new LatenciasRutas(new SimpleMeterRegistry(), 6, 60_000, 2);
+    private final String ruta = "/api/facturas/{id}";
+
+    @Setup
+    public void preparar() {
+        latencias.registrar(ruta, "GET", 200, 1_000_000);
+    }
+
+    @Benchmark
+    public void registrar() {
+        latencias.registrar(ruta, "GET", 200, 1_250_000);
+    }
+}
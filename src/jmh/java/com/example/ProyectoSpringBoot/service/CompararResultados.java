@@ -0,0 +1,50 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos ficheros de resultados JMH (-rf json): ops/s y bytes asignados por operación.
+ * Uso: java ... CompararResultados base.json nuevo.json
+ */
+public class CompararResultados {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CompararResultados <base.json> <nuevo.json>");
+            System.exit(2);
+        }
+        Map<String, double[]> base = leer(new File(args[0]));
+        Map<String, double[]> nuevo = leer(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n", "Benchmark", "base ops/s", "nuevo ops/s", "Δ%", "base B/op", "nuevo B/op");
+        for (Map.Entry<String, double[]> entrada : nuevo.entrySet()) {
+            double[] antes = base.get(entrada.getKey());
+            double[] ahora = entrada.getValue();
+            if (antes == null) {
+                System.out.printf("%-70s %14s %14.1f %8s %12s %12.1f%n", entrada.getKey(), "-", ahora[0], "nuevo", "-", ahora[1]);
+                continue;
+            }
+            System.out.printf("%-70s %14.1f %14.1f %+7.1f%% %12.1f %12.1f%n", entrada.getKey(),
+                    antes[0], ahora[0], (ahora[0] - antes[0]) * 100 / antes[0], antes[1], ahora[1]);
+        }
+    }
+
+    // Benchmark con sus parámetros -> {ops/s, B/op}
+    private static Map<String, double[]> leer(File fichero) throws IOException {
+        Map<String, double[]> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(fichero)) {
+            StringBuilder nombre = new StringBuilder(resultado.path("benchmark").asText());
+            resultado.path("params").fields().forEachRemaining(p -> nombre.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            double opsPorSegundo = resultado.path("primaryMetric").path("score").asDouble();
+            double bytesPorOperacion = resultado.path("secondaryMetrics").path("gc.alloc.rate.norm").path("score").asDouble(Double.NaN);
+            resultados.put(nombre.toString(), new double[]{opsPorSegundo, bytesPorOperacion});
+        }
+        return resultados;
+    }
+}
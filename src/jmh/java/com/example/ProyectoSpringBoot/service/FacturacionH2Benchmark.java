@@ -0,0 +1,74 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.ProyectoSpringBootApplication;
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * generarFacturaMensual completo contra H2 (perfil test): lectura de la suscripción,
+ * impuestos, insert de la factura, resumen mensual, outbox y actualización de la suscripción
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacturacionH2Benchmark {
+
+    private ConfigurableApplicationContext contexto;
+    private SuscripcionService suscripcionService;
+    private SuscripcionRepository suscripcionRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long suscripcionId;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(ProyectoSpringBootApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--app.eventos.despacho-ms=3600000");
+        suscripcionService = contexto.getBean(SuscripcionService.class);
+        suscripcionRepository = contexto.getBean(SuscripcionRepository.class);
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+
+        UsuarioDTO usuario = contexto.getBean(UsuarioService.class).create(UsuarioDTO.builder()
+                .email("benchmark@example.com")
+                .password("password123")
+                .nombre("Benchmark")
+                .pais("Portugal")
+                .build());
+        suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(contexto.getBean(PlanService.class).findAll().get(0).getId())
+                .fechaInicio(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Factura generarFacturaMensual() {
+        return transactionTemplate.execute(estado ->
+                suscripcionService.generarFacturaMensual(suscripcionRepository.findById(suscripcionId).orElseThrow()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ProyectoSpringBoot.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de impuestos por país: código ISO, nombre, nombre en otro idioma y país sin tasa
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImpuestoBenchmark {
+
+    @Param({"ES", "Portugal", "united states", "Atlantida"})
+    private String pais;
+
+    private final ImpuestoService impuestoService = new ImpuestoService();
+    private final BigDecimal subtotal = new BigDecimal("29.99");
+
+    @Benchmark
+    public BigDecimal obtenerTasaImpuesto() {
+        return impuestoService.obtenerTasaImpuesto(pais);
+    }
+
+    @Benchmark
+    public BigDecimal calcularImpuesto() {
+        return impuestoService.calcularImpuesto(subtotal, pais);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.FacturaDTO;
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.Perfil;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.entity.Usuario;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.enums.TipoPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversiones entidad -> DTO, prorrateo y detalles de auditoría sobre entidades en memoria.
+ * Los servicios se crean sin proxies ni dependencias: solo se llaman métodos que no las usan
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeoBenchmark {
+
+    private SuscripcionService suscripcionService;
+    private FacturaService facturaService;
+    private UsuarioService usuarioService;
+    private AuditoriaService auditoriaService;
+
+    private Usuario usuario;
+    private Plan planBasico;
+    private Plan planPremium;
+    private Suscripcion suscripcion;
+    private Factura factura;
+    private LocalDateTime ultimoAcceso;
+
+    @Setup
+    public void preparar() {
+        ImpuestoService impuestoService = new ImpuestoService();
+        suscripcionService = new SuscripcionService(null, null, null, null, null, impuestoService, null, null, null, null, null);
+        facturaService = new FacturaService(null, null, null, impuestoService, null);
+        usuarioService = new UsuarioService(null, null, null, null, null);
+        auditoriaService = new AuditoriaService();
+
+        planBasico = Plan.builder().id(1L).nombre("Plan Básico").tipoPlan(TipoPlan.BASIC)
+                .precioMensual(new BigDecimal("9.99")).build();
+        planPremium = Plan.builder().id(2L).nombre("Plan Premium").tipoPlan(TipoPlan.PREMIUM)
+                .precioMensual(new BigDecimal("29.99")).build();
+        usuario = Usuario.builder().id(1L).email("benchmark@example.com").password("x")
+                .fechaCreacion(LocalDateTime.now()).build();
+        usuario.setPerfil(Perfil.builder().id(1L).nombre("Ana").apellidos("García López")
+                .telefono("600000000").pais("España").usuario(usuario).build());
+        suscripcion = Suscripcion.builder().id(1L).usuario(usuario).plan(planBasico)
+                .fechaInicio(LocalDate.now().minusDays(10))
+                .fechaProximoCobro(LocalDate.now().plusDays(20))
+                .estado(EstadoSuscripcion.ACTIVA).renovacionAutomatica(true)
+                .precioActual(planBasico.getPrecioMensual()).build();
+        usuario.getSuscripciones().add(suscripcion);
+        factura = Factura.builder().id(1L).numeroFactura("FAC-BENCH001").suscripcion(suscripcion)
+                .fechaEmision(LocalDate.now()).fechaVencimiento(LocalDate.now().plusDays(15))
+                .subtotal(new BigDecimal("9.99")).porcentajeImpuestos(new BigDecimal("21.00"))
+                .montoImpuestos(new BigDecimal("2.10")).total(new BigDecimal("12.09"))
+                .estado(EstadoFactura.PENDIENTE).concepto("Suscripción mensual - Plan Básico")
+                .esProrrateo(false).paisFacturacion("ES").reglaImpuesto("IVA-ES-21.00").build();
+        ultimoAcceso = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public BigDecimal calcularProrrateo() {
+        return suscripcionService.calcularProrrateo(suscripcion, planBasico, planPremium);
+    }
+
+    @Benchmark
+    public SuscripcionDTO suscripcionToDTO() {
+        return suscripcionService.toDTO(suscripcion);
+    }
+
+    @Benchmark
+    public FacturaDTO facturaToDTO() {
+        return facturaService.toDTO(factura);
+    }
+
+    @Benchmark
+    public UsuarioDTO usuarioToDTO() {
+        return usuarioService.toDTO(usuario, ultimoAcceso);
+    }
+
+    @Benchmark
+    public Map<String, String> extraerDetallesFactura() {
+        return auditoriaService.extraerDetallesEntidad(factura);
+    }
+
+    @Benchmark
+    public Map<String, String> extraerDetallesSuscripcion() {
+        return auditoriaService.extraerDetallesEntidad(suscripcion);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.ProyectoSpringBootApplication;
+import com.example.ProyectoSpringBoot.config.GeneradorDatosSinteticos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Noche de facturación completa a escala: para cada tamaño arranca un contexto limpio,
+ * carga datos sintéticos y ejecuta en orden los jobs nocturnos, midiendo tiempo, sentencias
+ * preparadas por Hibernate y pico de heap de cada uno.
+ *
+ * No es un benchmark JMH: cada job se ejecuta una sola vez sobre los datos, como en producción.
+ *
+ * Uso: NocheFacturacion [tamaños separados por comas] [--propiedad=valor de Spring ...]
+ * Por defecto 10000,100000,1000000 suscripciones en un H2 en memoria nuevo para cada tamaño.
+ * Con --spring.profiles.active=mysql usa la BD configurada; los datos de cada tamaño se suman a los anteriores.
+ */
+public class NocheFacturacion {
+
+    private static final String RESULTADOS = "target/noche-facturacion.json";
+
+    public static void main(String[] args) throws IOException {
+        List<Integer> tamanos = new ArrayList<>(List.of(10_000, 100_000, 1_000_000));
+        List<String> propiedades = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                propiedades.add(arg);
+            } else {
+                tamanos = new ArrayList<>();
+                for (String tamano : arg.split(",")) {
+                    tamanos.add(Integer.parseInt(tamano.trim()));
+                }
+            }
+        }
+
+        List<Map<String, Object>> resultados = new ArrayList<>();
+        for (int tamano : tamanos) {
+            resultados.addAll(ejecutar(tamano, propiedades));
+        }
+
+        imprimir(resultados);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(RESULTADOS), resultados);
+        System.out.println("Resultados en " + RESULTADOS);
+    }
+
+    private static List<Map<String, Object>> ejecutar(int tamano, List<String> propiedades) {
+        List<String> argumentos = new ArrayList<>();
+        if (propiedades.stream().noneMatch(p -> p.startsWith("--spring.profiles.active="))) {
+            argumentos.add("--spring.profiles.active=test");
+            argumentos.add("--spring.datasource.url=jdbc:h2:mem:noche" + tamano + ";DB_CLOSE_DELAY=-1");
+        }
+        argumentos.addAll(List.of(
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=true",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--app.eventos.despacho-ms=3600000"));
+        // Las propiedades de la línea de comandos van detrás y prevalecen
+        argumentos.addAll(propiedades);
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(ProyectoSpringBootApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(argumentos.toArray(String[]::new))) {
+            DataSource dataSource = contexto.getBean(DataSource.class);
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            Statistics estadisticas = contexto.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+
+            GeneradorDatosSinteticos.Resumen carga = new GeneradorDatosSinteticos(dataSource,
+                    contexto.getBean(ImpuestoService.class),
+                    contexto.getBean(HashContrasenas.class).codificar("password123"), 42, 1000)
+                    .generar(tamano, 12);
+            contexto.getBean(ContadoresCicloVida.class).reconciliar();
+            System.out.printf("%,d suscripciones y %,d facturas cargadas en %d s%n",
+                    carga.suscripciones(), carga.facturas(), carga.duracion().toSeconds());
+
+            FacturacionScheduledService facturacion = contexto.getBean(FacturacionScheduledService.class);
+            CicloVidaSuscripcionService cicloVida = contexto.getBean(CicloVidaSuscripcionService.class);
+            Map<String, Runnable> jobs = new LinkedHashMap<>();
+            jobs.put("facturacionAutomatica", facturacion::procesarFacturacionAutomatica);
+            jobs.put("renovacionesAutomaticas", cicloVida::procesarRenovacionesAutomaticas);
+            jobs.put("suscripcionesMorosas", cicloVida::procesarSuscripcionesMorosas);
+            jobs.put("suspensiones", cicloVida::procesarSuspensiones);
+            jobs.put("expiraciones", cicloVida::procesarExpiraciones);
+
+            List<Map<String, Object>> filas = new ArrayList<>();
+            for (Map.Entry<String, Runnable> job : jobs.entrySet()) {
+                long facturasAntes = contar(jdbc);
+                System.gc();
+                reiniciarPicosHeap();
+                estadisticas.clear();
+
+                long inicio = System.nanoTime();
+                job.getValue().run();
+                long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("suscripciones", tamano);
+                fila.put("job", job.getKey());
+                fila.put("milisegundos", milisegundos);
+                fila.put("sentencias", estadisticas.getPrepareStatementCount());
+                fila.put("picoHeapMb", picoHeap() / (1024 * 1024));
+                fila.put("facturasNuevas", contar(jdbc) - facturasAntes);
+                filas.add(fila);
+                System.out.println(fila);
+            }
+            return filas;
+        }
+    }
+
+    private static long contar(JdbcTemplate jdbc) {
+        Long facturas = jdbc.queryForObject("SELECT COUNT(*) FROM facturas", Long.class);
+        return facturas != null ? facturas : 0;
+    }
+
+    private static void reiniciarPicosHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Suma de los picos de cada zona del heap: cota superior, los picos no tienen por qué coincidir
+    private static long picoHeap() {
+        long pico = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pico += pool.getPeakUsage().getUsed();
+            }
+        }
+        return pico;
+    }
+
+    private static void imprimir(List<Map<String, Object>> resultados) {
+        System.out.printf("%n%-14s %-26s %12s %12s %12s %14s%n",
+                "suscripciones", "job", "ms", "sentencias", "heap MB", "facturas");
+        for (Map<String, Object> fila : resultados) {
+            System.out.printf("%-14s %-26s %12s %12s %12s %14s%n", fila.get("suscripciones"), fila.get("job"),
+                    fila.get("milisegundos"), fila.get("sentencias"), fila.get("picoHeapMb"), fila.get("facturasNuevas"));
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.example.ProyectoSpringBoot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling // Habilita tareas programadas para facturación automática
+@PropertySource("classpath:proyecto.properties") // Propiedades que no comparte con core (open-in-view)
 public class ProyectoSpringBootApplication {
 
 	public static void main(String[] args) {
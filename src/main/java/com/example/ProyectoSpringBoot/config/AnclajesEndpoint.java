@@ -0,0 +1,28 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.config.DetectorAnclajes.Origen;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hilos virtuales anclados a su portador, por origen: /actuator/anclajes (solo con hilos virtuales)
+ */
+@Component
+@Endpoint(id = "anclajes")
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+public class AnclajesEndpoint {
+
+    private final DetectorAnclajes detector;
+
+    @ReadOperation
+    public List<Origen> anclajes() {
+        return detector.anclajes();
+    }
+}
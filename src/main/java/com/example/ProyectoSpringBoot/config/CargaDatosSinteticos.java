@@ -0,0 +1,66 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida;
+import com.example.ProyectoSpringBoot.service.HashContrasenas;
+import com.example.ProyectoSpringBoot.service.ImpuestoService;
+import com.example.ProyectoSpringBoot.service.ResumenMensualFacturas;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Perfil "sintetico": al arrancar (después de DataInitializer) carga app.sintetico.suscripciones
+ * suscripciones con GeneradorDatosSinteticos y recalcula contadores y resumen mensual,
+ * que la carga por JDBC no actualiza.
+ *
+ * Ejemplo: --spring.profiles.active=mysql,sintetico --app.sintetico.suscripciones=100000
+ */
+@Component
+@Profile("sintetico")
+@Slf4j
+public class CargaDatosSinteticos {
+
+    private final DataSource dataSource;
+    private final ImpuestoService impuestoService;
+    private final HashContrasenas hashContrasenas;
+    private final ContadoresCicloVida contadores;
+    private final ResumenMensualFacturas resumenMensual;
+    private final int suscripciones;
+    private final int mesesHistorial;
+    private final long semilla;
+    private final int tamanoLote;
+
+    public CargaDatosSinteticos(DataSource dataSource,
+                                ImpuestoService impuestoService,
+                                HashContrasenas hashContrasenas,
+                                ContadoresCicloVida contadores,
+                                ResumenMensualFacturas resumenMensual,
+                                @Value("${app.sintetico.suscripciones:10000}") int suscripciones,
+                                @Value("${app.sintetico.meses-historial:12}") int mesesHistorial,
+                                @Value("${app.sintetico.semilla:42}") long semilla,
+                                @Value("${app.sintetico.lote:1000}") int tamanoLote) {
+        this.dataSource = dataSource;
+        this.impuestoService = impuestoService;
+        this.hashContrasenas = hashContrasenas;
+        this.contadores = contadores;
+        this.resumenMensual = resumenMensual;
+        this.suscripciones = suscripciones;
+        this.mesesHistorial = mesesHistorial;
+        this.semilla = semilla;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        GeneradorDatosSinteticos generador = new GeneradorDatosSinteticos(dataSource, impuestoService,
+                hashContrasenas.codificar("password123"), semilla, tamanoLote);
+        GeneradorDatosSinteticos.Resumen resumen = generador.generar(suscripciones, mesesHistorial);
+        contadores.reconciliar();
+        resumenMensual.reconstruir(resumen.desde(), resumen.hasta());
+    }
+}
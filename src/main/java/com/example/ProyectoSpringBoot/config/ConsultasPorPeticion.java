@@ -0,0 +1,112 @@
+package com.example.ProyectoSpringBoot.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sentencias SQL y tiempo JDBC del hilo actual, agrupados por petición HTTP.
+ * Lo rellenan InspectorSentencias y TiempoJdbc (instanciados por Hibernate, de ahí
+ * el estado estático) y lo abre y cierra FiltroConsultas en cada petición.
+ *
+ * Los registros se anidan: al terminar uno, su resumen se añade al que lo contiene,
+ * así un test puede ver cada petición que lanzó con MockMvc.
+ * Solo cuenta lo que pasa por Hibernate; JdbcTemplate no aparece aquí.
+ */
+public final class ConsultasPorPeticion {
+
+    private static final ThreadLocal<Registro> ACTUAL = new ThreadLocal<>();
+
+    private ConsultasPorPeticion() {
+    }
+
+    /**
+     * Abre un registro en este hilo, dentro del que ya hubiera
+     */
+    public static Registro iniciar() {
+        Registro registro = new Registro(ACTUAL.get());
+        ACTUAL.set(registro);
+        return registro;
+    }
+
+    /**
+     * Cierra el registro y devuelve el anterior a su sitio
+     * @param descripcion Petición (método y URI) con la que se anota en el registro padre
+     */
+    public static Resumen terminar(Registro registro, String descripcion, int umbralRepeticion) {
+        Resumen resumen = new Resumen(descripcion, registro.sentencias,
+                TimeUnit.NANOSECONDS.toMillis(registro.nanosJdbc), registro.repetidas(umbralRepeticion));
+        if (registro.padre != null) {
+            registro.padre.sentencias += registro.sentencias;
+            registro.padre.nanosJdbc += registro.nanosJdbc;
+            registro.sentenciasPorSql.forEach((sql, n) -> registro.padre.sentenciasPorSql.merge(sql, n, Integer::sum));
+            registro.padre.peticiones.add(resumen);
+            ACTUAL.set(registro.padre);
+        } else {
+            ACTUAL.remove();
+        }
+        return resumen;
+    }
+
+    static void sentencia(String sql) {
+        Registro registro = ACTUAL.get();
+        if (registro != null) {
+            registro.sentencias++;
+            registro.sentenciasPorSql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    static void tiempoJdbc(long nanos) {
+        Registro registro = ACTUAL.get();
+        if (registro != null) {
+            registro.nanosJdbc += nanos;
+        }
+    }
+
+    /**
+     * Contadores de un registro abierto. Lo usa un solo hilo
+     */
+    public static final class Registro {
+
+        private final Registro padre;
+        private final Map<String, Integer> sentenciasPorSql = new HashMap<>();
+        private final List<Resumen> peticiones = new ArrayList<>();
+        private int sentencias;
+        private long nanosJdbc;
+
+        private Registro(Registro padre) {
+            this.padre = padre;
+        }
+
+        public int sentencias() {
+            return sentencias;
+        }
+
+        /**
+         * Peticiones terminadas dentro de este registro
+         */
+        public List<Resumen> peticiones() {
+            return Collections.unmodifiableList(peticiones);
+        }
+
+        // Sentencias idénticas (mismo SQL con parámetros ?) lanzadas umbral veces o más: posible N+1
+        private Map<String, Integer> repetidas(int umbral) {
+            Map<String, Integer> repetidas = new LinkedHashMap<>();
+            sentenciasPorSql.entrySet().stream()
+                    .filter(e -> e.getValue() >= umbral)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(e -> repetidas.put(e.getKey(), e.getValue()));
+            return repetidas;
+        }
+    }
+
+    /**
+     * Resultado de una petición
+     * @param repetidas SQL de las sentencias repetidas y veces que se lanzaron, de más a menos
+     */
+    public record Resumen(String peticion, int sentencias, long milisegundosJdbc, Map<String, Integer> repetidas) {}
+}
@@ -7,10 +7,11 @@ import com.example.ProyectoSpringBoot.enums.RolUsuario;
 import com.example.ProyectoSpringBoot.enums.TipoPlan;
 import com.example.ProyectoSpringBoot.repository.PlanRepository;
 import com.example.ProyectoSpringBoot.repository.UsuarioRepository;
+import com.example.ProyectoSpringBoot.service.CatalogoPlanes;
+import com.example.ProyectoSpringBoot.service.HashContrasenas;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
 
@@ -18,7 +19,8 @@ import java.math.BigDecimal;
 public class DataInitializer {
 
     @Bean
-    CommandLineRunner initDatabase(PlanRepository planRepository, UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    CommandLineRunner initDatabase(PlanRepository planRepository, UsuarioRepository usuarioRepository, HashContrasenas hashContrasenas,
+                                   CatalogoPlanes catalogoPlanes) {
         return args -> {
             // Solo crear datos si no existen
             if (planRepository.count() == 0) {
@@ -57,6 +59,7 @@ public class DataInitializer {
                 enterprise.setSoportePrioritario(true);
                 enterprise.setActivo(true);
                 planRepository.save(enterprise);
+                catalogoPlanes.recargar();
 
                 System.out.println("✓ Datos de prueba cargados: 3 planes creados");
             }
@@ -65,7 +68,7 @@ public class DataInitializer {
             if (!usuarioRepository.existsByEmail("admin@saas.com")) {
                 Usuario admin = Usuario.builder()
                         .email("admin@saas.com")
-                        .password(passwordEncoder.encode("admin123"))
+                        .password(hashContrasenas.codificar("admin123"))
                         .activo(true)
                         .emailVerificado(true)
                         .rol(RolUsuario.ADMIN)
@@ -0,0 +1,155 @@
+package com.example.ProyectoSpringBoot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Con spring.threads.virtual.enabled=true, detecta los hilos virtuales anclados a su hilo portador
+ * (bloqueo dentro de un synchronized, propio o de un driver, o en código nativo) más de
+ * app.hilos-virtuales.anclaje-umbral-ms. Escucha el evento jdk.VirtualThreadPinned de JFR en el propio
+ * proceso (RecordingStream) y agrupa por origen: el primer marco de nuestro código, o el primero que no
+ * sea del JDK. Lo publica en la métrica hilos.virtuales.anclaje (origen) y en /actuator/anclajes, y avisa
+ * en el log la primera vez que aparece cada origen.
+ *
+ * Por lo mismo, el código propio que espera a la BD o a la red con un cerrojo tomado usa ReentrantLock y
+ * no synchronized (DespachadorEventos, ContadoresCicloVida).
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class DetectorAnclajes {
+
+    static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final String PAQUETE_PROPIO = "com.example.ProyectoSpringBoot.";
+    private static final int MARCOS_PILA = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration umbral;
+    private final ConcurrentHashMap<String, Anclajes> porOrigen = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public DetectorAnclajes(MeterRegistry meterRegistry,
+                            @Value("${app.hilos-virtuales.anclaje-umbral-ms:20}") long umbralMs) {
+        this.meterRegistry = meterRegistry;
+        this.umbral = Duration.ofMillis(umbralMs);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Detector de hilos virtuales anclados activo (umbral {} ms)", umbral.toMillis());
+    }
+
+    @PreDestroy
+    void detener() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Orígenes con anclajes desde el arranque, de más a menos tiempo anclado
+     */
+    public List<Origen> anclajes() {
+        return porOrigen.entrySet().stream()
+                .map(e -> e.getValue().origen(e.getKey()))
+                .sorted(Comparator.comparingDouble(Origen::totalMs).reversed())
+                .toList();
+    }
+
+    void registrar(RecordedEvent evento) {
+        RecordedStackTrace pila = evento.getStackTrace();
+        List<RecordedFrame> marcos = pila != null ? pila.getFrames() : List.of();
+        String origen = origen(marcos);
+        long nanos = evento.getDuration().toNanos();
+
+        Anclajes anclajes = porOrigen.computeIfAbsent(origen, o -> {
+            List<String> resumen = marcos.stream().limit(MARCOS_PILA).map(DetectorAnclajes::describir).toList();
+            log.warn("Hilo virtual anclado {} ms en {}:{}{}", TimeUnit.NANOSECONDS.toMillis(nanos), origen,
+                    System.lineSeparator() + "  ", String.join(System.lineSeparator() + "  ", resumen));
+            return new Anclajes(resumen);
+        });
+        anclajes.veces.incrementAndGet();
+        anclajes.totalNanos.addAndGet(nanos);
+        anclajes.maxNanos.accumulateAndGet(nanos, Math::max);
+        anclajes.ultimo = LocalDateTime.now();
+        Timer.builder("hilos.virtuales.anclaje")
+                .description("Tiempo que un hilo virtual pasó anclado a su portador")
+                .tag("origen", origen)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Primer marco de nuestro código; si no hay, el primero de fuera del JDK (un driver, una librería)
+    static String origen(List<RecordedFrame> marcos) {
+        RecordedFrame externo = null;
+        for (RecordedFrame marco : marcos) {
+            if (!marco.isJavaFrame()) {
+                continue;
+            }
+            String clase = marco.getMethod().getType().getName();
+            if (clase.startsWith(PAQUETE_PROPIO)) {
+                return describir(marco);
+            }
+            if (externo == null && !clase.startsWith("java.") && !clase.startsWith("jdk.")
+                    && !clase.startsWith("sun.")) {
+                externo = marco;
+            }
+        }
+        if (externo != null) {
+            return describir(externo);
+        }
+        return marcos.isEmpty() ? "desconocido" : describir(marcos.get(0));
+    }
+
+    private static String describir(RecordedFrame marco) {
+        return marco.getMethod().getType().getName() + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+    }
+
+    private static final class Anclajes {
+
+        private final List<String> pila;
+        private final AtomicLong veces = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile LocalDateTime ultimo;
+
+        private Anclajes(List<String> pila) {
+            this.pila = pila;
+        }
+
+        private Origen origen(String origen) {
+            return new Origen(origen, veces.get(), totalNanos.get() / 1_000_000.0, maxNanos.get() / 1_000_000.0,
+                    ultimo, pila);
+        }
+    }
+
+    /**
+     * Anclajes de un mismo origen
+     * @param pila Primeros marcos de la pila del primer anclaje visto
+     */
+    public record Origen(String origen, long veces, double totalMs, double maxMs, LocalDateTime ultimo,
+                         List<String> pila) {}
+}
@@ -0,0 +1,109 @@
+package com.example.ProyectoSpringBoot.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuenta las sentencias SQL de cada petición (ver ConsultasPorPeticion) y las publica:
+ * - métricas http.consultas (sentencias), http.consultas.jdbc (tiempo) y
+ *   http.consultas.repetidas (peticiones con la misma sentencia repetida, posible N+1), por patrón de URI
+ * - aviso en el log si la petición supera app.consultas.presupuesto sentencias
+ * - cabeceras X-Consultas, X-Consultas-Jdbc-Ms y X-Consultas-Repetidas con app.consultas.cabeceras=true
+ *   (desarrollo: para añadirlas la respuesta se guarda en memoria hasta el final)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class FiltroConsultas extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int presupuesto;
+    private final int umbralRepeticion;
+    private final boolean cabeceras;
+
+    public FiltroConsultas(MeterRegistry meterRegistry,
+                           @Value("${app.consultas.presupuesto:20}") int presupuesto,
+                           @Value("${app.consultas.umbral-repeticion:3}") int umbralRepeticion,
+                           @Value("${app.consultas.cabeceras:false}") boolean cabeceras) {
+        this.meterRegistry = meterRegistry;
+        this.presupuesto = presupuesto;
+        this.umbralRepeticion = umbralRepeticion;
+        this.cabeceras = cabeceras;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper respuesta = cabeceras ? new ContentCachingResponseWrapper(response) : null;
+        ConsultasPorPeticion.Registro registro = ConsultasPorPeticion.iniciar();
+        ConsultasPorPeticion.Resumen resumen;
+        try {
+            chain.doFilter(request, respuesta != null ? respuesta : response);
+        } finally {
+            resumen = ConsultasPorPeticion.terminar(registro,
+                    request.getMethod() + " " + request.getRequestURI(), umbralRepeticion);
+            publicar(request, resumen);
+        }
+
+        if (respuesta != null) {
+            respuesta.setHeader("X-Consultas", String.valueOf(resumen.sentencias()));
+            respuesta.setHeader("X-Consultas-Jdbc-Ms", String.valueOf(resumen.milisegundosJdbc()));
+            respuesta.setHeader("X-Consultas-Repetidas", String.valueOf(resumen.repetidas().size()));
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    private void publicar(HttpServletRequest request, ConsultasPorPeticion.Resumen resumen) {
+        // Patrón de la ruta y no la URI real, para no crear una serie por id
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("http.consultas")
+                .description("Sentencias SQL por petición HTTP")
+                .tags("uri", uri, "method", request.getMethod())
+                .register(meterRegistry)
+                .record(resumen.sentencias());
+        Timer.builder("http.consultas.jdbc")
+                .description("Tiempo JDBC por petición HTTP")
+                .tags("uri", uri, "method", request.getMethod())
+                .register(meterRegistry)
+                .record(resumen.milisegundosJdbc(), TimeUnit.MILLISECONDS);
+        if (!resumen.repetidas().isEmpty()) {
+            meterRegistry.counter("http.consultas.repetidas", "uri", uri, "method", request.getMethod()).increment();
+        }
+
+        if (resumen.sentencias() > presupuesto) {
+            log.warn("{}: {} sentencias SQL (presupuesto {}), {} ms de JDBC. Repetidas: {}", resumen.peticion(),
+                    resumen.sentencias(), presupuesto, resumen.milisegundosJdbc(), describir(resumen.repetidas()));
+        }
+    }
+
+    private static String describir(Map<String, Integer> repetidas) {
+        if (repetidas.isEmpty()) {
+            return "ninguna";
+        }
+        StringBuilder texto = new StringBuilder();
+        repetidas.entrySet().stream().limit(3).forEach(e -> {
+            String sql = e.getKey().length() > 120 ? e.getKey().substring(0, 120) + "..." : e.getKey();
+            texto.append(System.lineSeparator()).append("  ").append(e.getValue()).append("x ").append(sql);
+        });
+        return texto.toString();
+    }
+}
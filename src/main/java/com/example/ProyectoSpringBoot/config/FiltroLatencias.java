@@ -0,0 +1,44 @@
+package com.example.ProyectoSpringBoot.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mide cada petición de principio a fin (primer filtro de la cadena) y la graba en LatenciasRutas
+ * por patrón de ruta, método y clase de estado. Una excepción que sale de la cadena cuenta como 5xx.
+ * Las peticiones asíncronas no se miden: el hilo vuelve antes de que haya respuesta
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class FiltroLatencias extends OncePerRequestFilter {
+
+    private final LatenciasRutas latencias;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        boolean fallo = true;
+        try {
+            chain.doFilter(request, response);
+            fallo = false;
+        } finally {
+            if (!request.isAsyncStarted()) {
+                Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                latencias.registrar(patron != null ? patron.toString() : LatenciasRutas.SIN_RUTA,
+                        request.getMethod(), fallo ? 500 : response.getStatus(), System.nanoTime() - inicio);
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.service.ImpuestoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Carga de datos sintéticos a escala de producción: usuarios con perfil y método de pago,
+ * una suscripción por usuario y su historial de facturas, con la mezcla de países y
+ * estados de una noche de facturación real (1/30 de las activas vence cada día).
+ *
+ * Inserta con JDBC por lotes, sin Hibernate ni Envers (las tablas _aud no se rellenan).
+ * Los ids se asignan a partir del máximo existente, así se puede cargar sobre una BD con datos.
+ * En MySQL conviene rewriteBatchedStatements=true en la URL.
+ */
+@Slf4j
+public class GeneradorDatosSinteticos {
+
+    // País tal como lo escriben los usuarios (código, nombre o vacío) y peso relativo
+    private static final String[] PAISES = {"ES", "España", "MX", "Argentina", "CO", "Chile", "DE", "Francia",
+            "PT", "IT", "GB", "US", "Brasil", "NL", "Atlántida", ""};
+    private static final int[] PESOS_PAISES = {30, 8, 8, 4, 4, 3, 9, 7, 5, 5, 5, 8, 2, 2, 1, 3};
+
+    private static final String[] NOMBRES = {"Ana", "Luis", "María", "Carlos", "Lucía", "Javier", "Sofía", "Pablo"};
+    private static final String[] APELLIDOS = {"García", "López", "Martínez", "Sánchez", "Pérez", "Gómez", "Ruiz"};
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ImpuestoService impuestoService;
+    private final String hashContrasena;
+    private final Random random;
+    private final int tamanoLote;
+    private final int totalPesos;
+
+    /**
+     * @param hashContrasena Hash ya calculado que comparten todos los usuarios (BCrypt por usuario sería inviable)
+     */
+    public GeneradorDatosSinteticos(DataSource dataSource, ImpuestoService impuestoService, String hashContrasena,
+                                    long semilla, int tamanoLote) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.impuestoService = impuestoService;
+        this.hashContrasena = hashContrasena;
+        this.random = new Random(semilla);
+        this.tamanoLote = tamanoLote;
+        int suma = 0;
+        for (int peso : PESOS_PAISES) {
+            suma += peso;
+        }
+        this.totalPesos = suma;
+    }
+
+    /**
+     * Genera el número de suscripciones indicado (y un usuario por suscripción)
+     * @param mesesHistorial Máximo de facturas anteriores por suscripción
+     */
+    public Resumen generar(int suscripciones, int mesesHistorial) {
+        long inicio = System.nanoTime();
+        List<PlanPrecio> planes = jdbc.query("SELECT id, precio_mensual FROM planes WHERE activo = true ORDER BY id",
+                (rs, i) -> new PlanPrecio(rs.getLong(1), rs.getBigDecimal(2)));
+        if (planes.isEmpty()) {
+            throw new IllegalStateException("No hay planes activos: DataInitializer debe ejecutarse antes");
+        }
+
+        Ids ids = new Ids(maxId("usuarios"), maxId("perfiles"), maxId("metodos_pago"), maxId("suscripciones"), maxId("facturas"));
+        long usuarioInicial = ids.usuario + 1;
+        LocalDate hoy = LocalDate.now();
+        LocalDate emisionMasAntigua = hoy;
+        int facturas = 0;
+
+        for (int desde = 0; desde < suscripciones; desde += tamanoLote) {
+            Lote lote = new Lote();
+            for (int i = desde; i < Math.min(suscripciones, desde + tamanoLote); i++) {
+                LocalDate emision = generarUsuario(lote, ids, planes.get(elegir(planes.size())), hoy, mesesHistorial);
+                if (emision != null && emision.isBefore(emisionMasAntigua)) {
+                    emisionMasAntigua = emision;
+                }
+            }
+            transactionTemplate.executeWithoutResult(estado -> insertar(lote));
+            facturas += lote.facturas.size();
+            log.debug("Datos sintéticos: {} de {} suscripciones", Math.min(suscripciones, desde + tamanoLote), suscripciones);
+        }
+        ajustarIdentidades();
+
+        Resumen resumen = new Resumen(suscripciones, facturas, usuarioInicial, ids.usuario,
+                YearMonth.from(emisionMasAntigua), YearMonth.from(hoy), Duration.ofNanos(System.nanoTime() - inicio));
+        log.info("Datos sintéticos cargados: {}", resumen);
+        return resumen;
+    }
+
+    // Devuelve la emisión de su factura más antigua, o null si aún no tiene facturas
+    private LocalDate generarUsuario(Lote lote, Ids ids, PlanPrecio plan, LocalDate hoy, int mesesHistorial) {
+        LocalDateTime ahora = LocalDateTime.now();
+        long usuarioId = ++ids.usuario;
+        long metodoPagoId = ++ids.metodoPago;
+        long suscripcionId = ++ids.suscripcion;
+        String nombre = NOMBRES[random.nextInt(NOMBRES.length)];
+        String apellidos = APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+        String pais = paisAleatorio();
+
+        lote.usuarios.add(new Object[]{usuarioId, "sintetico-" + usuarioId + "@example.com", hashContrasena,
+                true, random.nextInt(10) < 8, "USER", ahora});
+        lote.perfiles.add(new Object[]{++ids.perfil, nombre, apellidos, "6" + (10_000_000 + random.nextInt(89_999_999)),
+                pais.isEmpty() ? null : pais, ahora, usuarioId});
+        lote.metodosPago.add(metodoPago(metodoPagoId, usuarioId, nombre + " " + apellidos, ahora));
+
+        // Alta en los últimos dos años; cobros cada 30 días desde el alta
+        LocalDate fechaInicio = hoy.minusDays(random.nextInt(730));
+        long dias = ChronoUnit.DAYS.between(fechaInicio, hoy);
+        int ciclos = dias == 0 ? 0 : (int) ((dias - 1) / 30);
+        LocalDate proximoCobro = fechaInicio.plusDays(30L * (ciclos + 1));
+
+        EstadoSuscripcion estado = estadoAleatorio();
+        boolean renovacion = switch (estado) {
+            case ACTIVA -> random.nextInt(10) != 0;
+            case MOROSA, SUSPENDIDA -> true;
+            default -> false;
+        };
+        LocalDate fechaFin = switch (estado) {
+            case CANCELADA -> proximoCobro;
+            case EXPIRADA -> hoy.minusDays(1 + random.nextInt(60));
+            default -> null;
+        };
+        lote.suscripciones.add(new Object[]{suscripcionId, 0L, fechaInicio, fechaFin, proximoCobro, estado.name(),
+                renovacion,
+                plan.precio(), estado == EstadoSuscripcion.CANCELADA ? ahora.minusDays(random.nextInt(30)) : null,
+                estado == EstadoSuscripcion.CANCELADA ? "Baja sintética" : null, ahora, "sintetico", usuarioId, plan.id()});
+
+        // Historial: una factura por ciclo cumplido, las más recientes
+        String paisIso = impuestoService.normalizarPais(pais);
+        BigDecimal tasa = impuestoService.obtenerTasaImpuesto(pais);
+        BigDecimal impuestos = impuestoService.calcularImpuesto(plan.precio(), pais);
+        String regla = impuestoService.regla(paisIso, tasa);
+        LocalDate primera = null;
+        for (int ciclo = Math.max(1, ciclos - mesesHistorial + 1); ciclo <= ciclos; ciclo++) {
+            LocalDate emision = fechaInicio.plusDays(30L * ciclo);
+            boolean ultima = ciclo == ciclos;
+            EstadoFactura estadoFactura = !ultima ? EstadoFactura.PAGADA : switch (estado) {
+                case MOROSA, SUSPENDIDA -> EstadoFactura.VENCIDA;
+                case ACTIVA -> random.nextInt(100) < 8 ? EstadoFactura.PENDIENTE : EstadoFactura.PAGADA;
+                default -> EstadoFactura.PAGADA;
+            };
+            long facturaId = ++ids.factura;
+            lote.facturas.add(new Object[]{facturaId, 0L, "SIN-" + facturaId, emision, emision.plusDays(15),
+                    estadoFactura == EstadoFactura.PAGADA ? emision.atTime(9, 0).plusDays(random.nextInt(10)) : null,
+                    plan.precio(), tasa, impuestos, plan.precio().add(impuestos), estadoFactura.name(),
+                    "Suscripción mensual (sintética)", false, paisIso, regla, ahora, suscripcionId,
+                    estadoFactura == EstadoFactura.PAGADA ? metodoPagoId : null});
+            if (primera == null) {
+                primera = emision;
+            }
+        }
+        return primera;
+    }
+
+    private Object[] metodoPago(long id, long usuarioId, String titular, LocalDateTime ahora) {
+        int tipo = random.nextInt(100);
+        if (tipo < 60) {
+            return new Object[]{id, "TARJETA_CREDITO", "Tarjeta", true, true, ahora, usuarioId,
+                    titular, "************" + (1000 + random.nextInt(9000)), 1 + random.nextInt(12),
+                    LocalDate.now().getYear() + 1 + random.nextInt(4), random.nextBoolean() ? "VISA" : "MASTERCARD",
+                    null, null, null, null, null, null, null};
+        }
+        if (tipo < 85) {
+            return new Object[]{id, "PAYPAL", "PayPal", true, true, ahora, usuarioId,
+                    null, null, null, null, null,
+                    "paypal-" + usuarioId + "@example.com", "PP-" + usuarioId, true, null, null, null, null};
+        }
+        return new Object[]{id, "TRANSFERENCIA", "Transferencia", true, true, ahora, usuarioId,
+                titular, null, null, null, null, null, null, null,
+                "Banco Sintético", "ES91" + (1_000_000_000L + random.nextInt(999_999_999)) + "0000000000", "SINTESXX", "ES"};
+    }
+
+    private void insertar(Lote lote) {
+        jdbc.batchUpdate("INSERT INTO usuarios (id, email, password, activo, email_verificado, rol, fecha_creacion) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", lote.usuarios);
+        jdbc.batchUpdate("INSERT INTO perfiles (id, nombre, apellidos, telefono, pais, fecha_creacion, usuario_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", lote.perfiles);
+        jdbc.batchUpdate("INSERT INTO metodos_pago (id, tipo_metodo, alias, es_predeterminado, activo, fecha_creacion, usuario_id, " +
+                "nombre_titular, numero_tarjeta, mes_expiracion, anio_expiracion, marca_tarjeta, " +
+                "email_paypal, paypal_id, cuenta_verificada, nombre_banco, iban, codigo_swift, pais_banco) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", lote.metodosPago);
+        jdbc.batchUpdate("INSERT INTO suscripciones (id, version, fecha_inicio, fecha_fin, fecha_proximo_cobro, estado, " +
+                "renovacion_automatica, precio_actual, fecha_cancelacion, motivo_cancelacion, fecha_creacion, creado_por, " +
+                "usuario_id, plan_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", lote.suscripciones);
+        jdbc.batchUpdate("INSERT INTO facturas (id, version, numero_factura, fecha_emision, fecha_vencimiento, fecha_pago, " +
+                "subtotal, porcentaje_impuestos, monto_impuestos, total, estado, concepto, es_prorrateo, " +
+                "pais_facturacion, regla_impuesto, fecha_creacion, suscripcion_id, metodo_pago_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", lote.facturas);
+    }
+
+    // H2 no avanza la identidad al insertar ids explícitos; MySQL ajusta AUTO_INCREMENT solo
+    private void ajustarIdentidades() {
+        String producto = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(producto)) {
+            return;
+        }
+        for (String tabla : List.of("usuarios", "perfiles", "metodos_pago", "suscripciones", "facturas")) {
+            jdbc.execute("ALTER TABLE " + tabla + " ALTER COLUMN id RESTART WITH " + (maxId(tabla) + 1));
+        }
+    }
+
+    private long maxId(String tabla) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+        return max != null ? max : 0;
+    }
+
+    private String paisAleatorio() {
+        int valor = random.nextInt(totalPesos);
+        for (int i = 0; i < PAISES.length; i++) {
+            valor -= PESOS_PAISES[i];
+            if (valor < 0) {
+                return PAISES[i];
+            }
+        }
+        return PAISES[0];
+    }
+
+    private EstadoSuscripcion estadoAleatorio() {
+        int valor = random.nextInt(100);
+        if (valor < 80) return EstadoSuscripcion.ACTIVA;
+        if (valor < 85) return EstadoSuscripcion.MOROSA;
+        if (valor < 88) return EstadoSuscripcion.SUSPENDIDA;
+        if (valor < 96) return EstadoSuscripcion.CANCELADA;
+        return EstadoSuscripcion.EXPIRADA;
+    }
+
+    // Planes más baratos más frecuentes: 60% / 30% / 10% con tres planes
+    private int elegir(int planes) {
+        int valor = random.nextInt(10);
+        return Math.min(planes - 1, valor < 6 ? 0 : valor < 9 ? 1 : 2);
+    }
+
+    private record PlanPrecio(long id, BigDecimal precio) {}
+
+    // Último id usado por tabla
+    private static final class Ids {
+        private long usuario;
+        private long perfil;
+        private long metodoPago;
+        private long suscripcion;
+        private long factura;
+
+        private Ids(long usuario, long perfil, long metodoPago, long suscripcion, long factura) {
+            this.usuario = usuario;
+            this.perfil = perfil;
+            this.metodoPago = metodoPago;
+            this.suscripcion = suscripcion;
+            this.factura = factura;
+        }
+    }
+
+    private static final class Lote {
+        private final List<Object[]> usuarios = new ArrayList<>();
+        private final List<Object[]> perfiles = new ArrayList<>();
+        private final List<Object[]> metodosPago = new ArrayList<>();
+        private final List<Object[]> suscripciones = new ArrayList<>();
+        private final List<Object[]> facturas = new ArrayList<>();
+    }
+
+    /**
+     * Resultado de una carga
+     * @param primerUsuarioId Primer id de usuario generado (los ids son consecutivos hasta ultimoUsuarioId)
+     * @param desde Mes de la factura más antigua, para reconstruir el resumen mensual
+     */
+    public record Resumen(int suscripciones, int facturas, long primerUsuarioId, long ultimoUsuarioId,
+                          YearMonth desde, YearMonth hasta, Duration duracion) {}
+}
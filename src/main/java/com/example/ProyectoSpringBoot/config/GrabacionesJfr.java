@@ -0,0 +1,233 @@
+package com.example.ProyectoSpringBoot.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Una grabación JFR bajo demanda, para la noche de facturación sin reiniciar con -XX:StartFlightRecording.
+ * La configuración "facturacion" es jfr/facturacion.jfc encima del perfil "profile" del JDK;
+ * también valen "default" y "profile" tal cual.
+ *
+ * Los volcados van a app.jfr.directorio, donde se guardan los app.jfr.max-volcados más recientes (cada volcado
+ * nuevo borra los más antiguos). La grabación se para sola tras app.jfr.duracion-maxima-minutos
+ * (con un último volcado) y no ocupa más de app.jfr.tamano-maximo-mb en disco.
+ */
+@Component
+@Slf4j
+public class GrabacionesJfr {
+
+    static final String FACTURACION = "facturacion";
+    private static final DateTimeFormatter FORMATO_ARCHIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directorio;
+    private final Duration duracionMaxima;
+    private final long tamanoMaximo;
+    private final int maxVolcados;
+
+    // Protegidos por this
+    private Recording grabacion;
+    private String configuracion;
+
+    public GrabacionesJfr(@Value("${app.jfr.directorio:${java.io.tmpdir}/jfr}") String directorio,
+                          @Value("${app.jfr.duracion-maxima-minutos:240}") long duracionMaximaMinutos,
+                          @Value("${app.jfr.tamano-maximo-mb:512}") long tamanoMaximoMb,
+                          @Value("${app.jfr.max-volcados:10}") int maxVolcados) {
+        this.directorio = Path.of(directorio);
+        this.duracionMaxima = Duration.ofMinutes(duracionMaximaMinutos);
+        this.tamanoMaximo = tamanoMaximoMb * 1024 * 1024;
+        this.maxVolcados = Math.max(1, maxVolcados);
+    }
+
+    /**
+     * Empieza una grabación
+     * @param configuracion facturacion (null), profile o default
+     * @param minutos Duración, como mucho app.jfr.duracion-maxima-minutos (null para el máximo)
+     * @throws IllegalStateException si ya hay una grabación en curso
+     * @throws IllegalArgumentException si la configuración no existe
+     */
+    public synchronized Estado iniciar(String configuracion, Integer minutos) {
+        if (enCurso()) {
+            throw new IllegalStateException("Ya hay una grabación JFR en curso: " + grabacion.getName());
+        }
+        if (grabacion != null) {
+            // La anterior se paró sola por duración
+            grabacion.close();
+        }
+        String nombre = configuracion != null ? configuracion : FACTURACION;
+        Duration duracion = minutos != null && minutos > 0 && Duration.ofMinutes(minutos).compareTo(duracionMaxima) < 0
+                ? Duration.ofMinutes(minutos) : duracionMaxima;
+
+        Recording nueva = new Recording(ajustes(nombre));
+        nueva.setName(nombre + "-" + LocalDateTime.now().format(FORMATO_ARCHIVO));
+        nueva.setToDisk(true);
+        nueva.setMaxSize(tamanoMaximo);
+        nueva.setDuration(duracion);
+        try {
+            Files.createDirectories(directorio);
+            // Si se para sola por duración, el último tramo queda aquí
+            nueva.setDestination(directorio.resolve(nueva.getName() + "-final.jfr"));
+        } catch (IOException e) {
+            nueva.close();
+            throw new UncheckedIOException(e);
+        }
+        nueva.start();
+        grabacion = nueva;
+        this.configuracion = nombre;
+        log.info("Grabación JFR {} iniciada ({}, como mucho {} min)", nueva.getName(), nombre, duracion.toMinutes());
+        return estado();
+    }
+
+    /**
+     * Copia a disco lo grabado hasta ahora, sin parar la grabación
+     * @throws IllegalStateException si no hay grabación en curso
+     */
+    public synchronized Volcado volcar() {
+        if (!enCurso()) {
+            throw new IllegalStateException("No hay ninguna grabación JFR en curso");
+        }
+        return volcar(grabacion, grabacion.getName() + "-" + LocalDateTime.now().format(FORMATO_ARCHIVO) + ".jfr");
+    }
+
+    /**
+     * Para la grabación en curso con un último volcado
+     * @throws IllegalStateException si no hay grabación en curso
+     */
+    public synchronized Volcado detener() {
+        if (!enCurso()) {
+            throw new IllegalStateException("No hay ninguna grabación JFR en curso");
+        }
+        try {
+            // stop() escribe lo grabado en el destino que se fijó al iniciar
+            grabacion.stop();
+            Volcado volcado = volcado(grabacion.getDestination());
+            podar();
+            log.info("Grabación JFR {} detenida: {}", grabacion.getName(), volcado.archivo());
+            return volcado;
+        } finally {
+            grabacion.close();
+            grabacion = null;
+        }
+    }
+
+    public synchronized Estado estado() {
+        List<Volcado> volcados;
+        try (Stream<Path> archivos = Files.exists(directorio) ? Files.list(directorio) : Stream.empty()) {
+            volcados = archivos.filter(a -> a.toString().endsWith(".jfr"))
+                    .sorted()
+                    .map(GrabacionesJfr::volcado)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!enCurso()) {
+            return new Estado(false, null, null, null, null, 0, volcados);
+        }
+        return new Estado(true, grabacion.getName(), configuracion,
+                LocalDateTime.ofInstant(grabacion.getStartTime(), ZoneId.systemDefault()),
+                grabacion.getDuration(), grabacion.getSize(), volcados);
+    }
+
+    private boolean enCurso() {
+        return grabacion != null && grabacion.getState() == RecordingState.RUNNING;
+    }
+
+    private Volcado volcar(Recording recording, String archivo) {
+        try {
+            Files.createDirectories(directorio);
+            Path destino = directorio.resolve(archivo);
+            recording.dump(destino);
+            Volcado volcado = volcado(destino);
+            podar();
+            return volcado;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Borra los volcados más antiguos por encima de maxVolcados (el recién escrito es el más reciente).
+    // El destino de la grabación en curso no cuenta: JFR lo crea vacío al iniciar y lo escribe al parar
+    private void podar() {
+        Path enCurso = enCurso() ? grabacion.getDestination() : null;
+        List<Path> antiguos;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            antiguos = archivos.filter(a -> a.toString().endsWith(".jfr") && !a.equals(enCurso))
+                    .sorted(Comparator.comparing(GrabacionesJfr::modificado).reversed())
+                    .skip(maxVolcados)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Path antiguo : antiguos) {
+            try {
+                Files.deleteIfExists(antiguo);
+                log.info("Volcado JFR {} borrado (se guardan {})", antiguo.getFileName(), maxVolcados);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el volcado JFR {}: {}", antiguo, e.getMessage());
+            }
+        }
+    }
+
+    private static FileTime modificado(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Volcado volcado(Path archivo) {
+        try {
+            return new Volcado(archivo.toAbsolutePath().toString(), Files.size(archivo));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<String, String> ajustes(String nombre) {
+        try {
+            if (!FACTURACION.equals(nombre)) {
+                return Configuration.getConfiguration(nombre).getSettings();
+            }
+            Map<String, String> ajustes = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+            try (Reader jfc = new InputStreamReader(
+                    new ClassPathResource("jfr/facturacion.jfc").getInputStream(), StandardCharsets.UTF_8)) {
+                ajustes.putAll(Configuration.create(jfc).getSettings());
+            }
+            return ajustes;
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Configuración JFR no válida: " + nombre, e);
+        }
+    }
+
+    /**
+     * Grabación en curso (si la hay) y volcados que hay en el directorio
+     */
+    public record Estado(boolean activa, String nombre, String configuracion, LocalDateTime inicio,
+                         Duration duracion, long bytes, List<Volcado> volcados) {}
+
+    public record Volcado(String archivo, long bytes) {}
+}
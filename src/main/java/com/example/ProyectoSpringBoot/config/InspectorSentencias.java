@@ -0,0 +1,15 @@
+package com.example.ProyectoSpringBoot.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Anota en ConsultasPorPeticion cada sentencia que Hibernate va a preparar; no la modifica
+ */
+public class InspectorSentencias implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        ConsultasPorPeticion.sentencia(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.config.GrabacionesJfr.Estado;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Grabación JFR bajo demanda:
+ * - GET /actuator/jfr: grabación en curso y volcados
+ * - POST /actuator/jfr/iniciar {"configuracion": "facturacion", "minutos": 240}: ambos opcionales
+ * - POST /actuator/jfr/volcar y /actuator/jfr/detener: escriben un .jfr en app.jfr.directorio
+ * Solo desde la propia máquina (SecurityConfig)
+ */
+@Component
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+
+    private final GrabacionesJfr grabaciones;
+
+    @ReadOperation
+    public Estado estado() {
+        return grabaciones.estado();
+    }
+
+    @WriteOperation
+    public Object accion(@Selector String accion, @Nullable String configuracion, @Nullable Integer minutos) {
+        try {
+            return switch (accion) {
+                case "iniciar" -> grabaciones.iniciar(configuracion, minutos);
+                case "volcar" -> grabaciones.volcar();
+                case "detener" -> grabaciones.detener();
+                default -> throw new InvalidEndpointRequestException("Acción desconocida: " + accion,
+                        "Acciones: iniciar, volcar, detener");
+            };
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
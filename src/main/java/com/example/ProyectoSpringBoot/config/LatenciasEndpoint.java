@@ -0,0 +1,31 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.config.LatenciasRutas.Percentiles;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Percentiles de latencia por ruta REST: /actuator/latencias y /actuator/latencias/api/facturas/buscar
+ */
+@Component
+@Endpoint(id = "latencias")
+@RequiredArgsConstructor
+public class LatenciasEndpoint {
+
+    private final LatenciasRutas latencias;
+
+    @ReadOperation
+    public List<Percentiles> percentiles() {
+        return latencias.percentiles(null);
+    }
+
+    @ReadOperation
+    public List<Percentiles> percentilesRuta(@Selector(match = Selector.Match.ALL_REMAINING) String[] ruta) {
+        return latencias.percentiles("/" + String.join("/", ruta));
+    }
+}
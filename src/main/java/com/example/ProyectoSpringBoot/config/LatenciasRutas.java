@@ -0,0 +1,223 @@
+package com.example.ProyectoSpringBoot.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Latencia de cada ruta REST (patrón de la ruta, método y clase de estado) en histogramas HDR
+ * con ventana deslizante. Lo alimenta FiltroLatencias.
+ *
+ * En la petición solo se busca la serie y se graba el valor en un Recorder (sin bloqueos ni objetos nuevos).
+ * Cada app.latencias.intervalo-ms se cierra el intervalo de cada serie, se descarta el más antiguo de los
+ * app.latencias.intervalos que forman la ventana y se calculan los percentiles; /actuator/latencias y
+ * las métricas http.latencia leen ese último cálculo.
+ */
+@Component
+public class LatenciasRutas {
+
+    static final String SIN_RUTA = "UNKNOWN";
+
+    private static final String[] METODOS = {"GET", "POST", "PUT", "PATCH", "DELETE", "OTRO"};
+    private static final String[] CLASES_ESTADO = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final ConcurrentHashMap<String, Ruta> rutas = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int intervalos;
+    private final long maximoMicros;
+    private final int digitos;
+
+    public LatenciasRutas(MeterRegistry meterRegistry,
+                          @Value("${app.latencias.intervalos:6}") int intervalos,
+                          @Value("${app.latencias.maximo-ms:60000}") long maximoMs,
+                          @Value("${app.latencias.digitos:2}") int digitos) {
+        this.meterRegistry = meterRegistry;
+        this.intervalos = intervalos;
+        this.maximoMicros = TimeUnit.MILLISECONDS.toMicros(maximoMs);
+        this.digitos = digitos;
+    }
+
+    /**
+     * Graba una petición terminada. Las latencias por encima del máximo cuentan como el máximo
+     * @param ruta Patrón de la ruta (/api/facturas/{id}), nunca la URI real
+     */
+    public void registrar(String ruta, String metodo, int estado, long nanos) {
+        Ruta serieRuta = rutas.get(ruta);
+        if (serieRuta == null) {
+            serieRuta = rutas.computeIfAbsent(ruta, Ruta::new);
+        }
+        int indice = indiceMetodo(metodo) * CLASES_ESTADO.length + indiceClase(estado);
+        Ventana ventana = serieRuta.ventanas.get(indice);
+        if (ventana == null) {
+            ventana = crear(serieRuta, indice);
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        ventana.recorder.recordValue(micros < 1 ? 1 : Math.min(micros, maximoMicros));
+    }
+
+    /**
+     * Cierra el intervalo en curso de todas las series y recalcula sus percentiles
+     */
+    @Scheduled(fixedRateString = "${app.latencias.intervalo-ms:10000}",
+            initialDelayString = "${app.latencias.intervalo-ms:10000}")
+    public synchronized void rotar() {
+        rutas.values().forEach(ruta -> {
+            for (int i = 0; i < ruta.ventanas.length(); i++) {
+                Ventana ventana = ruta.ventanas.get(i);
+                if (ventana != null) {
+                    ventana.rotar();
+                }
+            }
+        });
+    }
+
+    /**
+     * Percentiles de la última ventana cerrada, de mayor a menor p99. Sin las series que no tuvieron peticiones
+     * @param ruta Solo esa ruta, o todas con null
+     */
+    public List<Percentiles> percentiles(String ruta) {
+        List<Percentiles> resultado = new ArrayList<>();
+        rutas.values().stream()
+                .filter(r -> ruta == null || r.ruta.equals(ruta))
+                .forEach(r -> {
+                    for (int i = 0; i < r.ventanas.length(); i++) {
+                        Ventana ventana = r.ventanas.get(i);
+                        if (ventana != null && ventana.ultimos.peticiones() > 0) {
+                            resultado.add(ventana.ultimos);
+                        }
+                    }
+                });
+        resultado.sort(Comparator.comparingDouble(Percentiles::p99Ms).reversed());
+        return resultado;
+    }
+
+    // Solo la primera petición de cada serie pasa por aquí
+    private synchronized Ventana crear(Ruta ruta, int indice) {
+        Ventana existente = ruta.ventanas.get(indice);
+        if (existente != null) {
+            return existente;
+        }
+        String metodo = METODOS[indice / CLASES_ESTADO.length];
+        String estado = CLASES_ESTADO[indice % CLASES_ESTADO.length];
+        Ventana ventana = new Ventana(ruta.ruta, metodo, estado);
+        Tags tags = Tags.of("uri", ruta.ruta, "method", metodo, "status", estado);
+        medidor(ventana, tags, "0.5", Percentiles::p50Ms);
+        medidor(ventana, tags, "0.9", Percentiles::p90Ms);
+        medidor(ventana, tags, "0.99", Percentiles::p99Ms);
+        medidor(ventana, tags, "0.999", Percentiles::p999Ms);
+        medidor(ventana, tags, "max", Percentiles::maxMs);
+        Gauge.builder("http.latencia.peticiones", ventana, v -> v.ultimos.peticiones())
+                .description("Peticiones en la última ventana de latencias")
+                .tags(tags)
+                .register(meterRegistry);
+        ruta.ventanas.set(indice, ventana);
+        return ventana;
+    }
+
+    private void medidor(Ventana ventana, Tags tags, String percentil, ToDoubleFunction<Percentiles> valor) {
+        Gauge.builder("http.latencia", ventana, v -> valor.applyAsDouble(v.ultimos))
+                .description("Percentil de latencia en la última ventana")
+                .baseUnit(BaseUnits.MILLISECONDS)
+                .tags(tags)
+                .tag("percentil", percentil)
+                .register(meterRegistry);
+    }
+
+    private static int indiceMetodo(String metodo) {
+        return switch (metodo) {
+            case "GET" -> 0;
+            case "POST" -> 1;
+            case "PUT" -> 2;
+            case "PATCH" -> 3;
+            case "DELETE" -> 4;
+            default -> 5;
+        };
+    }
+
+    private static int indiceClase(int estado) {
+        return Math.min(Math.max(estado / 100, 1), 5) - 1;
+    }
+
+    private final class Ruta {
+
+        private final String ruta;
+        private final AtomicReferenceArray<Ventana> ventanas =
+                new AtomicReferenceArray<>(METODOS.length * CLASES_ESTADO.length);
+
+        private Ruta(String ruta) {
+            this.ruta = ruta;
+        }
+    }
+
+    /**
+     * Una serie: el Recorder donde graban las peticiones y los últimos intervalos cerrados.
+     * rotar() solo se llama desde LatenciasRutas.rotar(), de uno en uno
+     */
+    private final class Ventana {
+
+        private final String ruta;
+        private final String metodo;
+        private final String estado;
+        private final Recorder recorder;
+        private final Histogram[] cerrados;
+        private final Histogram acumulado;
+        private Histogram reciclable;
+        private int siguiente;
+        private volatile Percentiles ultimos;
+
+        private Ventana(String ruta, String metodo, String estado) {
+            this.ruta = ruta;
+            this.metodo = metodo;
+            this.estado = estado;
+            this.recorder = new Recorder(1, maximoMicros, digitos);
+            this.cerrados = new Histogram[intervalos];
+            this.acumulado = new Histogram(1, maximoMicros, digitos);
+            this.ultimos = new Percentiles(ruta, metodo, estado, 0, 0, 0, 0, 0, 0);
+        }
+
+        private void rotar() {
+            // El histograma que sale de la ventana se reutiliza para el próximo intervalo
+            Histogram intervalo = recorder.getIntervalHistogram(reciclable);
+            reciclable = cerrados[siguiente];
+            cerrados[siguiente] = intervalo;
+            siguiente = (siguiente + 1) % cerrados.length;
+
+            acumulado.reset();
+            for (Histogram cerrado : cerrados) {
+                if (cerrado != null) {
+                    acumulado.add(cerrado);
+                }
+            }
+            ultimos = new Percentiles(ruta, metodo, estado, acumulado.getTotalCount(),
+                    milisegundos(acumulado.getValueAtPercentile(50)),
+                    milisegundos(acumulado.getValueAtPercentile(90)),
+                    milisegundos(acumulado.getValueAtPercentile(99)),
+                    milisegundos(acumulado.getValueAtPercentile(99.9)),
+                    milisegundos(acumulado.getMaxValue()));
+        }
+
+        private static double milisegundos(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    /**
+     * Percentiles de una serie en la última ventana, en milisegundos (precisión según app.latencias.digitos)
+     */
+    public record Percentiles(String ruta, String metodo, String estado, long peticiones,
+                              double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {}
+}
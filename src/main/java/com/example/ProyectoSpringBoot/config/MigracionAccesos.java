@@ -0,0 +1,53 @@
+package com.example.ProyectoSpringBoot.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copia al arrancar los últimos accesos de la antigua columna usuarios.ultimo_acceso a
+ * accesos_usuario. ddl-auto=update no borra la columna, así que se repite en cada arranque:
+ * solo inserta usuarios sin fila, y lo registrado después por RegistroAccesos no se pisa.
+ * En bases creadas después del cambio la columna no existe y no hace nada.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MigracionAccesos {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        migrar();
+    }
+
+    /**
+     * @return Filas copiadas
+     */
+    public int migrar() {
+        if (!columnaAntigua()) {
+            return 0;
+        }
+        int copiados = jdbcTemplate.update("INSERT INTO accesos_usuario (usuario_id, ultimo_acceso) " +
+                "SELECT u.id, u.ultimo_acceso FROM usuarios u WHERE u.ultimo_acceso IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM accesos_usuario a WHERE a.usuario_id = u.id)");
+        if (copiados > 0) {
+            log.info("Migrados {} últimos accesos desde usuarios.ultimo_acceso", copiados);
+        }
+        return copiados;
+    }
+
+    private boolean columnaAntigua() {
+        try {
+            jdbcTemplate.queryForList("SELECT ultimo_acceso FROM usuarios WHERE 1 = 0");
+            return true;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ProyectoSpringBoot.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pone a 0 al arrancar la columna version (@Version) de suscripciones y facturas donde es NULL.
+ * Con ddl-auto=update las filas anteriores a la columna pueden quedar a NULL, y Hibernate no
+ * puede incrementar una versión nula (save() tomaría la entidad por nueva). Idempotente.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MigracionVersiones {
+
+    private static final String[] TABLAS = {"suscripciones", "facturas"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        migrar();
+    }
+
+    /**
+     * @return Filas actualizadas
+     */
+    public int migrar() {
+        int total = 0;
+        for (String tabla : TABLAS) {
+            int filas = jdbcTemplate.update("UPDATE " + tabla + " SET version = 0 WHERE version IS NULL");
+            if (filas > 0) {
+                log.info("Inicializada la versión de {} filas de {}", filas, tabla);
+            }
+            total += filas;
+        }
+        return total;
+    }
+}
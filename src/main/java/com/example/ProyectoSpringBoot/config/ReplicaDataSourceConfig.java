@@ -0,0 +1,70 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Enrutado lectura/escritura: readOnly -> réplicas, resto -> primario
+@Configuration
+@EnableConfigurationProperties(ReplicasProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    // Pool del primario con spring.datasource.hikari.* aplicado, como el DataSource que crea Spring Boot
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties primario) {
+        HikariDataSource ds = primario.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primario");
+        return ds;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primarioDataSource, DataSourceProperties primario,
+                                 ReplicasProperties replicas) {
+        routingDataSource = crearRouting(primarioDataSource, primario, replicas);
+        routingDataSource.comprobarRetrasos();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.intervalo-comprobacion-ms:5000}")
+    public void comprobarRetrasos() {
+        if (routingDataSource != null) {
+            routingDataSource.comprobarRetrasos();
+        }
+    }
+
+    static ReplicaRoutingDataSource crearRouting(DataSource dsPrimario, DataSourceProperties primario,
+                                                 ReplicasProperties propiedades) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < propiedades.getNodos().size(); i++) {
+            ReplicasProperties.Replica nodo = propiedades.getNodos().get(i);
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("replica-" + i);
+            ds.setJdbcUrl(nodo.getUrl());
+            ds.setUsername(nodo.getUsername() != null ? nodo.getUsername() : primario.getUsername());
+            ds.setPassword(nodo.getPassword() != null ? nodo.getPassword() : primario.getPassword());
+            ds.setDriverClassName(primario.determineDriverClassName());
+            ds.setReadOnly(true);
+            // Que una réplica caída no bloquee el arranque: la comprobación la sacará de la rotación
+            ds.setInitializationFailTimeout(-1);
+            replicas.put(ds.getPoolName(), ds);
+        }
+        return new ReplicaRoutingDataSource(dsPrimario, replicas,
+                propiedades.getMaxRetrasoSegundos(), propiedades.getConsultaRetraso());
+    }
+}
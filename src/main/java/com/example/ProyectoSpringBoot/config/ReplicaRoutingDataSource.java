@@ -0,0 +1,117 @@
+package com.example.ProyectoSpringBoot.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones readOnly a las réplicas (round-robin)
+ * y el resto al primario. Una réplica caída o con demasiado retraso sale de la
+ * rotación hasta la siguiente comprobación; sin réplicas sanas se lee del primario.
+ *
+ * Debe envolverse en un LazyConnectionDataSourceProxy: el flag readOnly de la
+ * transacción solo se conoce después de que el gestor de transacciones pida la conexión.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARIO = "primario";
+
+    private final Map<String, DataSource> replicas;
+    private final long maxRetrasoSegundos;
+    private final String consultaRetraso;
+    private final AtomicInteger turno = new AtomicInteger();
+
+    // Réplicas en rotación; se sustituye entera en cada comprobación
+    private volatile List<String> replicasSanas;
+
+    public ReplicaRoutingDataSource(DataSource primario, Map<String, DataSource> replicas,
+                                    long maxRetrasoSegundos, String consultaRetraso) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxRetrasoSegundos = maxRetrasoSegundos;
+        this.consultaRetraso = consultaRetraso;
+        this.replicasSanas = List.copyOf(replicas.keySet());
+
+        Map<Object, Object> destinos = new HashMap<>(replicas);
+        destinos.put(PRIMARIO, primario);
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARIO;
+        }
+        List<String> sanas = replicasSanas;
+        if (sanas.isEmpty()) {
+            return PRIMARIO;
+        }
+        return sanas.get(Math.floorMod(turno.getAndIncrement(), sanas.size()));
+    }
+
+    /**
+     * Mide el retraso de cada réplica y recalcula la rotación
+     */
+    public void comprobarRetrasos() {
+        List<String> sanas = replicas.entrySet().stream()
+                .filter(e -> estaSana(e.getKey(), e.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (sanas.size() != replicasSanas.size()) {
+            log.info("Réplicas en rotación: {} de {}", sanas, replicas.keySet());
+        }
+        replicasSanas = sanas;
+    }
+
+    public List<String> getReplicasSanas() {
+        return replicasSanas;
+    }
+
+    private boolean estaSana(String nombre, DataSource replica) {
+        try {
+            Long retraso = medirRetraso(replica);
+            if (retraso == null) {
+                log.warn("Réplica {} sin replicación activa", nombre);
+                return false;
+            }
+            if (retraso > maxRetrasoSegundos) {
+                log.warn("Réplica {} con {}s de retraso (máximo {}s)", nombre, retraso, maxRetrasoSegundos);
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Réplica {} no disponible: {}", nombre, e.getMessage());
+            return false;
+        }
+    }
+
+    private Long medirRetraso(DataSource replica) throws Exception {
+        try (Connection con = replica.getConnection(); Statement st = con.createStatement()) {
+            if (consultaRetraso != null && !consultaRetraso.isBlank()) {
+                try (ResultSet rs = st.executeQuery(consultaRetraso)) {
+                    return rs.next() ? toLong(rs.getObject(1)) : null;
+                }
+            }
+            // MySQL 8.0.22+: NULL en Seconds_Behind_Source = replicación parada
+            try (ResultSet rs = st.executeQuery("SHOW REPLICA STATUS")) {
+                return rs.next() ? toLong(rs.getObject("Seconds_Behind_Source")) : null;
+            }
+        }
+    }
+
+    private static Long toLong(Object valor) {
+        return valor instanceof Number n ? n.longValue() : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ProyectoSpringBoot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de lectura (app.datasource.replicas.*).
+ * La conexión al primario sigue saliendo de spring.datasource.*
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicasProperties {
+
+    // Desactivado por defecto: sin réplicas todo va al primario
+    private boolean enabled = false;
+
+    private List<Replica> nodos = new ArrayList<>();
+
+    // Retraso máximo tolerado antes de sacar una réplica de la rotación
+    private long maxRetrasoSegundos = 30;
+
+    // Consulta que devuelve el retraso en segundos; vacía = SHOW REPLICA STATUS de MySQL
+    private String consultaRetraso;
+
+    private long intervaloComprobacionMs = 5_000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -2,12 +2,14 @@ package com.example.ProyectoSpringBoot.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 
 /**
  * Configuración de seguridad - CORS y acceso a API REST para React
@@ -16,6 +18,9 @@ import org.springframework.security.web.SecurityFilterChain;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final IpAddressMatcher LOCAL_IPV4 = new IpAddressMatcher("127.0.0.0/8");
+    private static final IpAddressMatcher LOCAL_IPV6 = new IpAddressMatcher("::1");
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -34,6 +39,10 @@ public class SecurityConfig {
             }))
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
+                // Grabaciones JFR: escriben en disco del servidor, solo desde la propia máquina
+                .requestMatchers("/actuator/jfr/**", "/actuator/jfr").access((autenticacion, contexto) ->
+                        new AuthorizationDecision(LOCAL_IPV4.matches(contexto.getRequest())
+                                || LOCAL_IPV6.matches(contexto.getRequest())))
                 .requestMatchers("/api/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
@@ -0,0 +1,46 @@
+package com.example.ProyectoSpringBoot.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Suma en ConsultasPorPeticion el tiempo de preparar y ejecutar sentencias y lotes JDBC.
+ * Hibernate crea una instancia por sesión (hibernate.session.events.auto)
+ */
+public class TiempoJdbc implements SessionEventListener {
+
+    private long inicio;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        sumar();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        sumar();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        sumar();
+    }
+
+    private void sumar() {
+        ConsultasPorPeticion.tiempoJdbc(System.nanoTime() - inicio);
+    }
+}
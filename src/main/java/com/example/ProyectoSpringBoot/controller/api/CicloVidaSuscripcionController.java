@@ -2,12 +2,11 @@ package com.example.ProyectoSpringBoot.controller.api;
 
 import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
 import com.example.ProyectoSpringBoot.service.CicloVidaSuscripcionService;
-import com.example.ProyectoSpringBoot.service.SuscripcionService;
+import com.example.ProyectoSpringBoot.service.GestorJobs;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
 
 /**
  * REST Controller para Ciclo de Vida de Suscripciones
@@ -22,7 +21,7 @@ import java.util.Map;
 public class CicloVidaSuscripcionController {
 
     private final CicloVidaSuscripcionService cicloVidaService;
-    private final SuscripcionService suscripcionService;
+    private final GestorJobs gestorJobs;
 
     /**
      * POST /api/suscripciones/ciclo-vida/{id}/cancelar - Cancelar suscripción
@@ -32,8 +31,7 @@ public class CicloVidaSuscripcionController {
             @PathVariable Long id,
             @RequestParam(required = false, defaultValue = "Sin motivo especificado") String motivo) {
         try {
-            var suscripcion = cicloVidaService.cancelarSuscripcion(id, motivo);
-            return ResponseEntity.ok(suscripcionService.toDTO(suscripcion));
+            return ResponseEntity.ok(cicloVidaService.cancelarSuscripcion(id, motivo));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -45,8 +43,7 @@ public class CicloVidaSuscripcionController {
     @PostMapping("/{id}/reactivar")
     public ResponseEntity<SuscripcionDTO> reactivarSuscripcion(@PathVariable Long id) {
         try {
-            var suscripcion = cicloVidaService.reactivarSuscripcion(id);
-            return ResponseEntity.ok(suscripcionService.toDTO(suscripcion));
+            return ResponseEntity.ok(cicloVidaService.reactivarSuscripcion(id));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(null);
         }
@@ -60,8 +57,7 @@ public class CicloVidaSuscripcionController {
             @PathVariable Long id,
             @RequestParam boolean renovacionAutomatica) {
         try {
-            var suscripcion = cicloVidaService.toggleRenovacionAutomatica(id, renovacionAutomatica);
-            return ResponseEntity.ok(suscripcionService.toDTO(suscripcion));
+            return ResponseEntity.ok(cicloVidaService.toggleRenovacionAutomatica(id, renovacionAutomatica));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -76,54 +72,38 @@ public class CicloVidaSuscripcionController {
     }
 
     /**
-     * POST /api/suscripciones/ciclo-vida/ejecutar-renovaciones - Ejecutar renovaciones manualmente
-     * Solo para administradores/pruebas
+     * POST /api/suscripciones/ciclo-vida/ejecutar-renovaciones - Lanzar renovaciones
+     * 202 con el trabajo (seguimiento en /api/jobs/{id}), o 409 si ya hay uno en cola o en curso
      */
     @PostMapping("/ejecutar-renovaciones")
-    public ResponseEntity<Map<String, Object>> ejecutarRenovaciones() {
-        int renovadas = cicloVidaService.ejecutarRenovacionesManual();
-        return ResponseEntity.ok(Map.of(
-                "mensaje", "Proceso de renovaciones completado",
-                "suscripcionesRenovadas", renovadas
-        ));
+    public ResponseEntity<GestorJobs.Trabajo> ejecutarRenovaciones() {
+        return JobRestController.aceptado(gestorJobs.enviar(GestorJobs.RENOVACIONES));
     }
 
     /**
-     * POST /api/suscripciones/ciclo-vida/ejecutar-morosos - Procesar morosos manualmente
-     * Solo para administradores/pruebas
+     * POST /api/suscripciones/ciclo-vida/ejecutar-morosos - Lanzar el proceso de morosos
+     * 202 con el trabajo (seguimiento en /api/jobs/{id}), o 409 si ya hay uno en cola o en curso
      */
     @PostMapping("/ejecutar-morosos")
-    public ResponseEntity<Map<String, Object>> ejecutarProcesoMorosos() {
-        int procesados = cicloVidaService.ejecutarProcesoMorososManual();
-        return ResponseEntity.ok(Map.of(
-                "mensaje", "Proceso de morosos completado",
-                "suscripcionesProcesadas", procesados
-        ));
+    public ResponseEntity<GestorJobs.Trabajo> ejecutarProcesoMorosos() {
+        return JobRestController.aceptado(gestorJobs.enviar(GestorJobs.MOROSOS));
     }
 
     /**
-     * POST /api/suscripciones/ciclo-vida/ejecutar-suspensiones - Procesar suspensiones manualmente
-     * Solo para administradores/pruebas
+     * POST /api/suscripciones/ciclo-vida/ejecutar-suspensiones - Lanzar el proceso de suspensiones
+     * 202 con el trabajo (seguimiento en /api/jobs/{id}), o 409 si ya hay uno en cola o en curso
      */
     @PostMapping("/ejecutar-suspensiones")
-    public ResponseEntity<Map<String, Object>> ejecutarProcesoSuspensiones() {
-        int procesados = cicloVidaService.ejecutarProcesoSuspensionesManual();
-        return ResponseEntity.ok(Map.of(
-                "mensaje", "Proceso de suspensiones completado",
-                "suscripcionesProcesadas", procesados
-        ));
+    public ResponseEntity<GestorJobs.Trabajo> ejecutarProcesoSuspensiones() {
+        return JobRestController.aceptado(gestorJobs.enviar(GestorJobs.SUSPENSIONES));
     }
 
     /**
-     * POST /api/suscripciones/ciclo-vida/ejecutar-expiraciones - Procesar expiraciones manualmente
-     * Solo para administradores/pruebas
+     * POST /api/suscripciones/ciclo-vida/ejecutar-expiraciones - Lanzar el proceso de expiraciones
+     * 202 con el trabajo (seguimiento en /api/jobs/{id}), o 409 si ya hay uno en cola o en curso
      */
     @PostMapping("/ejecutar-expiraciones")
-    public ResponseEntity<Map<String, Object>> ejecutarProcesoExpiraciones() {
-        int procesados = cicloVidaService.ejecutarProcesoExpiracionesManual();
-        return ResponseEntity.ok(Map.of(
-                "mensaje", "Proceso de expiraciones completado",
-                "suscripcionesProcesadas", procesados
-        ));
+    public ResponseEntity<GestorJobs.Trabajo> ejecutarProcesoExpiraciones() {
+        return JobRestController.aceptado(gestorJobs.enviar(GestorJobs.EXPIRACIONES));
     }
 }
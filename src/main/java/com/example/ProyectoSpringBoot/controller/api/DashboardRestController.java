@@ -0,0 +1,28 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller para el panel de administración
+ * Endpoints: /api/dashboard
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+public class DashboardRestController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * GET /api/dashboard - Estadísticas de facturación, ciclo de vida y auditoría en una sola respuesta.
+     * Si alguna sección no llega a tiempo se devuelve el resto (completo=false)
+     */
+    @GetMapping
+    public ResponseEntity<DashboardService.Panel> getPanel() {
+        return ResponseEntity.ok(dashboardService.obtener());
+    }
+}
@@ -3,18 +3,25 @@ package com.example.ProyectoSpringBoot.controller.api;
 import com.example.ProyectoSpringBoot.dto.FacturaDTO;
 import com.example.ProyectoSpringBoot.enums.EstadoFactura;
 import com.example.ProyectoSpringBoot.service.FacturaService;
-import com.example.ProyectoSpringBoot.service.FacturacionScheduledService;
+import com.example.ProyectoSpringBoot.service.GestorJobs;
+import com.example.ProyectoSpringBoot.service.LiquidacionFacturas;
+import com.example.ProyectoSpringBoot.service.RellenoPaisFacturacion;
+import com.example.ProyectoSpringBoot.service.ResumenMensualFacturas;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -29,7 +36,9 @@ import java.util.Map;
 public class FacturaRestController {
 
     private final FacturaService facturaService;
-    private final FacturacionScheduledService facturacionScheduledService;
+    private final GestorJobs gestorJobs;
+    private final LiquidacionFacturas liquidacionFacturas;
+    private final RellenoPaisFacturacion rellenoPaisFacturacion;
 
     /**
      * GET /api/facturas - Obtener todas las facturas
@@ -84,17 +93,22 @@ public class FacturaRestController {
     }
 
     /**
-     * POST /api/facturas/ejecutar-facturacion - Ejecutar facturación manual
-     * Útil para pruebas y para disparar facturación fuera del horario programado
+     * POST /api/facturas/liquidar - Liquidación masiva de pagos (remesas bancarias)
+     * Cuerpo: array JSON o NDJSON de {facturaId | numeroFactura, importe, fecha, metodo}; se lee en streaming
+     * y se aplica por lotes. Devuelve el resultado de cada pago en el orden de la entrada
+     */
+    @PostMapping(value = "/liquidar", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<LiquidacionFacturas.Liquidacion> liquidar(InputStream cuerpo) throws IOException {
+        return ResponseEntity.ok(liquidacionFacturas.liquidar(cuerpo));
+    }
+
+    /**
+     * POST /api/facturas/ejecutar-facturacion - Lanzar la facturación fuera del horario programado
+     * Devuelve 202 con el trabajo (seguimiento en /api/jobs/{id}), o 409 si ya hay una en cola o en curso
      */
     @PostMapping("/ejecutar-facturacion")
-    public ResponseEntity<Map<String, Object>> ejecutarFacturacionManual() {
-        int facturasGeneradas = facturacionScheduledService.ejecutarFacturacionManual();
-        
-        return ResponseEntity.ok(Map.of(
-                "mensaje", "Facturación ejecutada correctamente",
-                "facturasGeneradas", facturasGeneradas
-        ));
+    public ResponseEntity<GestorJobs.Trabajo> ejecutarFacturacionManual() {
+        return JobRestController.aceptado(gestorJobs.enviar(GestorJobs.FACTURACION));
     }
 
     /**
@@ -142,9 +156,10 @@ public class FacturaRestController {
 
     /**
      * GET /api/facturas/buscar - Búsqueda avanzada con múltiples filtros
+     * conTotal=false devuelve un Slice sin totalElements (sin COUNT)
      */
     @GetMapping("/buscar")
-    public ResponseEntity<Page<FacturaDTO>> buscarConFiltros(
+    public ResponseEntity<Slice<FacturaDTO>> buscarConFiltros(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
             @RequestParam(required = false) BigDecimal montoMinimo,
@@ -154,7 +169,8 @@ public class FacturaRestController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "fechaEmision") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "true") boolean conTotal) {
         
         Sort sort = sortDir.equalsIgnoreCase("asc") 
                 ? Sort.by(sortBy).ascending() 
@@ -162,7 +178,7 @@ public class FacturaRestController {
         Pageable pageable = PageRequest.of(page, size, sort);
         
         return ResponseEntity.ok(facturaService.buscarConFiltros(
-                fechaInicio, fechaFin, montoMinimo, montoMaximo, estado, usuarioId, pageable
+                fechaInicio, fechaFin, montoMinimo, montoMaximo, estado, usuarioId, pageable, conTotal
         ));
     }
 
@@ -175,11 +191,11 @@ public class FacturaRestController {
     }
 
     /**
-     * GET /api/facturas/pais/{pais} - Facturas por país del usuario
+     * GET /api/facturas/pais/{pais} - Facturas por país de facturación
      */
     @GetMapping("/pais/{pais}")
     public ResponseEntity<List<FacturaDTO>> getByPais(@PathVariable String pais) {
-        return ResponseEntity.ok(facturaService.findByPaisUsuario(pais));
+        return ResponseEntity.ok(facturaService.findByPaisFacturacion(pais));
     }
 
     // ===== ESTADÍSTICAS =====
@@ -208,8 +224,9 @@ public class FacturaRestController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin) {
         
-        BigDecimal totalFacturado = facturaService.getTotalFacturadoPorPeriodo(inicio, fin);
-        BigDecimal totalImpuestos = facturaService.getImpuestosRecaudadosPorPeriodo(inicio, fin);
+        ResumenMensualFacturas.TotalesPeriodo totales = facturaService.getTotalesPorPeriodo(inicio, fin);
+        BigDecimal totalFacturado = totales.totalFacturado();
+        BigDecimal totalImpuestos = totales.totalImpuestos();
         
         return ResponseEntity.ok(Map.of(
                 "periodo", Map.of("inicio", inicio, "fin", fin),
@@ -218,4 +235,42 @@ public class FacturaRestController {
                 "totalNeto", totalFacturado.subtract(totalImpuestos)
         ));
     }
+
+    /**
+     * POST /api/facturas/resumen-mensual/reconstruir?desde=2024-01&hasta=2024-12
+     * Recalcula los acumulados mensuales desde facturas (cargas iniciales y correcciones)
+     */
+    @PostMapping("/resumen-mensual/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruirResumenMensual(
+            @RequestParam YearMonth desde,
+            @RequestParam YearMonth hasta) {
+
+        if (hasta.isBefore(desde)) {
+            return ResponseEntity.badRequest().build();
+        }
+        int filas = facturaService.reconstruirResumenMensual(desde, hasta);
+        return ResponseEntity.ok(Map.of(
+                "mensaje", "Resumen mensual reconstruido",
+                "periodo", Map.of("desde", desde.toString(), "hasta", hasta.toString()),
+                "filas", filas
+        ));
+    }
+
+    /**
+     * POST /api/facturas/pais-facturacion/rellenar?lote=500
+     * Rellena país de facturación y regla de impuesto en facturas antiguas, por lotes
+     */
+    @PostMapping("/pais-facturacion/rellenar")
+    public ResponseEntity<Map<String, Object>> rellenarPaisFacturacion(
+            @RequestParam(defaultValue = "500") int lote) {
+
+        if (lote <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int actualizadas = rellenoPaisFacturacion.ejecutar(lote);
+        return ResponseEntity.ok(Map.of(
+                "mensaje", "Relleno de país de facturación completado",
+                "facturasActualizadas", actualizadas
+        ));
+    }
 }
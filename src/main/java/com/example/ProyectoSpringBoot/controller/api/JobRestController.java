@@ -0,0 +1,75 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.service.GestorJobs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * REST Controller para los trabajos lanzados desde la API (facturación y ciclo de vida)
+ * Endpoints: /api/jobs
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+public class JobRestController {
+
+    private final GestorJobs gestorJobs;
+
+    /**
+     * GET /api/jobs - Trabajos en cola, en curso y últimos terminados
+     */
+    @GetMapping
+    public ResponseEntity<List<GestorJobs.Trabajo>> getAll() {
+        return ResponseEntity.ok(gestorJobs.trabajos());
+    }
+
+    /**
+     * GET /api/jobs/{id} - Estado y progreso (procesados/total, ritmo y tiempo estimado)
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<GestorJobs.Trabajo> getById(@PathVariable String id) {
+        return gestorJobs.trabajo(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/jobs/{id}/resultado - Resultado del trabajo terminado; 202 con su estado si aún no ha terminado
+     */
+    @GetMapping("/{id}/resultado")
+    public ResponseEntity<?> getResultado(@PathVariable String id) {
+        return gestorJobs.trabajo(id)
+                .<ResponseEntity<?>>map(trabajo -> trabajo.estado().terminado()
+                        ? ResponseEntity.ok(trabajo.resultado() != null ? trabajo.resultado() : trabajo)
+                        : ResponseEntity.accepted().body(trabajo))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/jobs/{id}/cancelar - Cancelar: si está en curso para tras el elemento actual
+     */
+    @PostMapping("/{id}/cancelar")
+    public ResponseEntity<GestorJobs.Trabajo> cancelar(@PathVariable String id) {
+        return gestorJobs.cancelar(id)
+                .map(trabajo -> ResponseEntity.accepted().body(trabajo))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 202 con Location al trabajo, o 409 con el que ya estaba en cola o en curso
+     */
+    static ResponseEntity<GestorJobs.Trabajo> aceptado(GestorJobs.Envio envio) {
+        if (!envio.nuevo()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(envio.trabajo());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + envio.trabajo().id()))
+                .body(envio.trabajo());
+    }
+}
@@ -4,12 +4,11 @@ import com.example.ProyectoSpringBoot.dto.PlanDTO;
 import com.example.ProyectoSpringBoot.service.PlanService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * REST Controller para Planes
  * Endpoints: /api/planes
@@ -23,23 +22,28 @@ import java.util.List;
 public class PlanRestController {
 
     private final PlanService planService;
+    private final PlanesPrecalculados planesPrecalculados;
 
     /**
      * GET /api/planes - Obtener todos los planes
+     * Respuesta precalculada con ETag; If-None-Match devuelve 304
      */
     @GetMapping
-    public ResponseEntity<List<PlanDTO>> getAll() {
-        List<PlanDTO> planes = planService.findAll();
-        return ResponseEntity.ok(planes);
+    public ResponseEntity<byte[]> getAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return planesPrecalculados.todos(ifNoneMatch, acceptEncoding);
     }
 
     /**
      * GET /api/planes/activos - Obtener solo planes activos
+     * Respuesta precalculada con ETag; If-None-Match devuelve 304
      */
     @GetMapping("/activos")
-    public ResponseEntity<List<PlanDTO>> getActivos() {
-        List<PlanDTO> planes = planService.findAllActive();
-        return ResponseEntity.ok(planes);
+    public ResponseEntity<byte[]> getActivos(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return planesPrecalculados.activos(ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -0,0 +1,164 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.dto.PlanDTO;
+import com.example.ProyectoSpringBoot.service.CatalogoPlanes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas ya serializadas y comprimidas de los listados de planes.
+ * Se regeneran solo cuando cambia la versión del catálogo; entre cambios cada
+ * petición se resuelve copiando bytes, o con un 304 si el cliente ya tiene el ETag.
+ */
+@Component
+@RequiredArgsConstructor
+class PlanesPrecalculados {
+
+    private final CatalogoPlanes catalogoPlanes;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Serializadas> serializadas = new AtomicReference<>();
+
+    ResponseEntity<byte[]> todos(String ifNoneMatch, String acceptEncoding) {
+        return responder(obtener().todos(), ifNoneMatch, acceptEncoding);
+    }
+
+    ResponseEntity<byte[]> activos(String ifNoneMatch, String acceptEncoding) {
+        return responder(obtener().activos(), ifNoneMatch, acceptEncoding);
+    }
+
+    private ResponseEntity<byte[]> responder(Cuerpo cuerpo, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = aceptaGzip(acceptEncoding);
+        // Cada codificación es una representación distinta y lleva su propio ETag fuerte
+        String etag = gzip ? cuerpo.etagGzip() : cuerpo.etag();
+        if (coincideEtag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(gzip ? cuerpo.gzip() : cuerpo.json());
+    }
+
+    private Serializadas obtener() {
+        long version = catalogoPlanes.version();
+        Serializadas actuales = serializadas.get();
+        if (actuales == null || actuales.version() != version) {
+            // Si dos peticiones coinciden tras un cambio ambas serializan; el resultado es idéntico
+            actuales = new Serializadas(version,
+                    serializar(catalogoPlanes.todos()),
+                    serializar(catalogoPlanes.activos()));
+            serializadas.set(actuales);
+        }
+        return actuales;
+    }
+
+    private Cuerpo serializar(List<PlanDTO> planes) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(planes);
+            String etag = etag(json);
+            return new Cuerpo(json, comprimir(json), '"' + etag + '"', '"' + etag + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo de planes", e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    // Hash del JSON, base de los ETag de ambas variantes
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // gzip con q > 0, explícito o por "*"; gzip;q=0 lo rechaza aunque aparezca
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double comodin = null;
+        for (String elemento : acceptEncoding.split(",")) {
+            String[] partes = elemento.split(";");
+            String codificacion = partes[0].trim().toLowerCase();
+            double q = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (codificacion.equals("gzip") || codificacion.equals("x-gzip")) {
+                gzip = q;
+            } else if (codificacion.equals("*")) {
+                comodin = q;
+            }
+        }
+        double aceptado = gzip != null ? gzip : comodin != null ? comodin : 0;
+        return aceptado > 0;
+    }
+
+    private static boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Cuerpo(byte[] json, byte[] gzip, String etag, String etagGzip) {
+    }
+
+    private record Serializadas(long version, Cuerpo todos, Cuerpo activos) {
+    }
+}
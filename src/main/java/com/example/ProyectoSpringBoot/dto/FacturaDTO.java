@@ -30,4 +30,6 @@ public class FacturaDTO {
     private EstadoFactura estado;
     private LocalDateTime fechaPago;
     private String concepto;
+    private String paisFacturacion;
+    private String reglaImpuesto;
 }
@@ -0,0 +1,45 @@
+package com.example.ProyectoSpringBoot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Último acceso de cada usuario - fuera de Usuario para que los logins no generen revisiones de Envers
+@Entity
+@Table(name = "accesos_usuario", indexes = {
+        @Index(name = "idx_accesos_usuario_ultimo", columnList = "ultimo_acceso")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AccesoUsuario implements Persistable<Long> {
+
+    // Mismo id que el usuario; sin relación JPA para no cargar Usuario al escribir
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "ultimo_acceso", nullable = false)
+    private LocalDateTime ultimoAcceso;
+
+    // Con el id asignado a mano, save() haría merge (un SELECT por fila nueva); así hace persist
+    @Transient
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private boolean existente;
+
+    @Override
+    public Long getId() {
+        return usuarioId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !existente;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarExistente() {
+        existente = true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ProyectoSpringBoot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Evento de dominio pendiente de despachar - se inserta en la misma transacción que el cambio que lo origina
+@Entity
+@Table(name = "eventos_outbox", indexes = {
+        @Index(name = "idx_outbox_pendientes", columnList = "fecha_despacho, id")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Nombre simple del record de EventoDominio
+    @Column(nullable = false, length = 60)
+    private String tipo;
+
+    // Suscripción o factura a la que se refiere el evento
+    @Column(name = "agregado_id")
+    private Long agregadoId;
+
+    // Evento serializado en JSON
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    // Null mientras algún consumidor no lo haya procesado
+    @Column(name = "fecha_despacho")
+    private LocalDateTime fechaDespacho;
+}
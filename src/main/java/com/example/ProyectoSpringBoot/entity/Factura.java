@@ -15,7 +15,21 @@ import java.time.LocalDateTime;
 
 // Entidad Factura - auditada con Envers
 @Entity
-@Table(name = "facturas")
+// Plan de carga para lecturas que se convierten a DTO (suscripción → usuario → perfil)
+@NamedEntityGraph(
+        name = "Factura.detalle",
+        attributeNodes = @NamedAttributeNode(value = "suscripcion", subgraph = "suscripcion"),
+        subgraphs = {
+                @NamedSubgraph(name = "suscripcion", attributeNodes = @NamedAttributeNode(value = "usuario", subgraph = "usuario")),
+                @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("perfil"))
+        })
+@Table(name = "facturas", indexes = {
+        @Index(name = "idx_facturas_estado_emision", columnList = "estado, fecha_emision"),
+        @Index(name = "idx_facturas_emision_total", columnList = "fecha_emision, total"),
+        @Index(name = "idx_facturas_estado_total", columnList = "estado, total"),
+        @Index(name = "idx_facturas_suscripcion_emision", columnList = "suscripcion_id, fecha_emision"),
+        @Index(name = "idx_facturas_pais_emision", columnList = "pais_facturacion, fecha_emision")
+})
 @Audited
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -25,6 +39,12 @@ public class Factura {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Bloqueo optimista: dos escrituras sobre la misma versión no se pisan
+    // (filas anteriores a la columna: ver MigracionVersiones)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @NotBlank(message = "Número de factura obligatorio")
     @Column(name = "numero_factura", unique = true, nullable = false, length = 50)
     private String numeroFactura;
@@ -78,6 +98,14 @@ public class Factura {
     @Column(columnDefinition = "TEXT")
     private String notas;
 
+    // País ISO 3166-1 alfa-2 en el momento de facturar; no cambia si luego cambia el perfil
+    @Column(name = "pais_facturacion", length = 2)
+    private String paisFacturacion;
+
+    // Regla de impuesto aplicada (ver ImpuestoService.regla), p. ej. "IVA-ES-21.00"
+    @Column(name = "regla_impuesto", length = 40)
+    private String reglaImpuesto;
+
     @CreatedDate
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
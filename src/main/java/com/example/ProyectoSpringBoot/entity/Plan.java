@@ -4,6 +4,8 @@ import com.example.ProyectoSpringBoot.enums.TipoPlan;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,8 +16,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 // Entidad Plan - niveles de suscripción (BASIC, PREMIUM, ENTERPRISE)
+// Casi estática: en caché de segundo nivel para que suscripcion.getPlan() no consulte la BD
 @Entity
 @Table(name = "planes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "planes")
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Plan {
@@ -0,0 +1,47 @@
+package com.example.ProyectoSpringBoot.entity;
+
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Acumulados mensuales de facturas - mantenidos en la misma transacción que cada alta, pago o baja
+@Entity
+@Table(name = "resumen_mensual_facturas", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_resumen_mensual", columnNames = {"mes", "pais", "estado", "es_prorrateo"})
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ResumenMensualFactura {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Primer día del mes de emisión
+    @Column(nullable = false)
+    private LocalDate mes;
+
+    @Column(nullable = false, length = 100)
+    private String pais;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoFactura estado;
+
+    @Column(name = "es_prorrateo", nullable = false)
+    private Boolean esProrrateo;
+
+    @Column(nullable = false)
+    private Long cantidad;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal impuestos;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal total;
+}
@@ -20,6 +20,14 @@ import java.util.List;
 
 // Entidad Suscripcion - auditada con Envers para historial de cambios
 @Entity
+// Plan de carga para lecturas que se convierten a DTO (usuario → perfil y plan)
+@NamedEntityGraph(
+        name = "Suscripcion.detalle",
+        attributeNodes = {
+                @NamedAttributeNode(value = "usuario", subgraph = "usuario"),
+                @NamedAttributeNode("plan")
+        },
+        subgraphs = @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("perfil")))
 @Table(name = "suscripciones")
 @Audited
 @EntityListeners(AuditingEntityListener.class)
@@ -30,6 +38,12 @@ public class Suscripcion {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Bloqueo optimista: dos escrituras sobre la misma versión no se pisan
+    // (filas anteriores a la columna: ver MigracionVersiones)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @NotNull(message = "La fecha de inicio es obligatoria")
     @Column(name = "fecha_inicio", nullable = false)
     private LocalDate fechaInicio;
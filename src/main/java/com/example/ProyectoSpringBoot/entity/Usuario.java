@@ -17,6 +17,13 @@ import java.util.List;
 
 // Entidad Usuario - auditada con Envers
 @Entity
+// Plan de carga para lecturas que se convierten a DTO (perfil y suscripciones)
+@NamedEntityGraph(
+        name = "Usuario.detalle",
+        attributeNodes = {
+                @NamedAttributeNode("perfil"),
+                @NamedAttributeNode("suscripciones")
+        })
 @Table(name = "usuarios")
 @Audited
 @EntityListeners(AuditingEntityListener.class)
@@ -58,9 +65,6 @@ public class Usuario {
     @Column(name = "fecha_modificacion")
     private LocalDateTime fechaModificacion;
 
-    @Column(name = "ultimo_acceso")
-    private LocalDateTime ultimoAcceso;
-
     // Relación 1:1 con Perfil
     @OneToOne(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Perfil perfil;
@@ -0,0 +1,24 @@
+package com.example.ProyectoSpringBoot.enums;
+
+// Estados de un trabajo lanzado desde la API (GestorJobs)
+public enum EstadoTrabajo {
+    EN_COLA("En cola"),
+    EN_CURSO("En curso"),
+    COMPLETADO("Completado"),
+    CANCELADO("Cancelado"),
+    FALLIDO("Fallido");
+
+    private final String descripcion;
+
+    EstadoTrabajo(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public boolean terminado() {
+        return this == COMPLETADO || this == CANCELADO || this == FALLIDO;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ProyectoSpringBoot.enums;
+
+// Resultado de cada pago de una liquidación masiva de facturas
+public enum ResultadoLiquidacion {
+    PAGADA("Pagada"),
+    YA_PAGADA("Ya estaba pagada"),
+    NO_ENCONTRADA("Factura no encontrada"),
+    IMPORTE_INCORRECTO("El importe no coincide con el total"),
+    ESTADO_NO_PAGABLE("La factura está cancelada o reembolsada"),
+    INVALIDA("Datos del pago incompletos o incorrectos"),
+    ERROR("Error al aplicar el pago");
+
+    private final String descripcion;
+
+    ResultadoLiquidacion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public boolean aplicado() {
+        return this == PAGADA || this == YA_PAGADA;
+    }
+}
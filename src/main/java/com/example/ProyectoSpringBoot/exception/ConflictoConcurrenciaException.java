@@ -0,0 +1,20 @@
+package com.example.ProyectoSpringBoot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Otra operación modificó el mismo recurso y no se pudo aplicar el cambio tras
+ * reintentarlo. Se traduce en un 409 para que el cliente recargue y vuelva a intentarlo.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictoConcurrenciaException extends RuntimeException {
+
+    public ConflictoConcurrenciaException(String message) {
+        super(message);
+    }
+
+    public ConflictoConcurrenciaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
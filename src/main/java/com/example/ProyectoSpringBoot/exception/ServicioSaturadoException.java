@@ -0,0 +1,16 @@
+package com.example.ProyectoSpringBoot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Un recurso acotado (pool, cola) está lleno: se rechaza rápido en vez de encolar sin límite.
+ * Se traduce en un 429 para que el cliente reintente más tarde.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ServicioSaturadoException extends RuntimeException {
+
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
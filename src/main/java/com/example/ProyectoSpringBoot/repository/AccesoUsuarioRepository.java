@@ -0,0 +1,10 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.AccesoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Repositorio de AccesoUsuario (último acceso, sin auditoría)
+@Repository
+public interface AccesoUsuarioRepository extends JpaRepository<AccesoUsuario, Long> {
+}
@@ -0,0 +1,30 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.EventoOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Repositorio de EventoOutbox (eventos de dominio pendientes de despachar)
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    // Pendientes con id mayor que desde, en orden de inserción; usa idx_outbox_pendientes
+    @Query("SELECT e FROM EventoOutbox e WHERE e.fechaDespacho IS NULL AND e.id > :desde ORDER BY e.id")
+    List<EventoOutbox> findPendientes(@Param("desde") long desde, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE EventoOutbox e SET e.fechaDespacho = :fecha WHERE e.id IN :ids")
+    int marcarDespachados(@Param("ids") Collection<Long> ids, @Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("DELETE FROM EventoOutbox e WHERE e.fechaDespacho < :limite")
+    int borrarDespachadosAntes(@Param("limite") LocalDateTime limite);
+}
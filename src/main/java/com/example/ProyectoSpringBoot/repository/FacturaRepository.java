@@ -4,28 +4,50 @@ import com.example.ProyectoSpringBoot.entity.Factura;
 import com.example.ProyectoSpringBoot.enums.EstadoFactura;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 // Repositorio de Factura
 @Repository
-public interface FacturaRepository extends JpaRepository<Factura, Long> {
+public interface FacturaRepository extends JpaRepository<Factura, Long>,
+        JpaSpecificationExecutor<Factura>, FacturaRepositoryCustom {
+
+    // Lecturas con el plan "Factura.detalle": una sola consulta para toDTO, sin N+1
+    @Override
+    @EntityGraph("Factura.detalle")
+    List<Factura> findAll();
+
+    @Override
+    @EntityGraph("Factura.detalle")
+    Optional<Factura> findById(Long id);
 
     // Por número de factura
     Optional<Factura> findByNumeroFactura(String numeroFactura);
 
+    // Un lote de facturas por id o por número (liquidación masiva)
+    @EntityGraph("Factura.detalle")
+    List<Factura> findByIdIn(Collection<Long> ids);
+    @EntityGraph("Factura.detalle")
+    List<Factura> findByNumeroFacturaIn(Collection<String> numeros);
+
     // Por estado
+    @EntityGraph("Factura.detalle")
     List<Factura> findByEstado(EstadoFactura estado);
 
     // Por suscripción
     List<Factura> findBySuscripcionId(Long suscripcionId);
+    @EntityGraph("Factura.detalle")
     List<Factura> findBySuscripcionIdOrderByFechaEmisionDesc(Long suscripcionId);
 
     // Por usuario (a través de suscripción)
@@ -38,13 +60,16 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
 
     // Por fechas
     List<Factura> findByFechaEmision(LocalDate fecha);
+    @EntityGraph("Factura.detalle")
     List<Factura> findByFechaEmisionBetween(LocalDate inicio, LocalDate fin);
 
     // Por monto
+    @EntityGraph("Factura.detalle")
     List<Factura> findByTotalBetween(BigDecimal min, BigDecimal max);
     List<Factura> findByTotalGreaterThan(BigDecimal monto);
 
     // Vencidas
+    @EntityGraph("Factura.detalle")
     @Query("SELECT f FROM Factura f WHERE f.estado = 'PENDIENTE' AND f.fechaVencimiento < :fecha")
     List<Factura> findVencidas(@Param("fecha") LocalDate fecha);
 
@@ -54,12 +79,16 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
     // Conteo y sumas
     long countByEstado(EstadoFactura estado);
 
+    @Query("SELECT f.estado, COUNT(f) FROM Factura f GROUP BY f.estado")
+    List<Object[]> contarPorEstado();
+
     @Query("SELECT COALESCE(SUM(f.total), 0) FROM Factura f WHERE f.estado = 'PENDIENTE'")
     BigDecimal sumTotalPendientes();
 
     // ===== FILTROS AVANZADOS PARA PARTE 2 =====
     
     // Por rango de fechas con estado
+    @EntityGraph("Factura.detalle")
     @Query("SELECT f FROM Factura f WHERE f.fechaEmision BETWEEN :inicio AND :fin " +
            "AND (:estado IS NULL OR f.estado = :estado) ORDER BY f.fechaEmision DESC")
     List<Factura> findByFechaEmisionBetweenAndEstado(
@@ -68,6 +97,7 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
             @Param("estado") EstadoFactura estado);
 
     // Por rango de monto con estado
+    @EntityGraph("Factura.detalle")
     @Query("SELECT f FROM Factura f WHERE f.total BETWEEN :minimo AND :maximo " +
            "AND (:estado IS NULL OR f.estado = :estado) ORDER BY f.total DESC")
     List<Factura> findByTotalBetweenAndEstado(
@@ -75,22 +105,7 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
             @Param("maximo") BigDecimal maximo,
             @Param("estado") EstadoFactura estado);
 
-    // Búsqueda combinada con paginación
-    @Query("SELECT f FROM Factura f WHERE " +
-           "(:fechaInicio IS NULL OR f.fechaEmision >= :fechaInicio) AND " +
-           "(:fechaFin IS NULL OR f.fechaEmision <= :fechaFin) AND " +
-           "(:montoMinimo IS NULL OR f.total >= :montoMinimo) AND " +
-           "(:montoMaximo IS NULL OR f.total <= :montoMaximo) AND " +
-           "(:estado IS NULL OR f.estado = :estado) AND " +
-           "(:usuarioId IS NULL OR f.suscripcion.usuario.id = :usuarioId)")
-    Page<Factura> buscarConFiltros(
-            @Param("fechaInicio") LocalDate fechaInicio,
-            @Param("fechaFin") LocalDate fechaFin,
-            @Param("montoMinimo") BigDecimal montoMinimo,
-            @Param("montoMaximo") BigDecimal montoMaximo,
-            @Param("estado") EstadoFactura estado,
-            @Param("usuarioId") Long usuarioId,
-            Pageable pageable);
+    // Búsqueda combinada con paginación: ver FacturaSpecifications + buscarSlice
 
     // Total facturado por periodo
     @Query("SELECT COALESCE(SUM(f.total), 0) FROM Factura f WHERE " +
@@ -102,11 +117,60 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
            "f.estado = 'PAGADA' AND f.fechaEmision BETWEEN :inicio AND :fin")
     BigDecimal sumImpuestosPorPeriodo(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
 
-    // Facturas por país del usuario
-    @Query("SELECT f FROM Factura f WHERE f.suscripcion.usuario.perfil.pais = :pais ORDER BY f.fechaEmision DESC")
-    List<Factura> findByPaisUsuario(@Param("pais") String pais);
+    // Todas las cifras del panel de facturación en un único recorrido
+    @Query("SELECT COUNT(f) AS total, " +
+           "SUM(CASE WHEN f.estado = 'PENDIENTE' THEN 1 ELSE 0 END) AS pendientes, " +
+           "SUM(CASE WHEN f.estado = 'PAGADA' THEN 1 ELSE 0 END) AS pagadas, " +
+           "SUM(CASE WHEN f.estado = 'PENDIENTE' AND f.fechaVencimiento < :hoy THEN 1 ELSE 0 END) AS vencidas, " +
+           "SUM(CASE WHEN f.estado = 'PENDIENTE' THEN f.total ELSE 0 END) AS totalPendiente, " +
+           "SUM(CASE WHEN f.estado = 'PAGADA' AND f.fechaEmision BETWEEN :inicio AND :fin THEN f.total ELSE 0 END) AS ingresos, " +
+           "SUM(CASE WHEN f.estado = 'PAGADA' AND f.fechaEmision BETWEEN :inicio AND :fin THEN f.montoImpuestos ELSE 0 END) AS impuestos " +
+           "FROM Factura f")
+    TotalesFacturacion getTotales(@Param("hoy") LocalDate hoy,
+                                  @Param("inicio") LocalDate inicio,
+                                  @Param("fin") LocalDate fin);
+
+    // Agregado por mes de emisión, país, estado y prorrateo para reconstruir resumen_mensual_facturas
+    // (el país del perfil solo cuenta en facturas sin pais_facturacion; se normaliza al combinar)
+    @Query("SELECT YEAR(f.fechaEmision), MONTH(f.fechaEmision), f.paisFacturacion, p.pais, f.estado, f.esProrrateo, " +
+           "COUNT(f), SUM(f.subtotal), SUM(f.montoImpuestos), SUM(f.total) " +
+           "FROM Factura f JOIN f.suscripcion s JOIN s.usuario u LEFT JOIN u.perfil p " +
+           "WHERE f.fechaEmision BETWEEN :desde AND :hasta " +
+           "GROUP BY YEAR(f.fechaEmision), MONTH(f.fechaEmision), f.paisFacturacion, p.pais, f.estado, f.esProrrateo")
+    List<Object[]> agruparPorMes(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Facturas por país de facturación (idx_facturas_pais_emision)
+    @EntityGraph("Factura.detalle")
+    List<Factura> findByPaisFacturacionOrderByFechaEmisionDesc(String paisFacturacion);
+
+    // Facturas anteriores a pais_facturacion, por lotes en orden de id
+    @Query("SELECT f.id, p.pais, f.porcentajeImpuestos FROM Factura f " +
+           "JOIN f.suscripcion s JOIN s.usuario u LEFT JOIN u.perfil p " +
+           "WHERE f.paisFacturacion IS NULL AND f.id > :desdeId ORDER BY f.id")
+    List<Object[]> findSinPaisFacturacion(@Param("desdeId") Long desdeId, Pageable lote);
+
+    // Sin pasar por Envers: el relleno no es un cambio de negocio de la factura
+    @Modifying
+    @Query("UPDATE Factura f SET f.paisFacturacion = :pais, f.reglaImpuesto = :regla " +
+           "WHERE f.id IN :ids AND f.paisFacturacion IS NULL")
+    int asignarPaisFacturacion(@Param("ids") Collection<Long> ids,
+                               @Param("pais") String pais,
+                               @Param("regla") String regla);
 
     // Resumen por estado
     @Query("SELECT f.estado, COUNT(f), COALESCE(SUM(f.total), 0) FROM Factura f GROUP BY f.estado")
     List<Object[]> getResumenPorEstado();
+
+    /**
+     * Proyección de getTotales; las sumas son null si no hay facturas
+     */
+    interface TotalesFacturacion {
+        Long getTotal();
+        Long getPendientes();
+        Long getPagadas();
+        Long getVencidas();
+        BigDecimal getTotalPendiente();
+        BigDecimal getIngresos();
+        BigDecimal getImpuestos();
+    }
 }
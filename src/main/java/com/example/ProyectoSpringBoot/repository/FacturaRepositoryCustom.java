@@ -0,0 +1,13 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.Factura;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+// Consultas de Factura que Spring Data no deriva por sí solo
+public interface FacturaRepositoryCustom {
+
+    // Página sin COUNT: pide un registro extra para saber si hay siguiente
+    Slice<Factura> buscarSlice(Specification<Factura> spec, Pageable pageable);
+}
@@ -0,0 +1,54 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.Factura;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+// Implementación del fragmento FacturaRepositoryCustom
+public class FacturaRepositoryImpl implements FacturaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Factura> buscarSlice(Specification<Factura> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Factura> query = cb.createQuery(Factura.class);
+        Root<Factura> root = query.from(Factura.class);
+
+        Predicate predicado = spec.toPredicate(root, query, cb);
+        if (predicado != null) {
+            query.where(predicado);
+        }
+        query.select(root);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<Factura> typedQuery = entityManager.createQuery(query)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("Factura.detalle"));
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<Factura> resultado = typedQuery.getResultList();
+
+        boolean haySiguiente = resultado.size() > pageable.getPageSize();
+        List<Factura> contenido = haySiguiente ? resultado.subList(0, pageable.getPageSize()) : resultado;
+        return new SliceImpl<>(contenido, pageable, haySiguiente);
+    }
+}
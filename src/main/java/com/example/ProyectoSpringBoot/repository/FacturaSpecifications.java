@@ -0,0 +1,63 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications para la búsqueda avanzada de facturas.
+ * Solo se generan los predicados y joins de los filtros informados,
+ * así MySQL puede elegir el índice compuesto adecuado en cada caso.
+ */
+public final class FacturaSpecifications {
+
+    private FacturaSpecifications() {
+    }
+
+    /**
+     * Construye la búsqueda combinada; los filtros nulos se omiten del SQL
+     */
+    public static Specification<Factura> conFiltros(
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            BigDecimal montoMinimo,
+            BigDecimal montoMaximo,
+            EstadoFactura estado,
+            Long usuarioId) {
+
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+
+            if (estado != null) {
+                predicados.add(cb.equal(root.get("estado"), estado));
+            }
+            if (fechaInicio != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("fechaEmision"), fechaInicio));
+            }
+            if (fechaFin != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("fechaEmision"), fechaFin));
+            }
+            if (montoMinimo != null) {
+                predicados.add(cb.greaterThanOrEqualTo(root.get("total"), montoMinimo));
+            }
+            if (montoMaximo != null) {
+                predicados.add(cb.lessThanOrEqualTo(root.get("total"), montoMaximo));
+            }
+            if (usuarioId != null) {
+                // Solo se une con suscripciones; usuario_id es columna de esa tabla, no hace falta tocar usuarios
+                Join<Factura, Suscripcion> suscripcion = root.join("suscripcion");
+                predicados.add(cb.equal(suscripcion.get("usuario").get("id"), usuarioId));
+            }
+
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+}
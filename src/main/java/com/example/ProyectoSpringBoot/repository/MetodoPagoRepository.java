@@ -0,0 +1,16 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.MetodoPago;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+// Repositorio de MetodoPago (todas las subclases de la tabla metodos_pago)
+@Repository
+public interface MetodoPagoRepository extends JpaRepository<MetodoPago, Long> {
+
+    // Métodos activos de varios usuarios en una consulta
+    List<MetodoPago> findByUsuarioIdInAndActivoTrue(Collection<Long> usuarioIds);
+}
@@ -0,0 +1,24 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.entity.ResumenMensualFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Repositorio de ResumenMensualFactura (acumulados por mes, país, estado y prorrateo)
+@Repository
+public interface ResumenMensualFacturaRepository extends JpaRepository<ResumenMensualFactura, Long> {
+
+    // Filas de un estado en un rango de meses (ambos inclusive)
+    List<ResumenMensualFactura> findByEstadoAndMesBetween(EstadoFactura estado, LocalDate desde, LocalDate hasta);
+
+    @Modifying
+    @Query("DELETE FROM ResumenMensualFactura r WHERE r.mes BETWEEN :desde AND :hasta")
+    int borrarMeses(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
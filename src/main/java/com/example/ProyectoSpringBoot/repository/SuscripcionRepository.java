@@ -2,6 +2,7 @@ package com.example.ProyectoSpringBoot.repository;
 
 import com.example.ProyectoSpringBoot.entity.Suscripcion;
 import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,15 +16,27 @@ import java.util.Optional;
 @Repository
 public interface SuscripcionRepository extends JpaRepository<Suscripcion, Long> {
 
+    // Lecturas con el plan "Suscripcion.detalle": usuario, perfil y plan en la misma consulta
+    @Override
+    @EntityGraph("Suscripcion.detalle")
+    List<Suscripcion> findAll();
+
+    @Override
+    @EntityGraph("Suscripcion.detalle")
+    Optional<Suscripcion> findById(Long id);
+
     // Por usuario
+    @EntityGraph("Suscripcion.detalle")
     List<Suscripcion> findByUsuarioId(Long usuarioId);
     Optional<Suscripcion> findByUsuarioIdAndEstado(Long usuarioId, EstadoSuscripcion estado);
 
     // Por estado y plan
+    @EntityGraph("Suscripcion.detalle")
     List<Suscripcion> findByEstado(EstadoSuscripcion estado);
     List<Suscripcion> findByPlanId(Long planId);
 
-    // Para renovación automática
+    // Para renovación automática (la facturación lee país del perfil y nombre del plan)
+    @EntityGraph("Suscripcion.detalle")
     @Query("SELECT s FROM Suscripcion s WHERE s.estado = 'ACTIVA' " +
            "AND s.renovacionAutomatica = true AND s.fechaProximoCobro <= :fecha")
     List<Suscripcion> findSuscripcionesParaRenovar(@Param("fecha") LocalDate fecha);
@@ -40,6 +53,10 @@ public interface SuscripcionRepository extends JpaRepository<Suscripcion, Long>
     // Conteo por estado
     long countByEstado(EstadoSuscripcion estado);
 
+    // Conteo de todos los estados en una consulta
+    @Query("SELECT s.estado, COUNT(s) FROM Suscripcion s GROUP BY s.estado")
+    List<Object[]> contarPorEstado();
+
     // Con relaciones cargadas
     @Query("SELECT s FROM Suscripcion s JOIN FETCH s.usuario JOIN FETCH s.plan WHERE s.estado = :estado")
     List<Suscripcion> findByEstadoConDetalles(@Param("estado") EstadoSuscripcion estado);
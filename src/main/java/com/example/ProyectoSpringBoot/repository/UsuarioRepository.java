@@ -1,6 +1,7 @@
 package com.example.ProyectoSpringBoot.repository;
 
 import com.example.ProyectoSpringBoot.entity.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +15,17 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    // Lecturas con el plan "Usuario.detalle": perfil y suscripciones en la misma consulta
+    @Override
+    @EntityGraph("Usuario.detalle")
+    List<Usuario> findAll();
+
+    @Override
+    @EntityGraph("Usuario.detalle")
+    Optional<Usuario> findById(Long id);
+
     // Búsqueda por email
+    @EntityGraph("Usuario.detalle")
     Optional<Usuario> findByEmail(String email);
 
     // Verifica si existe email
@@ -32,7 +43,8 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     List<Usuario> findByFechaCreacionBetween(LocalDateTime inicio, LocalDateTime fin);
 
     // Usuarios inactivos (sin acceso reciente)
-    @Query("SELECT u FROM Usuario u WHERE u.ultimoAcceso < :fecha OR u.ultimoAcceso IS NULL")
+    @Query("SELECT u FROM Usuario u LEFT JOIN AccesoUsuario a ON a.usuarioId = u.id " +
+           "WHERE a.ultimoAcceso < :fecha OR a.ultimoAcceso IS NULL")
     List<Usuario> findUsuariosInactivosDesde(@Param("fecha") LocalDateTime fecha);
 
     // Conteo
@@ -25,6 +25,7 @@ import java.util.stream.Collectors;
  * 
  * Cumple criterio Parte 2: "Panel de Auditoría (Admin): Una vista especial 
  * para ver el historial de cambios en las suscripciones o facturas usando Envers."
+ * Cada consulta a un tipo de entidad es un evento JFR (EventosJfr.ConsultaAuditoria).
  */
 @Service
 @RequiredArgsConstructor
@@ -54,6 +55,8 @@ public class AuditoriaService {
             throw new IllegalArgumentException("Tipo de entidad no auditable: " + tipoEntidad);
         }
 
+        EventosJfr.ConsultaAuditoria evento = new EventosJfr.ConsultaAuditoria();
+        evento.begin();
         AuditReader reader = AuditReaderFactory.get(entityManager);
         List<Number> revisions = reader.getRevisions(entityClass, entityId);
 
@@ -77,6 +80,7 @@ public class AuditoriaService {
             ));
         }
 
+        evento.terminar("historialEntidad", tipoEntidad, entityId, historial.size());
         return historial;
     }
 
@@ -91,6 +95,9 @@ public class AuditoriaService {
         for (Map.Entry<String, Class<?>> entry : ENTIDADES_AUDITABLES.entrySet()) {
             String tipoEntidad = entry.getKey();
             Class<?> entityClass = entry.getValue();
+            EventosJfr.ConsultaAuditoria evento = new EventosJfr.ConsultaAuditoria();
+            evento.begin();
+            int filas = 0;
 
             try {
                 AuditQuery query = reader.createQuery()
@@ -99,6 +106,7 @@ public class AuditoriaService {
                         .setMaxResults(limite);
 
                 List<Object[]> results = query.getResultList();
+                filas = results.size();
                 
                 for (Object[] result : results) {
                     Object entity = result[0];
@@ -121,6 +129,8 @@ public class AuditoriaService {
                 }
             } catch (Exception e) {
                 log.warn("Error consultando auditoría para {}: {}", tipoEntidad, e.getMessage());
+            } finally {
+                evento.terminar("cambiosRecientes", tipoEntidad, null, filas);
             }
         }
 
@@ -165,10 +175,14 @@ public class AuditoriaService {
             throw new IllegalArgumentException("Tipo de entidad no auditable: " + tipoEntidad);
         }
 
+        EventosJfr.ConsultaAuditoria evento = new EventosJfr.ConsultaAuditoria();
+        evento.begin();
         AuditReader reader = AuditReaderFactory.get(entityManager);
         
         Object entityAnterior = reader.find(entityClass, entityId, revisionAnterior);
         Object entityActual = reader.find(entityClass, entityId, revisionActual);
+        evento.terminar("compararRevisiones", tipoEntidad, entityId,
+                (entityAnterior != null ? 1 : 0) + (entityActual != null ? 1 : 0));
 
         Map<String, String> valoresAnteriores = extraerDetallesEntidad(entityAnterior);
         Map<String, String> valoresActuales = extraerDetallesEntidad(entityActual);
@@ -213,12 +227,16 @@ public class AuditoriaService {
         for (Map.Entry<String, Class<?>> entry : ENTIDADES_AUDITABLES.entrySet()) {
             String tipoEntidad = entry.getKey();
             Class<?> entityClass = entry.getValue();
+            EventosJfr.ConsultaAuditoria evento = new EventosJfr.ConsultaAuditoria();
+            evento.begin();
+            int filas = 0;
 
             try {
                 @SuppressWarnings("unchecked")
                 List<Object[]> results = reader.createQuery()
                         .forRevisionsOfEntity(entityClass, false, true)
                         .getResultList();
+                filas = results.size();
 
                 long count = results.size();
                 conteosPorEntidad.put(tipoEntidad, count);
@@ -232,6 +250,8 @@ public class AuditoriaService {
             } catch (Exception e) {
                 log.warn("Error obteniendo estadísticas para {}: {}", tipoEntidad, e.getMessage());
                 conteosPorEntidad.put(tipoEntidad, 0L);
+            } finally {
+                evento.terminar("estadisticas", tipoEntidad, null, filas);
             }
         }
 
@@ -245,6 +265,8 @@ public class AuditoriaService {
     // ===== MÉTODOS AUXILIARES =====
 
     private List<RegistroAuditoria> obtenerHistorialPorTipo(String tipoEntidad, Class<?> entityClass, int limite) {
+        EventosJfr.ConsultaAuditoria evento = new EventosJfr.ConsultaAuditoria();
+        evento.begin();
         AuditReader reader = AuditReaderFactory.get(entityManager);
         List<RegistroAuditoria> historial = new ArrayList<>();
 
@@ -278,6 +300,7 @@ public class AuditoriaService {
             log.error("Error obteniendo historial de {}: {}", tipoEntidad, e.getMessage());
         }
 
+        evento.terminar("historialTipo", tipoEntidad, null, historial.size());
         return historial;
     }
 
@@ -329,7 +352,7 @@ public class AuditoriaService {
         }
     }
 
-    private Map<String, String> extraerDetallesEntidad(Object entity) {
+    Map<String, String> extraerDetallesEntidad(Object entity) {
         Map<String, String> detalles = new LinkedHashMap<>();
         
         if (entity == null) {
@@ -0,0 +1,95 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.exception.ConflictoConcurrenciaException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa dentro de la JVM las operaciones que escriben sobre una misma suscripción
+ * (cambio de plan, facturación, renovación) sin mantener bloqueos de fila en la BD.
+ * Cada suscripción cae en una franja de un array fijo de locks: dos operaciones sobre
+ * la misma suscripción se esperan y las demás casi nunca coinciden.
+ *
+ * La operación corre en su propia transacción, que se confirma antes de soltar el lock.
+ * Entre nodos distintos protege @Version: un OptimisticLockingFailureException se
+ * reintenta con una transacción nueva hasta maxIntentos veces.
+ */
+@Component
+@Slf4j
+public class BloqueoSuscripciones {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] franjas;
+    private final int maxIntentos;
+    private final long esperaMaximaMs;
+
+    public BloqueoSuscripciones(TransactionTemplate transactionTemplate,
+                                @Value("${app.suscripciones.franjas-bloqueo:64}") int numFranjas,
+                                @Value("${app.suscripciones.max-intentos:3}") int maxIntentos,
+                                @Value("${app.suscripciones.espera-bloqueo-ms:5000}") long esperaMaximaMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.franjas = new ReentrantLock[Math.max(1, numFranjas)];
+        for (int i = 0; i < franjas.length; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Ejecuta la operación con el lock de la suscripción y en una transacción nueva.
+     * No debe llamarse con una transacción ya abierta: el commit quedaría fuera del lock
+     */
+    public <T> T ejecutar(Long suscripcionId, Supplier<T> operacion) {
+        ReentrantLock lock = franja(suscripcionId);
+        try {
+            if (!lock.tryLock(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new ConflictoConcurrenciaException(
+                        "La suscripción " + suscripcionId + " está ocupada por otra operación");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictoConcurrenciaException("Interrumpido esperando la suscripción " + suscripcionId, e);
+        }
+        try {
+            for (int intento = 1; ; intento++) {
+                try {
+                    return transactionTemplate.execute(estado -> operacion.get());
+                } catch (OptimisticLockingFailureException e) {
+                    if (intento >= maxIntentos) {
+                        throw new ConflictoConcurrenciaException(
+                                "La suscripción " + suscripcionId + " cambió durante la operación", e);
+                    }
+                    log.debug("Conflicto de versión en suscripción {} (intento {}), reintentando", suscripcionId, intento);
+                    esperar(intento);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ReentrantLock franja(Long suscripcionId) {
+        int hash = suscripcionId.hashCode();
+        // Mezcla los bits altos para que ids consecutivos no dependan solo de los bajos
+        return franjas[Math.floorMod(hash ^ (hash >>> 16), franjas.length)];
+    }
+
+    // Pausa corta y aleatoria para no volver a chocar con el otro nodo al mismo tiempo
+    private void esperar(int intento) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20L * intento + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictoConcurrenciaException("Interrumpido reintentando la operación", e);
+        }
+    }
+}
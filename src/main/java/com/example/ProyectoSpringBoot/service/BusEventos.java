@@ -0,0 +1,184 @@
+package com.example.ProyectoSpringBoot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de eventos en memoria sobre un anillo de tamaño fijo. Un único productor
+ * (DespachadorEventos) escribe en el anillo y cada consumidor lo recorre en su propio
+ * hilo con su propia secuencia, así un consumidor lento no retrasa a los demás.
+ * El productor solo espera si el consumidor más lento va una vuelta entera por detrás.
+ *
+ * Retraso por consumidor en la métrica eventos.bus.retraso (eventos publicados aún sin procesar).
+ */
+@Component
+@Slf4j
+public class BusEventos {
+
+    private final Entrega[] anillo;
+    private final int mascara;
+    private final int reintentos;
+    private final List<Lector> lectores;
+
+    // Última secuencia publicada; -1 con el anillo vacío
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private volatile boolean activo = true;
+
+    public BusEventos(List<Consumidor> consumidores,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.eventos.capacidad-anillo:1024}") int capacidad,
+                      @Value("${app.eventos.reintentos-consumidor:3}") int reintentos) {
+        // Potencia de dos para calcular la posición con una máscara
+        int tamano = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.anillo = new Entrega[tamano];
+        this.mascara = tamano - 1;
+        this.reintentos = Math.max(1, reintentos);
+        this.lectores = consumidores.stream().map(c -> new Lector(c, meterRegistry)).toList();
+        for (Lector lector : lectores) {
+            Gauge.builder("eventos.bus.retraso", lector, l -> cursor.get() - l.secuencia.get())
+                    .description("Eventos publicados en el bus que el consumidor aún no ha procesado")
+                    .tag("consumidor", lector.consumidor.nombre())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void iniciar() {
+        for (Lector lector : lectores) {
+            lector.hilo = Thread.ofPlatform()
+                    .name("bus-eventos-" + lector.consumidor.nombre())
+                    .daemon(true)
+                    .start(lector);
+        }
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        for (Lector lector : lectores) {
+            LockSupport.unpark(lector.hilo);
+            lector.hilo.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Publica las entregas en orden. Solo debe llamarla un hilo a la vez
+     * @return Secuencia de la última entrega publicada
+     */
+    long publicar(List<Entrega> entregas) {
+        long secuencia = cursor.get();
+        for (Entrega entrega : entregas) {
+            secuencia++;
+            // No pisar una posición que algún consumidor todavía no ha leído
+            while (secuencia - anillo.length > procesadoPorTodos()) {
+                if (!activo) {
+                    throw new IllegalStateException("Bus de eventos detenido");
+                }
+                despertarLectores();
+                LockSupport.parkNanos(100_000);
+            }
+            anillo[(int) (secuencia & mascara)] = entrega;
+            cursor.set(secuencia);
+        }
+        despertarLectores();
+        return secuencia;
+    }
+
+    /**
+     * Última secuencia que han procesado todos los consumidores
+     */
+    long procesadoPorTodos() {
+        long minima = cursor.get();
+        for (Lector lector : lectores) {
+            minima = Math.min(minima, lector.secuencia.get());
+        }
+        return minima;
+    }
+
+    private void despertarLectores() {
+        for (Lector lector : lectores) {
+            LockSupport.unpark(lector.hilo);
+        }
+    }
+
+    private final class Lector implements Runnable {
+
+        private final Consumidor consumidor;
+        private final Counter errores;
+        // Última secuencia procesada por este consumidor
+        private final AtomicLong secuencia = new AtomicLong(-1);
+        private volatile Thread hilo;
+
+        private Lector(Consumidor consumidor, MeterRegistry meterRegistry) {
+            this.consumidor = consumidor;
+            this.errores = Counter.builder("eventos.bus.errores")
+                    .description("Eventos descartados por un consumidor tras agotar los reintentos")
+                    .tag("consumidor", consumidor.nombre())
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            long siguiente = secuencia.get() + 1;
+            while (activo) {
+                long disponible = cursor.get();
+                if (disponible < siguiente) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(50));
+                    continue;
+                }
+                for (; siguiente <= disponible; siguiente++) {
+                    entregar(anillo[(int) (siguiente & mascara)]);
+                    secuencia.set(siguiente);
+                }
+            }
+        }
+
+        // Un evento que sigue fallando se registra y se salta para no bloquear al consumidor
+        private void entregar(Entrega entrega) {
+            for (int intento = 1; ; intento++) {
+                try {
+                    consumidor.procesar(entrega);
+                    return;
+                } catch (RuntimeException e) {
+                    if (intento >= reintentos) {
+                        errores.increment();
+                        log.error("Consumidor {} descarta el evento {} ({}) tras {} intentos",
+                                consumidor.nombre(), entrega.id(), entrega.evento(), intento, e);
+                        return;
+                    }
+                    log.warn("Consumidor {} falló con el evento {} (intento {}): {}",
+                            consumidor.nombre(), entrega.id(), intento, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Evento tal como llega a los consumidores
+     * @param id Id de la fila de eventos_outbox; sirve para descartar repetidos
+     */
+    public record Entrega(Long id, LocalDateTime fechaCreacion, EventoDominio evento) {}
+
+    /**
+     * Consumidor del bus. Cada uno corre en su propio hilo y recibe los eventos en orden.
+     * La entrega es al menos una vez: tras un reinicio puede recibir de nuevo eventos ya procesados
+     */
+    public interface Consumidor {
+
+        String nombre();
+
+        void procesar(Entrega entrega);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ProyectoSpringBoot.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Resultado caro de calcular que se reutiliza durante ttlMs. Al caducar, solo el hilo que gana
+ * el CAS lo recalcula y los que llegan mientras tanto esperan ese mismo cálculo.
+ * Un cálculo que falla no se guarda: quienes lo esperaban reciben el error y la siguiente llamada
+ * vuelve a calcular. Lo usan las estadísticas de FacturaService y el panel de DashboardService
+ */
+final class CalculoCompartido<T> {
+
+    private final AtomicReference<Entrada<T>> actual = new AtomicReference<>();
+    private final long ttlMs;
+
+    CalculoCompartido(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    T obtener(Supplier<T> calculo) {
+        while (true) {
+            Entrada<T> entrada = actual.get();
+            if (entrada != null && System.currentTimeMillis() - entrada.calculadoEn() < ttlMs) {
+                return esperar(entrada.resultado());
+            }
+            Entrada<T> nueva = new Entrada<>(new CompletableFuture<>(), System.currentTimeMillis());
+            if (!actual.compareAndSet(entrada, nueva)) {
+                // Otro hilo la cambió: se vuelve a leer (puede estar vacía si su cálculo falló)
+                continue;
+            }
+            try {
+                nueva.resultado().complete(calculo.get());
+            } catch (RuntimeException e) {
+                actual.compareAndSet(nueva, null);
+                nueva.resultado().completeExceptionally(e);
+            }
+            return esperar(nueva.resultado());
+        }
+    }
+
+    private static <T> T esperar(CompletableFuture<T> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private record Entrada<T>(CompletableFuture<T> resultado, long calculadoEn) {}
+}
@@ -0,0 +1,110 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.PlanDTO;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.repository.PlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Catálogo de planes en memoria.
+ * Guarda una instantánea inmutable que se sustituye entera cuando PlanService
+ * confirma un alta, cambio o baja; las lecturas nunca consultan la tabla planes.
+ * Los DTOs son compartidos entre peticiones: no deben modificarse.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogoPlanes {
+
+    private final PlanRepository planRepository;
+
+    private final AtomicReference<Instantanea> instantanea = new AtomicReference<>();
+    private final AtomicLong versiones = new AtomicLong();
+
+    public List<PlanDTO> todos() {
+        return obtener().todos();
+    }
+
+    public List<PlanDTO> activos() {
+        return obtener().activos();
+    }
+
+    public Optional<PlanDTO> buscar(Long id) {
+        return Optional.ofNullable(obtener().porId().get(id));
+    }
+
+    public boolean existe(Long id) {
+        return id != null && obtener().porId().containsKey(id);
+    }
+
+    public boolean existeNombre(String nombre) {
+        return obtener().todos().stream().anyMatch(p -> p.getNombre().equals(nombre));
+    }
+
+    /**
+     * Cambia en cada recarga; permite a otras cachés saber si siguen vigentes
+     */
+    public long version() {
+        return obtener().version();
+    }
+
+    /**
+     * Recarga tras el commit de un cambio de planes (o al momento si no había transacción)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onPlanesModificados(PlanesModificados evento) {
+        recargar();
+    }
+
+    // Sin readOnly a propósito: se llama justo después de escribir planes, y una transacción readOnly
+    // iría a una réplica que quizá no tiene aún el commit (el catálogo no se refresca hasta el siguiente cambio)
+    @Transactional
+    public void recargar() {
+        List<PlanDTO> planes = planRepository.findAll().stream()
+                .sorted(Comparator.comparing(Plan::getId))
+                .map(PlanService::toDTO)
+                .toList();
+        Map<Long, PlanDTO> porId = new LinkedHashMap<>();
+        planes.forEach(p -> porId.put(p.getId(), p));
+
+        instantanea.set(new Instantanea(
+                planes,
+                planes.stream().filter(p -> Boolean.TRUE.equals(p.getActivo())).toList(),
+                Map.copyOf(porId),
+                versiones.incrementAndGet()));
+        log.debug("Catálogo de planes recargado: {} planes", planes.size());
+    }
+
+    // Primera lectura: carga perezosa (los datos iniciales no pasan por PlanService)
+    private Instantanea obtener() {
+        Instantanea actual = instantanea.get();
+        if (actual == null) {
+            recargar();
+            actual = instantanea.get();
+        }
+        return actual;
+    }
+
+    private record Instantanea(List<PlanDTO> todos, List<PlanDTO> activos, Map<Long, PlanDTO> porId, long version) {
+    }
+
+    /**
+     * Evento publicado por PlanService al modificar planes
+     */
+    public record PlanesModificados(Long planId) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ProyectoSpringBoot.service;
 
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
 import com.example.ProyectoSpringBoot.entity.Factura;
 import com.example.ProyectoSpringBoot.entity.Suscripcion;
 import com.example.ProyectoSpringBoot.enums.EstadoFactura;
@@ -10,11 +11,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Servicio para manejar el ciclo de vida completo de las suscripciones.
@@ -29,6 +32,8 @@ public class CicloVidaSuscripcionService {
     private final SuscripcionRepository suscripcionRepository;
     private final FacturaRepository facturaRepository;
     private final SuscripcionService suscripcionService;
+    private final ContadoresCicloVida contadores;
+    private final MonitorJobs monitorJobs;
 
     // Días de gracia antes de marcar como morosa
     private static final int DIAS_GRACIA = 7;
@@ -43,78 +48,118 @@ public class CicloVidaSuscripcionService {
      * Procesa renovaciones automáticas diariamente a las 00:00
      */
     @Scheduled(cron = "0 0 0 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarRenovacionesAutomaticas() {
-        log.info("=== Iniciando proceso de renovación automática ===");
-        
-        LocalDate hoy = LocalDate.now();
-        List<Suscripcion> suscripcionesParaRenovar = suscripcionRepository
-                .findSuscripcionesParaRenovar(hoy);
-        
-        int renovadas = 0;
-        int noRenovadas = 0;
-        
-        for (Suscripcion suscripcion : suscripcionesParaRenovar) {
-            try {
-                if (suscripcion.getRenovacionAutomatica()) {
-                    // Verificar si tiene facturas pendientes
-                    if (tieneFacturasPendientes(suscripcion)) {
-                        log.warn("Suscripción {} tiene facturas pendientes, no se renueva", 
+        monitorJobs.ejecutar("renovacionesAutomaticas", ejecucion -> {
+            log.info("=== Iniciando proceso de renovación automática ===");
+            
+            LocalDate hoy = LocalDate.now();
+            List<Suscripcion> suscripcionesParaRenovar = ejecucion.fase("consulta",
+                    () -> suscripcionRepository.findSuscripcionesParaRenovar(hoy));
+            ejecucion.total(suscripcionesParaRenovar.size());
+            
+            int renovadas = 0;
+            int noRenovadas = 0;
+            
+            for (Suscripcion suscripcion : suscripcionesParaRenovar) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                ejecucion.elemento(suscripcion.getId(), EventosJfr.paisCargado(suscripcion));
+                try {
+                    if (suscripcion.getRenovacionAutomatica()) {
+                        // Verificar si tiene facturas pendientes
+                        if (ejecucion.fase("consulta", () -> tieneFacturasPendientes(suscripcion))) {
+                            log.warn("Suscripción {} tiene facturas pendientes, no se renueva", 
+                                    suscripcion.getId());
+                            noRenovadas++;
+                            ejecucion.omitido();
+                            continue;
+                        }
+                        
+                        // Generar factura de renovación (con lock; no se renueva si otro proceso ya la facturó)
+                        Optional<Factura> factura = suscripcionService.facturarMensual(suscripcion.getId(),
+                                s -> s.getRenovacionAutomatica() && !tieneFacturasPendientes(s));
+                        if (factura.isEmpty()) {
+                            noRenovadas++;
+                            ejecucion.omitido();
+                            continue;
+                        }
+                        log.info("Renovación automática - Suscripción {} - Factura {}", 
+                                suscripcion.getId(), factura.get().getNumeroFactura());
+                        renovadas++;
+                        ejecucion.procesado();
+                    } else {
+                        // Renovación automática desactivada
+                        log.info("Suscripción {} no tiene renovación automática activada", 
                                 suscripcion.getId());
                         noRenovadas++;
-                        continue;
+                        ejecucion.omitido();
                     }
-                    
-                    // Generar factura de renovación
-                    Factura factura = suscripcionService.generarFacturaMensual(suscripcion);
-                    log.info("Renovación automática - Suscripción {} - Factura {}", 
-                            suscripcion.getId(), factura.getNumeroFactura());
-                    renovadas++;
-                } else {
-                    // Renovación automática desactivada
-                    log.info("Suscripción {} no tiene renovación automática activada", 
-                            suscripcion.getId());
+                } catch (Exception e) {
+                    log.error("Error al renovar suscripción {}: {}", suscripcion.getId(), e.getMessage());
                     noRenovadas++;
+                    ejecucion.fallido();
                 }
-            } catch (Exception e) {
-                log.error("Error al renovar suscripción {}: {}", suscripcion.getId(), e.getMessage());
-                noRenovadas++;
             }
-        }
-        
-        log.info("=== Renovación automática completada: {} renovadas, {} no renovadas ===", 
-                renovadas, noRenovadas);
+            
+            log.info("=== Renovación automática completada: {} renovadas, {} no renovadas ===", 
+                    renovadas, noRenovadas);
+        });
     }
 
     /**
      * Procesa suscripciones morosas diariamente a las 01:00
-     * Marca como MOROSA las suscripciones con facturas vencidas
+     * Marca como MOROSA las suscripciones con facturas vencidas.
+     * Sin transacción de job: cada suscripción cambia con su lock y en su transacción (SuscripcionService.transicionar)
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarSuscripcionesMorosas() {
-        log.info("=== Iniciando proceso de gestión de morosos ===");
-        
-        LocalDate hoy = LocalDate.now();
-        LocalDate fechaLimiteMorosa = hoy.minusDays(DIAS_GRACIA);
-        
-        // Buscar facturas vencidas más allá del período de gracia
-        List<Factura> facturasVencidas = facturaRepository.findVencidas(fechaLimiteMorosa);
-        
-        int marcadasMorosas = 0;
-        
-        for (Factura factura : facturasVencidas) {
-            Suscripcion suscripcion = factura.getSuscripcion();
+        monitorJobs.ejecutar("suscripcionesMorosas", ejecucion -> {
+            log.info("=== Iniciando proceso de gestión de morosos ===");
+            
+            LocalDate hoy = LocalDate.now();
+            LocalDate fechaLimiteMorosa = hoy.minusDays(DIAS_GRACIA);
+            
+            // Buscar facturas vencidas más allá del período de gracia
+            List<Factura> facturasVencidas = ejecucion.fase("consulta",
+                    () -> facturaRepository.findVencidas(fechaLimiteMorosa));
+            ejecucion.total(facturasVencidas.size());
+            
+            int marcadasMorosas = 0;
             
-            if (suscripcion.getEstado() == EstadoSuscripcion.ACTIVA) {
-                suscripcion.setEstado(EstadoSuscripcion.MOROSA);
-                suscripcionRepository.save(suscripcion);
-                log.info("Suscripción {} marcada como MOROSA por factura {} vencida", 
-                        suscripcion.getId(), factura.getNumeroFactura());
-                marcadasMorosas++;
+            for (Factura factura : facturasVencidas) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                Suscripcion suscripcion = factura.getSuscripcion();
+                ejecucion.elemento(suscripcion.getId(), EventosJfr.paisCargado(suscripcion));
+                
+                if (suscripcion.getEstado() != EstadoSuscripcion.ACTIVA) {
+                    ejecucion.omitido();
+                    continue;
+                }
+                try {
+                    // Omitida si ya no está ACTIVA al tomar el lock (otra factura vencida o un cambio concurrente)
+                    if (suscripcionService.transicionar(suscripcion.getId(), EstadoSuscripcion.ACTIVA,
+                            EstadoSuscripcion.MOROSA, s -> true, s -> {})) {
+                        log.info("Suscripción {} marcada como MOROSA por factura {} vencida", 
+                                suscripcion.getId(), factura.getNumeroFactura());
+                        marcadasMorosas++;
+                        ejecucion.procesado();
+                    } else {
+                        ejecucion.omitido();
+                    }
+                } catch (Exception e) {
+                    log.error("Error al marcar como morosa la suscripción {}: {}", suscripcion.getId(), e.getMessage());
+                    ejecucion.fallido();
+                }
             }
-        }
-        
-        log.info("=== Gestión de morosos completada: {} suscripciones marcadas como morosas ===", 
-                marcadasMorosas);
+            
+            log.info("=== Gestión de morosos completada: {} suscripciones marcadas como morosas ===", 
+                    marcadasMorosas);
+        });
     }
 
     /**
@@ -122,34 +167,48 @@ public class CicloVidaSuscripcionService {
      * Suspende suscripciones morosas por más de 30 días
      */
     @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarSuspensiones() {
-        log.info("=== Iniciando proceso de suspensiones ===");
-        
-        LocalDate fechaLimiteSuspension = LocalDate.now().minusDays(DIAS_PARA_SUSPENDER);
-        
-        List<Suscripcion> morosas = suscripcionRepository.findByEstado(EstadoSuscripcion.MOROSA);
-        int suspendidas = 0;
-        
-        for (Suscripcion suscripcion : morosas) {
-            // Verificar si tiene facturas pendientes por más de DIAS_PARA_SUSPENDER
-            List<Factura> facturasPendientes = facturaRepository
-                    .findBySuscripcionIdOrderByFechaEmisionDesc(suscripcion.getId())
-                    .stream()
-                    .filter(f -> f.getEstado() == EstadoFactura.PENDIENTE || 
-                                f.getEstado() == EstadoFactura.VENCIDA)
-                    .filter(f -> f.getFechaVencimiento().isBefore(fechaLimiteSuspension))
-                    .toList();
+        monitorJobs.ejecutar("suspensiones", ejecucion -> {
+            log.info("=== Iniciando proceso de suspensiones ===");
+            
+            LocalDate fechaLimiteSuspension = LocalDate.now().minusDays(DIAS_PARA_SUSPENDER);
             
-            if (!facturasPendientes.isEmpty()) {
-                suscripcion.setEstado(EstadoSuscripcion.SUSPENDIDA);
-                suscripcionRepository.save(suscripcion);
-                log.info("Suscripción {} SUSPENDIDA por impago prolongado", suscripcion.getId());
-                suspendidas++;
+            List<Suscripcion> morosas = ejecucion.fase("consulta",
+                    () -> suscripcionRepository.findByEstado(EstadoSuscripcion.MOROSA));
+            ejecucion.total(morosas.size());
+            int suspendidas = 0;
+            
+            for (Suscripcion suscripcion : morosas) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                ejecucion.elemento(suscripcion.getId(), EventosJfr.paisCargado(suscripcion));
+                // Verificar si tiene facturas pendientes por más de DIAS_PARA_SUSPENDER
+                if (!ejecucion.fase("consulta", () -> tieneFacturasImpagadasAntes(suscripcion, fechaLimiteSuspension))) {
+                    ejecucion.omitido();
+                    continue;
+                }
+                try {
+                    // Se vuelve a comprobar con el lock: un pago entre medias evita la suspensión
+                    if (suscripcionService.transicionar(suscripcion.getId(), EstadoSuscripcion.MOROSA,
+                            EstadoSuscripcion.SUSPENDIDA, s -> tieneFacturasImpagadasAntes(s, fechaLimiteSuspension),
+                            s -> {})) {
+                        log.info("Suscripción {} SUSPENDIDA por impago prolongado", suscripcion.getId());
+                        suspendidas++;
+                        ejecucion.procesado();
+                    } else {
+                        ejecucion.omitido();
+                    }
+                } catch (Exception e) {
+                    log.error("Error al suspender la suscripción {}: {}", suscripcion.getId(), e.getMessage());
+                    ejecucion.fallido();
+                }
             }
-        }
-        
-        log.info("=== Proceso de suspensiones completado: {} suscripciones suspendidas ===", 
-                suspendidas);
+            
+            log.info("=== Proceso de suspensiones completado: {} suscripciones suspendidas ===", 
+                    suspendidas);
+        });
     }
 
     /**
@@ -157,58 +216,73 @@ public class CicloVidaSuscripcionService {
      * Expira suscripciones suspendidas por más de 60 días
      */
     @Scheduled(cron = "0 0 3 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarExpiraciones() {
-        log.info("=== Iniciando proceso de expiraciones ===");
-        
-        LocalDate fechaLimiteExpiracion = LocalDate.now().minusDays(DIAS_PARA_EXPIRAR);
-        
-        List<Suscripcion> suspendidas = suscripcionRepository.findByEstado(EstadoSuscripcion.SUSPENDIDA);
-        int expiradas = 0;
-        
-        for (Suscripcion suscripcion : suspendidas) {
-            // Verificar el tiempo que lleva suspendida (usando fechas de facturas)
-            List<Factura> facturasPendientes = facturaRepository
-                    .findBySuscripcionIdOrderByFechaEmisionDesc(suscripcion.getId())
-                    .stream()
-                    .filter(f -> f.getEstado() == EstadoFactura.PENDIENTE || 
-                                f.getEstado() == EstadoFactura.VENCIDA)
-                    .filter(f -> f.getFechaVencimiento().isBefore(fechaLimiteExpiracion))
-                    .toList();
+        monitorJobs.ejecutar("expiraciones", ejecucion -> {
+            log.info("=== Iniciando proceso de expiraciones ===");
+            
+            LocalDate fechaLimiteExpiracion = LocalDate.now().minusDays(DIAS_PARA_EXPIRAR);
+            
+            List<Suscripcion> suspendidas = ejecucion.fase("consulta",
+                    () -> suscripcionRepository.findByEstado(EstadoSuscripcion.SUSPENDIDA));
+            ejecucion.total(suspendidas.size());
+            int expiradas = 0;
             
-            if (!facturasPendientes.isEmpty()) {
-                suscripcion.setEstado(EstadoSuscripcion.EXPIRADA);
-                suscripcion.setFechaCancelacion(LocalDateTime.now());
-                suscripcion.setMotivoCancelacion("Expirada automáticamente por impago prolongado");
-                suscripcionRepository.save(suscripcion);
-                log.info("Suscripción {} EXPIRADA por impago prolongado", suscripcion.getId());
-                expiradas++;
+            for (Suscripcion suscripcion : suspendidas) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                ejecucion.elemento(suscripcion.getId(), EventosJfr.paisCargado(suscripcion));
+                // Verificar el tiempo que lleva suspendida (usando fechas de facturas)
+                if (!ejecucion.fase("consulta", () -> tieneFacturasImpagadasAntes(suscripcion, fechaLimiteExpiracion))) {
+                    ejecucion.omitido();
+                    continue;
+                }
+                try {
+                    if (suscripcionService.transicionar(suscripcion.getId(), EstadoSuscripcion.SUSPENDIDA,
+                            EstadoSuscripcion.EXPIRADA, s -> tieneFacturasImpagadasAntes(s, fechaLimiteExpiracion),
+                            s -> {
+                                s.setFechaCancelacion(LocalDateTime.now());
+                                s.setMotivoCancelacion("Expirada automáticamente por impago prolongado");
+                            })) {
+                        log.info("Suscripción {} EXPIRADA por impago prolongado", suscripcion.getId());
+                        expiradas++;
+                        ejecucion.procesado();
+                    } else {
+                        ejecucion.omitido();
+                    }
+                } catch (Exception e) {
+                    log.error("Error al expirar la suscripción {}: {}", suscripcion.getId(), e.getMessage());
+                    ejecucion.fallido();
+                }
             }
-        }
-        
-        log.info("=== Proceso de expiraciones completado: {} suscripciones expiradas ===", 
-                expiradas);
+            
+            log.info("=== Proceso de expiraciones completado: {} suscripciones expiradas ===", 
+                    expiradas);
+        });
     }
 
     /**
-     * Cancela una suscripción manualmente
+     * Cancela una suscripción manualmente.
+     * Devuelve el DTO ya mapeado: sin open-in-view no hay sesión fuera del servicio.
      */
-    public Suscripcion cancelarSuscripcion(Long suscripcionId, String motivo) {
+    public SuscripcionDTO cancelarSuscripcion(Long suscripcionId, String motivo) {
         Suscripcion suscripcion = suscripcionRepository.findById(suscripcionId)
                 .orElseThrow(() -> new RuntimeException("Suscripción no encontrada: " + suscripcionId));
         
-        suscripcion.setEstado(EstadoSuscripcion.CANCELADA);
+        suscripcionService.aplicarEstado(suscripcion, EstadoSuscripcion.CANCELADA);
         suscripcion.setFechaCancelacion(LocalDateTime.now());
         suscripcion.setMotivoCancelacion(motivo != null ? motivo : "Cancelación solicitada por el usuario");
         suscripcion.setRenovacionAutomatica(false);
         
         log.info("Suscripción {} cancelada manualmente. Motivo: {}", suscripcionId, motivo);
-        return suscripcionRepository.save(suscripcion);
+        return suscripcionService.toDTO(suscripcionRepository.save(suscripcion));
     }
 
     /**
      * Reactiva una suscripción cancelada o suspendida
      */
-    public Suscripcion reactivarSuscripcion(Long suscripcionId) {
+    public SuscripcionDTO reactivarSuscripcion(Long suscripcionId) {
         Suscripcion suscripcion = suscripcionRepository.findById(suscripcionId)
                 .orElseThrow(() -> new RuntimeException("Suscripción no encontrada: " + suscripcionId));
         
@@ -221,7 +295,7 @@ public class CicloVidaSuscripcionService {
             throw new RuntimeException("Debe pagar las facturas pendientes antes de reactivar");
         }
         
-        suscripcion.setEstado(EstadoSuscripcion.ACTIVA);
+        suscripcionService.aplicarEstado(suscripcion, EstadoSuscripcion.ACTIVA);
         suscripcion.setFechaCancelacion(null);
         suscripcion.setMotivoCancelacion(null);
         suscripcion.setRenovacionAutomatica(true);
@@ -232,20 +306,20 @@ public class CicloVidaSuscripcionService {
         }
         
         log.info("Suscripción {} reactivada", suscripcionId);
-        return suscripcionRepository.save(suscripcion);
+        return suscripcionService.toDTO(suscripcionRepository.save(suscripcion));
     }
 
     /**
      * Activa o desactiva la renovación automática
      */
-    public Suscripcion toggleRenovacionAutomatica(Long suscripcionId, boolean renovacionAutomatica) {
+    public SuscripcionDTO toggleRenovacionAutomatica(Long suscripcionId, boolean renovacionAutomatica) {
         Suscripcion suscripcion = suscripcionRepository.findById(suscripcionId)
                 .orElseThrow(() -> new RuntimeException("Suscripción no encontrada: " + suscripcionId));
         
         suscripcion.setRenovacionAutomatica(renovacionAutomatica);
         log.info("Suscripción {} - Renovación automática: {}", suscripcionId, renovacionAutomatica);
         
-        return suscripcionRepository.save(suscripcion);
+        return suscripcionService.toDTO(suscripcionRepository.save(suscripcion));
     }
 
     /**
@@ -261,16 +335,27 @@ public class CicloVidaSuscripcionService {
         return !pendientes.isEmpty();
     }
 
+    // Facturas pendientes o vencidas cuyo vencimiento es anterior a la fecha límite
+    private boolean tieneFacturasImpagadasAntes(Suscripcion suscripcion, LocalDate fechaLimite) {
+        return facturaRepository.findBySuscripcionIdOrderByFechaEmisionDesc(suscripcion.getId())
+                .stream()
+                .filter(f -> f.getEstado() == EstadoFactura.PENDIENTE || 
+                            f.getEstado() == EstadoFactura.VENCIDA)
+                .anyMatch(f -> f.getFechaVencimiento().isBefore(fechaLimite));
+    }
+
     /**
-     * Obtiene estadísticas del ciclo de vida
+     * Obtiene estadísticas del ciclo de vida.
+     * Lectura en memoria de ContadoresCicloVida: no abre transacción ni consulta la BD
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EstadisticasCicloVida obtenerEstadisticas() {
-        long activas = suscripcionRepository.countByEstado(EstadoSuscripcion.ACTIVA);
-        long morosas = suscripcionRepository.countByEstado(EstadoSuscripcion.MOROSA);
-        long suspendidas = suscripcionRepository.countByEstado(EstadoSuscripcion.SUSPENDIDA);
-        long canceladas = suscripcionRepository.countByEstado(EstadoSuscripcion.CANCELADA);
-        long expiradas = suscripcionRepository.countByEstado(EstadoSuscripcion.EXPIRADA);
-        long facturasPendientes = facturaRepository.countByEstado(EstadoFactura.PENDIENTE);
+        long activas = contadores.suscripciones(EstadoSuscripcion.ACTIVA);
+        long morosas = contadores.suscripciones(EstadoSuscripcion.MOROSA);
+        long suspendidas = contadores.suscripciones(EstadoSuscripcion.SUSPENDIDA);
+        long canceladas = contadores.suscripciones(EstadoSuscripcion.CANCELADA);
+        long expiradas = contadores.suscripciones(EstadoSuscripcion.EXPIRADA);
+        long facturasPendientes = contadores.facturas(EstadoFactura.PENDIENTE);
         
         return new EstadisticasCicloVida(activas, morosas, suspendidas, canceladas, expiradas, facturasPendientes);
     }
@@ -285,94 +370,6 @@ public class CicloVidaSuscripcionService {
         procesarExpiraciones();
     }
 
-    // ===== MÉTODOS PARA EJECUCIÓN MANUAL VIA API =====
-
-    /**
-     * Ejecuta renovaciones manualmente y retorna el número de renovaciones
-     */
-    public int ejecutarRenovacionesManual() {
-        LocalDate hoy = LocalDate.now();
-        List<Suscripcion> suscripcionesParaRenovar = suscripcionRepository
-                .findSuscripcionesParaRenovar(hoy);
-        
-        int renovadas = 0;
-        for (Suscripcion suscripcion : suscripcionesParaRenovar) {
-            try {
-                if (suscripcion.getRenovacionAutomatica() && !tieneFacturasPendientes(suscripcion)) {
-                    suscripcionService.generarFacturaMensual(suscripcion);
-                    renovadas++;
-                }
-            } catch (Exception e) {
-                log.error("Error al renovar suscripción {}: {}", suscripcion.getId(), e.getMessage());
-            }
-        }
-        return renovadas;
-    }
-
-    /**
-     * Procesa morosos manualmente y retorna el número de procesados
-     */
-    public int ejecutarProcesoMorososManual() {
-        LocalDate hoy = LocalDate.now();
-        LocalDate fechaLimiteMorosa = hoy.minusDays(DIAS_GRACIA);
-        
-        List<Factura> facturasVencidas = facturaRepository.findVencidas(fechaLimiteMorosa);
-        int procesados = 0;
-        
-        for (Factura factura : facturasVencidas) {
-            Suscripcion suscripcion = factura.getSuscripcion();
-            if (suscripcion != null && suscripcion.getEstado() == EstadoSuscripcion.ACTIVA) {
-                suscripcion.setEstado(EstadoSuscripcion.MOROSA);
-                suscripcionRepository.save(suscripcion);
-                procesados++;
-            }
-        }
-        return procesados;
-    }
-
-    /**
-     * Procesa suspensiones manualmente y retorna el número de procesados
-     */
-    public int ejecutarProcesoSuspensionesManual() {
-        LocalDate hoy = LocalDate.now();
-        LocalDate fechaLimiteSuspension = hoy.minusDays(DIAS_PARA_SUSPENDER);
-        
-        List<Factura> facturasVencidas = facturaRepository.findVencidas(fechaLimiteSuspension);
-        int procesados = 0;
-        
-        for (Factura factura : facturasVencidas) {
-            Suscripcion suscripcion = factura.getSuscripcion();
-            if (suscripcion != null && suscripcion.getEstado() == EstadoSuscripcion.MOROSA) {
-                suscripcion.setEstado(EstadoSuscripcion.SUSPENDIDA);
-                suscripcionRepository.save(suscripcion);
-                procesados++;
-            }
-        }
-        return procesados;
-    }
-
-    /**
-     * Procesa expiraciones manualmente y retorna el número de procesados
-     */
-    public int ejecutarProcesoExpiracionesManual() {
-        LocalDate hoy = LocalDate.now();
-        LocalDate fechaLimiteExpiracion = hoy.minusDays(DIAS_PARA_EXPIRAR);
-        
-        List<Factura> facturasVencidas = facturaRepository.findVencidas(fechaLimiteExpiracion);
-        int procesados = 0;
-        
-        for (Factura factura : facturasVencidas) {
-            Suscripcion suscripcion = factura.getSuscripcion();
-            if (suscripcion != null && suscripcion.getEstado() == EstadoSuscripcion.SUSPENDIDA) {
-                suscripcion.setEstado(EstadoSuscripcion.EXPIRADA);
-                suscripcion.setRenovacionAutomatica(false);
-                suscripcionRepository.save(suscripcion);
-                procesados++;
-            }
-        }
-        return procesados;
-    }
-
     /**
      * Record con estadísticas del ciclo de vida
      */
@@ -0,0 +1,183 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contadores en memoria de suscripciones y facturas por estado.
+ * Se cargan una vez con un GROUP BY por tabla y después se mantienen con los
+ * eventos de cambio de estado que publican los servicios al confirmar la
+ * transacción. Una reconciliación periódica corrige lo que no pase por los
+ * servicios (borrados en cascada, cambios directos en BD).
+ *
+ * Un evento que llega mientras se cuenta en BD puede estar ya en el recuento o no, según
+ * cuándo se confirmó su transacción. La reconciliación no toca los estados que recibieron
+ * eventos durante el recuento y los deja para la siguiente; si no, podría contar dos veces un
+ * cambio y mantener el error hasta la próxima pasada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContadoresCicloVida {
+
+    private final SuscripcionRepository suscripcionRepository;
+    private final FacturaRepository facturaRepository;
+
+    private final Map<EstadoSuscripcion, LongAdder> suscripciones = crear(EstadoSuscripcion.class);
+    private final Map<EstadoFactura, LongAdder> facturas = crear(EstadoFactura.class);
+    // Eventos aplicados a cada estado, para saber cuáles cambiaron durante la reconciliación
+    private final Map<EstadoSuscripcion, LongAdder> eventosSuscripciones = crear(EstadoSuscripcion.class);
+    private final Map<EstadoFactura, LongAdder> eventosFacturas = crear(EstadoFactura.class);
+
+    private volatile boolean cargados;
+    // Una reconciliación a la vez (ReentrantLock: ver DetectorAnclajes)
+    private final ReentrantLock reconciliacion = new ReentrantLock();
+
+    public long suscripciones(EstadoSuscripcion estado) {
+        asegurarCargados();
+        return suscripciones.get(estado).sum();
+    }
+
+    public long facturas(EstadoFactura estado) {
+        asegurarCargados();
+        return facturas.get(estado).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambioEstadoSuscripcion(CambioEstadoSuscripcion evento) {
+        mover(suscripciones, eventosSuscripciones, evento.anterior(), evento.nuevo());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCambioEstadoFactura(CambioEstadoFactura evento) {
+        mover(facturas, eventosFacturas, evento.anterior(), evento.nuevo());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlArrancar() {
+        asegurarCargados();
+    }
+
+    /**
+     * Recalcula los contadores desde la BD y avisa si se habían desviado.
+     * Sin readOnly para leer del primario: una réplica con retraso "corregiría" los
+     * contadores a valores antiguos (ver ReplicaRoutingDataSource)
+     */
+    @Scheduled(initialDelayString = "${app.ciclo-vida.reconciliacion-ms:300000}",
+            fixedDelayString = "${app.ciclo-vida.reconciliacion-ms:300000}")
+    @Transactional
+    public void reconciliar() {
+        reconciliacion.lock();
+        try {
+            Map<EstadoSuscripcion, Long> eventosAntesSuscripciones = sumar(eventosSuscripciones, EstadoSuscripcion.class);
+            Map<EstadoFactura, Long> eventosAntesFacturas = sumar(eventosFacturas, EstadoFactura.class);
+            Map<EstadoSuscripcion, Long> realesSuscripciones = leer(suscripcionRepository.contarPorEstado(), EstadoSuscripcion.class);
+            Map<EstadoFactura, Long> realesFacturas = leer(facturaRepository.contarPorEstado(), EstadoFactura.class);
+
+            // La carga inicial se aplica entera: no hay valor anterior que conservar
+            int desviados = ajustar(suscripciones, realesSuscripciones, cargados ? eventosSuscripciones : null, eventosAntesSuscripciones)
+                    + ajustar(facturas, realesFacturas, cargados ? eventosFacturas : null, eventosAntesFacturas);
+            if (cargados && desviados > 0) {
+                log.warn("Reconciliación de contadores de ciclo de vida: {} estados corregidos", desviados);
+            }
+            cargados = true;
+        } finally {
+            reconciliacion.unlock();
+        }
+    }
+
+    private void asegurarCargados() {
+        if (!cargados) {
+            reconciliar();
+        }
+    }
+
+    // El evento se anota antes de mover el contador (ver ajustar)
+    private static <E extends Enum<E>> void mover(Map<E, LongAdder> contadores, Map<E, LongAdder> eventos,
+                                                  E anterior, E nuevo) {
+        if (anterior == nuevo) {
+            return;
+        }
+        if (anterior != null) {
+            eventos.get(anterior).increment();
+            contadores.get(anterior).decrement();
+        }
+        if (nuevo != null) {
+            eventos.get(nuevo).increment();
+            contadores.get(nuevo).increment();
+        }
+    }
+
+    // Ajusta cada contador con la diferencia respecto al valor real, salvo los estados con
+    // eventos desde eventosAntes (eventos null: todos)
+    private static <E extends Enum<E>> int ajustar(Map<E, LongAdder> contadores, Map<E, Long> reales,
+                                                   Map<E, LongAdder> eventos, Map<E, Long> eventosAntes) {
+        int desviados = 0;
+        for (Map.Entry<E, LongAdder> entrada : contadores.entrySet()) {
+            // Se lee el contador antes de mirar los eventos: un evento que lo haya movido ya está anotado,
+            // y uno posterior suma sobre el ajuste, que es relativo
+            long actual = entrada.getValue().sum();
+            if (eventos != null && eventos.get(entrada.getKey()).sum() != eventosAntes.get(entrada.getKey())) {
+                log.debug("Reconciliación de {} aplazada: hubo cambios durante el recuento", entrada.getKey());
+                continue;
+            }
+            long diferencia = reales.get(entrada.getKey()) - actual;
+            if (diferencia != 0) {
+                entrada.getValue().add(diferencia);
+                desviados++;
+            }
+        }
+        return desviados;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> sumar(Map<E, LongAdder> contadores, Class<E> tipo) {
+        Map<E, Long> valores = new EnumMap<>(tipo);
+        contadores.forEach((estado, contador) -> valores.put(estado, contador.sum()));
+        return valores;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> leer(List<Object[]> filas, Class<E> tipo) {
+        Map<E, Long> reales = new EnumMap<>(tipo);
+        for (E estado : tipo.getEnumConstants()) {
+            reales.put(estado, 0L);
+        }
+        for (Object[] fila : filas) {
+            reales.put(tipo.cast(fila[0]), ((Number) fila[1]).longValue());
+        }
+        return reales;
+    }
+
+    private static <E extends Enum<E>> Map<E, LongAdder> crear(Class<E> tipo) {
+        Map<E, LongAdder> contadores = new EnumMap<>(tipo);
+        for (E estado : tipo.getEnumConstants()) {
+            contadores.put(estado, new LongAdder());
+        }
+        return contadores;
+    }
+
+    /**
+     * Cambio de estado de una suscripción; anterior null es un alta y nuevo null una baja
+     */
+    public record CambioEstadoSuscripcion(Long suscripcionId, EstadoSuscripcion anterior, EstadoSuscripcion nuevo) {}
+
+    /**
+     * Cambio de estado de una factura; anterior null es un alta y nuevo null una baja
+     */
+    public record CambioEstadoFactura(Long facturaId, EstadoFactura anterior, EstadoFactura nuevo) {}
+}
@@ -0,0 +1,147 @@
+package com.example.ProyectoSpringBoot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Datos del panel de administración en una sola llamada: estadísticas de facturación, resumen por estado,
+ * ciclo de vida y auditoría (estadísticas y cambios recientes).
+ *
+ * Cada sección se consulta a la vez en su propio hilo virtual (y su propia transacción) y tiene
+ * app.dashboard.timeout-ms para terminar; la que no llega a tiempo o falla se devuelve vacía con su
+ * estado, y el resto del panel se sirve igual. El panel completo se guarda app.dashboard.cache-ms:
+ * mientras tanto las peticiones lo reutilizan, y si caduca con varias peticiones a la vez solo una lo recalcula.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    public static final String OK = "ok";
+    public static final String TIMEOUT = "timeout";
+    public static final String ERROR = "error";
+
+    private final FacturaService facturaService;
+    private final CicloVidaSuscripcionService cicloVidaService;
+    private final AuditoriaService auditoriaService;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutNanos;
+    private final int limiteAuditoria;
+
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final CalculoCompartido<Panel> panel;
+
+    public DashboardService(FacturaService facturaService,
+                            CicloVidaSuscripcionService cicloVidaService,
+                            AuditoriaService auditoriaService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.dashboard.timeout-ms:2000}") long timeoutMs,
+                            @Value("${app.dashboard.cache-ms:5000}") long cacheMs,
+                            @Value("${app.dashboard.limite-auditoria:50}") int limiteAuditoria) {
+        this.facturaService = facturaService;
+        this.cicloVidaService = cicloVidaService;
+        this.auditoriaService = auditoriaService;
+        this.meterRegistry = meterRegistry;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        this.panel = new CalculoCompartido<>(cacheMs);
+        this.limiteAuditoria = limiteAuditoria;
+    }
+
+    /**
+     * Panel guardado si no ha caducado; si no, uno nuevo
+     */
+    public Panel obtener() {
+        return panel.obtener(this::calcular);
+    }
+
+    @PreDestroy
+    void detener() {
+        hilos.shutdownNow();
+    }
+
+    Panel calcular() {
+        long inicio = System.nanoTime();
+        long limite = inicio + timeoutNanos;
+        Future<FacturaService.EstadisticasFacturacion> facturacion = hilos.submit(facturaService::getEstadisticas);
+        Future<List<FacturaService.ResumenEstadoFactura>> resumenEstado = hilos.submit(facturaService::getResumenPorEstado);
+        Future<CicloVidaSuscripcionService.EstadisticasCicloVida> cicloVida = hilos.submit(cicloVidaService::obtenerEstadisticas);
+        Future<AuditoriaService.EstadisticasAuditoria> auditoria = hilos.submit(auditoriaService::obtenerEstadisticas);
+        Future<List<AuditoriaService.RegistroAuditoria>> auditoriaReciente =
+                hilos.submit(() -> auditoriaService.obtenerCambiosRecientes(limiteAuditoria));
+
+        Map<String, String> secciones = new LinkedHashMap<>();
+        Panel panel = new Panel(LocalDateTime.now(),
+                esperar("facturacion", facturacion, inicio, limite, secciones),
+                esperar("resumenEstado", resumenEstado, inicio, limite, secciones),
+                esperar("cicloVida", cicloVida, inicio, limite, secciones),
+                esperar("auditoria", auditoria, inicio, limite, secciones),
+                esperar("auditoriaReciente", auditoriaReciente, inicio, limite, secciones),
+                limiteAuditoria,
+                secciones.values().stream().allMatch(OK::equals),
+                secciones);
+        if (!panel.completo()) {
+            log.warn("Dashboard parcial en {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), secciones);
+        }
+        return panel;
+    }
+
+    // Todas las secciones comparten el mismo límite: el panel tarda lo que la más lenta, como mucho timeout-ms
+    private <T> T esperar(String seccion, Future<T> futuro, long inicio, long limite,
+                          Map<String, String> secciones) {
+        String estado = OK;
+        T valor = null;
+        try {
+            valor = futuro.get(Math.max(limite - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            estado = TIMEOUT;
+            futuro.cancel(true);
+        } catch (ExecutionException e) {
+            estado = ERROR;
+            log.error("Error en la sección {} del dashboard", seccion, e.getCause());
+        } catch (InterruptedException e) {
+            estado = ERROR;
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        secciones.put(seccion, estado);
+        Timer.builder("dashboard.seccion")
+                .description("Espera por cada sección del dashboard")
+                .tag("seccion", seccion)
+                .tag("estado", estado)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return valor;
+    }
+
+    /**
+     * Panel de administración. Las secciones que no llegaron a tiempo o fallaron van a null
+     * @param limiteAuditoria Número de cambios pedidos para auditoriaReciente
+     * @param completo true si todas las secciones están
+     * @param secciones Estado de cada sección: ok, timeout o error
+     */
+    public record Panel(
+            LocalDateTime generado,
+            FacturaService.EstadisticasFacturacion facturacion,
+            List<FacturaService.ResumenEstadoFactura> resumenEstado,
+            CicloVidaSuscripcionService.EstadisticasCicloVida cicloVida,
+            AuditoriaService.EstadisticasAuditoria auditoria,
+            List<AuditoriaService.RegistroAuditoria> auditoriaReciente,
+            int limiteAuditoria,
+            boolean completo,
+            Map<String, String> secciones
+    ) {}
+}
@@ -0,0 +1,164 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.EventoOutbox;
+import com.example.ProyectoSpringBoot.repository.EventoOutboxRepository;
+import com.example.ProyectoSpringBoot.service.BusEventos.Entrega;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vacía eventos_outbox en lotes hacia el BusEventos. Una fila se marca como despachada
+ * cuando todos los consumidores la han procesado; si la aplicación se para antes, la
+ * fila sigue pendiente y se vuelve a entregar al arrancar (al menos una vez).
+ */
+@Service
+@Slf4j
+public class DespachadorEventos {
+
+    private final EventoOutboxRepository outboxRepository;
+    private final BusEventos bus;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final int diasRetencion;
+
+    private final Map<String, Class<? extends EventoDominio>> tipos = EventoDominio.tipos();
+    // Publicados en el bus y aún sin confirmar: {secuencia, id de outbox}
+    private final ArrayDeque<long[]> sinConfirmar = new ArrayDeque<>();
+    private final Set<Long> enVuelo = new HashSet<>();
+    // Una pasada a la vez (ReentrantLock: ver DetectorAnclajes)
+    private final ReentrantLock pasada = new ReentrantLock();
+
+    public DespachadorEventos(EventoOutboxRepository outboxRepository,
+                              BusEventos bus,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.eventos.lote:200}") int tamanoLote,
+                              @Value("${app.eventos.retencion-dias:7}") int diasRetencion) {
+        this.outboxRepository = outboxRepository;
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanoLote = tamanoLote;
+        this.diasRetencion = diasRetencion;
+    }
+
+    /**
+     * Publica en el bus los eventos pendientes y confirma los ya procesados
+     * @return Número de eventos publicados en esta pasada
+     */
+    @Scheduled(fixedDelayString = "${app.eventos.despacho-ms:500}")
+    public int despachar() {
+        pasada.lock();
+        try {
+            return despacharLotes();
+        } finally {
+            pasada.unlock();
+        }
+    }
+
+    private int despacharLotes() {
+        confirmar();
+        int publicados = 0;
+        // Cada pasada empieza desde el principio (recoge filas de id menor confirmadas tarde) y avanza
+        // por id: las filas aún en vuelo no se releen y no cortan la pasada
+        long ultimo = 0;
+        while (true) {
+            List<EventoOutbox> pendientes = outboxRepository.findPendientes(ultimo, PageRequest.of(0, tamanoLote));
+            if (pendientes.isEmpty()) {
+                break;
+            }
+            ultimo = pendientes.get(pendientes.size() - 1).getId();
+
+            List<Entrega> entregas = new ArrayList<>();
+            List<Long> ilegibles = new ArrayList<>();
+            for (EventoOutbox fila : pendientes) {
+                if (!enVuelo.add(fila.getId())) {
+                    continue;
+                }
+                EventoDominio evento = leer(fila);
+                if (evento == null) {
+                    ilegibles.add(fila.getId());
+                } else {
+                    entregas.add(new Entrega(fila.getId(), fila.getFechaCreacion(), evento));
+                }
+            }
+            if (!ilegibles.isEmpty()) {
+                // Se retiran del outbox para que no bloqueen los siguientes
+                marcar(ilegibles);
+            }
+            if (!entregas.isEmpty()) {
+                long ultima = bus.publicar(entregas);
+                long secuencia = ultima - entregas.size() + 1;
+                for (Entrega entrega : entregas) {
+                    sinConfirmar.add(new long[]{secuencia++, entrega.id()});
+                }
+                publicados += entregas.size();
+                confirmar();
+            }
+            if (pendientes.size() < tamanoLote) {
+                break;
+            }
+        }
+        confirmar();
+        return publicados;
+    }
+
+    /**
+     * Borra los eventos despachados hace más de diasRetencion días
+     */
+    @Scheduled(cron = "${app.eventos.purga-cron:0 30 3 * * ?}")
+    @Transactional
+    public int purgar() {
+        int borrados = outboxRepository.borrarDespachadosAntes(LocalDateTime.now().minusDays(diasRetencion));
+        log.info("Outbox de eventos: {} eventos despachados purgados", borrados);
+        return borrados;
+    }
+
+    private void confirmar() {
+        long procesado = bus.procesadoPorTodos();
+        List<Long> ids = new ArrayList<>();
+        while (!sinConfirmar.isEmpty() && sinConfirmar.peek()[0] <= procesado) {
+            ids.add(sinConfirmar.poll()[1]);
+        }
+        if (!ids.isEmpty()) {
+            marcar(ids);
+        }
+    }
+
+    private void marcar(List<Long> ids) {
+        transactionTemplate.executeWithoutResult(estado ->
+                outboxRepository.marcarDespachados(ids, LocalDateTime.now()));
+        ids.forEach(enVuelo::remove);
+    }
+
+    private EventoDominio leer(EventoOutbox fila) {
+        Class<? extends EventoDominio> tipo = tipos.get(fila.getTipo());
+        if (tipo == null) {
+            log.error("Evento {} de tipo desconocido {}: se descarta", fila.getId(), fila.getTipo());
+            return null;
+        }
+        try {
+            return objectMapper.readValue(fila.getPayload(), tipo);
+        } catch (JsonProcessingException e) {
+            log.error("Evento {} ilegible: se descarta", fila.getId(), e);
+            return null;
+        }
+    }
+}
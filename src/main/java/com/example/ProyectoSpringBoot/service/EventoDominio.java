@@ -0,0 +1,61 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Eventos de dominio de facturación. Se guardan en eventos_outbox dentro de la
+ * transacción que los origina (PublicadorEventos) y DespachadorEventos los entrega
+ * después a los consumidores del BusEventos, al menos una vez.
+ *
+ * Los contadores de ContadoresCicloVida siguen en eventos de Spring porque necesitan
+ * reflejar el cambio en cuanto se confirma la transacción.
+ */
+public sealed interface EventoDominio {
+
+    /**
+     * Suscripción o factura a la que se refiere el evento
+     */
+    Long agregadoId();
+
+    record FacturaGenerada(Long facturaId, Long suscripcionId, BigDecimal total, boolean esProrrateo)
+            implements EventoDominio {
+        public Long agregadoId() {
+            return facturaId;
+        }
+    }
+
+    record FacturaPagada(Long facturaId, Long suscripcionId, BigDecimal total) implements EventoDominio {
+        public Long agregadoId() {
+            return facturaId;
+        }
+    }
+
+    record PlanCambiado(Long suscripcionId, Long planAnteriorId, Long planNuevoId) implements EventoDominio {
+        public Long agregadoId() {
+            return suscripcionId;
+        }
+    }
+
+    // anterior es null en el alta de la suscripción
+    record EstadoSuscripcionCambiado(Long suscripcionId, EstadoSuscripcion anterior, EstadoSuscripcion nuevo)
+            implements EventoDominio {
+        public Long agregadoId() {
+            return suscripcionId;
+        }
+    }
+
+    /**
+     * Tipos por nombre simple, tal como se guardan en la columna tipo del outbox
+     */
+    static Map<String, Class<? extends EventoDominio>> tipos() {
+        return Arrays.stream(EventoDominio.class.getPermittedSubclasses())
+                .map(c -> c.asSubclass(EventoDominio.class))
+                .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.hibernate.Hibernate;
+
+/**
+ * Eventos propios de JDK Flight Recorder para la facturación, los jobs de ciclo de vida,
+ * el cambio de plan y las consultas de auditoría. Llevan suscripción, país y fase, y la
+ * duración la pone JFR (begin/commit), así en JMC se ve qué suscripción o fase es lenta.
+ *
+ * Sin una grabación activa shouldCommit() es falso y no se rellena nada.
+ * Ajustes en jfr/facturacion.jfc; se graban con GrabacionesJfr (/actuator/jfr) o con -XX:StartFlightRecording
+ */
+public final class EventosJfr {
+
+    static final String CATEGORIA = "ProyectoSpringBoot";
+
+    private EventosJfr() {
+    }
+
+    /**
+     * País de la suscripción solo si usuario y perfil ya están cargados: un evento no lanza consultas
+     */
+    static String paisCargado(Suscripcion suscripcion) {
+        if (suscripcion == null || !Hibernate.isInitialized(suscripcion.getUsuario())
+                || suscripcion.getUsuario() == null
+                || !Hibernate.isInitialized(suscripcion.getUsuario().getPerfil())
+                || suscripcion.getUsuario().getPerfil() == null) {
+            return null;
+        }
+        return suscripcion.getUsuario().getPerfil().getPais();
+    }
+
+    @Name("com.example.ProyectoSpringBoot.FaseFacturacion")
+    @Label("Fase de facturación")
+    @Description("Impuestos o inserción de una factura mensual o de prorrateo")
+    @Category({CATEGORIA, "Facturación"})
+    @StackTrace(false)
+    public static class FaseFacturacion extends Event {
+
+        @Label("Suscripción")
+        long suscripcionId;
+
+        @Label("País")
+        String pais;
+
+        @Label("Fase")
+        String fase;
+
+        @Label("Tipo")
+        @Description("mensual o prorrateo")
+        String tipo;
+
+        @Label("Job")
+        String job;
+
+        void terminar(Long suscripcionId, String pais, String fase, String tipo, String job) {
+            end();
+            if (shouldCommit()) {
+                this.suscripcionId = suscripcionId != null ? suscripcionId : 0;
+                this.pais = pais;
+                this.fase = fase;
+                this.tipo = tipo;
+                this.job = job;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.example.ProyectoSpringBoot.ElementoJob")
+    @Label("Elemento de un job")
+    @Description("Una suscripción recorrida por un job programado, desde que se empieza hasta su resultado")
+    @Category({CATEGORIA, "Jobs"})
+    @StackTrace(false)
+    public static class ElementoJob extends Event {
+
+        @Label("Job")
+        String job;
+
+        @Label("Suscripción")
+        long suscripcionId;
+
+        @Label("País")
+        String pais;
+
+        @Label("Resultado")
+        String resultado;
+
+        void terminar(String resultado) {
+            end();
+            if (shouldCommit()) {
+                this.resultado = resultado;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.example.ProyectoSpringBoot.FaseJob")
+    @Label("Fase de un job")
+    @Description("Consulta, actualización u otra fase de un job programado")
+    @Category({CATEGORIA, "Jobs"})
+    @StackTrace(false)
+    public static class FaseJob extends Event {
+
+        @Label("Job")
+        String job;
+
+        @Label("Fase")
+        String fase;
+
+        @Label("Suscripción")
+        @Description("Elemento en curso, 0 en las fases de la ejecución completa")
+        long suscripcionId;
+    }
+
+    @Name("com.example.ProyectoSpringBoot.CambioPlan")
+    @Label("Cambio de plan")
+    @Description("cambiarPlan completo, incluida la espera por el lock de la suscripción")
+    @Category({CATEGORIA, "Suscripciones"})
+    @StackTrace(false)
+    public static class CambioPlan extends Event {
+
+        @Label("Suscripción")
+        long suscripcionId;
+
+        @Label("País")
+        String pais;
+
+        @Label("Plan anterior")
+        long planAnteriorId;
+
+        @Label("Plan nuevo")
+        long planNuevoId;
+
+        @Label("Prorrateo")
+        @Description("Subtotal facturado por el cambio, 0 si no hubo factura")
+        double prorrateo;
+
+        @Label("Aplicado")
+        boolean aplicado;
+    }
+
+    @Name("com.example.ProyectoSpringBoot.ConsultaAuditoria")
+    @Label("Consulta de auditoría")
+    @Description("Consulta de Envers de AuditoriaService sobre un tipo de entidad")
+    @Category({CATEGORIA, "Auditoría"})
+    @StackTrace(false)
+    public static class ConsultaAuditoria extends Event {
+
+        @Label("Consulta")
+        String consulta;
+
+        @Label("Entidad")
+        String entidad;
+
+        @Label("Id de entidad")
+        @Description("0 si la consulta no es de una entidad concreta")
+        long entidadId;
+
+        @Label("Filas")
+        int filas;
+
+        void terminar(String consulta, String entidad, Long entidadId, int filas) {
+            end();
+            if (shouldCommit()) {
+                this.consulta = consulta;
+                this.entidad = entidad;
+                this.entidadId = entidadId != null ? entidadId : 0;
+                this.filas = filas;
+                commit();
+            }
+        }
+    }
+}
@@ -4,17 +4,27 @@ import com.example.ProyectoSpringBoot.dto.FacturaDTO;
 import com.example.ProyectoSpringBoot.entity.Factura;
 import com.example.ProyectoSpringBoot.enums.EstadoFactura;
 import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.FacturaSpecifications;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida.CambioEstadoFactura;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaPagada;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +36,23 @@ import java.util.stream.Collectors;
 @Transactional
 public class FacturaService {
 
+    // A partir de esta página el total puede servirse desde caché
+    private static final int PAGINA_PROFUNDA = 5;
+    private static final long TTL_CONTEO_MS = 60_000;
+    private static final int MAX_CONTEOS_CACHEADOS = 1_000;
+    private static final long TTL_ESTADISTICAS_MS = 5_000;
+
     private final FacturaRepository facturaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResumenMensualFacturas resumenMensual;
+    private final ImpuestoService impuestoService;
+    private final PublicadorEventos publicadorEventos;
+
+    // Totales por combinación de filtros para la paginación profunda
+    private final Map<String, ConteoCacheado> conteosAproximados = new ConcurrentHashMap<>();
+
+    // Estadísticas del panel: TTL corto y una sola consulta en vuelo
+    private final CalculoCompartido<EstadisticasFacturacion> estadisticas = new CalculoCompartido<>(TTL_ESTADISTICAS_MS);
 
     @Transactional(readOnly = true)
     public List<FacturaDTO> findAll() {
@@ -62,7 +88,13 @@ public class FacturaService {
      */
     public Optional<FacturaDTO> marcarComoPagada(Long id) {
         return facturaRepository.findById(id).map(factura -> {
+            EstadoFactura anterior = factura.getEstado();
             factura.setEstado(EstadoFactura.PAGADA);
+            resumenMensual.cambioEstado(factura, anterior);
+            eventPublisher.publishEvent(new CambioEstadoFactura(id, anterior, EstadoFactura.PAGADA));
+            if (anterior != EstadoFactura.PAGADA) {
+                publicadorEventos.publicar(new FacturaPagada(id, factura.getSuscripcion().getId(), factura.getTotal()));
+            }
             factura.setFechaPago(LocalDateTime.now());
             Factura saved = facturaRepository.save(factura);
             return toDTO(saved);
@@ -70,16 +102,17 @@ public class FacturaService {
     }
 
     public boolean delete(Long id) {
-        if (facturaRepository.existsById(id)) {
-            facturaRepository.deleteById(id);
+        return facturaRepository.findById(id).map(factura -> {
+            resumenMensual.baja(factura);
+            eventPublisher.publishEvent(new CambioEstadoFactura(id, factura.getEstado(), null));
+            facturaRepository.delete(factura);
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
 
     // ===== CONVERSIONES Entity <-> DTO =====
 
-    private FacturaDTO toDTO(Factura entity) {
+    FacturaDTO toDTO(Factura entity) {
         String usuarioNombre = null;
         Long usuarioId = null;
         
@@ -105,6 +138,8 @@ public class FacturaService {
                 .subtotal(entity.getSubtotal())
                 .porcentajeImpuestos(entity.getPorcentajeImpuestos())
                 .montoImpuestos(entity.getMontoImpuestos())
+                .paisFacturacion(entity.getPaisFacturacion())
+                .reglaImpuesto(entity.getReglaImpuesto())
                 .total(entity.getTotal())
                 .estado(entity.getEstado())
                 .fechaPago(entity.getFechaPago())
@@ -155,29 +190,58 @@ public class FacturaService {
     }
 
     /**
-     * Búsqueda avanzada con múltiples filtros y paginación
+     * Búsqueda avanzada con múltiples filtros y paginación.
+     * Con conTotal = false devuelve un Slice y no lanza el COUNT; con conTotal = true
+     * las páginas profundas reutilizan un total aproximado cacheado unos segundos.
      */
     @Transactional(readOnly = true)
-    public Page<FacturaDTO> buscarConFiltros(
+    public Slice<FacturaDTO> buscarConFiltros(
             LocalDate fechaInicio,
             LocalDate fechaFin,
             BigDecimal montoMinimo,
             BigDecimal montoMaximo,
             EstadoFactura estado,
             Long usuarioId,
-            Pageable pageable) {
-        
-        return facturaRepository.buscarConFiltros(
-                fechaInicio, fechaFin, montoMinimo, montoMaximo, estado, usuarioId, pageable
-        ).map(this::toDTO);
+            Pageable pageable,
+            boolean conTotal) {
+
+        Specification<Factura> spec = FacturaSpecifications.conFiltros(
+                fechaInicio, fechaFin, montoMinimo, montoMaximo, estado, usuarioId);
+        Slice<Factura> slice = facturaRepository.buscarSlice(spec, pageable);
+
+        if (!conTotal) {
+            return slice.map(this::toDTO);
+        }
+
+        String clave = fechaInicio + "|" + fechaFin + "|" + montoMinimo + "|" + montoMaximo + "|" + estado + "|" + usuarioId;
+        // getPage solo invoca el COUNT cuando no puede deducir el total a partir de la página
+        return PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                () -> contarConFiltros(clave, spec, pageable)).map(this::toDTO);
+    }
+
+    private long contarConFiltros(String clave, Specification<Factura> spec, Pageable pageable) {
+        long ahora = System.currentTimeMillis();
+        if (pageable.getPageNumber() >= PAGINA_PROFUNDA) {
+            ConteoCacheado cacheado = conteosAproximados.get(clave);
+            if (cacheado != null && ahora - cacheado.calculadoEn() < TTL_CONTEO_MS) {
+                return cacheado.total();
+            }
+        }
+
+        long total = facturaRepository.count(spec);
+        if (conteosAproximados.size() >= MAX_CONTEOS_CACHEADOS) {
+            conteosAproximados.clear();
+        }
+        conteosAproximados.put(clave, new ConteoCacheado(total, ahora));
+        return total;
     }
 
     /**
-     * Obtener facturas por país del usuario
+     * Obtener facturas por país de facturación (acepta código o nombre del país)
      */
     @Transactional(readOnly = true)
-    public List<FacturaDTO> findByPaisUsuario(String pais) {
-        return facturaRepository.findByPaisUsuario(pais).stream()
+    public List<FacturaDTO> findByPaisFacturacion(String pais) {
+        return facturaRepository.findByPaisFacturacionOrderByFechaEmisionDesc(impuestoService.normalizarPais(pais)).stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
@@ -199,7 +263,7 @@ public class FacturaService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getTotalFacturadoPorPeriodo(LocalDate inicio, LocalDate fin) {
-        return facturaRepository.sumTotalFacturadoPorPeriodo(inicio, fin);
+        return resumenMensual.totalesPagados(inicio, fin).totalFacturado();
     }
 
     /**
@@ -207,7 +271,22 @@ public class FacturaService {
      */
     @Transactional(readOnly = true)
     public BigDecimal getImpuestosRecaudadosPorPeriodo(LocalDate inicio, LocalDate fin) {
-        return facturaRepository.sumImpuestosPorPeriodo(inicio, fin);
+        return resumenMensual.totalesPagados(inicio, fin).totalImpuestos();
+    }
+
+    /**
+     * Total facturado e impuestos de un periodo leyendo el resumen mensual
+     */
+    @Transactional(readOnly = true)
+    public ResumenMensualFacturas.TotalesPeriodo getTotalesPorPeriodo(LocalDate inicio, LocalDate fin) {
+        return resumenMensual.totalesPagados(inicio, fin);
+    }
+
+    /**
+     * Reconstruye el resumen mensual de los meses indicados a partir de las facturas
+     */
+    public int reconstruirResumenMensual(YearMonth desde, YearMonth hasta) {
+        return resumenMensual.reconstruir(desde, hasta);
     }
 
     /**
@@ -227,32 +306,37 @@ public class FacturaService {
     /**
      * Obtener estadísticas generales de facturación
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EstadisticasFacturacion getEstadisticas() {
+        return estadisticas.obtener(this::calcularEstadisticas);
+    }
+
+    private EstadisticasFacturacion calcularEstadisticas() {
         LocalDate hoy = LocalDate.now();
         LocalDate inicioMes = hoy.withDayOfMonth(1);
         LocalDate finMes = hoy.withDayOfMonth(hoy.lengthOfMonth());
 
-        long totalFacturas = facturaRepository.count();
-        long facturasPendientes = facturaRepository.countByEstado(EstadoFactura.PENDIENTE);
-        long facturasPagadas = facturaRepository.countByEstado(EstadoFactura.PAGADA);
-        long facturasVencidas = facturaRepository.findVencidas(hoy).size();
-        
-        BigDecimal totalPendiente = facturaRepository.sumTotalPendientes();
-        BigDecimal ingresosDelMes = facturaRepository.sumTotalFacturadoPorPeriodo(inicioMes, finMes);
-        BigDecimal impuestosDelMes = facturaRepository.sumImpuestosPorPeriodo(inicioMes, finMes);
+        FacturaRepository.TotalesFacturacion totales = facturaRepository.getTotales(hoy, inicioMes, finMes);
 
         return new EstadisticasFacturacion(
-                totalFacturas,
-                facturasPendientes,
-                facturasPagadas,
-                facturasVencidas,
-                totalPendiente != null ? totalPendiente : BigDecimal.ZERO,
-                ingresosDelMes != null ? ingresosDelMes : BigDecimal.ZERO,
-                impuestosDelMes != null ? impuestosDelMes : BigDecimal.ZERO
+                valor(totales.getTotal()),
+                valor(totales.getPendientes()),
+                valor(totales.getPagadas()),
+                valor(totales.getVencidas()),
+                valor(totales.getTotalPendiente()),
+                valor(totales.getIngresos()),
+                valor(totales.getImpuestos())
         );
     }
 
+    private static long valor(Long cantidad) {
+        return cantidad != null ? cantidad : 0L;
+    }
+
+    private static BigDecimal valor(BigDecimal importe) {
+        return importe != null ? importe : BigDecimal.ZERO;
+    }
+
     // ===== RECORDS PARA RESPUESTAS =====
 
     public record ResumenEstadoFactura(
@@ -261,6 +345,8 @@ public class FacturaService {
             BigDecimal total
     ) {}
 
+    private record ConteoCacheado(long total, long calculadoEn) {}
+
     public record EstadisticasFacturacion(
             long totalFacturas,
             long facturasPendientes,
@@ -5,15 +5,16 @@ import com.example.ProyectoSpringBoot.entity.Suscripcion;
 import com.example.ProyectoSpringBoot.enums.EstadoFactura;
 import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
 import com.example.ProyectoSpringBoot.repository.FacturaRepository;
-import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Servicio programado para la facturación automática
@@ -27,8 +28,8 @@ import java.util.List;
 public class FacturacionScheduledService {
 
     private final SuscripcionService suscripcionService;
-    private final SuscripcionRepository suscripcionRepository;
     private final FacturaRepository facturaRepository;
+    private final MonitorJobs monitorJobs;
 
     /**
      * Tarea programada que se ejecuta todos los días a las 00:00
@@ -36,85 +37,97 @@ public class FacturacionScheduledService {
      * y genera automáticamente sus facturas mensuales
      */
     @Scheduled(cron = "0 0 0 * * ?") // Todos los días a las 00:00
-    @Transactional
     public void procesarFacturacionAutomatica() {
-        log.info("=== Iniciando proceso de facturación automática ===");
-        
-        List<Suscripcion> suscripcionesParaFacturar = suscripcionService.obtenerSuscripcionesParaFacturar();
-        
-        log.info("Suscripciones pendientes de facturar: {}", suscripcionesParaFacturar.size());
-        
-        int facturasGeneradas = 0;
-        int errores = 0;
-        
-        for (Suscripcion suscripcion : suscripcionesParaFacturar) {
-            try {
-                Factura factura = suscripcionService.generarFacturaMensual(suscripcion);
-                facturasGeneradas++;
-                log.info("Factura {} generada para usuario {} (suscripción {})", 
-                        factura.getNumeroFactura(),
-                        suscripcion.getUsuario().getEmail(),
-                        suscripcion.getId());
-            } catch (Exception e) {
-                errores++;
-                log.error("Error al generar factura para suscripción {}: {}", 
-                        suscripcion.getId(), e.getMessage());
+        monitorJobs.ejecutar("facturacionAutomatica", ejecucion -> {
+            log.info("=== Iniciando proceso de facturación automática ===");
+            
+            List<Suscripcion> suscripcionesParaFacturar = ejecucion.fase("consulta",
+                    suscripcionService::obtenerSuscripcionesParaFacturar);
+            ejecucion.total(suscripcionesParaFacturar.size());
+            
+            log.info("Suscripciones pendientes de facturar: {}", suscripcionesParaFacturar.size());
+            
+            int facturasGeneradas = 0;
+            int errores = 0;
+            
+            // Cada suscripción se factura en su propia transacción y con su lock
+            for (Suscripcion suscripcion : suscripcionesParaFacturar) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                ejecucion.elemento(suscripcion.getId(), EventosJfr.paisCargado(suscripcion));
+                try {
+                    Optional<Factura> factura = suscripcionService.facturarMensual(suscripcion.getId(), s -> true);
+                    if (factura.isPresent()) {
+                        facturasGeneradas++;
+                        ejecucion.procesado();
+                        log.info("Factura {} generada para usuario {} (suscripción {})", 
+                                factura.get().getNumeroFactura(),
+                                suscripcion.getUsuario().getEmail(),
+                                suscripcion.getId());
+                    } else {
+                        // Otro proceso la facturó entre la consulta y el lock
+                        ejecucion.omitido();
+                    }
+                } catch (Exception e) {
+                    errores++;
+                    ejecucion.fallido();
+                    log.error("Error al generar factura para suscripción {}: {}", 
+                            suscripcion.getId(), e.getMessage());
+                }
             }
-        }
-        
-        log.info("=== Proceso de facturación completado: {} facturas generadas, {} errores ===", 
-                facturasGeneradas, errores);
+            
+            log.info("=== Proceso de facturación completado: {} facturas generadas, {} errores ===", 
+                    facturasGeneradas, errores);
+        });
     }
 
     /**
      * Tarea programada que se ejecuta todos los días a las 01:00
-     * Marca como morosas las suscripciones con facturas vencidas
+     * Marca como morosas las suscripciones con facturas vencidas, cada una con su lock y en su transacción
      */
     @Scheduled(cron = "0 0 1 * * ?") // Todos los días a las 01:00
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void procesarSuscripcionesMorosas() {
-        log.info("=== Verificando suscripciones morosas ===");
-        
-        List<Factura> facturasVencidas = facturaRepository.findVencidas(LocalDate.now());
-        
-        int suscripcionesMarcadas = 0;
-        
-        for (Factura factura : facturasVencidas) {
-            Suscripcion suscripcion = factura.getSuscripcion();
+        monitorJobs.ejecutar("morosasFacturacion", ejecucion -> {
+            log.info("=== Verificando suscripciones morosas ===");
+            
+            List<Factura> facturasVencidas = ejecucion.fase("consulta",
+                    () -> facturaRepository.findVencidas(LocalDate.now()));
+            ejecucion.total(facturasVencidas.size());
+            
+            int suscripcionesMarcadas = 0;
             
-            if (suscripcion.getEstado() == EstadoSuscripcion.ACTIVA) {
-                suscripcion.setEstado(EstadoSuscripcion.MOROSA);
-                suscripcionRepository.save(suscripcion);
-                suscripcionesMarcadas++;
+            for (Factura factura : facturasVencidas) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                Suscripcion suscripcion = factura.getSuscripcion();
+                ejecucion.elemento(suscripcion.getId(), EventosJfr.paisCargado(suscripcion));
                 
-                log.warn("Suscripción {} marcada como MOROSA - Factura {} vencida", 
-                        suscripcion.getId(), factura.getNumeroFactura());
+                if (suscripcion.getEstado() != EstadoSuscripcion.ACTIVA) {
+                    ejecucion.omitido();
+                    continue;
+                }
+                try {
+                    if (suscripcionService.transicionar(suscripcion.getId(), EstadoSuscripcion.ACTIVA,
+                            EstadoSuscripcion.MOROSA, s -> true, s -> {})) {
+                        suscripcionesMarcadas++;
+                        ejecucion.procesado();
+                        
+                        log.warn("Suscripción {} marcada como MOROSA - Factura {} vencida", 
+                                suscripcion.getId(), factura.getNumeroFactura());
+                    } else {
+                        ejecucion.omitido();
+                    }
+                } catch (Exception e) {
+                    ejecucion.fallido();
+                    log.error("Error al marcar como morosa la suscripción {}: {}", 
+                            suscripcion.getId(), e.getMessage());
+                }
             }
-        }
-        
-        log.info("=== {} suscripciones marcadas como morosas ===", suscripcionesMarcadas);
-    }
-
-    /**
-     * Método para ejecutar facturación manualmente (útil para testing)
-     * @return Número de facturas generadas
-     */
-    @Transactional
-    public int ejecutarFacturacionManual() {
-        log.info("Ejecutando facturación manual...");
-        
-        List<Suscripcion> suscripcionesParaFacturar = suscripcionService.obtenerSuscripcionesParaFacturar();
-        int facturasGeneradas = 0;
-        
-        for (Suscripcion suscripcion : suscripcionesParaFacturar) {
-            try {
-                suscripcionService.generarFacturaMensual(suscripcion);
-                facturasGeneradas++;
-            } catch (Exception e) {
-                log.error("Error al generar factura: {}", e.getMessage());
-            }
-        }
-        
-        return facturasGeneradas;
+            
+            log.info("=== {} suscripciones marcadas como morosas ===", suscripcionesMarcadas);
+        });
     }
 }
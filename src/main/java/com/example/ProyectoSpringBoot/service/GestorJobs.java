@@ -0,0 +1,281 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.enums.EstadoTrabajo;
+import com.example.ProyectoSpringBoot.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jobs de facturación y ciclo de vida lanzados desde la API, fuera del hilo HTTP.
+ * Enviar un trabajo devuelve su id al momento; el job corre en un pool propio de app.jobs.asincronos.hilos
+ * con una cola de app.jobs.asincronos.cola (llena -> ServicioSaturadoException, 429).
+ *
+ * Se ejecuta el mismo job que lanza @Scheduled, con su instrumentación de MonitorJobs: de ahí salen el
+ * progreso, la cancelación (tras el elemento en curso) y el resultado. Solo hay un trabajo de cada tipo
+ * en cola o en curso; si el job ya lo estaba corriendo la programación, el trabajo termina como fallido.
+ * Se guardan los últimos app.jobs.asincronos.retenidos trabajos terminados.
+ */
+@Service
+@Slf4j
+public class GestorJobs {
+
+    public static final String FACTURACION = "facturacion";
+    public static final String RENOVACIONES = "renovaciones";
+    public static final String MOROSOS = "morosos";
+    public static final String SUSPENSIONES = "suspensiones";
+    public static final String EXPIRACIONES = "expiraciones";
+
+    private final MonitorJobs monitorJobs;
+    private final Map<String, Runnable> tipos;
+    private final ThreadPoolExecutor executor;
+    private final int retenidos;
+    private final Counter rechazos;
+
+    private final Map<String, Registro> trabajos = new ConcurrentHashMap<>();
+    // Trabajo en cola o en curso de cada tipo
+    private final Map<String, Registro> activos = new ConcurrentHashMap<>();
+
+    public GestorJobs(FacturacionScheduledService facturacionScheduledService,
+                      CicloVidaSuscripcionService cicloVidaService,
+                      MonitorJobs monitorJobs,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.jobs.asincronos.hilos:2}") int hilos,
+                      @Value("${app.jobs.asincronos.cola:8}") int capacidadCola,
+                      @Value("${app.jobs.asincronos.retenidos:100}") int retenidos) {
+        this.monitorJobs = monitorJobs;
+        this.retenidos = Math.max(1, retenidos);
+        this.tipos = Map.of(
+                FACTURACION, facturacionScheduledService::procesarFacturacionAutomatica,
+                RENOVACIONES, cicloVidaService::procesarRenovacionesAutomaticas,
+                MOROSOS, cicloVidaService::procesarSuscripcionesMorosas,
+                SUSPENSIONES, cicloVidaService::procesarSuspensiones,
+                EXPIRACIONES, cicloVidaService::procesarExpiraciones);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "job-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rechazos = Counter.builder("jobs.asincronos.rechazos")
+                .description("Trabajos rechazados por cola llena").register(meterRegistry);
+        Gauge.builder("jobs.asincronos.cola", executor, e -> e.getQueue().size())
+                .description("Trabajos esperando un hilo").register(meterRegistry);
+        Gauge.builder("jobs.asincronos.activos", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Trabajos en ejecución").register(meterRegistry);
+    }
+
+    /**
+     * Encola un trabajo del tipo indicado, o devuelve el que ya hay en cola o en curso de ese tipo
+     * @throws IllegalArgumentException si el tipo no existe
+     * @throws ServicioSaturadoException si la cola está llena
+     */
+    public Envio enviar(String tipo) {
+        Runnable accion = tipos.get(tipo);
+        if (accion == null) {
+            throw new IllegalArgumentException("Tipo de trabajo desconocido: " + tipo);
+        }
+        Registro nuevo = new Registro(UUID.randomUUID().toString(), tipo);
+        Registro existente = activos.putIfAbsent(tipo, nuevo);
+        if (existente != null) {
+            return new Envio(existente.vista(), false);
+        }
+        trabajos.put(nuevo.id, nuevo);
+        try {
+            nuevo.futuro = executor.submit(() -> ejecutar(nuevo, accion));
+        } catch (RejectedExecutionException e) {
+            trabajos.remove(nuevo.id);
+            activos.remove(tipo, nuevo);
+            rechazos.increment();
+            throw new ServicioSaturadoException("Demasiados trabajos en cola, reintente en unos minutos");
+        }
+        log.info("Trabajo {} ({}) en cola", nuevo.id, tipo);
+        return new Envio(nuevo.vista(), true);
+    }
+
+    public Optional<Trabajo> trabajo(String id) {
+        return Optional.ofNullable(trabajos.get(id)).map(Registro::vista);
+    }
+
+    /**
+     * Trabajos en cola, en curso y los últimos terminados, el más reciente primero
+     */
+    public List<Trabajo> trabajos() {
+        return trabajos.values().stream()
+                .map(Registro::vista)
+                .sorted(Comparator.comparing(Trabajo::encolado).reversed())
+                .toList();
+    }
+
+    /**
+     * Cancela un trabajo: si está en cola no llega a empezar; si está en curso el job para tras el
+     * elemento actual y termina como cancelado. Un trabajo terminado se devuelve tal cual
+     */
+    public Optional<Trabajo> cancelar(String id) {
+        Registro registro = trabajos.get(id);
+        if (registro == null) {
+            return Optional.empty();
+        }
+        if (registro.cancelar()) {
+            // Estaba en cola: deja sitio para otro del mismo tipo y en la cola del pool
+            activos.remove(registro.tipo, registro);
+            executor.purge();
+            podar();
+        }
+        return Optional.of(registro.vista());
+    }
+
+    @PreDestroy
+    void detener() {
+        activos.values().forEach(Registro::cancelar);
+        executor.shutdownNow();
+    }
+
+    private void ejecutar(Registro registro, Runnable accion) {
+        if (!registro.empezar()) {
+            return;
+        }
+        try {
+            monitorJobs.observar(registro::asociar, accion);
+            MonitorJobs.Ejecucion ejecucion = registro.ejecucion;
+            if (ejecucion == null) {
+                registro.terminar(EstadoTrabajo.FALLIDO, "Ya había una ejecución de este job en curso");
+            } else {
+                String resultado = ejecucion.registro() != null ? ejecucion.registro().resultado() : "fallida";
+                registro.terminar(switch (resultado) {
+                    case "completada" -> EstadoTrabajo.COMPLETADO;
+                    case "cancelada" -> EstadoTrabajo.CANCELADO;
+                    default -> EstadoTrabajo.FALLIDO;
+                }, ejecucion.registro() != null ? ejecucion.registro().error() : null);
+            }
+        } catch (RuntimeException e) {
+            log.error("Trabajo {} ({}) fallido", registro.id, registro.tipo, e);
+            registro.terminar(EstadoTrabajo.FALLIDO, e.toString());
+        } finally {
+            activos.remove(registro.tipo, registro);
+            podar();
+        }
+        log.info("Trabajo {} ({}) {}", registro.id, registro.tipo, registro.estado);
+    }
+
+    // Descarta los terminados más antiguos por encima de retenidos
+    private void podar() {
+        List<Registro> terminados = trabajos.values().stream()
+                .filter(r -> r.estado.terminado())
+                .sorted(Comparator.comparing((Registro r) -> r.encolado).reversed())
+                .toList();
+        terminados.stream().skip(retenidos).forEach(r -> trabajos.remove(r.id));
+    }
+
+    /**
+     * Estado de un trabajo. Las transiciones van sincronizadas: se cancela desde el hilo HTTP
+     * mientras el del pool lo empieza o lo termina
+     */
+    private static final class Registro {
+
+        private final String id;
+        private final String tipo;
+        private final LocalDateTime encolado = LocalDateTime.now();
+        private volatile EstadoTrabajo estado = EstadoTrabajo.EN_COLA;
+        private volatile LocalDateTime inicio;
+        private volatile LocalDateTime fin;
+        private volatile String error;
+        private volatile MonitorJobs.Ejecucion ejecucion;
+        private volatile Future<?> futuro;
+        private boolean cancelacionPedida;
+
+        private Registro(String id, String tipo) {
+            this.id = id;
+            this.tipo = tipo;
+        }
+
+        private synchronized boolean empezar() {
+            if (estado != EstadoTrabajo.EN_COLA) {
+                return false;
+            }
+            estado = EstadoTrabajo.EN_CURSO;
+            inicio = LocalDateTime.now();
+            return true;
+        }
+
+        private synchronized void asociar(MonitorJobs.Ejecucion ejecucion) {
+            this.ejecucion = ejecucion;
+            if (cancelacionPedida) {
+                ejecucion.cancelar();
+            }
+        }
+
+        /**
+         * @return true si estaba en cola y queda cancelado sin empezar
+         */
+        private synchronized boolean cancelar() {
+            if (estado == EstadoTrabajo.EN_COLA) {
+                estado = EstadoTrabajo.CANCELADO;
+                fin = LocalDateTime.now();
+                if (futuro != null) {
+                    futuro.cancel(false);
+                }
+                return true;
+            }
+            if (estado == EstadoTrabajo.EN_CURSO) {
+                cancelacionPedida = true;
+                if (ejecucion != null) {
+                    ejecucion.cancelar();
+                }
+            }
+            return false;
+        }
+
+        private synchronized void terminar(EstadoTrabajo estadoFinal, String error) {
+            this.estado = estadoFinal;
+            this.error = error;
+            this.fin = LocalDateTime.now();
+        }
+
+        private Trabajo vista() {
+            MonitorJobs.Ejecucion actual = ejecucion;
+            return new Trabajo(id, tipo, actual != null ? actual.job() : null, estado, encolado, inicio, fin,
+                    actual != null ? actual.progreso() : null,
+                    actual != null ? actual.registro() : null,
+                    error);
+        }
+    }
+
+    /**
+     * Trabajo lanzado desde la API
+     * @param job Nombre del job en MonitorJobs (/actuator/jobs), null hasta que empieza
+     * @param progreso Progreso del job, null hasta que empieza
+     * @param resultado Ejecución terminada, null mientras no termina
+     */
+    public record Trabajo(String id, String tipo, String job, EstadoTrabajo estado, LocalDateTime encolado,
+                          LocalDateTime inicio, LocalDateTime fin, MonitorJobs.Progreso progreso,
+                          MonitorJobs.EjecucionJob resultado, String error) {}
+
+    /**
+     * @param nuevo false si ya había un trabajo de ese tipo en cola o en curso (y trabajo es ese)
+     */
+    public record Envio(Trabajo trabajo, boolean nuevo) {}
+}
@@ -0,0 +1,119 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt en un pool propio del tamaño de la CPU.
+ * Los hilos de Tomcat solo esperan el resultado; una ráfaga de logins ocupa
+ * este pool y no los workers que sirven el resto de la API. Con la cola llena
+ * se rechaza al momento con ServicioSaturadoException (429).
+ */
+@Service
+@Slf4j
+public class HashContrasenas {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaMs;
+
+    private final Timer latenciaCodificar;
+    private final Timer latenciaVerificar;
+    private final Timer esperaEnCola;
+    private final Counter rechazos;
+
+    public HashContrasenas(PasswordEncoder passwordEncoder,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.hash.hilos:0}") int hilos,
+                           @Value("${app.hash.cola:64}") int capacidadCola,
+                           @Value("${app.hash.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        int tamanoPool = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanoPool, tamanoPool, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.latenciaCodificar = Timer.builder("hash.latencia").tag("operacion", "codificar")
+                .description("Tiempo de CPU de BCrypt").register(meterRegistry);
+        this.latenciaVerificar = Timer.builder("hash.latencia").tag("operacion", "verificar")
+                .description("Tiempo de CPU de BCrypt").register(meterRegistry);
+        this.esperaEnCola = Timer.builder("hash.espera")
+                .description("Tiempo en cola antes de empezar a calcular").register(meterRegistry);
+        this.rechazos = Counter.builder("hash.rechazos")
+                .description("Peticiones rechazadas por cola llena o espera excesiva").register(meterRegistry);
+        Gauge.builder("hash.cola", executor, e -> e.getQueue().size())
+                .description("Tareas de hash esperando").register(meterRegistry);
+        Gauge.builder("hash.activos", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos calculando hashes").register(meterRegistry);
+    }
+
+    public String codificar(String contrasena) {
+        return ejecutar(() -> passwordEncoder.encode(contrasena), latenciaCodificar);
+    }
+
+    public boolean coincide(String contrasena, String hash) {
+        return ejecutar(() -> passwordEncoder.matches(contrasena, hash), latenciaVerificar);
+    }
+
+    private <T> T ejecutar(Callable<T> calculo, Timer latencia) {
+        long encolado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                esperaEnCola.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return latencia.recordCallable(calculo);
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new ServicioSaturadoException("Demasiadas autenticaciones simultáneas, reintente en unos segundos");
+        }
+
+        try {
+            return futuro.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazos.increment();
+            throw new ServicioSaturadoException("La autenticación tardó demasiado, reintente en unos segundos");
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+}
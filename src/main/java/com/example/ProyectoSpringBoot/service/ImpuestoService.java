@@ -87,9 +87,63 @@ public class ImpuestoService {
         TASAS_IVA.put("CANADÁ", new BigDecimal("5.00"));
     }
 
+    // Nombres de país aceptados en perfiles -> código ISO 3166-1 alfa-2
+    private static final Map<String, String> CODIGOS_ISO = Map.ofEntries(
+            Map.entry("ESPAÑA", "ES"), Map.entry("SPAIN", "ES"),
+            Map.entry("GERMANY", "DE"), Map.entry("ALEMANIA", "DE"),
+            Map.entry("FRANCE", "FR"), Map.entry("FRANCIA", "FR"),
+            Map.entry("ITALY", "IT"), Map.entry("ITALIA", "IT"),
+            Map.entry("PORTUGAL", "PT"),
+            Map.entry("UK", "GB"), Map.entry("UNITED KINGDOM", "GB"), Map.entry("REINO UNIDO", "GB"),
+            Map.entry("NETHERLANDS", "NL"), Map.entry("HOLANDA", "NL"),
+            Map.entry("BELGIUM", "BE"), Map.entry("BÉLGICA", "BE"),
+            Map.entry("AUSTRIA", "AT"),
+            Map.entry("SWEDEN", "SE"), Map.entry("SUECIA", "SE"),
+            Map.entry("DENMARK", "DK"), Map.entry("DINAMARCA", "DK"),
+            Map.entry("POLAND", "PL"), Map.entry("POLONIA", "PL"),
+            Map.entry("IRELAND", "IE"), Map.entry("IRLANDA", "IE"),
+            Map.entry("SWITZERLAND", "CH"), Map.entry("SUIZA", "CH"),
+            Map.entry("MEXICO", "MX"), Map.entry("MÉXICO", "MX"),
+            Map.entry("ARGENTINA", "AR"),
+            Map.entry("CHILE", "CL"),
+            Map.entry("COLOMBIA", "CO"),
+            Map.entry("PERU", "PE"), Map.entry("PERÚ", "PE"),
+            Map.entry("BRAZIL", "BR"), Map.entry("BRASIL", "BR"),
+            Map.entry("USA", "US"), Map.entry("UNITED STATES", "US"), Map.entry("ESTADOS UNIDOS", "US"),
+            Map.entry("CANADA", "CA"), Map.entry("CANADÁ", "CA")
+    );
+
     // Tasa por defecto cuando no se conoce el país
     private static final BigDecimal TASA_DEFAULT = new BigDecimal("21.00");
 
+    // País asumido cuando el perfil no lo indica (España)
+    public static final String PAIS_POR_DEFECTO = "ES";
+
+    // Código ISO reservado para países que no reconocemos
+    public static final String PAIS_DESCONOCIDO = "ZZ";
+
+    /**
+     * Normaliza un país escrito libremente (código o nombre) a ISO 3166-1 alfa-2.
+     * Sin país devuelve PAIS_POR_DEFECTO; si no se reconoce, PAIS_DESCONOCIDO
+     */
+    public String normalizarPais(String pais) {
+        if (pais == null || pais.isBlank()) {
+            return PAIS_POR_DEFECTO;
+        }
+        String paisUpper = pais.toUpperCase().trim();
+        if (paisUpper.length() == 2 && TASAS_IVA.containsKey(paisUpper)) {
+            return paisUpper;
+        }
+        return CODIGOS_ISO.getOrDefault(paisUpper, PAIS_DESCONOCIDO);
+    }
+
+    /**
+     * Identificador de la regla aplicada: impuesto, país y tasa (ej: "IVA-ES-21.00")
+     */
+    public String regla(String paisIso, BigDecimal tasa) {
+        return determinarNombreImpuesto(paisIso).replace(' ', '_') + "-" + paisIso + "-" + tasa.toPlainString();
+    }
+
     /**
      * Obtiene la tasa de impuesto para un país específico.
      * @param pais Nombre o código ISO del país
@@ -0,0 +1,31 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.service.MonitorJobs.EjecucionJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Historial de ejecuciones de los jobs programados: /actuator/jobs y /actuator/jobs/{job}
+ */
+@Component
+@Endpoint(id = "jobs")
+@RequiredArgsConstructor
+public class JobsEndpoint {
+
+    private final MonitorJobs monitor;
+
+    @ReadOperation
+    public List<EjecucionJob> historial() {
+        return monitor.historial(null);
+    }
+
+    @ReadOperation
+    public List<EjecucionJob> historialJob(@Selector String job) {
+        return monitor.historial(job);
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.MetodoPago;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.ResultadoLiquidacion;
+import com.example.ProyectoSpringBoot.enums.TipoMetodoPago;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.MetodoPagoRepository;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida.CambioEstadoFactura;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaPagada;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Liquidación masiva de pagos, p. ej. la confirmación de una remesa bancaria con miles de cobros.
+ * Los pagos se aplican por lotes de app.facturas.liquidacion.lote, cada uno en su transacción:
+ * dos consultas cargan sus facturas, los UPDATE de facturas y las filas _AUD de Envers salen en
+ * batches de JDBC (hibernate.jdbc.batch_size) bajo una sola revisión, el resumen mensual recibe una
+ * sentencia por fila afectada y los eventos FacturaPagada van al outbox en un batch.
+ *
+ * Si un lote falla al confirmarse (p. ej. una factura que otra petición modificó a la vez), sus pagos
+ * se reintentan uno a uno y el error queda solo en el que lo causa.
+ */
+@Service
+@Slf4j
+public class LiquidacionFacturas {
+
+    private final FacturaRepository facturaRepository;
+    private final MetodoPagoRepository metodoPagoRepository;
+    private final ResumenMensualFacturas resumenMensual;
+    private final PublicadorEventos publicadorEventos;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int tamanoLote;
+    private final Timer tiempoLote;
+
+    public LiquidacionFacturas(FacturaRepository facturaRepository,
+                               MetodoPagoRepository metodoPagoRepository,
+                               ResumenMensualFacturas resumenMensual,
+                               PublicadorEventos publicadorEventos,
+                               ApplicationEventPublisher eventPublisher,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.facturas.liquidacion.lote:500}") int tamanoLote) {
+        this.facturaRepository = facturaRepository;
+        this.metodoPagoRepository = metodoPagoRepository;
+        this.resumenMensual = resumenMensual;
+        this.publicadorEventos = publicadorEventos;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.tiempoLote = Timer.builder("facturas.liquidacion.lote")
+                .description("Aplicación de un lote de pagos, incluido el commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lee los pagos de un array JSON o de NDJSON (uno por línea) a medida que llegan y los aplica por lotes
+     */
+    public Liquidacion liquidar(InputStream entrada) throws IOException {
+        try (MappingIterator<Pago> pagos = objectMapper.readerFor(Pago.class).readValues(entrada)) {
+            return liquidar(pagos);
+        }
+    }
+
+    /**
+     * Aplica los pagos en orden. Si la entrada deja de poderse leer a mitad, los lotes anteriores
+     * quedan aplicados y la respuesta lo indica en error
+     */
+    public Liquidacion liquidar(Iterator<Pago> pagos) {
+        List<ResultadoPago> resultados = new ArrayList<>();
+        List<Pago> lote = new ArrayList<>(tamanoLote);
+        String error = null;
+        while (true) {
+            Pago pago;
+            try {
+                if (!pagos.hasNext()) {
+                    break;
+                }
+                pago = pagos.next();
+            } catch (RuntimeException e) {
+                int leidos = resultados.size() + lote.size();
+                error = "Entrada ilegible tras " + leidos + " pagos: " + e.getMessage();
+                log.warn("Liquidación interrumpida: {}", error);
+                break;
+            }
+            lote.add(pago);
+            if (lote.size() == tamanoLote) {
+                resultados.addAll(aplicarLote(lote, resultados.size()));
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            resultados.addAll(aplicarLote(lote, resultados.size()));
+        }
+
+        Map<ResultadoLiquidacion, Long> resumen = resultados.stream()
+                .collect(Collectors.groupingBy(ResultadoPago::resultado,
+                        () -> new EnumMap<>(ResultadoLiquidacion.class), Collectors.counting()));
+        resumen.forEach((resultado, cantidad) -> meterRegistry.counter("facturas.liquidacion.pagos",
+                "resultado", resultado.name()).increment(cantidad));
+        log.info("Liquidación de {} pagos: {}", resultados.size(), resumen);
+        return new Liquidacion(resultados.size(), resumen, resultados, error);
+    }
+
+    private List<ResultadoPago> aplicarLote(List<Pago> lote, int desde) {
+        try {
+            return tiempoLote.record(() -> transactionTemplate.execute(estado -> aplicar(lote, desde)));
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                Pago pago = lote.get(0);
+                String causa = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                log.warn("Pago {} no aplicado: {}", desde, causa);
+                return List.of(new ResultadoPago(desde, pago.facturaId(), pago.numeroFactura(),
+                        ResultadoLiquidacion.ERROR, causa));
+            }
+            log.warn("Lote de {} pagos desde {} fallido ({}), se reintenta pago a pago", lote.size(), desde, e.toString());
+            List<ResultadoPago> resultados = new ArrayList<>(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                resultados.addAll(aplicarLote(Collections.singletonList(lote.get(i)), desde + i));
+            }
+            return resultados;
+        }
+    }
+
+    // Dentro de la transacción del lote
+    private List<ResultadoPago> aplicar(List<Pago> lote, int desde) {
+        List<String> invalidos = lote.stream().map(this::validar).toList();
+        List<Pago> validos = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            if (invalidos.get(i) == null) {
+                validos.add(lote.get(i));
+            }
+        }
+        Map<Long, Factura> porId = cargar(validos, Pago::facturaId, facturaRepository::findByIdIn, Factura::getId);
+        Map<String, Factura> porNumero = cargar(validos, Pago::numeroFactura,
+                facturaRepository::findByNumeroFacturaIn, Factura::getNumeroFactura);
+        Map<Long, List<MetodoPago>> metodos = metodosDe(validos, porId, porNumero);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<EstadoFactura, List<Factura>> pagadasPorAnterior = new EnumMap<>(EstadoFactura.class);
+        List<FacturaPagada> eventos = new ArrayList<>();
+        List<ResultadoPago> resultados = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            Pago pago = lote.get(i);
+            int indice = desde + i;
+            if (invalidos.get(i) != null) {
+                resultados.add(new ResultadoPago(indice, pago != null ? pago.facturaId() : null,
+                        pago != null ? pago.numeroFactura() : null, ResultadoLiquidacion.INVALIDA, invalidos.get(i)));
+                continue;
+            }
+            Factura factura = pago.facturaId() != null ? porId.get(pago.facturaId()) : porNumero.get(pago.numeroFactura());
+            if (factura == null) {
+                resultados.add(new ResultadoPago(indice, pago.facturaId(), pago.numeroFactura(),
+                        ResultadoLiquidacion.NO_ENCONTRADA, null));
+                continue;
+            }
+            ResultadoLiquidacion resultado;
+            String mensaje = null;
+            EstadoFactura anterior = factura.getEstado();
+            if (anterior == EstadoFactura.PAGADA) {
+                // Una remesa reenviada no paga dos veces
+                resultado = ResultadoLiquidacion.YA_PAGADA;
+            } else if (anterior == EstadoFactura.CANCELADA || anterior == EstadoFactura.REEMBOLSADA) {
+                resultado = ResultadoLiquidacion.ESTADO_NO_PAGABLE;
+            } else if (pago.importe().compareTo(factura.getTotal()) != 0) {
+                resultado = ResultadoLiquidacion.IMPORTE_INCORRECTO;
+                mensaje = "Importe " + pago.importe() + ", total de la factura " + factura.getTotal();
+            } else {
+                resultado = ResultadoLiquidacion.PAGADA;
+                factura.setEstado(EstadoFactura.PAGADA);
+                factura.setFechaPago(pago.fecha() != null ? pago.fecha().atStartOfDay() : ahora);
+                mensaje = asignarMetodo(factura, pago, metodos);
+                pagadasPorAnterior.computeIfAbsent(anterior, e -> new ArrayList<>()).add(factura);
+                eventPublisher.publishEvent(new CambioEstadoFactura(factura.getId(), anterior, EstadoFactura.PAGADA));
+                eventos.add(new FacturaPagada(factura.getId(), factura.getSuscripcion().getId(), factura.getTotal()));
+            }
+            resultados.add(new ResultadoPago(indice, factura.getId(), factura.getNumeroFactura(), resultado, mensaje));
+        }
+
+        pagadasPorAnterior.forEach((anterior, facturas) -> resumenMensual.cambiosEstado(facturas, anterior));
+        publicadorEventos.publicarTodos(eventos);
+        return resultados;
+    }
+
+    // Motivo por el que el pago no es válido, o null
+    private String validar(Pago pago) {
+        if (pago == null) {
+            return "Pago vacío";
+        }
+        boolean conNumero = pago.numeroFactura() != null && !pago.numeroFactura().isBlank();
+        if (pago.facturaId() == null && !conNumero) {
+            return "Indique facturaId o numeroFactura";
+        }
+        if (pago.facturaId() != null && conNumero) {
+            return "Indique facturaId o numeroFactura, no ambos";
+        }
+        if (pago.importe() == null || pago.importe().signum() <= 0) {
+            return "El importe debe ser positivo";
+        }
+        if (pago.fecha() != null && pago.fecha().isAfter(LocalDate.now())) {
+            return "La fecha de pago no puede ser futura";
+        }
+        if (pago.metodo() != null && tipoMetodo(pago) == null) {
+            return "Método de pago desconocido: " + pago.metodo();
+        }
+        return null;
+    }
+
+    private static <K> Map<K, Factura> cargar(List<Pago> pagos, Function<Pago, K> clave,
+                                              Function<Set<K>, List<Factura>> consulta,
+                                              Function<Factura, K> claveFactura) {
+        Set<K> claves = pagos.stream().map(clave).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (claves.isEmpty()) {
+            return Map.of();
+        }
+        return consulta.apply(claves).stream().collect(Collectors.toMap(claveFactura, Function.identity()));
+    }
+
+    // Métodos de pago activos de los usuarios de las facturas, solo si algún pago indica método
+    private Map<Long, List<MetodoPago>> metodosDe(List<Pago> pagos, Map<Long, Factura> porId,
+                                                  Map<String, Factura> porNumero) {
+        if (pagos.stream().allMatch(p -> p.metodo() == null)) {
+            return Map.of();
+        }
+        Set<Long> usuarios = new HashSet<>();
+        porId.values().forEach(f -> usuarios.add(f.getSuscripcion().getUsuario().getId()));
+        porNumero.values().forEach(f -> usuarios.add(f.getSuscripcion().getUsuario().getId()));
+        if (usuarios.isEmpty()) {
+            return Map.of();
+        }
+        return metodoPagoRepository.findByUsuarioIdInAndActivoTrue(usuarios).stream()
+                .collect(Collectors.groupingBy(m -> m.getUsuario().getId()));
+    }
+
+    /**
+     * Asocia a la factura el método del usuario del tipo indicado en el pago (el predeterminado si tiene varios)
+     * @return Aviso si el usuario no tiene ninguno de ese tipo, o null
+     */
+    private String asignarMetodo(Factura factura, Pago pago, Map<Long, List<MetodoPago>> metodos) {
+        TipoMetodoPago tipo = tipoMetodo(pago);
+        if (tipo == null) {
+            return null;
+        }
+        Optional<MetodoPago> metodo = metodos.getOrDefault(factura.getSuscripcion().getUsuario().getId(), List.of())
+                .stream()
+                .filter(m -> m.getTipoMetodoPago() == tipo)
+                .max(Comparator.comparing((MetodoPago m) -> Boolean.TRUE.equals(m.getEsPredeterminado())));
+        if (metodo.isEmpty()) {
+            return "El usuario no tiene un método de pago " + tipo + " activo; la factura conserva el suyo";
+        }
+        factura.setMetodoPago(metodo.get());
+        return null;
+    }
+
+    private static TipoMetodoPago tipoMetodo(Pago pago) {
+        if (pago.metodo() == null) {
+            return null;
+        }
+        try {
+            return TipoMetodoPago.valueOf(pago.metodo().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Un pago de la remesa. La factura se indica por facturaId o por numeroFactura
+     * @param importe Debe coincidir con el total de la factura (no hay pagos parciales)
+     * @param fecha Fecha valor del pago; si falta, el momento de la liquidación
+     * @param metodo Un TipoMetodoPago, opcional
+     */
+    public record Pago(Long facturaId, String numeroFactura, BigDecimal importe, LocalDate fecha, String metodo) {}
+
+    /**
+     * @param indice Posición del pago en la entrada, desde 0
+     * @param mensaje Detalle del resultado, si lo hay
+     */
+    public record ResultadoPago(int indice, Long facturaId, String numeroFactura,
+                                ResultadoLiquidacion resultado, String mensaje) {}
+
+    /**
+     * @param error Motivo por el que se dejó de leer la entrada, o null si se leyó entera
+     */
+    public record Liquidacion(int pagos, Map<ResultadoLiquidacion, Long> resumen,
+                              List<ResultadoPago> resultados, String error) {}
+}
@@ -0,0 +1,43 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.service.BusEventos.Entrega;
+import com.example.ProyectoSpringBoot.service.EventoDominio.EstadoSuscripcionCambiado;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaGenerada;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaPagada;
+import com.example.ProyectoSpringBoot.service.EventoDominio.PlanCambiado;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor del bus que cuenta facturas, cobros, cambios de plan y transiciones
+ * de suscripción en Micrometer (facturacion.*)
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricasFacturacion implements BusEventos.Consumidor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String nombre() {
+        return "metricas";
+    }
+
+    @Override
+    public void procesar(Entrega entrega) {
+        switch (entrega.evento()) {
+            case FacturaGenerada f -> {
+                meterRegistry.counter("facturacion.facturas.generadas", "prorrateo", String.valueOf(f.esProrrateo())).increment();
+                meterRegistry.counter("facturacion.importe.facturado").increment(f.total().doubleValue());
+            }
+            case FacturaPagada f -> {
+                meterRegistry.counter("facturacion.facturas.pagadas").increment();
+                meterRegistry.counter("facturacion.importe.cobrado").increment(f.total().doubleValue());
+            }
+            case PlanCambiado p -> meterRegistry.counter("facturacion.planes.cambios").increment();
+            case EstadoSuscripcionCambiado e ->
+                    meterRegistry.counter("facturacion.suscripciones.transiciones", "estado", e.nuevo().name()).increment();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.ProyectoSpringBoot.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Instrumentación de los jobs programados en Micrometer:
+ * - jobs.duracion (job, resultado): duración de cada ejecución
+ * - jobs.fase (job, fase): tiempo por fase (consulta, impuestos, insercion, actualizacion, confirmacion)
+ * - jobs.elementos (job, resultado): elementos procesados, fallidos u omitidos
+ * - jobs.pendientes (job): elementos que le quedan a la ejecución en curso
+ * - jobs.ultimo.exito (job): epoch en segundos de la última ejecución completada
+ *
+ * Guarda además las últimas app.jobs.historial ejecuciones para el endpoint de Actuator /actuator/jobs.
+ * Cada job corre una sola vez a la vez: si se lanza con otra ejecución suya en curso (la programada y
+ * una manual), la nueva se omite. La ejecución en curso lleva su progreso y se puede cancelar; los jobs
+ * miran cancelada() antes de cada elemento.
+ * La fase confirmacion es el commit: incluye el flush pendiente y las tablas de auditoría de Envers.
+ * Con una grabación JFR activa cada fase y cada elemento es además un evento (EventosJfr.FaseJob y ElementoJob).
+ */
+@Component
+@Slf4j
+public class MonitorJobs {
+
+    private final MeterRegistry meterRegistry;
+    private final int tamanoHistorial;
+
+    private final Deque<EjecucionJob> historial = new ArrayDeque<>();
+    private final Map<String, AtomicLong> pendientes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> ultimoExito = new ConcurrentHashMap<>();
+    private final Map<String, Ejecucion> enCurso = new ConcurrentHashMap<>();
+    // Ejecución en curso en este hilo, para las fases que se miden dentro de otros servicios
+    private final ThreadLocal<Ejecucion> actual = new ThreadLocal<>();
+    // Quien lanza un job en este hilo y quiere su Ejecucion (GestorJobs)
+    private final ThreadLocal<Consumer<Ejecucion>> observador = new ThreadLocal<>();
+
+    public MonitorJobs(MeterRegistry meterRegistry,
+                       @Value("${app.jobs.historial:50}") int tamanoHistorial) {
+        this.meterRegistry = meterRegistry;
+        this.tamanoHistorial = Math.max(1, tamanoHistorial);
+    }
+
+    /**
+     * Ejecuta el cuerpo de un job y registra su ejecución. Si hay una transacción activa,
+     * la ejecución termina (y se mide la fase confirmacion) cuando se confirma
+     * @return false si no se ejecutó porque ya había otra ejecución del mismo job en curso
+     */
+    public boolean ejecutar(String job, Consumer<Ejecucion> cuerpo) {
+        Ejecucion ejecucion = new Ejecucion(job);
+        if (enCurso.putIfAbsent(job, ejecucion) != null) {
+            log.warn("Job {} ya en curso; se omite esta ejecución", job);
+            meterRegistry.counter("jobs.omitidos", "job", job).increment();
+            return false;
+        }
+        Consumer<Ejecucion> interesado = observador.get();
+        if (interesado != null) {
+            interesado.accept(ejecucion);
+        }
+        Ejecucion anterior = actual.get();
+        actual.set(ejecucion);
+        try {
+            cuerpo.accept(ejecucion);
+        } catch (RuntimeException e) {
+            terminar(ejecucion, e.toString());
+            throw e;
+        } finally {
+            if (anterior != null) {
+                actual.set(anterior);
+            } else {
+                actual.remove();
+            }
+        }
+        if (!alConfirmar(ejecucion, this::terminar)) {
+            terminar(ejecucion, null);
+        }
+        return true;
+    }
+
+    /**
+     * Ejecuta la acción pasando a alEmpezar la Ejecucion de cada job que se lance dentro, en este hilo
+     */
+    public void observar(Consumer<Ejecucion> alEmpezar, Runnable accion) {
+        observador.set(alEmpezar);
+        try {
+            accion.run();
+        } finally {
+            observador.remove();
+        }
+    }
+
+    /**
+     * Suma a la fase indicada del job en curso en este hilo el tiempo desde inicioNanos.
+     * Sin job en curso no hace nada
+     */
+    public void registrarFase(String fase, long inicioNanos) {
+        Ejecucion ejecucion = actual.get();
+        if (ejecucion != null) {
+            ejecucion.sumarFase(fase, System.nanoTime() - inicioNanos);
+        }
+    }
+
+    /**
+     * Nombre del job en curso en este hilo, null si no hay ninguno
+     */
+    public String jobActual() {
+        Ejecucion ejecucion = actual.get();
+        return ejecucion != null ? ejecucion.job : null;
+    }
+
+    /**
+     * Mide el commit de la transacción actual como fase confirmacion del job en curso en este hilo
+     */
+    public void medirConfirmacion() {
+        Ejecucion ejecucion = actual.get();
+        if (ejecucion != null) {
+            alConfirmar(ejecucion, (e, error) -> {});
+        }
+    }
+
+    /**
+     * Últimas ejecuciones, la más reciente primero
+     * @param job Nombre del job o null para todos
+     */
+    public List<EjecucionJob> historial(String job) {
+        synchronized (historial) {
+            return historial.stream()
+                    .filter(e -> job == null || e.job().equals(job))
+                    .toList();
+        }
+    }
+
+    private boolean alConfirmar(Ejecucion ejecucion, FinEjecucion fin) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long inicio;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inicio = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (inicio != 0) {
+                    ejecucion.sumarFase("confirmacion", System.nanoTime() - inicio);
+                }
+                fin.terminar(ejecucion, status == STATUS_COMMITTED ? null : "Transacción deshecha");
+            }
+        });
+        return true;
+    }
+
+    private void terminar(Ejecucion ejecucion, String error) {
+        enCurso.remove(ejecucion.job, ejecucion);
+        long nanos = System.nanoTime() - ejecucion.inicioNanos;
+        String resultado = error != null ? "fallida" : ejecucion.cancelada ? "cancelada" : "completada";
+        Timer.builder("jobs.duracion")
+                .description("Duración de cada ejecución de un job programado")
+                .tags("job", ejecucion.job, "resultado", resultado)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        gauge(pendientes, "jobs.pendientes", ejecucion.job).set(0);
+        if (error == null) {
+            gauge(ultimoExito, "jobs.ultimo.exito", ejecucion.job)
+                    .set(LocalDateTime.now().atZone(ZoneId.systemDefault()).toEpochSecond());
+        }
+
+        Map<String, Long> fasesMs = new LinkedHashMap<>();
+        ejecucion.fases.forEach((fase, n) -> fasesMs.put(fase, TimeUnit.NANOSECONDS.toMillis(n)));
+        EjecucionJob registro = new EjecucionJob(ejecucion.job, ejecucion.inicio, LocalDateTime.now(),
+                TimeUnit.NANOSECONDS.toMillis(nanos), resultado, ejecucion.total, ejecucion.procesados,
+                ejecucion.fallidos, ejecucion.omitidos, fasesMs, error);
+        synchronized (historial) {
+            historial.addFirst(registro);
+            while (historial.size() > tamanoHistorial) {
+                historial.removeLast();
+            }
+        }
+        ejecucion.registro = registro;
+        log.info("Job {} {} en {} ms: {} procesados, {} fallidos, {} omitidos", ejecucion.job, resultado,
+                registro.duracionMs(), ejecucion.procesados, ejecucion.fallidos, ejecucion.omitidos);
+    }
+
+    private AtomicLong gauge(Map<String, AtomicLong> gauges, String nombre, String job) {
+        return gauges.computeIfAbsent(job, j -> meterRegistry.gauge(nombre, Tags.of("job", j), new AtomicLong()));
+    }
+
+    @FunctionalInterface
+    private interface FinEjecucion {
+        void terminar(Ejecucion ejecucion, String error);
+    }
+
+    /**
+     * Ejecución en curso de un job. La usa un solo hilo, el del job; desde otros hilos solo
+     * se lee su progreso, se cancela o se recoge el registro final
+     */
+    public final class Ejecucion {
+
+        private final String job;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final long inicioNanos = System.nanoTime();
+        private final Map<String, Long> fases = new LinkedHashMap<>();
+        // Un solo escritor (el hilo del job): volatile basta para leerlos desde fuera
+        private volatile long total;
+        private volatile long procesados;
+        private volatile long fallidos;
+        private volatile long omitidos;
+        private volatile boolean cancelada;
+        private volatile EjecucionJob registro;
+        // Suscripción en curso y su evento JFR, hasta que se cuenta su resultado
+        private long suscripcionId;
+        private EventosJfr.ElementoJob elemento;
+
+        private Ejecucion(String job) {
+            this.job = job;
+        }
+
+        /**
+         * Ejecuta la acción midiendo su tiempo en la fase indicada
+         */
+        public <T> T fase(String fase, Supplier<T> accion) {
+            EventosJfr.FaseJob evento = new EventosJfr.FaseJob();
+            evento.begin();
+            long inicioFase = System.nanoTime();
+            try {
+                return accion.get();
+            } finally {
+                sumarFase(fase, System.nanoTime() - inicioFase);
+                evento.end();
+                if (evento.shouldCommit()) {
+                    evento.job = job;
+                    evento.fase = fase;
+                    evento.suscripcionId = suscripcionId;
+                    evento.commit();
+                }
+            }
+        }
+
+        /**
+         * Empieza un elemento: las fases siguientes van con su suscripción en JFR hasta que se
+         * cuente como procesado, fallido u omitido
+         * @param pais País si ya está cargado, o null
+         */
+        public void elemento(Long suscripcionId, String pais) {
+            this.suscripcionId = suscripcionId != null ? suscripcionId : 0;
+            elemento = new EventosJfr.ElementoJob();
+            elemento.job = job;
+            elemento.suscripcionId = this.suscripcionId;
+            elemento.pais = pais;
+            elemento.begin();
+        }
+
+        /**
+         * Número de elementos que va a recorrer la ejecución (gauge jobs.pendientes)
+         */
+        public void total(int total) {
+            this.total = total;
+            gauge(pendientes, "jobs.pendientes", job).set(total);
+        }
+
+        /**
+         * true si se pidió cancelar: el job debe dejar de recorrer elementos
+         */
+        public boolean cancelada() {
+            return cancelada;
+        }
+
+        public void cancelar() {
+            if (!cancelada) {
+                cancelada = true;
+                log.info("Cancelación pedida para el job {}", job);
+            }
+        }
+
+        public String job() {
+            return job;
+        }
+
+        /**
+         * Registro de la ejecución, null hasta que termina (tras el commit si hay transacción)
+         */
+        public EjecucionJob registro() {
+            return registro;
+        }
+
+        /**
+         * Elementos hechos sobre el total, ritmo y tiempo estimado hasta terminar
+         */
+        public Progreso progreso() {
+            long hechos = procesados + fallidos + omitidos;
+            double segundos = (System.nanoTime() - inicioNanos) / 1_000_000_000.0;
+            double porSegundo = segundos > 0 ? hechos / segundos : 0;
+            Long etaSegundos = porSegundo > 0 && total >= hechos ? Math.round((total - hechos) / porSegundo) : null;
+            return new Progreso(total, hechos, procesados, fallidos, omitidos,
+                    Math.round(porSegundo * 100) / 100.0, etaSegundos);
+        }
+
+        public void procesado() {
+            procesados++;
+            contar("procesado");
+        }
+
+        public void fallido() {
+            fallidos++;
+            contar("fallido");
+        }
+
+        public void omitido() {
+            omitidos++;
+            contar("omitido");
+        }
+
+        private void contar(String resultado) {
+            if (elemento != null) {
+                elemento.terminar(resultado);
+                elemento = null;
+                suscripcionId = 0;
+            }
+            meterRegistry.counter("jobs.elementos", "job", job, "resultado", resultado).increment();
+            gauge(pendientes, "jobs.pendientes", job).decrementAndGet();
+        }
+
+        private void sumarFase(String fase, long nanos) {
+            fases.merge(fase, nanos, Long::sum);
+            Timer.builder("jobs.fase")
+                    .description("Tiempo de cada fase de un job programado")
+                    .tags("job", job, "fase", fase)
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Progreso de una ejecución en curso
+     * @param hechos Procesados, fallidos y omitidos
+     * @param porSegundo Elementos hechos por segundo desde el inicio
+     * @param etaSegundos Segundos que faltan a ese ritmo, null si aún no se puede estimar
+     */
+    public record Progreso(long total, long hechos, long procesados, long fallidos, long omitidos,
+                           double porSegundo, Long etaSegundos) {}
+
+    /**
+     * Ejecución terminada, tal como la devuelve /actuator/jobs
+     * @param fasesMs Milisegundos acumulados por fase
+     * @param error Causa del fallo, null si se completó
+     */
+    public record EjecucionJob(String job, LocalDateTime inicio, LocalDateTime fin, long duracionMs, String resultado,
+                               long total, long procesados, long fallidos, long omitidos,
+                               Map<String, Long> fasesMs, String error) {}
+}
@@ -0,0 +1,42 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.service.BusEventos.Entrega;
+import com.example.ProyectoSpringBoot.service.EventoDominio.EstadoSuscripcionCambiado;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaGenerada;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaPagada;
+import com.example.ProyectoSpringBoot.service.EventoDominio.PlanCambiado;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor del bus con los avisos al cliente. Todavía no hay canal de envío:
+ * deja el aviso en el log con el id del evento para poder descartar repetidos
+ */
+@Component
+@Slf4j
+public class NotificacionesFacturacion implements BusEventos.Consumidor {
+
+    @Override
+    public String nombre() {
+        return "notificaciones";
+    }
+
+    @Override
+    public void procesar(Entrega entrega) {
+        switch (entrega.evento()) {
+            case FacturaGenerada f -> log.info("[aviso {}] Nueva factura {} de {} € para la suscripción {}",
+                    entrega.id(), f.facturaId(), f.total(), f.suscripcionId());
+            case FacturaPagada f -> log.info("[aviso {}] Pago recibido de la factura {} ({} €)",
+                    entrega.id(), f.facturaId(), f.total());
+            case PlanCambiado p -> log.info("[aviso {}] La suscripción {} pasa al plan {}",
+                    entrega.id(), p.suscripcionId(), p.planNuevoId());
+            case EstadoSuscripcionCambiado e -> {
+                if (e.anterior() != null && e.nuevo() != EstadoSuscripcion.ACTIVA) {
+                    log.info("[aviso {}] La suscripción {} pasa de {} a {}",
+                            entrega.id(), e.suscripcionId(), e.anterior(), e.nuevo());
+                }
+            }
+        }
+    }
+}
@@ -4,12 +4,12 @@ import com.example.ProyectoSpringBoot.dto.PlanDTO;
 import com.example.ProyectoSpringBoot.entity.Plan;
 import com.example.ProyectoSpringBoot.repository.PlanRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Servicio para la lógica de negocio de Plan
@@ -21,33 +21,28 @@ import java.util.stream.Collectors;
 public class PlanService {
 
     private final PlanRepository planRepository;
+    private final CatalogoPlanes catalogoPlanes;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Obtiene todos los planes
+     * Obtiene todos los planes (desde el catálogo en memoria)
      */
-    @Transactional(readOnly = true)
     public List<PlanDTO> findAll() {
-        return planRepository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return catalogoPlanes.todos();
     }
 
     /**
-     * Obtiene todos los planes activos
+     * Obtiene todos los planes activos (desde el catálogo en memoria)
      */
-    @Transactional(readOnly = true)
     public List<PlanDTO> findAllActive() {
-        return planRepository.findByActivoTrue().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return catalogoPlanes.activos();
     }
 
     /**
-     * Busca un plan por ID
+     * Busca un plan por ID (desde el catálogo en memoria)
      */
-    @Transactional(readOnly = true)
     public Optional<PlanDTO> findById(Long id) {
-        return planRepository.findById(id).map(this::toDTO);
+        return catalogoPlanes.buscar(id);
     }
 
     /**
@@ -57,6 +52,7 @@ public class PlanService {
         Plan plan = toEntity(dto);
         plan.setId(null); // Asegurar que es nuevo
         Plan saved = planRepository.save(plan);
+        eventPublisher.publishEvent(new CatalogoPlanes.PlanesModificados(saved.getId()));
         return toDTO(saved);
     }
 
@@ -67,6 +63,7 @@ public class PlanService {
         return planRepository.findById(id).map(existing -> {
             updateEntity(existing, dto);
             Plan saved = planRepository.save(existing);
+            eventPublisher.publishEvent(new CatalogoPlanes.PlanesModificados(id));
             return toDTO(saved);
         });
     }
@@ -77,6 +74,7 @@ public class PlanService {
     public boolean delete(Long id) {
         if (planRepository.existsById(id)) {
             planRepository.deleteById(id);
+            eventPublisher.publishEvent(new CatalogoPlanes.PlanesModificados(id));
             return true;
         }
         return false;
@@ -85,14 +83,13 @@ public class PlanService {
     /**
      * Verifica si existe un plan con el nombre dado
      */
-    @Transactional(readOnly = true)
     public boolean existsByNombre(String nombre) {
-        return planRepository.existsByNombre(nombre);
+        return catalogoPlanes.existeNombre(nombre);
     }
 
     // ===== MÉTODOS DE CONVERSIÓN (Entity <-> DTO) =====
 
-    private PlanDTO toDTO(Plan entity) {
+    static PlanDTO toDTO(Plan entity) {
         return PlanDTO.builder()
                 .id(entity.getId())
                 .nombre(entity.getNombre())
@@ -0,0 +1,63 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.EventoOutbox;
+import com.example.ProyectoSpringBoot.repository.EventoOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Guarda eventos de dominio en eventos_outbox. Exige una transacción abierta:
+ * el evento existe si y solo si el cambio que lo origina se confirma
+ */
+@Service
+@RequiredArgsConstructor
+public class PublicadorEventos {
+
+    private final EventoOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(EventoDominio evento) {
+        outboxRepository.save(EventoOutbox.builder()
+                .tipo(evento.getClass().getSimpleName())
+                .agregadoId(evento.agregadoId())
+                .payload(serializar(evento))
+                .fechaCreacion(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Varios eventos en un solo batch de JDBC. Con ids IDENTITY Hibernate no agrupa los INSERT,
+     * así que van por JdbcTemplate sobre la conexión de la transacción en curso
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicarTodos(List<? extends EventoDominio> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Object[]> filas = eventos.stream()
+                .map(evento -> new Object[]{evento.getClass().getSimpleName(), evento.agregadoId(),
+                        serializar(evento), ahora})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO eventos_outbox (tipo, agregado_id, payload, fecha_creacion) " +
+                "VALUES (?, ?, ?, ?)", filas);
+    }
+
+    private String serializar(EventoDominio evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar " + evento, e);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.AccesoUsuario;
+import com.example.ProyectoSpringBoot.repository.AccesoUsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registro de último acceso con escritura diferida.
+ * Los logins solo anotan en memoria (un valor por usuario, el más reciente) y
+ * un proceso programado vuelca el buffer por lotes en accesos_usuario.
+ * Si la aplicación cae se pierden como mucho los accesos del último intervalo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegistroAccesos {
+
+    private final AccesoUsuarioRepository accesoUsuarioRepository;
+
+    private final ConcurrentHashMap<Long, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Anota un acceso; varios accesos del mismo usuario se combinan en uno
+     */
+    public void registrar(Long usuarioId, LocalDateTime instante) {
+        pendientes.merge(usuarioId, instante, RegistroAccesos::masReciente);
+    }
+
+    /**
+     * Vuelca los accesos pendientes en un único lote
+     */
+    @Scheduled(fixedDelayString = "${app.accesos.intervalo-volcado-ms:5000}")
+    @Transactional
+    public int volcar() {
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+        // remove() por clave: un acceso que llegue durante el volcado queda para el siguiente
+        Map<Long, LocalDateTime> lote = new HashMap<>();
+        for (Long usuarioId : pendientes.keySet()) {
+            LocalDateTime instante = pendientes.remove(usuarioId);
+            if (instante != null) {
+                lote.put(usuarioId, instante);
+            }
+        }
+
+        Map<Long, AccesoUsuario> existentes = accesoUsuarioRepository.findAllById(lote.keySet()).stream()
+                .collect(Collectors.toMap(AccesoUsuario::getUsuarioId, Function.identity()));
+        List<AccesoUsuario> accesos = new ArrayList<>(lote.size());
+        lote.forEach((usuarioId, instante) -> {
+            AccesoUsuario acceso = existentes.get(usuarioId);
+            if (acceso == null) {
+                acceso = AccesoUsuario.builder().usuarioId(usuarioId).ultimoAcceso(instante).build();
+            } else {
+                acceso.setUltimoAcceso(masReciente(acceso.getUltimoAcceso(), instante));
+            }
+            accesos.add(acceso);
+        });
+        accesoUsuarioRepository.saveAll(accesos);
+
+        log.debug("Volcados {} accesos de usuario ({} nuevos)", lote.size(), lote.size() - existentes.size());
+        return lote.size();
+    }
+
+    /**
+     * Último acceso de varios usuarios con una sola consulta (incluye lo pendiente de volcar)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, LocalDateTime> ultimosAccesos(Collection<Long> usuarioIds) {
+        Map<Long, LocalDateTime> accesos = new HashMap<>();
+        if (usuarioIds.isEmpty()) {
+            return accesos;
+        }
+        accesoUsuarioRepository.findAllById(usuarioIds)
+                .forEach(a -> accesos.put(a.getUsuarioId(), a.getUltimoAcceso()));
+        for (Long usuarioId : usuarioIds) {
+            LocalDateTime pendiente = pendientes.get(usuarioId);
+            if (pendiente != null) {
+                accesos.merge(usuarioId, pendiente, RegistroAccesos::masReciente);
+            }
+        }
+        return accesos;
+    }
+
+    @PreDestroy
+    public void volcarAlCerrar() {
+        try {
+            volcar();
+        } catch (Exception e) {
+            log.warn("No se pudieron volcar {} accesos pendientes al cerrar: {}", pendientes.size(), e.getMessage());
+        }
+    }
+
+    private static LocalDateTime masReciente(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
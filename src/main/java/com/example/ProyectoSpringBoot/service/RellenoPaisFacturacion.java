@@ -0,0 +1,75 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relleno de pais_facturacion y regla_impuesto en facturas anteriores a esas columnas.
+ * Cada lote va en su propia transacción: se puede interrumpir y relanzar, y no
+ * bloquea la tabla durante todo el proceso. El país es el del perfil en el momento
+ * del relleno y la regla se reconstruye con la tasa que se guardó en la factura.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RellenoPaisFacturacion {
+
+    private final FacturaRepository facturaRepository;
+    private final ImpuestoService impuestoService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Rellena todas las facturas pendientes en lotes de tamanoLote
+     * @return Número de facturas actualizadas
+     */
+    public int ejecutar(int tamanoLote) {
+        long ultimoId = 0;
+        int actualizadas = 0;
+        while (true) {
+            long desdeId = ultimoId;
+            Lote lote = transactionTemplate.execute(estado -> procesarLote(desdeId, tamanoLote));
+            if (lote == null || lote.leidas() == 0) {
+                break;
+            }
+            actualizadas += lote.actualizadas();
+            ultimoId = lote.ultimoId();
+            log.debug("Relleno de país de facturación: {} facturas hasta id {}", actualizadas, ultimoId);
+        }
+        log.info("Relleno de país de facturación completado: {} facturas actualizadas", actualizadas);
+        return actualizadas;
+    }
+
+    private Lote procesarLote(long desdeId, int tamanoLote) {
+        List<Object[]> filas = facturaRepository.findSinPaisFacturacion(desdeId, PageRequest.of(0, tamanoLote));
+
+        // Un UPDATE por combinación de país y regla en lugar de uno por factura
+        Map<List<String>, List<Long>> grupos = new HashMap<>();
+        long ultimoId = desdeId;
+        for (Object[] fila : filas) {
+            Long id = (Long) fila[0];
+            String paisIso = impuestoService.normalizarPais((String) fila[1]);
+            String regla = impuestoService.regla(paisIso, (BigDecimal) fila[2]);
+            grupos.computeIfAbsent(List.of(paisIso, regla), clave -> new ArrayList<>()).add(id);
+            ultimoId = Math.max(ultimoId, id);
+        }
+
+        int actualizadas = 0;
+        for (Map.Entry<List<String>, List<Long>> grupo : grupos.entrySet()) {
+            actualizadas += facturaRepository.asignarPaisFacturacion(
+                    grupo.getValue(), grupo.getKey().get(0), grupo.getKey().get(1));
+        }
+        return new Lote(filas.size(), actualizadas, ultimoId);
+    }
+
+    private record Lote(int leidas, int actualizadas, long ultimoId) {}
+}
@@ -0,0 +1,245 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.ResumenMensualFactura;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.ResumenMensualFacturaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Acumulados mensuales de facturación (resumen_mensual_facturas).
+ * Cada alta, pago o baja de factura suma o resta su fila dentro de la misma
+ * transacción con un upsert atómico, así los totales de un periodo leen unas
+ * pocas filas en lugar de recorrer facturas. Solo los días sueltos en los
+ * extremos del periodo se calculan sobre facturas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumenMensualFacturas {
+
+    // MySQL 8.0.19+ (alias de fila en ON DUPLICATE KEY UPDATE)
+    private static final String UPSERT_MYSQL = "INSERT INTO resumen_mensual_facturas " +
+            "(mes, pais, estado, es_prorrateo, cantidad, subtotal, impuestos, total) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) AS n ON DUPLICATE KEY UPDATE " +
+            "cantidad = resumen_mensual_facturas.cantidad + n.cantidad, " +
+            "subtotal = resumen_mensual_facturas.subtotal + n.subtotal, " +
+            "impuestos = resumen_mensual_facturas.impuestos + n.impuestos, " +
+            "total = resumen_mensual_facturas.total + n.total";
+
+    private static final String MERGE_H2 = "MERGE INTO resumen_mensual_facturas r USING (VALUES " +
+            "(CAST(? AS DATE), CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(20)), CAST(? AS BOOLEAN), " +
+            "CAST(? AS BIGINT), CAST(? AS DECIMAL(14,2)), CAST(? AS DECIMAL(14,2)), CAST(? AS DECIMAL(14,2)))) " +
+            "n(mes, pais, estado, es_prorrateo, cantidad, subtotal, impuestos, total) " +
+            "ON r.mes = n.mes AND r.pais = n.pais AND r.estado = n.estado AND r.es_prorrateo = n.es_prorrateo " +
+            "WHEN MATCHED THEN UPDATE SET cantidad = r.cantidad + n.cantidad, subtotal = r.subtotal + n.subtotal, " +
+            "impuestos = r.impuestos + n.impuestos, total = r.total + n.total " +
+            "WHEN NOT MATCHED THEN INSERT (mes, pais, estado, es_prorrateo, cantidad, subtotal, impuestos, total) " +
+            "VALUES (n.mes, n.pais, n.estado, n.es_prorrateo, n.cantidad, n.subtotal, n.impuestos, n.total)";
+
+    private final ResumenMensualFacturaRepository resumenRepository;
+    private final FacturaRepository facturaRepository;
+    private final ImpuestoService impuestoService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Sentencia de acumular según la base de datos; se resuelve en el primer uso
+    private volatile String sqlAcumular;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void alta(Factura factura) {
+        acumular(factura, factura.getEstado(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void baja(Factura factura) {
+        acumular(factura, factura.getEstado(), -1);
+    }
+
+    /**
+     * Mueve la factura de la fila de su estado anterior a la del actual
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cambioEstado(Factura factura, EstadoFactura anterior) {
+        if (anterior == factura.getEstado()) {
+            return;
+        }
+        acumular(factura, anterior, -1);
+        acumular(factura, factura.getEstado(), 1);
+    }
+
+    /**
+     * Como cambioEstado para varias facturas que venían del mismo estado: suma primero por fila
+     * y lanza una sentencia por fila afectada en lugar de dos por factura
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cambiosEstado(Collection<Factura> facturas, EstadoFactura anterior) {
+        Map<Fila, Delta> deltas = new LinkedHashMap<>();
+        for (Factura factura : facturas) {
+            if (anterior == factura.getEstado()) {
+                continue;
+            }
+            LocalDate mes = factura.getFechaEmision().withDayOfMonth(1);
+            String pais = paisDe(factura);
+            boolean esProrrateo = Boolean.TRUE.equals(factura.getEsProrrateo());
+            deltas.merge(new Fila(mes, pais, anterior, esProrrateo), Delta.de(factura, -1), Delta::mas);
+            deltas.merge(new Fila(mes, pais, factura.getEstado(), esProrrateo), Delta.de(factura, 1), Delta::mas);
+        }
+        deltas.forEach(this::acumular);
+    }
+
+    /**
+     * Total e impuestos de las facturas pagadas emitidas entre inicio y fin (ambos inclusive)
+     */
+    @Transactional(readOnly = true)
+    public TotalesPeriodo totalesPagados(LocalDate inicio, LocalDate fin) {
+        if (fin.isBefore(inicio)) {
+            return new TotalesPeriodo(BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        // Meses completos dentro del periodo
+        YearMonth desde = inicio.getDayOfMonth() == 1 ? YearMonth.from(inicio) : YearMonth.from(inicio).plusMonths(1);
+        YearMonth hasta = fin.equals(YearMonth.from(fin).atEndOfMonth()) ? YearMonth.from(fin) : YearMonth.from(fin).minusMonths(1);
+
+        if (desde.isAfter(hasta)) {
+            return sumarFacturas(inicio, fin);
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal impuestos = BigDecimal.ZERO;
+        for (ResumenMensualFactura fila : resumenRepository.findByEstadoAndMesBetween(
+                EstadoFactura.PAGADA, desde.atDay(1), hasta.atDay(1))) {
+            total = total.add(fila.getTotal());
+            impuestos = impuestos.add(fila.getImpuestos());
+        }
+        TotalesPeriodo totales = new TotalesPeriodo(total, impuestos);
+
+        if (inicio.isBefore(desde.atDay(1))) {
+            totales = totales.mas(sumarFacturas(inicio, desde.atDay(1).minusDays(1)));
+        }
+        if (fin.isAfter(hasta.atEndOfMonth())) {
+            totales = totales.mas(sumarFacturas(hasta.plusMonths(1).atDay(1), fin));
+        }
+        return totales;
+    }
+
+    /**
+     * Recalcula desde facturas las filas de los meses indicados (ambos inclusive).
+     * Pensado para cargas iniciales y correcciones; conviene lanzarlo con poca actividad
+     */
+    @Transactional
+    public int reconstruir(YearMonth desde, YearMonth hasta) {
+        int borradas = resumenRepository.borrarMeses(desde.atDay(1), hasta.atDay(1));
+
+        // Varios grupos pueden acabar en la misma fila al normalizar el país del perfil
+        Map<String, ResumenMensualFactura> filas = new LinkedHashMap<>();
+        for (Object[] grupo : facturaRepository.agruparPorMes(desde.atDay(1), hasta.atEndOfMonth())) {
+            LocalDate mes = LocalDate.of(((Number) grupo[0]).intValue(), ((Number) grupo[1]).intValue(), 1);
+            String pais = grupo[2] != null ? (String) grupo[2] : impuestoService.normalizarPais((String) grupo[3]);
+            EstadoFactura estado = (EstadoFactura) grupo[4];
+            Boolean esProrrateo = (Boolean) grupo[5];
+
+            ResumenMensualFactura fila = filas.computeIfAbsent(mes + "|" + pais + "|" + estado + "|" + esProrrateo,
+                    clave -> ResumenMensualFactura.builder()
+                            .mes(mes)
+                            .pais(pais)
+                            .estado(estado)
+                            .esProrrateo(esProrrateo)
+                            .cantidad(0L)
+                            .subtotal(BigDecimal.ZERO)
+                            .impuestos(BigDecimal.ZERO)
+                            .total(BigDecimal.ZERO)
+                            .build());
+            fila.setCantidad(fila.getCantidad() + ((Number) grupo[6]).longValue());
+            fila.setSubtotal(fila.getSubtotal().add((BigDecimal) grupo[7]));
+            fila.setImpuestos(fila.getImpuestos().add((BigDecimal) grupo[8]));
+            fila.setTotal(fila.getTotal().add((BigDecimal) grupo[9]));
+        }
+        resumenRepository.saveAll(filas.values());
+
+        log.info("Resumen mensual reconstruido {} - {}: {} filas borradas, {} filas nuevas", desde, hasta, borradas, filas.size());
+        return filas.size();
+    }
+
+    private void acumular(Factura factura, EstadoFactura estado, int signo) {
+        acumular(new Fila(factura.getFechaEmision().withDayOfMonth(1), paisDe(factura), estado,
+                Boolean.TRUE.equals(factura.getEsProrrateo())), Delta.de(factura, signo));
+    }
+
+    // Suma en una sola sentencia que crea la fila si no existe: dos altas simultáneas de la primera
+    // factura de una combinación no chocan con uk_resumen_mensual ni deshacen su transacción
+    private void acumular(Fila fila, Delta delta) {
+        jdbcTemplate.update(sqlAcumular(), Date.valueOf(fila.mes()), fila.pais(), fila.estado().name(),
+                fila.esProrrateo(), delta.cantidad(), delta.subtotal(), delta.impuestos(), delta.total());
+    }
+
+    private String sqlAcumular() {
+        String sql = sqlAcumular;
+        if (sql == null) {
+            String producto = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            sql = "H2".equals(producto) ? MERGE_H2 : UPSERT_MYSQL;
+            sqlAcumular = sql;
+        }
+        return sql;
+    }
+
+    private TotalesPeriodo sumarFacturas(LocalDate inicio, LocalDate fin) {
+        return new TotalesPeriodo(
+                facturaRepository.sumTotalFacturadoPorPeriodo(inicio, fin),
+                facturaRepository.sumImpuestosPorPeriodo(inicio, fin));
+    }
+
+    // País de facturación; las facturas sin rellenar usan el país actual del perfil
+    private String paisDe(Factura factura) {
+        if (factura.getPaisFacturacion() != null) {
+            return factura.getPaisFacturacion();
+        }
+        Suscripcion suscripcion = factura.getSuscripcion();
+        if (suscripcion != null && suscripcion.getUsuario() != null && suscripcion.getUsuario().getPerfil() != null) {
+            return impuestoService.normalizarPais(suscripcion.getUsuario().getPerfil().getPais());
+        }
+        return impuestoService.normalizarPais(null);
+    }
+
+    // Clave de una fila de resumen_mensual_facturas
+    private record Fila(LocalDate mes, String pais, EstadoFactura estado, boolean esProrrateo) {}
+
+    // Lo que se suma a una fila
+    private record Delta(long cantidad, BigDecimal subtotal, BigDecimal impuestos, BigDecimal total) {
+
+        static Delta de(Factura factura, int signo) {
+            BigDecimal factor = BigDecimal.valueOf(signo);
+            return new Delta(signo, factura.getSubtotal().multiply(factor),
+                    factura.getMontoImpuestos().multiply(factor), factura.getTotal().multiply(factor));
+        }
+
+        Delta mas(Delta otro) {
+            return new Delta(cantidad + otro.cantidad, subtotal.add(otro.subtotal),
+                    impuestos.add(otro.impuestos), total.add(otro.total));
+        }
+    }
+
+    /**
+     * Totales de facturación de un periodo
+     */
+    public record TotalesPeriodo(BigDecimal totalFacturado, BigDecimal totalImpuestos) {
+
+        TotalesPeriodo mas(TotalesPeriodo otro) {
+            return new TotalesPeriodo(totalFacturado.add(otro.totalFacturado), totalImpuestos.add(otro.totalImpuestos));
+        }
+    }
+}
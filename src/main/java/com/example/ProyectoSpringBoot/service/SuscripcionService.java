@@ -11,9 +11,16 @@ import com.example.ProyectoSpringBoot.repository.FacturaRepository;
 import com.example.ProyectoSpringBoot.repository.PlanRepository;
 import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
 import com.example.ProyectoSpringBoot.repository.UsuarioRepository;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida.CambioEstadoFactura;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida.CambioEstadoSuscripcion;
+import com.example.ProyectoSpringBoot.service.EventoDominio.EstadoSuscripcionCambiado;
+import com.example.ProyectoSpringBoot.service.EventoDominio.FacturaGenerada;
+import com.example.ProyectoSpringBoot.service.EventoDominio.PlanCambiado;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -23,6 +30,8 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -38,8 +47,14 @@ public class SuscripcionService {
     private final SuscripcionRepository suscripcionRepository;
     private final UsuarioRepository usuarioRepository;
     private final PlanRepository planRepository;
+    private final CatalogoPlanes catalogoPlanes;
     private final FacturaRepository facturaRepository;
     private final ImpuestoService impuestoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResumenMensualFacturas resumenMensual;
+    private final BloqueoSuscripciones bloqueo;
+    private final PublicadorEventos publicadorEventos;
+    private final MonitorJobs monitorJobs;
 
     @Transactional(readOnly = true)
     public List<SuscripcionDTO> findAll() {
@@ -69,7 +84,7 @@ public class SuscripcionService {
 
     public Optional<SuscripcionDTO> create(SuscripcionDTO dto) {
         Optional<Usuario> usuario = usuarioRepository.findById(dto.getUsuarioId());
-        Optional<Plan> plan = planRepository.findById(dto.getPlanId());
+        Optional<Plan> plan = buscarPlan(dto.getPlanId());
 
         if (usuario.isEmpty() || plan.isEmpty()) {
             return Optional.empty();
@@ -92,46 +107,111 @@ public class SuscripcionService {
                 .build();
 
         Suscripcion saved = suscripcionRepository.save(suscripcion);
+        eventPublisher.publishEvent(new CambioEstadoSuscripcion(saved.getId(), null, saved.getEstado()));
+        publicadorEventos.publicar(new EstadoSuscripcionCambiado(saved.getId(), null, saved.getEstado()));
         return Optional.of(toDTO(saved));
     }
 
+    /**
+     * Actualiza la suscripción con su lock y en su propia transacción (BloqueoSuscripciones),
+     * como el cambio de plan: el plan y el precio no se pisan con una facturación en curso
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<SuscripcionDTO> update(Long id, SuscripcionDTO dto) {
-        return suscripcionRepository.findById(id).map(existing -> {
+        return bloqueo.ejecutar(id, () -> suscripcionRepository.findById(id).map(existing -> {
             if (dto.getPlanId() != null) {
-                planRepository.findById(dto.getPlanId()).ifPresent(existing::setPlan);
+                buscarPlan(dto.getPlanId()).ifPresent(existing::setPlan);
             }
             if (dto.getFechaInicio() != null) existing.setFechaInicio(dto.getFechaInicio());
             if (dto.getFechaFin() != null) existing.setFechaFin(dto.getFechaFin());
-            if (dto.getEstado() != null) existing.setEstado(dto.getEstado());
+            if (dto.getEstado() != null) aplicarEstado(existing, dto.getEstado());
             if (dto.getRenovacionAutomatica() != null) existing.setRenovacionAutomatica(dto.getRenovacionAutomatica());
             if (dto.getPrecioActual() != null) existing.setPrecioActual(dto.getPrecioActual());
 
             Suscripcion saved = suscripcionRepository.save(existing);
             return toDTO(saved);
-        });
+        }));
     }
 
     /**
-     * Cambiar estado de suscripción (ACTIVA, CANCELADA, MOROSA)
+     * Cambiar estado de suscripción (ACTIVA, CANCELADA, MOROSA), con el lock de la suscripción
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<SuscripcionDTO> cambiarEstado(Long id, EstadoSuscripcion nuevoEstado) {
-        return suscripcionRepository.findById(id).map(suscripcion -> {
-            suscripcion.setEstado(nuevoEstado);
+        return bloqueo.ejecutar(id, () -> suscripcionRepository.findById(id).map(suscripcion -> {
+            aplicarEstado(suscripcion, nuevoEstado);
             Suscripcion saved = suscripcionRepository.save(suscripcion);
             return toDTO(saved);
-        });
+        }));
+    }
+
+    /**
+     * Transición de estado de un job de ciclo de vida, con el lock de la suscripción y en su
+     * propia transacción. Vuelve a leerla y solo la aplica si sigue en el estado de origen y
+     * cumple la condición; así un cambio concurrente no tumba el job entero ni se pisa
+     * @param condicion Comprobación adicional sobre la suscripción recién leída
+     * @param ajustes Cambios adicionales en la suscripción junto al de estado
+     * @return Si se aplicó
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean transicionar(Long suscripcionId, EstadoSuscripcion desde, EstadoSuscripcion hasta,
+                                Predicate<Suscripcion> condicion, Consumer<Suscripcion> ajustes) {
+        return bloqueo.ejecutar(suscripcionId, () -> suscripcionRepository.findById(suscripcionId)
+                .filter(s -> s.getEstado() == desde)
+                .filter(condicion)
+                .map(s -> {
+                    monitorJobs.medirConfirmacion();
+                    long inicio = System.nanoTime();
+                    aplicarEstado(s, hasta);
+                    ajustes.accept(s);
+                    Suscripcion saved = suscripcionRepository.save(s);
+                    monitorJobs.registrarFase("actualizacion", inicio);
+                    return saved;
+                })
+                .isPresent());
+    }
+
+    /**
+     * Cambia el estado en la entidad y publica el evento para los contadores y el outbox.
+     * Todo cambio de estado de una suscripción debe pasar por aquí
+     */
+    void aplicarEstado(Suscripcion suscripcion, EstadoSuscripcion nuevoEstado) {
+        EstadoSuscripcion anterior = suscripcion.getEstado();
+        suscripcion.setEstado(nuevoEstado);
+        eventPublisher.publishEvent(new CambioEstadoSuscripcion(suscripcion.getId(), anterior, nuevoEstado));
+        if (anterior != nuevoEstado) {
+            publicadorEventos.publicar(new EstadoSuscripcionCambiado(suscripcion.getId(), anterior, nuevoEstado));
+        }
     }
 
     /**
      * Cambiar de plan con cálculo de prorrateo
-     * Si el nuevo plan es más caro, genera una factura de prorrateo
+     * Si el nuevo plan es más caro, genera una factura de prorrateo.
+     * Se serializa con la facturación de la misma suscripción (BloqueoSuscripciones)
      * @param suscripcionId ID de la suscripción
      * @param nuevoPlanId ID del nuevo plan
      * @return DTO de la suscripción actualizada
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<SuscripcionDTO> cambiarPlan(Long suscripcionId, Long nuevoPlanId) {
+        EventosJfr.CambioPlan evento = new EventosJfr.CambioPlan();
+        evento.begin();
+        try {
+            return bloqueo.ejecutar(suscripcionId, () -> aplicarCambioPlan(suscripcionId, nuevoPlanId, evento));
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.suscripcionId = suscripcionId;
+                evento.planNuevoId = nuevoPlanId;
+                evento.commit();
+            }
+        }
+    }
+
+    private Optional<SuscripcionDTO> aplicarCambioPlan(Long suscripcionId, Long nuevoPlanId,
+                                                       EventosJfr.CambioPlan evento) {
         Optional<Suscripcion> suscripcionOpt = suscripcionRepository.findById(suscripcionId);
-        Optional<Plan> nuevoPlanOpt = planRepository.findById(nuevoPlanId);
+        Optional<Plan> nuevoPlanOpt = buscarPlan(nuevoPlanId);
 
         if (suscripcionOpt.isEmpty() || nuevoPlanOpt.isEmpty()) {
             return Optional.empty();
@@ -140,6 +220,7 @@ public class SuscripcionService {
         Suscripcion suscripcion = suscripcionOpt.get();
         Plan planActual = suscripcion.getPlan();
         Plan nuevoPlan = nuevoPlanOpt.get();
+        evento.planAnteriorId = planActual.getId();
 
         // Si el nuevo plan es más caro, calcular y cobrar prorrateo
         if (nuevoPlan.getPrecioMensual().compareTo(planActual.getPrecioMensual()) > 0) {
@@ -147,6 +228,7 @@ public class SuscripcionService {
             
             if (prorrateo.compareTo(BigDecimal.ZERO) > 0) {
                 generarFacturaProrrateo(suscripcion, planActual, nuevoPlan, prorrateo);
+                evento.prorrateo = prorrateo.doubleValue();
             }
         }
 
@@ -155,6 +237,9 @@ public class SuscripcionService {
         suscripcion.setPrecioActual(nuevoPlan.getPrecioMensual());
         
         Suscripcion saved = suscripcionRepository.save(suscripcion);
+        publicadorEventos.publicar(new PlanCambiado(suscripcionId, planActual.getId(), nuevoPlan.getId()));
+        evento.pais = EventosJfr.paisCargado(suscripcion);
+        evento.aplicado = true;
         log.info("Suscripción {} cambió de plan {} a plan {}", suscripcionId, planActual.getNombre(), nuevoPlan.getNombre());
         
         return Optional.of(toDTO(saved));
@@ -195,11 +280,17 @@ public class SuscripcionService {
      * Usa impuestos dinámicos según el país del usuario
      */
     private Factura generarFacturaProrrateo(Suscripcion suscripcion, Plan planAnterior, Plan planNuevo, BigDecimal subtotal) {
+        EventosJfr.FaseFacturacion faseJfr = new EventosJfr.FaseFacturacion();
+        faseJfr.begin();
         // Obtener país del usuario para calcular impuestos
         String paisUsuario = obtenerPaisUsuario(suscripcion);
         BigDecimal tasaImpuesto = impuestoService.obtenerTasaImpuesto(paisUsuario);
         BigDecimal impuestos = impuestoService.calcularImpuesto(subtotal, paisUsuario);
         BigDecimal total = subtotal.add(impuestos);
+        String paisFacturacion = impuestoService.normalizarPais(paisUsuario);
+        faseJfr.terminar(suscripcion.getId(), paisFacturacion, "impuestos", "prorrateo", null);
+        faseJfr = new EventosJfr.FaseFacturacion();
+        faseJfr.begin();
         
         Factura factura = Factura.builder()
                 .numeroFactura("PRO-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
@@ -214,20 +305,47 @@ public class SuscripcionService {
                 .concepto("Prorrateo cambio de plan: " + planAnterior.getNombre() + " → " + planNuevo.getNombre())
                 .esProrrateo(true)
                 .notas("Ajuste por upgrade de plan. País: " + paisUsuario + ", Impuesto: " + tasaImpuesto + "%")
+                .paisFacturacion(paisFacturacion)
+                .reglaImpuesto(impuestoService.regla(paisFacturacion, tasaImpuesto))
                 .build();
         
         Factura saved = facturaRepository.save(factura);
+        resumenMensual.alta(saved);
+        eventPublisher.publishEvent(new CambioEstadoFactura(saved.getId(), null, saved.getEstado()));
+        publicadorEventos.publicar(new FacturaGenerada(saved.getId(), suscripcion.getId(), total, true));
+        faseJfr.terminar(suscripcion.getId(), paisFacturacion, "insercion", "prorrateo", null);
         log.info("Factura de prorrateo generada: {} - Total: €{} (País: {}, Impuesto: {}%)", 
                 saved.getNumeroFactura(), total, paisUsuario, tasaImpuesto);
         
         return saved;
     }
 
+    /**
+     * Factura el mes de una suscripción con su lock y en su propia transacción.
+     * Vuelve a leerla y comprueba que sigue activa y con el cobro vencido, así dos
+     * procesos que la seleccionaron a la vez (facturación y renovación) no la cobran dos veces
+     * @param condicion Comprobación adicional sobre la suscripción recién leída
+     * @return La factura generada, o vacío si ya no corresponde facturar
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Factura> facturarMensual(Long suscripcionId, Predicate<Suscripcion> condicion) {
+        return bloqueo.ejecutar(suscripcionId, () -> suscripcionRepository.findById(suscripcionId)
+                .filter(s -> s.getEstado() == EstadoSuscripcion.ACTIVA)
+                .filter(s -> !s.getFechaProximoCobro().isAfter(LocalDate.now()))
+                .filter(condicion)
+                .map(this::generarFacturaMensual));
+    }
+
     /**
      * Genera factura mensual para una suscripción
      * Calcula impuestos según el país del usuario
      */
     public Factura generarFacturaMensual(Suscripcion suscripcion) {
+        // Fases para MonitorJobs cuando lo llama un job programado, y para JFR siempre
+        monitorJobs.medirConfirmacion();
+        EventosJfr.FaseFacturacion faseJfr = new EventosJfr.FaseFacturacion();
+        faseJfr.begin();
+        long inicio = System.nanoTime();
         BigDecimal subtotal = suscripcion.getPrecioActual();
         
         // Obtener país del usuario para calcular impuestos dinámicos
@@ -235,6 +353,12 @@ public class SuscripcionService {
         BigDecimal tasaImpuesto = impuestoService.obtenerTasaImpuesto(paisUsuario);
         BigDecimal impuestos = impuestoService.calcularImpuesto(subtotal, paisUsuario);
         BigDecimal total = subtotal.add(impuestos);
+        String paisFacturacion = impuestoService.normalizarPais(paisUsuario);
+        monitorJobs.registrarFase("impuestos", inicio);
+        faseJfr.terminar(suscripcion.getId(), paisFacturacion, "impuestos", "mensual", monitorJobs.jobActual());
+        faseJfr = new EventosJfr.FaseFacturacion();
+        faseJfr.begin();
+        inicio = System.nanoTime();
         
         Factura factura = Factura.builder()
                 .numeroFactura("FAC-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
@@ -249,13 +373,20 @@ public class SuscripcionService {
                 .concepto("Suscripción mensual - Plan " + suscripcion.getPlan().getNombre())
                 .esProrrateo(false)
                 .notas("País: " + paisUsuario + ", Impuesto aplicado: " + tasaImpuesto + "%")
+                .paisFacturacion(paisFacturacion)
+                .reglaImpuesto(impuestoService.regla(paisFacturacion, tasaImpuesto))
                 .build();
         
         Factura saved = facturaRepository.save(factura);
+        resumenMensual.alta(saved);
+        eventPublisher.publishEvent(new CambioEstadoFactura(saved.getId(), null, saved.getEstado()));
+        publicadorEventos.publicar(new FacturaGenerada(saved.getId(), suscripcion.getId(), total, false));
         
         // Actualizar fecha de próximo cobro (+30 días)
         suscripcion.setFechaProximoCobro(suscripcion.getFechaProximoCobro().plusDays(30));
         suscripcionRepository.save(suscripcion);
+        monitorJobs.registrarFase("insercion", inicio);
+        faseJfr.terminar(suscripcion.getId(), paisFacturacion, "insercion", "mensual", monitorJobs.jobActual());
         
         log.info("Factura mensual generada: {} para suscripción {} - Total: €{} (País: {}, Impuesto: {}%)", 
                 saved.getNumeroFactura(), suscripcion.getId(), total, paisUsuario, tasaImpuesto);
@@ -283,12 +414,27 @@ public class SuscripcionService {
         return suscripcionRepository.findSuscripcionesParaRenovar(LocalDate.now());
     }
 
+    /**
+     * Resuelve un plan sin consultar la BD: la existencia la da el catálogo y
+     * la referencia se inicializa desde la caché de segundo nivel
+     */
+    private Optional<Plan> buscarPlan(Long planId) {
+        return catalogoPlanes.existe(planId)
+                ? Optional.of(planRepository.getReferenceById(planId))
+                : Optional.empty();
+    }
+
     public boolean delete(Long id) {
-        if (suscripcionRepository.existsById(id)) {
-            suscripcionRepository.deleteById(id);
+        return suscripcionRepository.findById(id).map(suscripcion -> {
+            // Las facturas se borran en cascada con la suscripción
+            suscripcion.getFacturas().forEach(f -> {
+                resumenMensual.baja(f);
+                eventPublisher.publishEvent(new CambioEstadoFactura(f.getId(), f.getEstado(), null));
+            });
+            eventPublisher.publishEvent(new CambioEstadoSuscripcion(id, suscripcion.getEstado(), null));
+            suscripcionRepository.delete(suscripcion);
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
 
     // ===== CONVERSIONES Entity <-> DTO =====
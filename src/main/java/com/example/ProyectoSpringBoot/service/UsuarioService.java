@@ -5,13 +5,17 @@ import com.example.ProyectoSpringBoot.entity.Perfil;
 import com.example.ProyectoSpringBoot.entity.Usuario;
 import com.example.ProyectoSpringBoot.enums.RolUsuario;
 import com.example.ProyectoSpringBoot.repository.UsuarioRepository;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida.CambioEstadoFactura;
+import com.example.ProyectoSpringBoot.service.ContadoresCicloVida.CambioEstadoSuscripcion;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,12 +29,18 @@ import java.util.stream.Collectors;
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final HashContrasenas hashContrasenas;
+    private final RegistroAccesos registroAccesos;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ResumenMensualFacturas resumenMensual;
 
     @Transactional(readOnly = true)
     public List<UsuarioDTO> findAll() {
-        return usuarioRepository.findAll().stream()
-                .map(this::toDTO)
+        List<Usuario> usuarios = usuarioRepository.findAll();
+        Map<Long, LocalDateTime> accesos = registroAccesos.ultimosAccesos(
+                usuarios.stream().map(Usuario::getId).toList());
+        return usuarios.stream()
+                .map(u -> toDTO(u, accesos.get(u.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -42,7 +52,7 @@ public class UsuarioService {
     public UsuarioDTO create(UsuarioDTO dto) {
         Usuario usuario = toEntity(dto);
         usuario.setId(null);
-        usuario.setPassword(passwordEncoder.encode(dto.getPassword() != null ? dto.getPassword() : "password123"));
+        usuario.setPassword(hashContrasenas.codificar(dto.getPassword() != null ? dto.getPassword() : "password123"));
         
         // Crear perfil asociado
         if (dto.getNombre() != null || dto.getApellidos() != null) {
@@ -57,7 +67,7 @@ public class UsuarioService {
         }
         
         Usuario saved = usuarioRepository.save(usuario);
-        return toDTO(saved);
+        return toDTO(saved, null); // Recién creado: sin accesos
     }
 
     public Optional<UsuarioDTO> update(Long id, UsuarioDTO dto) {
@@ -69,11 +79,18 @@ public class UsuarioService {
     }
 
     public boolean delete(Long id) {
-        if (usuarioRepository.existsById(id)) {
-            usuarioRepository.deleteById(id);
+        return usuarioRepository.findById(id).map(usuario -> {
+            // Suscripciones y facturas se borran en cascada con el usuario
+            usuario.getSuscripciones().forEach(s -> {
+                s.getFacturas().forEach(f -> {
+                    resumenMensual.baja(f);
+                    eventPublisher.publishEvent(new CambioEstadoFactura(f.getId(), f.getEstado(), null));
+                });
+                eventPublisher.publishEvent(new CambioEstadoSuscripcion(s.getId(), s.getEstado(), null));
+            });
+            usuarioRepository.delete(usuario);
             return true;
-        }
-        return false;
+        }).orElse(false);
     }
 
     @Transactional(readOnly = true)
@@ -82,16 +99,19 @@ public class UsuarioService {
     }
 
     /**
-     * Autenticar usuario por email y password
+     * Autenticar usuario por email y password.
+     * Solo lectura sobre usuarios: el último acceso va al buffer de RegistroAccesos.
+     * Sin transacción: la conexión no queda retenida mientras BCrypt verifica
+     * (findByEmail ya trae perfil y suscripciones para el DTO)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<UsuarioDTO> login(String email, String password) {
         return usuarioRepository.findByEmail(email)
-                .filter(usuario -> passwordEncoder.matches(password, usuario.getPassword()))
+                .filter(usuario -> hashContrasenas.coincide(password, usuario.getPassword()))
                 .map(usuario -> {
-                    // Actualizar último acceso
-                    usuario.setUltimoAcceso(LocalDateTime.now());
-                    usuarioRepository.save(usuario);
-                    return toDTO(usuario);
+                    LocalDateTime ahora = LocalDateTime.now();
+                    registroAccesos.registrar(usuario.getId(), ahora);
+                    return toDTO(usuario, ahora);
                 });
     }
 
@@ -103,6 +123,12 @@ public class UsuarioService {
     // ===== CONVERSIONES Entity <-> DTO =====
 
     private UsuarioDTO toDTO(Usuario entity) {
+        return toDTO(entity, entity.getId() != null
+                ? registroAccesos.ultimosAccesos(List.of(entity.getId())).get(entity.getId())
+                : null);
+    }
+
+    UsuarioDTO toDTO(Usuario entity, LocalDateTime ultimoAcceso) {
         UsuarioDTO.UsuarioDTOBuilder builder = UsuarioDTO.builder()
                 .id(entity.getId())
                 .email(entity.getEmail())
@@ -110,7 +136,7 @@ public class UsuarioService {
                 .emailVerificado(entity.getEmailVerificado())
                 .rol(entity.getRol())
                 .fechaCreacion(entity.getFechaCreacion())
-                .ultimoAcceso(entity.getUltimoAcceso());
+                .ultimoAcceso(ultimoAcceso);
         
         // Obtener suscripción activa
         if (entity.getSuscripciones() != null && !entity.getSuscripciones().isEmpty()) {
@@ -2,8 +2,10 @@ package com.saas.platform.core;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
 
 @SpringBootApplication
+@PropertySource("classpath:core.properties") // Propiedades que no comparte con ProyectoSpringBoot (subida de extractos)
 public class CoreApplication {
 
 	public static void main(String[] args) {
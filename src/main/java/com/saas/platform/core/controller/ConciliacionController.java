@@ -0,0 +1,51 @@
+package com.saas.platform.core.controller;
+
+import com.saas.platform.core.service.ConciliacionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Subida de extractos bancarios para conciliarlos con las facturas (ConciliacionService).
+ * El fichero se guarda en un temporal, que es lo que ExtractoBancario mapea en memoria, y se borra al terminar
+ */
+@Controller
+@RequestMapping("/facturas/conciliacion")
+@RequiredArgsConstructor
+@Slf4j
+public class ConciliacionController {
+
+    private final ConciliacionService conciliacionService;
+
+    @GetMapping
+    public String formulario() {
+        return "facturas/conciliacion";
+    }
+
+    @PostMapping
+    public String conciliar(@RequestParam("extracto") MultipartFile extracto, Model model) throws IOException {
+        if (extracto.isEmpty()) {
+            model.addAttribute("error", "Seleccione un extracto bancario");
+            return "facturas/conciliacion";
+        }
+        Path fichero = Files.createTempFile("extracto-", ".csv");
+        try {
+            extracto.transferTo(fichero);
+            model.addAttribute("informe", conciliacionService.conciliar(fichero));
+            model.addAttribute("mensaje", "Extracto " + extracto.getOriginalFilename() + " conciliado");
+        } catch (IllegalStateException e) {
+            // Otra conciliación en curso
+            model.addAttribute("error", e.getMessage());
+        } finally {
+            Files.deleteIfExists(fichero);
+        }
+        return "facturas/conciliacion";
+    }
+}
@@ -36,6 +36,9 @@ public abstract class Pago {
 
     @PrePersist
     protected void onCreate() {
-        this.fechaPago = LocalDateTime.now();
+        // Los pagos conciliados de un extracto traen la fecha del movimiento
+        if (this.fechaPago == null) {
+            this.fechaPago = LocalDateTime.now();
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.saas.platform.core.model.enums;
+
+/**
+ * Resultado de conciliar una línea de extracto bancario con las facturas.
+ */
+public enum ResultadoConciliacion {
+    CONCILIADO,
+    PARCIAL,
+    EXCEDIDO,
+    DUPLICADO,
+    SIN_CORRESPONDENCIA,
+    ILEGIBLE
+}
@@ -1,10 +1,15 @@
 package com.saas.platform.core.repository;
 
 import com.saas.platform.core.model.entity.Factura;
+import com.saas.platform.core.model.enums.EstadoFactura;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface FacturaRepository extends JpaRepository<Factura, Long> {
@@ -12,4 +17,11 @@ public interface FacturaRepository extends JpaRepository<Factura, Long> {
     List<Factura> findBySuscripcionId(Long suscripcionId);
 
     List<Factura> findBySuscripcionUsuarioId(Long usuarioId);
+
+    /**
+     * Id, estado, monto y suma de pagos de las facturas en esos estados, sin cargar entidades.
+     */
+    @Query("SELECT f.id, f.estado, f.monto, (SELECT COALESCE(SUM(p.monto), 0) FROM Pago p WHERE p.factura = f) " +
+           "FROM Factura f WHERE f.estado IN :estados")
+    Stream<Object[]> streamSaldos(@Param("estados") Collection<EstadoFactura> estados);
 }
@@ -1,13 +1,35 @@
 package com.saas.platform.core.repository;
 
 import com.saas.platform.core.model.entity.Pago;
+import com.saas.platform.core.model.enums.EstadoFactura;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PagoRepository extends JpaRepository<Pago, Long> {
 
     List<Pago> findByFacturaId(Long facturaId);
+
+    /**
+     * Referencias bancarias de los pagos de facturas aún no pagadas del todo.
+     */
+    @Query("SELECT t.referenciaTransferencia FROM PagoTransferencia t " +
+           "WHERE t.referenciaTransferencia IS NOT NULL AND t.factura.estado <> :pagada " +
+           "UNION ALL SELECT p.idTransaccion FROM PagoPaypal p " +
+           "WHERE p.idTransaccion IS NOT NULL AND p.factura.estado <> :pagada")
+    Stream<String> streamReferenciasAbiertas(@Param("pagada") EstadoFactura pagada);
+
+    /**
+     * Pagos sin referencia bancaria de facturas aún no pagadas del todo: [facturaId, monto, fechaPago, clase].
+     */
+    @Query("SELECT p.factura.id, p.monto, p.fechaPago, TYPE(p) FROM Pago p WHERE p.factura.estado <> :pagada " +
+           "AND (TYPE(p) = PagoTarjeta " +
+           "OR TREAT(p AS PagoTransferencia).referenciaTransferencia IS NULL AND TYPE(p) = PagoTransferencia " +
+           "OR TREAT(p AS PagoPaypal).idTransaccion IS NULL AND TYPE(p) = PagoPaypal)")
+    Stream<Object[]> streamPagosSinReferenciaAbiertos(@Param("pagada") EstadoFactura pagada);
 }
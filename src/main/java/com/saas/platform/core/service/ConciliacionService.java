@@ -0,0 +1,283 @@
+package com.saas.platform.core.service;
+
+import com.saas.platform.core.model.entity.Factura;
+import com.saas.platform.core.model.entity.Pago;
+import com.saas.platform.core.model.entity.PagoPaypal;
+import com.saas.platform.core.model.entity.PagoTarjeta;
+import com.saas.platform.core.model.entity.PagoTransferencia;
+import com.saas.platform.core.model.enums.EstadoFactura;
+import com.saas.platform.core.model.enums.MetodoPago;
+import com.saas.platform.core.model.enums.ResultadoConciliacion;
+import com.saas.platform.core.repository.FacturaRepository;
+import com.saas.platform.core.repository.PagoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Conciliación de extractos bancarios con las facturas.
+ *
+ * Las facturas pendientes, vencidas y pagadas se cargan en un IndiceFacturas (id -> monto y cobrado) y el
+ * extracto se recorre con ExtractoBancario. Cada abono se aplica contra lo que le falta a su factura:
+ * - igual: CONCILIADO, se crea el Pago y la factura pasa a PAGADA
+ * - menor: PARCIAL, se crea el Pago y la factura sigue abierta
+ * - mayor: EXCEDIDO, no se aplica
+ * - factura ya cobrada o movimiento repetido (en el fichero o en pagos anteriores): DUPLICADO
+ * - factura inexistente: SIN_CORRESPONDENCIA
+ * Un movimiento se identifica por su referencia bancaria o, si no la trae, por factura, importe, día y
+ * método (dos abonos iguales sin referencia el mismo día cuentan como uno). Las huellas se siembran con
+ * los pagos de las facturas abiertas, así reimportar un extracto no vuelve a aplicar ninguna línea.
+ * Los pagos se guardan por lotes de app.conciliacion.lote, cada uno en su transacción. Si un lote falla la
+ * conciliación se interrumpe; los anteriores quedan guardados y, al repetirla, sus líneas salen como
+ * duplicadas.
+ * Solo corre una conciliación a la vez: las huellas son de cada ejecución, y dos extractos en paralelo
+ * podrían aplicar dos veces el mismo movimiento. La segunda se rechaza en lugar de esperar.
+ */
+@Service
+@Slf4j
+public class ConciliacionService {
+
+    private static final ResultadoConciliacion[] RESULTADOS = ResultadoConciliacion.values();
+
+    private final FacturaRepository facturaRepository;
+    private final PagoRepository pagoRepository;
+    private final TransactionOperations transacciones;
+    private final int tamanoLote;
+    private final int maxIncidencias;
+    private final ReentrantLock enCurso = new ReentrantLock();
+
+    public ConciliacionService(FacturaRepository facturaRepository,
+                               PagoRepository pagoRepository,
+                               TransactionOperations transacciones,
+                               @Value("${app.conciliacion.lote:1000}") int tamanoLote,
+                               @Value("${app.conciliacion.max-incidencias:1000}") int maxIncidencias) {
+        this.facturaRepository = facturaRepository;
+        this.pagoRepository = pagoRepository;
+        this.transacciones = transacciones;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.maxIncidencias = maxIncidencias;
+    }
+
+    /**
+     * Concilia un extracto local y guarda los pagos que se pueden aplicar.
+     * @throws IllegalStateException si ya hay otra conciliación en curso
+     */
+    public Informe conciliar(Path fichero) throws IOException {
+        if (!enCurso.tryLock()) {
+            throw new IllegalStateException("Ya hay una conciliación en curso; inténtelo cuando termine");
+        }
+        try {
+            long inicio = System.nanoTime();
+            Conciliacion conciliacion = new Conciliacion();
+            transacciones.executeWithoutResult(estado -> conciliacion.cargar());
+            long lineas = ExtractoBancario.leer(fichero, conciliacion::procesar);
+            conciliacion.guardarPendientes();
+
+            Informe informe = conciliacion.informe(lineas, Duration.ofNanos(System.nanoTime() - inicio));
+            log.info("Conciliación de {}: {} líneas, {} pagos, {} facturas pagadas en {} ms", fichero, lineas,
+                    informe.pagosCreados(), informe.facturasPagadas(), informe.duracion().toMillis());
+            return informe;
+        } finally {
+            enCurso.unlock();
+        }
+    }
+
+    // Estado de una conciliación: índice, huellas vistas, pagos por guardar y contadores
+    private final class Conciliacion {
+
+        private IndiceFacturas indice;
+        private final IndiceFacturas.Huellas huellas = new IndiceFacturas.Huellas();
+        private final List<PagoConciliado> pendientes = new ArrayList<>(tamanoLote);
+        private final long[] cantidades = new long[RESULTADOS.length];
+        private final long[] centimos = new long[RESULTADOS.length];
+        private final List<Incidencia> incidencias = new ArrayList<>();
+        private long pagosCreados;
+        private long facturasPagadas;
+
+        private void cargar() {
+            indice = new IndiceFacturas(1 << 16);
+            try (Stream<Object[]> saldos = facturaRepository.streamSaldos(
+                    EnumSet.of(EstadoFactura.PENDIENTE, EstadoFactura.VENCIDA, EstadoFactura.PAGADA))) {
+                saldos.forEach(fila -> {
+                    long monto = aCentimos(fila[2]);
+                    // Una factura pagada sin pagos registrados cuenta como cobrada entera
+                    long cobrado = fila[1] == EstadoFactura.PAGADA ? monto : aCentimos(fila[3]);
+                    indice.poner((Long) fila[0], monto, cobrado);
+                });
+            }
+            try (Stream<String> referencias = pagoRepository.streamReferenciasAbiertas(EstadoFactura.PAGADA)) {
+                referencias.forEach(referencia -> huellas.agregar(ExtractoBancario.huella(referencia)));
+            }
+            try (Stream<Object[]> pagos = pagoRepository.streamPagosSinReferenciaAbiertos(EstadoFactura.PAGADA)) {
+                pagos.filter(fila -> fila[2] != null)
+                        .forEach(fila -> huellas.agregar(ExtractoBancario.huella((Long) fila[0], aCentimos(fila[1]),
+                                (int) ((LocalDateTime) fila[2]).toLocalDate().toEpochDay(), metodoDe((Class<?>) fila[3]))));
+            }
+            log.debug("Índice de conciliación: {} facturas, {} movimientos previos", indice.tamano(), huellas.tamano());
+        }
+
+        private void procesar(ExtractoBancario.Linea linea) {
+            if (!linea.legible()) {
+                anotar(linea, ResultadoConciliacion.ILEGIBLE, -1);
+                return;
+            }
+            if (!huellas.agregar(linea.huellaMovimiento())) {
+                anotar(linea, ResultadoConciliacion.DUPLICADO, -1);
+                return;
+            }
+            int posicion = indice.buscar(linea.facturaId());
+            if (posicion < 0) {
+                anotar(linea, ResultadoConciliacion.SIN_CORRESPONDENCIA, -1);
+                return;
+            }
+            long pendiente = indice.monto(posicion) - indice.cobrado(posicion);
+            ResultadoConciliacion resultado;
+            if (pendiente <= 0) {
+                resultado = ResultadoConciliacion.DUPLICADO;
+            } else if (linea.centimos() > pendiente) {
+                resultado = ResultadoConciliacion.EXCEDIDO;
+            } else {
+                resultado = linea.centimos() == pendiente ? ResultadoConciliacion.CONCILIADO : ResultadoConciliacion.PARCIAL;
+                indice.cobrar(posicion, linea.centimos());
+                pendientes.add(new PagoConciliado(linea.facturaId(), linea.centimos(), linea.dia(), linea.metodo(),
+                        linea.referencia(), resultado == ResultadoConciliacion.CONCILIADO));
+                if (pendientes.size() == tamanoLote) {
+                    guardarPendientes();
+                }
+            }
+            anotar(linea, resultado, pendiente);
+        }
+
+        private void anotar(ExtractoBancario.Linea linea, ResultadoConciliacion resultado, long pendiente) {
+            cantidades[resultado.ordinal()]++;
+            if (linea.legible()) {
+                centimos[resultado.ordinal()] += linea.centimos();
+            }
+            if (resultado != ResultadoConciliacion.CONCILIADO && incidencias.size() < maxIncidencias) {
+                incidencias.add(new Incidencia(linea.numero(), resultado,
+                        linea.facturaId() > 0 ? linea.facturaId() : null,
+                        linea.centimos() >= 0 ? BigDecimal.valueOf(linea.centimos(), 2) : null,
+                        pendiente >= 0 ? BigDecimal.valueOf(pendiente, 2) : null));
+            }
+        }
+
+        private void guardarPendientes() {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            transacciones.executeWithoutResult(estado -> {
+                List<Pago> pagos = new ArrayList<>(pendientes.size());
+                List<Long> liquidadas = new ArrayList<>();
+                for (PagoConciliado pendiente : pendientes) {
+                    pagos.add(crearPago(pendiente));
+                    if (pendiente.liquida()) {
+                        liquidadas.add(pendiente.facturaId());
+                    }
+                }
+                pagoRepository.saveAll(pagos);
+                if (!liquidadas.isEmpty()) {
+                    facturaRepository.findAllById(liquidadas).forEach(f -> f.setEstado(EstadoFactura.PAGADA));
+                }
+                pagosCreados += pagos.size();
+                facturasPagadas += liquidadas.size();
+            });
+            pendientes.clear();
+        }
+
+        private Pago crearPago(PagoConciliado conciliado) {
+            Pago pago = switch (conciliado.metodo()) {
+                case TRANSFERENCIA -> {
+                    PagoTransferencia transferencia = new PagoTransferencia();
+                    transferencia.setReferenciaTransferencia(conciliado.referencia());
+                    yield transferencia;
+                }
+                case PAYPAL -> {
+                    PagoPaypal paypal = new PagoPaypal();
+                    paypal.setIdTransaccion(conciliado.referencia());
+                    yield paypal;
+                }
+                case TARJETA -> new PagoTarjeta();
+            };
+            // Referencia sin SELECT: la factura está en el índice
+            Factura factura = facturaRepository.getReferenceById(conciliado.facturaId());
+            pago.setFactura(factura);
+            pago.setMonto(BigDecimal.valueOf(conciliado.centimos(), 2));
+            pago.setFechaPago(LocalDate.ofEpochDay(conciliado.dia()).atStartOfDay());
+            return pago;
+        }
+
+        private Informe informe(long lineas, Duration duracion) {
+            Map<ResultadoConciliacion, Long> totales = new EnumMap<>(ResultadoConciliacion.class);
+            Map<ResultadoConciliacion, BigDecimal> importes = new EnumMap<>(ResultadoConciliacion.class);
+            for (ResultadoConciliacion resultado : RESULTADOS) {
+                totales.put(resultado, cantidades[resultado.ordinal()]);
+                importes.put(resultado, BigDecimal.valueOf(centimos[resultado.ordinal()], 2));
+            }
+            long conIncidencia = lineasConIncidencia();
+            return new Informe(lineas, totales, importes, pagosCreados, facturasPagadas,
+                    List.copyOf(incidencias), conIncidencia > incidencias.size(), duracion);
+        }
+
+        private long lineasConIncidencia() {
+            long total = 0;
+            for (ResultadoConciliacion resultado : RESULTADOS) {
+                if (resultado != ResultadoConciliacion.CONCILIADO) {
+                    total += cantidades[resultado.ordinal()];
+                }
+            }
+            return total;
+        }
+    }
+
+    private static long aCentimos(Object importe) {
+        BigDecimal valor = importe instanceof BigDecimal decimal ? decimal : new BigDecimal(importe.toString());
+        return valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static MetodoPago metodoDe(Class<?> tipo) {
+        if (tipo == PagoPaypal.class) {
+            return MetodoPago.PAYPAL;
+        }
+        return tipo == PagoTarjeta.class ? MetodoPago.TARJETA : MetodoPago.TRANSFERENCIA;
+    }
+
+    private record PagoConciliado(long facturaId, long centimos, int dia, MetodoPago metodo, String referencia,
+                                  boolean liquida) {
+    }
+
+    /**
+     * Línea del extracto que no se concilió entera.
+     *
+     * @param pendiente Lo que le faltaba a la factura antes de esta línea, si se encontró
+     */
+    public record Incidencia(long linea, ResultadoConciliacion resultado, Long facturaId, BigDecimal importe,
+                             BigDecimal pendiente) {
+    }
+
+    /**
+     * Resultado de la conciliación de un extracto.
+     *
+     * @param incidencias          Las primeras app.conciliacion.max-incidencias líneas no conciliadas
+     * @param incidenciasTruncadas Hay más incidencias que las incluidas
+     */
+    public record Informe(long lineas, Map<ResultadoConciliacion, Long> totales,
+                          Map<ResultadoConciliacion, BigDecimal> importes, long pagosCreados, long facturasPagadas,
+                          List<Incidencia> incidencias, boolean incidenciasTruncadas, Duration duracion) {
+    }
+}
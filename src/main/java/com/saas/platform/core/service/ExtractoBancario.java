@@ -0,0 +1,387 @@
+package com.saas.platform.core.service;
+
+import com.saas.platform.core.model.enums.MetodoPago;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Lector de extractos bancarios en CSV sobre el fichero mapeado en memoria (FileChannel.map), por ventanas
+ * de hasta 256 MB para admitir ficheros de más de 2 GB.
+ *
+ * Formato de cada línea: referencia;importe;fecha;metodo;referenciaBanco
+ * - referencia: la de la factura; cuentan sus dígitos (FAC-000123 es la factura 123)
+ * - importe: abono con punto (o coma si el separador es ';') y hasta dos decimales
+ * - fecha: yyyy-MM-dd
+ * - metodo: TRANSFERENCIA, TARJETA o PAYPAL; vacío es TRANSFERENCIA
+ * - referenciaBanco: opcional, identifica el movimiento en el banco
+ * El separador es ';' si la primera línea lo contiene y ',' si no. Se ignoran las líneas vacías, las que
+ * empiezan por '#' y la primera si no se puede leer (cabecera).
+ *
+ * Los campos se leen de los bytes del mapeo a un único objeto Linea que se reutiliza: no se crea ningún
+ * String por línea y la referencia del banco solo se decodifica si se pide.
+ */
+public final class ExtractoBancario {
+
+    static final int VENTANA = 1 << 28;
+
+    private static final MetodoPago[] TODOS = MetodoPago.values();
+    private static final byte[][] METODOS = new byte[TODOS.length][];
+
+    static {
+        for (MetodoPago metodo : TODOS) {
+            METODOS[metodo.ordinal()] = metodo.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private ExtractoBancario() {
+    }
+
+    /**
+     * Recorre el fichero entregando cada línea al consumidor. La Linea solo es válida durante la llamada
+     * @return Número de líneas del fichero
+     */
+    public static long leer(Path fichero, Consumer<Linea> consumidor) throws IOException {
+        return leer(fichero, consumidor, VENTANA);
+    }
+
+    static long leer(Path fichero, Consumer<Linea> consumidor, int ventana) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            Linea linea = new Linea();
+            long posicion = 0;
+            while (posicion < tamano) {
+                int longitud = (int) Math.min(ventana, tamano - posicion);
+                boolean ultima = posicion + longitud == tamano;
+                MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, posicion, longitud);
+                int consumidos = recorrer(mapa, longitud, ultima, linea, consumidor);
+                if (consumidos == 0) {
+                    throw new IOException("La línea " + (linea.numero + 1) + " no cabe en una ventana de "
+                            + ventana + " bytes");
+                }
+                posicion += consumidos;
+            }
+            return linea.numero;
+        }
+    }
+
+    // Bytes consumidos hasta el final de la última línea completa; una línea cortada se relee en la siguiente ventana
+    private static int recorrer(ByteBuffer datos, int limite, boolean ultima, Linea linea, Consumer<Linea> consumidor) {
+        int inicio = 0;
+        while (inicio < limite) {
+            int fin = inicio;
+            while (fin < limite && datos.get(fin) != '\n') {
+                fin++;
+            }
+            if (fin == limite && !ultima) {
+                break;
+            }
+            linea.numero++;
+            int finContenido = fin > inicio && datos.get(fin - 1) == '\r' ? fin - 1 : fin;
+            if (finContenido > inicio && datos.get(inicio) != '#') {
+                if (linea.separador == 0) {
+                    linea.separador = contiene(datos, inicio, finContenido, (byte) ';') ? (byte) ';' : (byte) ',';
+                }
+                linea.analizar(datos, inicio, finContenido);
+                boolean cabecera = linea.primera && !linea.legible;
+                linea.primera = false;
+                if (!cabecera) {
+                    consumidor.accept(linea);
+                }
+            }
+            inicio = fin + 1;
+        }
+        return Math.min(inicio, limite);
+    }
+
+    /**
+     * Huella FNV-1a de 64 bits de un texto, la misma que Linea.huellaReferencia; 0 si está vacío
+     */
+    public static long huella(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return 0;
+        }
+        byte[] bytes = texto.strip().getBytes(StandardCharsets.UTF_8);
+        return huella(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Huella de un movimiento sin referencia del banco: factura, importe en céntimos, día y método
+     */
+    public static long huella(long facturaId, long centimos, int dia, MetodoPago metodo) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, facturaId);
+        hash = fnv(hash, centimos);
+        hash = fnv(hash, dia);
+        hash = fnv(hash, metodo.ordinal());
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long fnv(long hash, long valor) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (valor >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long huella(ByteBuffer datos, int desde, int hasta) {
+        if (desde >= hasta) {
+            return 0;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = desde; i < hasta; i++) {
+            hash ^= datos.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        // 0 queda para "sin referencia"
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static boolean contiene(ByteBuffer datos, int desde, int hasta, byte buscado) {
+        for (int i = desde; i < hasta; i++) {
+            if (datos.get(i) == buscado) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean blanco(byte b) {
+        return b == ' ' || b == '\t' || b == '"';
+    }
+
+    /**
+     * Línea del extracto. Se reutiliza entre líneas: no guardar referencias a ella
+     */
+    public static final class Linea {
+
+        static final int SIN_FECHA = Integer.MIN_VALUE;
+
+        private long numero;
+        private byte separador;
+        private boolean primera = true;
+        private ByteBuffer datos;
+        private boolean legible;
+        private long facturaId;
+        private long centimos;
+        private int dia;
+        private MetodoPago metodo;
+        private int referenciaDesde;
+        private int referenciaHasta;
+
+        private Linea() {
+        }
+
+        /**
+         * Número de línea en el fichero, desde 1
+         */
+        public long numero() {
+            return numero;
+        }
+
+        /**
+         * false si falta algún campo obligatorio o no tiene el formato esperado
+         */
+        public boolean legible() {
+            return legible;
+        }
+
+        public long facturaId() {
+            return facturaId;
+        }
+
+        public long centimos() {
+            return centimos;
+        }
+
+        /**
+         * Fecha del movimiento en días desde 1970-01-01
+         */
+        public int dia() {
+            return dia;
+        }
+
+        public LocalDate fecha() {
+            return LocalDate.ofEpochDay(dia);
+        }
+
+        public MetodoPago metodo() {
+            return metodo;
+        }
+
+        /**
+         * Huella de la referencia del banco, o 0 si la línea no tiene
+         */
+        public long huellaReferencia() {
+            return huella(datos, referenciaDesde, referenciaHasta);
+        }
+
+        /**
+         * Huella que identifica el movimiento: la de la referencia del banco o, si no tiene, la de
+         * factura, importe, día y método. Solo para líneas legibles
+         */
+        public long huellaMovimiento() {
+            long referencia = huellaReferencia();
+            return referencia != 0 ? referencia : huella(facturaId, centimos, dia, metodo);
+        }
+
+        /**
+         * Referencia del banco decodificada, o null si la línea no tiene
+         */
+        public String referencia() {
+            if (referenciaDesde >= referenciaHasta) {
+                return null;
+            }
+            byte[] bytes = new byte[referenciaHasta - referenciaDesde];
+            datos.get(referenciaDesde, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void analizar(ByteBuffer datos, int inicio, int fin) {
+            this.datos = datos;
+            facturaId = -1;
+            centimos = -1;
+            dia = SIN_FECHA;
+            metodo = MetodoPago.TRANSFERENCIA;
+            referenciaDesde = 0;
+            referenciaHasta = 0;
+            int campo = 0;
+            int desde = inicio;
+            for (int i = inicio; i <= fin; i++) {
+                if (i < fin && datos.get(i) != separador) {
+                    continue;
+                }
+                int a = desde;
+                int b = i;
+                while (a < b && blanco(datos.get(a))) {
+                    a++;
+                }
+                while (b > a && blanco(datos.get(b - 1))) {
+                    b--;
+                }
+                switch (campo) {
+                    case 0 -> facturaId = leerReferencia(a, b);
+                    case 1 -> centimos = leerImporte(a, b);
+                    case 2 -> dia = leerFecha(a, b);
+                    case 3 -> metodo = leerMetodo(a, b);
+                    case 4 -> {
+                        referenciaDesde = a;
+                        referenciaHasta = b;
+                    }
+                    default -> {
+                    }
+                }
+                campo++;
+                desde = i + 1;
+            }
+            legible = campo >= 3 && facturaId > 0 && centimos >= 0 && dia != SIN_FECHA && metodo != null;
+        }
+
+        // Dígitos de la referencia; -1 si no tiene o no caben en un long
+        private long leerReferencia(int a, int b) {
+            long valor = 0;
+            int digitos = 0;
+            for (int i = a; i < b; i++) {
+                byte c = datos.get(i);
+                if (c >= '0' && c <= '9') {
+                    if (++digitos > 18) {
+                        return -1;
+                    }
+                    valor = valor * 10 + (c - '0');
+                }
+            }
+            return digitos == 0 ? -1 : valor;
+        }
+
+        // Importe en céntimos; -1 si no es un número positivo con hasta dos decimales
+        private long leerImporte(int a, int b) {
+            long valor = 0;
+            int enteros = 0;
+            int decimales = -1;
+            for (int i = a; i < b; i++) {
+                byte c = datos.get(i);
+                if (c >= '0' && c <= '9') {
+                    if (decimales >= 0) {
+                        if (++decimales > 2) {
+                            return -1;
+                        }
+                    } else if (++enteros > 15) {
+                        return -1;
+                    }
+                    valor = valor * 10 + (c - '0');
+                } else if ((c == '.' || (c == ',' && separador != ',')) && decimales < 0 && enteros > 0) {
+                    decimales = 0;
+                } else {
+                    return -1;
+                }
+            }
+            if (enteros == 0) {
+                return -1;
+            }
+            for (int d = Math.max(decimales, 0); d < 2; d++) {
+                valor *= 10;
+            }
+            return valor;
+        }
+
+        // yyyy-MM-dd en días desde 1970-01-01
+        private int leerFecha(int a, int b) {
+            if (b - a != 10 || datos.get(a + 4) != '-' || datos.get(a + 7) != '-') {
+                return SIN_FECHA;
+            }
+            int anio = entero(a, a + 4);
+            int mes = entero(a + 5, a + 7);
+            int diaMes = entero(a + 8, a + 10);
+            if (anio < 0 || mes < 0 || diaMes < 0) {
+                return SIN_FECHA;
+            }
+            try {
+                return (int) LocalDate.of(anio, mes, diaMes).toEpochDay();
+            } catch (DateTimeException e) {
+                return SIN_FECHA;
+            }
+        }
+
+        private int entero(int a, int b) {
+            int valor = 0;
+            for (int i = a; i < b; i++) {
+                byte c = datos.get(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                valor = valor * 10 + (c - '0');
+            }
+            return valor;
+        }
+
+        private MetodoPago leerMetodo(int a, int b) {
+            if (a == b) {
+                return MetodoPago.TRANSFERENCIA;
+            }
+            for (MetodoPago candidato : TODOS) {
+                byte[] nombre = METODOS[candidato.ordinal()];
+                if (nombre.length != b - a) {
+                    continue;
+                }
+                boolean igual = true;
+                for (int i = 0; i < nombre.length && igual; i++) {
+                    // Comparación ASCII sin distinguir mayúsculas
+                    igual = (datos.get(a + i) & 0xdf) == nombre[i];
+                }
+                if (igual) {
+                    return candidato;
+                }
+            }
+            return null;
+        }
+    }
+}
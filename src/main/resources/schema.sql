@@ -21,7 +21,6 @@ CREATE TABLE IF NOT EXISTS usuarios (
     email_verificado BIT NOT NULL DEFAULT 0,
     fecha_creacion DATETIME(6) NOT NULL,
     fecha_modificacion DATETIME(6),
-    ultimo_acceso DATETIME(6),
     PRIMARY KEY (id),
     UNIQUE KEY UK_usuarios_email (email)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -85,6 +84,7 @@ CREATE TABLE IF NOT EXISTS suscripciones (
     fecha_modificacion DATETIME(6),
     creado_por VARCHAR(100),
     modificado_por VARCHAR(100),
+    version BIGINT NOT NULL DEFAULT 0,
     usuario_id BIGINT NOT NULL,
     plan_id BIGINT NOT NULL,
     PRIMARY KEY (id),
@@ -136,14 +136,81 @@ CREATE TABLE IF NOT EXISTS facturas (
     notas VARCHAR(1000),
     fecha_creacion DATETIME(6) NOT NULL,
     fecha_modificacion DATETIME(6),
+    pais_facturacion CHAR(2),
+    regla_impuesto VARCHAR(40),
+    version BIGINT NOT NULL DEFAULT 0,
     suscripcion_id BIGINT NOT NULL,
     metodo_pago_id BIGINT,
     PRIMARY KEY (id),
     UNIQUE KEY UK_facturas_numero (numero_factura),
+    KEY idx_facturas_estado_emision (estado, fecha_emision),
+    KEY idx_facturas_emision_total (fecha_emision, total),
+    KEY idx_facturas_estado_total (estado, total),
+    KEY idx_facturas_suscripcion_emision (suscripcion_id, fecha_emision),
+    KEY idx_facturas_pais_emision (pais_facturacion, fecha_emision),
     CONSTRAINT FK_facturas_suscripcion FOREIGN KEY (suscripcion_id) REFERENCES suscripciones (id),
     CONSTRAINT FK_facturas_metodo_pago FOREIGN KEY (metodo_pago_id) REFERENCES metodos_pago (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- =====================================================
+-- TABLA: accesos_usuario (sin auditoría)
+-- Último acceso por usuario, escrito en lotes desde RegistroAccesos
+-- =====================================================
+CREATE TABLE IF NOT EXISTS accesos_usuario (
+    usuario_id BIGINT NOT NULL,
+    ultimo_acceso DATETIME(6) NOT NULL,
+    PRIMARY KEY (usuario_id),
+    KEY idx_accesos_usuario_ultimo (ultimo_acceso)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Migración desde la antigua columna usuarios.ultimo_acceso (solo si existe); la aplicación
+-- la repite al arrancar en MigracionAccesos
+SET @migrar_accesos = (SELECT COUNT(*) FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'usuarios' AND column_name = 'ultimo_acceso');
+SET @sql_accesos = IF(@migrar_accesos > 0,
+    'INSERT INTO accesos_usuario (usuario_id, ultimo_acceso)
+         SELECT u.id, u.ultimo_acceso FROM usuarios u WHERE u.ultimo_acceso IS NOT NULL
+         AND NOT EXISTS (SELECT 1 FROM accesos_usuario a WHERE a.usuario_id = u.id)',
+    'DO 0');
+PREPARE migracion_accesos FROM @sql_accesos;
+EXECUTE migracion_accesos;
+DEALLOCATE PREPARE migracion_accesos;
+
+-- =====================================================
+-- TABLA: resumen_mensual_facturas (sin auditoría)
+-- Acumulados por mes de emisión, país, estado y prorrateo; ver ResumenMensualFacturas
+-- =====================================================
+CREATE TABLE IF NOT EXISTS resumen_mensual_facturas (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    mes DATE NOT NULL,
+    pais VARCHAR(100) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    es_prorrateo BIT NOT NULL,
+    cantidad BIGINT NOT NULL,
+    subtotal DECIMAL(14,2) NOT NULL,
+    impuestos DECIMAL(14,2) NOT NULL,
+    total DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_resumen_mensual (mes, pais, estado, es_prorrateo)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Carga inicial: POST /api/facturas/resumen-mensual/reconstruir?desde=AAAA-MM&hasta=AAAA-MM
+
+-- =====================================================
+-- TABLA: eventos_outbox (sin auditoría)
+-- Eventos de dominio pendientes de despachar; ver DespachadorEventos
+-- =====================================================
+CREATE TABLE IF NOT EXISTS eventos_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    tipo VARCHAR(60) NOT NULL,
+    agregado_id BIGINT,
+    payload TEXT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_despacho DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_outbox_pendientes (fecha_despacho, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- =====================================================
 -- TABLAS DE AUDITORÍA (Hibernate Envers)
 -- =====================================================
@@ -163,7 +230,6 @@ CREATE TABLE IF NOT EXISTS usuarios_aud (
     email_verificado BIT,
     fecha_creacion DATETIME(6),
     fecha_modificacion DATETIME(6),
-    ultimo_acceso DATETIME(6),
     PRIMARY KEY (rev, id),
     CONSTRAINT FK_usuarios_aud_rev FOREIGN KEY (rev) REFERENCES revinfo (rev)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -248,6 +314,8 @@ CREATE TABLE IF NOT EXISTS facturas_aud (
     notas VARCHAR(1000),
     fecha_creacion DATETIME(6),
     fecha_modificacion DATETIME(6),
+    pais_facturacion CHAR(2),
+    regla_impuesto VARCHAR(40),
     suscripcion_id BIGINT,
     metodo_pago_id BIGINT,
     PRIMARY KEY (rev, id),
@@ -0,0 +1,90 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.config.DetectorAnclajes.Origen;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de DetectorAnclajes con hilos virtuales reales y el evento JFR del propio proceso
+ */
+class DetectorAnclajesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DetectorAnclajes detector = new DetectorAnclajes(meterRegistry, 20);
+    private final Object monitor = new Object();
+
+    @BeforeEach
+    void setUp() {
+        detector.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.detener();
+    }
+
+    @Test
+    @DisplayName("Un hilo virtual que espera dentro de un synchronized se registra con su origen")
+    void testAnclajeEnSynchronized() throws Exception {
+        Thread.ofVirtual().start(this::esperarEnSynchronized).join();
+
+        Origen origen = esperarAnclaje();
+        assertTrue(origen.origen().startsWith(DetectorAnclajesTest.class.getName() + ".esperarEnSynchronized"),
+                origen.origen());
+        assertEquals(1, origen.veces());
+        assertTrue(origen.maxMs() >= 20);
+        assertFalse(origen.pila().isEmpty());
+        assertEquals(1, meterRegistry.get("hilos.virtuales.anclaje").tag("origen", origen.origen()).timer().count());
+    }
+
+    @Test
+    @DisplayName("Esperar con un ReentrantLock no ancla el hilo")
+    void testSinAnclajeConLock() throws Exception {
+        ReentrantLock lock = new ReentrantLock();
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+        // Un anclaje de control después, para saber que el stream ya ha entregado lo anterior
+        Thread.ofVirtual().start(this::esperarEnSynchronized).join();
+
+        esperarAnclaje();
+        assertEquals(1, detector.anclajes().size());
+    }
+
+    private void esperarEnSynchronized() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // El stream de JFR entrega los eventos en bloques de hasta un segundo
+    private Origen esperarAnclaje() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            List<Origen> anclajes = detector.anclajes();
+            if (!anclajes.isEmpty()) {
+                return anclajes.get(0);
+            }
+            Thread.sleep(100);
+        }
+        return fail("No se registró ningún anclaje");
+    }
+}
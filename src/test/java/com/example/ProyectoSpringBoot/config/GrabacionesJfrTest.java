@@ -0,0 +1,113 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.config.GrabacionesJfr.Estado;
+import com.example.ProyectoSpringBoot.config.GrabacionesJfr.Volcado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios de GrabacionesJfr: ciclo de una grabación, rotación de volcados y configuración de facturación
+ */
+class GrabacionesJfrTest {
+
+    @TempDir
+    Path directorio;
+
+    private GrabacionesJfr grabaciones;
+
+    @AfterEach
+    void tearDown() {
+        if (grabaciones != null && grabaciones.estado().activa()) {
+            grabaciones.detener();
+        }
+    }
+
+    @Nested
+    @DisplayName("Grabación")
+    class GrabacionTests {
+
+        @Test
+        @DisplayName("Inicia, vuelca sin parar y al detener deja un último volcado")
+        void testCiclo() {
+            grabaciones = new GrabacionesJfr(directorio.toString(), 10, 64, 10);
+
+            Estado estado = grabaciones.iniciar(null, 500);
+            assertTrue(estado.activa());
+            assertEquals("facturacion", estado.configuracion());
+            assertEquals(10, estado.duracion().toMinutes());
+
+            Volcado volcado = grabaciones.volcar();
+            assertTrue(grabaciones.estado().activa());
+            assertTrue(Files.exists(Path.of(volcado.archivo())));
+
+            Volcado ultimo = grabaciones.detener();
+            assertTrue(ultimo.archivo().endsWith("-final.jfr"));
+            assertFalse(grabaciones.estado().activa());
+            assertEquals(2, grabaciones.estado().volcados().size());
+        }
+
+        @Test
+        @DisplayName("Solo una grabación a la vez, y volcar o detener exigen una en curso")
+        void testErrores() {
+            grabaciones = new GrabacionesJfr(directorio.toString(), 10, 64, 10);
+
+            assertThrows(IllegalStateException.class, grabaciones::volcar);
+            assertThrows(IllegalStateException.class, grabaciones::detener);
+            assertThrows(IllegalArgumentException.class, () -> grabaciones.iniciar("no-existe", null));
+            grabaciones.iniciar("default", 1);
+            assertThrows(IllegalStateException.class, () -> grabaciones.iniciar("profile", 1));
+        }
+
+        @Test
+        @DisplayName("Cada volcado borra los más antiguos por encima de app.jfr.max-volcados")
+        void testRotacion() throws Exception {
+            grabaciones = new GrabacionesJfr(directorio.toString(), 10, 64, 2);
+            Path masAntiguo = Files.createFile(directorio.resolve("a-antiguo.jfr"));
+            Files.setLastModifiedTime(masAntiguo, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+            Path antiguo = Files.createFile(directorio.resolve("b-antiguo.jfr"));
+            Files.setLastModifiedTime(antiguo, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+            grabaciones.iniciar("default", 1);
+            Volcado volcado = grabaciones.volcar();
+
+            assertFalse(Files.exists(masAntiguo));
+            assertTrue(Files.exists(antiguo));
+            assertTrue(Files.exists(Path.of(volcado.archivo())));
+
+            // El último volcado al detener desplaza al antiguo que quedaba
+            Volcado ultimo = grabaciones.detener();
+            assertFalse(Files.exists(antiguo));
+            assertEquals(List.of(volcado.archivo(), ultimo.archivo()),
+                    grabaciones.estado().volcados().stream().map(Volcado::archivo).sorted().toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Configuración")
+    class ConfiguracionTests {
+
+        @Test
+        @DisplayName("facturacion es el perfil profile con los ajustes de jfr/facturacion.jfc encima")
+        void testFacturacion() {
+            Map<String, String> ajustes = GrabacionesJfr.ajustes("facturacion");
+
+            assertEquals("10 ms", ajustes.get("com.example.ProyectoSpringBoot.ElementoJob#threshold"));
+            assertEquals("5 ms", ajustes.get("jdk.ThreadPark#threshold"));
+            // Sin tocar por facturacion.jfc: lo pone profile
+            assertEquals(GrabacionesJfr.ajustes("profile").get("jdk.CPULoad#period"), ajustes.get("jdk.CPULoad#period"));
+        }
+    }
+}
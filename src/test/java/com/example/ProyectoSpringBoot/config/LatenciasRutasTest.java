@@ -0,0 +1,88 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.example.ProyectoSpringBoot.config.LatenciasRutas.Percentiles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios de LatenciasRutas: series, percentiles y ventana deslizante
+ */
+class LatenciasRutasTest {
+
+    private static final String RUTA = "/api/facturas/{id}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LatenciasRutas latencias = new LatenciasRutas(meterRegistry, 3, 1000, 3);
+
+    @Nested
+    @DisplayName("Percentiles")
+    class PercentilesTests {
+
+        @Test
+        @DisplayName("Calcula los percentiles de 1 a 100 ms al cerrar el intervalo")
+        void testPercentiles() {
+            for (int ms = 1; ms <= 100; ms++) {
+                latencias.registrar(RUTA, "GET", 200, TimeUnit.MILLISECONDS.toNanos(ms));
+            }
+            assertTrue(latencias.percentiles(null).isEmpty());
+
+            latencias.rotar();
+
+            Percentiles percentiles = latencias.percentiles(RUTA).get(0);
+            assertEquals(100, percentiles.peticiones());
+            assertEquals(50.0, percentiles.p50Ms(), 0.1);
+            assertEquals(90.0, percentiles.p90Ms(), 0.1);
+            assertEquals(99.0, percentiles.p99Ms(), 0.1);
+            assertEquals(100.0, percentiles.maxMs(), 0.1);
+            assertEquals(99.0, meterRegistry.get("http.latencia")
+                    .tags("uri", RUTA, "method", "GET", "status", "2xx", "percentil", "0.99").gauge().value(), 0.1);
+        }
+
+        @Test
+        @DisplayName("Separa por método y clase de estado y recorta por encima del máximo")
+        void testSeries() {
+            latencias.registrar(RUTA, "GET", 200, TimeUnit.MILLISECONDS.toNanos(5));
+            latencias.registrar(RUTA, "GET", 404, TimeUnit.MILLISECONDS.toNanos(1));
+            latencias.registrar(RUTA, "PROPFIND", 503, TimeUnit.SECONDS.toNanos(30));
+            latencias.rotar();
+
+            List<Percentiles> series = latencias.percentiles(RUTA);
+            assertEquals(List.of("OTRO 5xx", "GET 2xx", "GET 4xx"),
+                    series.stream().map(p -> p.metodo() + " " + p.estado()).toList());
+            assertEquals(1000.0, series.get(0).maxMs(), 1.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Ventana")
+    class VentanaTests {
+
+        @Test
+        @DisplayName("Un intervalo sale de la ventana tras tantas rotaciones como intervalos tiene")
+        void testVentanaDeslizante() {
+            latencias.registrar(RUTA, "GET", 200, TimeUnit.MILLISECONDS.toNanos(500));
+            latencias.rotar();
+            latencias.registrar(RUTA, "GET", 200, TimeUnit.MILLISECONDS.toNanos(10));
+            latencias.rotar();
+            latencias.rotar();
+            assertEquals(500.0, latencias.percentiles(RUTA).get(0).maxMs(), 1.0);
+
+            latencias.rotar();
+            Percentiles percentiles = latencias.percentiles(RUTA).get(0);
+            assertEquals(1, percentiles.peticiones());
+            assertEquals(10.0, percentiles.maxMs(), 0.1);
+
+            latencias.rotar();
+            latencias.rotar();
+            assertTrue(latencias.percentiles(RUTA).isEmpty());
+            assertEquals(0.0, meterRegistry.get("http.latencia.peticiones").tag("uri", RUTA).gauge().value());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.ProyectoSpringBoot.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enrutado lectura/escritura con dos H2 en memoria haciendo de primario y réplica
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routing;
+
+    @AfterEach
+    void tearDown() {
+        routing.getResolvedDataSources().values().forEach(ds -> ((HikariDataSource) ds).close());
+    }
+
+    @Nested
+    @DisplayName("Tests de enrutado")
+    class EnrutadoTests {
+
+        @Test
+        @DisplayName("Las transacciones readOnly leen de la réplica")
+        void testLecturaEnReplica() {
+            DataSource ds = crear("SELECT 0", "replica");
+            assertEquals("replica", leer(ds, true));
+        }
+
+        @Test
+        @DisplayName("Las transacciones de escritura y el código sin transacción van al primario")
+        void testEscrituraEnPrimario() {
+            DataSource ds = crear("SELECT 0", "replica");
+            assertEquals("primario", leer(ds, false));
+            assertEquals("primario", new JdbcTemplate(ds).queryForObject("SELECT nombre FROM origen", String.class));
+        }
+
+        @Test
+        @DisplayName("Reparte las lecturas entre réplicas en round-robin")
+        void testRoundRobin() {
+            DataSource ds = crear("SELECT 0", "replica-a", "replica-b");
+            assertEquals(List.of("replica-a", "replica-b", "replica-a"),
+                    List.of(leer(ds, true), leer(ds, true), leer(ds, true)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de retraso de réplica")
+    class RetrasoTests {
+
+        @Test
+        @DisplayName("Una réplica con retraso excesivo sale de la rotación y se lee del primario")
+        void testRetrasoExcesivo() {
+            DataSource ds = crear("SELECT 120", "replica");
+            assertTrue(routing.getReplicasSanas().isEmpty());
+            assertEquals("primario", leer(ds, true));
+        }
+
+        @Test
+        @DisplayName("Una réplica caída sale de la rotación")
+        void testReplicaCaida() {
+            DataSource ds = crear("SELECT retraso FROM tabla_inexistente", "replica");
+            assertTrue(routing.getReplicasSanas().isEmpty());
+            assertEquals("primario", leer(ds, true));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de configuración")
+    class ConfiguracionTests {
+
+        @Test
+        @DisplayName("El pool del primario aplica spring.datasource.hikari.*")
+        void testPropiedadesHikari() {
+            new ApplicationContextRunner()
+                    .withUserConfiguration(PropiedadesDataSource.class, ReplicaDataSourceConfig.class)
+                    .withPropertyValues(
+                            "app.datasource.replicas.enabled=true",
+                            "app.datasource.replicas.consulta-retraso=SELECT 0",
+                            "app.datasource.replicas.nodos[0].url=" + urlConOrigen("replica"),
+                            "spring.datasource.url=" + urlConOrigen("primario"),
+                            "spring.datasource.username=sa",
+                            "spring.datasource.hikari.maximum-pool-size=7",
+                            "spring.datasource.hikari.connection-timeout=1234",
+                            "spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=true")
+                    .run(contexto -> {
+                        HikariDataSource primario = contexto.getBean("primarioDataSource", HikariDataSource.class);
+                        LazyConnectionDataSourceProxy proxy = contexto.getBean("dataSource", LazyConnectionDataSourceProxy.class);
+                        routing = (ReplicaRoutingDataSource) proxy.getTargetDataSource();
+                        assertEquals("primario", primario.getPoolName());
+                        assertEquals(7, primario.getMaximumPoolSize());
+                        assertEquals(1234, primario.getConnectionTimeout());
+                        assertEquals("true", primario.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+                        assertEquals("primario", leer(contexto.getBean(DataSource.class), false));
+                    });
+        }
+    }
+
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class PropiedadesDataSource {
+    }
+
+    private DataSource crear(String consultaRetraso, String... replicas) {
+        DataSourceProperties primario = new DataSourceProperties();
+        primario.setUrl(urlConOrigen("primario"));
+        primario.setUsername("sa");
+        primario.setPassword("");
+
+        ReplicasProperties propiedades = new ReplicasProperties();
+        propiedades.setEnabled(true);
+        propiedades.setMaxRetrasoSegundos(30);
+        propiedades.setConsultaRetraso(consultaRetraso);
+        for (String nombre : replicas) {
+            ReplicasProperties.Replica replica = new ReplicasProperties.Replica();
+            replica.setUrl(urlConOrigen(nombre));
+            propiedades.getNodos().add(replica);
+        }
+
+        HikariDataSource dsPrimario = primario.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dsPrimario.setPoolName("primario");
+        routing = ReplicaDataSourceConfig.crearRouting(dsPrimario, primario, propiedades);
+        routing.comprobarRetrasos();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Cada base tiene una tabla origen con su propio nombre; sin DB_CLOSE_DELAY desaparece al cerrar el pool
+    private static String urlConOrigen(String nombre) {
+        return "jdbc:h2:mem:" + nombre + ";INIT=CREATE TABLE IF NOT EXISTS origen(nombre VARCHAR(20))\\;"
+                + "MERGE INTO origen KEY(nombre) VALUES('" + nombre + "')";
+    }
+
+    private static String leer(DataSource ds, boolean soloLectura) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+        tx.setReadOnly(soloLectura);
+        return tx.execute(status -> new JdbcTemplate(ds).queryForObject("SELECT nombre FROM origen", String.class));
+    }
+}
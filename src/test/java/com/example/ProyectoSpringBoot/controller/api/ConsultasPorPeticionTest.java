@@ -0,0 +1,155 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.config.ConsultasPorPeticion;
+import com.example.ProyectoSpringBoot.config.InspectorSentencias;
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.service.PlanService;
+import com.example.ProyectoSpringBoot.service.SuscripcionService;
+import com.example.ProyectoSpringBoot.service.UsuarioService;
+import com.example.ProyectoSpringBoot.support.MaxConsultas;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sentencias SQL por petición: cabeceras, métricas y presupuestos con @MaxConsultas
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConsultasPorPeticionTest {
+
+    private static final int USUARIOS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private PlanService planService;
+
+    private final List<Long> usuarios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Long planId = planService.findAll().get(0).getId();
+        for (int i = 0; i < USUARIOS; i++) {
+            UsuarioDTO usuario = usuarioService.create(UsuarioDTO.builder()
+                    .email("consultas" + i + "@example.com")
+                    .password("password123")
+                    .nombre("Consultas " + i)
+                    .build());
+            suscripcionService.create(SuscripcionDTO.builder()
+                    .usuarioId(usuario.getId())
+                    .planId(planId)
+                    .fechaInicio(LocalDate.now())
+                    .estado(EstadoSuscripcion.ACTIVA)
+                    .build());
+            usuarios.add(usuario.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarios.forEach(usuarioService::delete);
+    }
+
+    @Nested
+    @DisplayName("Publicación")
+    class PublicacionTests {
+
+        @Test
+        @DisplayName("La respuesta lleva el número de sentencias y el tiempo JDBC en cabeceras")
+        void testCabeceras() throws Exception {
+            String consultas = mockMvc.perform(get("/api/usuarios"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("X-Consultas-Jdbc-Ms"))
+                    .andExpect(header().string("X-Consultas-Repetidas", "0"))
+                    .andReturn().getResponse().getHeader("X-Consultas");
+
+            assertNotNull(consultas);
+            assertTrue(Integer.parseInt(consultas) > 0);
+        }
+
+        @Test
+        @DisplayName("Las sentencias se registran por patrón de URI")
+        void testMetricas() throws Exception {
+            mockMvc.perform(get("/api/usuarios/{id}", usuarios.get(0))).andExpect(status().isOk());
+
+            assertTrue(meterRegistry.get("http.consultas").tags("uri", "/api/usuarios/{id}", "method", "GET")
+                    .summary().count() >= 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Presupuestos por endpoint")
+    class PresupuestosTests {
+
+        @Test
+        @MaxConsultas(value = 3, sinRepetidas = true)
+        @DisplayName("GET /api/usuarios no crece con el número de usuarios")
+        void testUsuarios() throws Exception {
+            mockMvc.perform(get("/api/usuarios")).andExpect(status().isOk());
+        }
+
+        @Test
+        @MaxConsultas(value = 2, sinRepetidas = true)
+        @DisplayName("GET /api/suscripciones y /api/facturas no crecen con el número de filas")
+        void testListados() throws Exception {
+            mockMvc.perform(get("/api/suscripciones")).andExpect(status().isOk());
+            mockMvc.perform(get("/api/facturas")).andExpect(status().isOk());
+        }
+    }
+
+    @Nested
+    @DisplayName("Registro")
+    class RegistroTests {
+
+        @Test
+        @DisplayName("Un registro anidado suma en el padre y detecta sentencias repetidas")
+        void testAnidado() {
+            InspectorSentencias inspector = new InspectorSentencias();
+            ConsultasPorPeticion.Registro exterior = ConsultasPorPeticion.iniciar();
+            ConsultasPorPeticion.Registro peticion = ConsultasPorPeticion.iniciar();
+            for (int i = 0; i < 3; i++) {
+                inspector.inspect("select * from suscripciones where usuario_id=?");
+            }
+            inspector.inspect("select * from usuarios");
+            ConsultasPorPeticion.Resumen resumen = ConsultasPorPeticion.terminar(peticion, "GET /prueba", 3);
+            ConsultasPorPeticion.terminar(exterior, "test", 3);
+
+            assertEquals(4, resumen.sentencias());
+            assertEquals(1, resumen.repetidas().size());
+            assertEquals(3, resumen.repetidas().get("select * from suscripciones where usuario_id=?"));
+            assertEquals(4, exterior.sentencias());
+            assertEquals(List.of(resumen), exterior.peticiones());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los disparadores manuales de jobs responden 202 al momento y el trabajo se sigue en /api/jobs
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("ejecutar-facturacion devuelve 202 con el trabajo y su resultado queda en /api/jobs/{id}/resultado")
+    void testFacturacionAsincrona() throws Exception {
+        MvcResult envio = mockMvc.perform(post("/api/facturas/ejecutar-facturacion"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/api/jobs/")))
+                .andExpect(jsonPath("$.tipo").value("facturacion"))
+                .andReturn();
+        String id = objectMapper.readTree(envio.getResponse().getContentAsString()).get("id").asText();
+
+        JsonNode trabajo = esperarFin(id);
+        assertEquals("COMPLETADO", trabajo.get("estado").asText());
+
+        mockMvc.perform(get("/api/jobs/{id}/resultado", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.job").value("facturacionAutomatica"))
+                .andExpect(jsonPath("$.resultado").value("completada"));
+        mockMvc.perform(get("/api/jobs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == '" + id + "')].estado").value("COMPLETADO"));
+    }
+
+    @Test
+    @DisplayName("Un trabajo desconocido da 404")
+    void testTrabajoDesconocido() throws Exception {
+        mockMvc.perform(get("/api/jobs/{id}", "no-existe")).andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/jobs/{id}/cancelar", "no-existe")).andExpect(status().isNotFound());
+    }
+
+    private JsonNode esperarFin(String id) throws Exception {
+        for (int intento = 0; intento < 500; intento++) {
+            MvcResult resultado = mockMvc.perform(get("/api/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode trabajo = objectMapper.readTree(resultado.getResponse().getContentAsString());
+            String estado = trabajo.get("estado").asText();
+            if (!estado.equals("EN_COLA") && !estado.equals("EN_CURSO")) {
+                return trabajo;
+            }
+            Thread.sleep(20);
+        }
+        fail("El trabajo " + id + " no terminó");
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.config.LatenciasRutas;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Latencias por ruta medidas por FiltroLatencias y expuestas por Actuator
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LatenciasEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LatenciasRutas latencias;
+
+    @Test
+    @DisplayName("Las peticiones aparecen por patrón de ruta en /actuator/latencias y en http.latencia")
+    void testPercentilesPorRuta() throws Exception {
+        mockMvc.perform(get("/api/planes")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/facturas/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        latencias.rotar();
+
+        mockMvc.perform(get("/actuator/latencias/api/planes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ruta").value("/api/planes"))
+                .andExpect(jsonPath("$[0].metodo").value("GET"))
+                .andExpect(jsonPath("$[0].estado").value("2xx"))
+                .andExpect(jsonPath("$[0].peticiones").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$[0].p999Ms").exists());
+        mockMvc.perform(get("/actuator/metrics/http.latencia")
+                        .param("tag", "uri:/api/facturas/{id}")
+                        .param("tag", "status:4xx")
+                        .param("tag", "percentil:0.99"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.dto.PlanDTO;
+import com.example.ProyectoSpringBoot.enums.TipoPlan;
+import com.example.ProyectoSpringBoot.service.PlanService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listados de planes precalculados: ETag, 304 y variante gzip
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PlanRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlanService planService;
+
+    @Nested
+    @DisplayName("Tests de ETag")
+    class EtagTests {
+
+        @Test
+        @DisplayName("If-None-Match con el ETag vigente devuelve 304 sin cuerpo")
+        void testNoModificado() throws Exception {
+            String etag = mockMvc.perform(get("/api/planes/activos"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag);
+            assertFalse(etag.startsWith("W/"));
+
+            MvcResult resultado = mockMvc.perform(get("/api/planes/activos").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andReturn();
+            assertEquals(0, resultado.getResponse().getContentLength());
+        }
+
+        @Test
+        @DisplayName("El ETag cambia cuando se modifica un plan")
+        void testEtagCambiaConElCatalogo() throws Exception {
+            String antes = mockMvc.perform(get("/api/planes")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            PlanDTO creado = planService.create(PlanDTO.builder()
+                    .nombre("Plan ETag")
+                    .tipoPlan(TipoPlan.BASIC)
+                    .precioMensual(new BigDecimal("1.99"))
+                    .build());
+            try {
+                mockMvc.perform(get("/api/planes").header(HttpHeaders.IF_NONE_MATCH, antes))
+                        .andExpect(status().isOk());
+            } finally {
+                planService.delete(creado.getId());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de compresión")
+    class CompresionTests {
+
+        @Test
+        @DisplayName("Con Accept-Encoding gzip sirve la variante comprimida del mismo JSON")
+        void testGzip() throws Exception {
+            byte[] plano = mockMvc.perform(get("/api/planes"))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            byte[] comprimido = mockMvc.perform(get("/api/planes").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+                assertArrayEquals(plano, entrada.readAllBytes());
+            }
+        }
+
+        @Test
+        @DisplayName("La variante gzip tiene su propio ETag y no valida la variante sin comprimir")
+        void testEtagPorCodificacion() throws Exception {
+            String etag = mockMvc.perform(get("/api/planes"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            String etagGzip = mockMvc.perform(get("/api/planes").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etagGzip);
+            assertNotEquals(etag, etagGzip);
+
+            mockMvc.perform(get("/api/planes").header(HttpHeaders.IF_NONE_MATCH, etagGzip))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+            mockMvc.perform(get("/api/planes").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                            .header(HttpHeaders.IF_NONE_MATCH, etagGzip))
+                    .andExpect(status().isNotModified());
+        }
+
+        @Test
+        @DisplayName("gzip;q=0 no acepta la variante comprimida")
+        void testGzipRechazado() throws Exception {
+            mockMvc.perform(get("/api/planes").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+            mockMvc.perform(get("/api/planes").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0.5"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+            mockMvc.perform(get("/api/planes").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        }
+    }
+}
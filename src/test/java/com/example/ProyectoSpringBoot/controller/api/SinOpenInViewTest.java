@@ -0,0 +1,175 @@
+package com.example.ProyectoSpringBoot.controller.api;
+
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.Perfil;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.entity.Usuario;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.enums.TipoPlan;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.PlanRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import com.example.ProyectoSpringBoot.repository.UsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Regresión sin open-in-view: los endpoints deben serializar DTOs ya cargados.
+ * El test no es @Transactional a propósito; así ninguna sesión sobrevive al servicio
+ * y cualquier carga perezosa en el controlador o en Jackson falla con LazyInitializationException.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SinOpenInViewTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private SuscripcionRepository suscripcionRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    private Plan plan;
+    private Usuario usuario;
+    private Suscripcion suscripcion;
+    private Factura factura;
+
+    @BeforeEach
+    void setUp() {
+        plan = planRepository.save(Plan.builder()
+                .nombre("Plan OSIV")
+                .tipoPlan(TipoPlan.PREMIUM)
+                .precioMensual(new BigDecimal("29.99"))
+                .build());
+
+        usuario = Usuario.builder().email("osiv@example.com").password("password123").build();
+        usuario.setPerfil(Perfil.builder().nombre("Ana").apellidos("Osiv").pais("ES").usuario(usuario).build());
+        usuario = usuarioRepository.save(usuario);
+
+        suscripcion = suscripcionRepository.save(Suscripcion.builder()
+                .usuario(usuario)
+                .plan(plan)
+                .fechaInicio(LocalDate.now().minusDays(10))
+                .fechaProximoCobro(LocalDate.now().plusDays(20))
+                .estado(EstadoSuscripcion.ACTIVA)
+                .precioActual(plan.getPrecioMensual())
+                .build());
+
+        factura = facturaRepository.save(Factura.builder()
+                .numeroFactura("FAC-OSIV-1")
+                .suscripcion(suscripcion)
+                .fechaEmision(LocalDate.now())
+                .fechaVencimiento(LocalDate.now().plusDays(15))
+                .subtotal(new BigDecimal("29.99"))
+                .porcentajeImpuestos(new BigDecimal("21.00"))
+                .montoImpuestos(new BigDecimal("6.30"))
+                .total(new BigDecimal("36.29"))
+                .estado(EstadoFactura.PAGADA)
+                .concepto("Suscripción mensual - Plan OSIV")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        facturaRepository.deleteById(factura.getId());
+        suscripcionRepository.deleteById(suscripcion.getId());
+        usuarioRepository.deleteById(usuario.getId());
+        planRepository.deleteById(plan.getId());
+    }
+
+    @Test
+    @DisplayName("El interceptor open-in-view no está registrado")
+    void testOpenInViewDesactivado() {
+        assertTrue(context.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Nested
+    @DisplayName("Lecturas")
+    class LecturasTests {
+
+        @Test
+        @DisplayName("Listados y detalles serializan relaciones sin sesión abierta")
+        void testLecturas() throws Exception {
+            mockMvc.perform(get("/api/facturas"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].usuarioNombre", everyItem(notNullValue())));
+            mockMvc.perform(get("/api/facturas/{id}", factura.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.usuarioNombre").value("Ana Osiv"));
+            mockMvc.perform(get("/api/facturas/buscar").param("usuarioId", usuario.getId().toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[0].numeroFactura").value("FAC-OSIV-1"));
+            mockMvc.perform(get("/api/facturas/pais/{pais}", "ES"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/suscripciones"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].planNombre", everyItem(notNullValue())));
+            mockMvc.perform(get("/api/suscripciones/usuario/{usuarioId}", usuario.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].planNombre").value("Plan OSIV"));
+            mockMvc.perform(get("/api/usuarios"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/usuarios/{id}", usuario.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.suscripcionId").value(suscripcion.getId()));
+            mockMvc.perform(get("/api/planes"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Nested
+    @DisplayName("Ciclo de vida")
+    class CicloVidaTests {
+
+        @Test
+        @DisplayName("Cancelar y reactivar devuelven el DTO completo")
+        void testCancelarReactivar() throws Exception {
+            mockMvc.perform(post("/api/suscripciones/ciclo-vida/{id}/cancelar", suscripcion.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.estado").value("CANCELADA"))
+                    .andExpect(jsonPath("$.usuarioNombre").value("Ana Osiv"));
+            mockMvc.perform(post("/api/suscripciones/ciclo-vida/{id}/reactivar", suscripcion.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.planNombre").value("Plan OSIV"));
+            mockMvc.perform(post("/api/suscripciones/ciclo-vida/{id}/toggle-renovacion", suscripcion.getId())
+                            .param("renovacionAutomatica", "false"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.renovacionAutomatica").value(false));
+        }
+    }
+}
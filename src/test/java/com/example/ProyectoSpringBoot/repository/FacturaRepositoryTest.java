@@ -0,0 +1,147 @@
+package com.example.ProyectoSpringBoot.repository;
+
+import com.example.ProyectoSpringBoot.config.JpaAuditingConfig;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.entity.Usuario;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.enums.TipoPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la búsqueda dinámica de facturas (Specifications + Slice sin COUNT)
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(JpaAuditingConfig.class)
+class FacturaRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    private Usuario usuarioA;
+    private Usuario usuarioB;
+
+    @BeforeEach
+    void setUp() {
+        Plan plan = em.persist(Plan.builder()
+                .nombre("Plan Básico")
+                .tipoPlan(TipoPlan.BASIC)
+                .precioMensual(new BigDecimal("9.99"))
+                .build());
+
+        usuarioA = em.persist(Usuario.builder().email("a@example.com").password("password123").build());
+        usuarioB = em.persist(Usuario.builder().email("b@example.com").password("password123").build());
+
+        Suscripcion suscripcionA = em.persist(suscripcion(usuarioA, plan));
+        Suscripcion suscripcionB = em.persist(suscripcion(usuarioB, plan));
+
+        for (int i = 0; i < 5; i++) {
+            em.persist(factura("A-" + i, suscripcionA, LocalDate.of(2024, 1, 1 + i), "10.00", EstadoFactura.PAGADA));
+        }
+        for (int i = 0; i < 3; i++) {
+            em.persist(factura("B-" + i, suscripcionB, LocalDate.of(2024, 2, 1 + i), "50.00", EstadoFactura.PENDIENTE));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Nested
+    @DisplayName("Tests de filtros dinámicos")
+    class FiltrosTests {
+
+        @Test
+        @DisplayName("Sin filtros devuelve todas las facturas")
+        void testSinFiltros() {
+            var spec = FacturaSpecifications.conFiltros(null, null, null, null, null, null);
+            assertEquals(8, facturaRepository.count(spec));
+        }
+
+        @Test
+        @DisplayName("Filtra por usuario a través de la suscripción")
+        void testFiltroUsuario() {
+            var spec = FacturaSpecifications.conFiltros(null, null, null, null, null, usuarioB.getId());
+            List<Factura> facturas = facturaRepository.findAll(spec);
+            assertEquals(3, facturas.size());
+            assertTrue(facturas.stream().allMatch(f -> f.getNumeroFactura().startsWith("B-")));
+        }
+
+        @Test
+        @DisplayName("Combina estado, fechas y monto")
+        void testFiltrosCombinados() {
+            var spec = FacturaSpecifications.conFiltros(
+                    LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4),
+                    new BigDecimal("5.00"), new BigDecimal("20.00"), EstadoFactura.PAGADA, usuarioA.getId());
+            assertEquals(3, facturaRepository.count(spec));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de Slice sin COUNT")
+    class SliceTests {
+
+        @Test
+        @DisplayName("Indica si existe una página siguiente sin calcular el total")
+        void testSlicePaginado() {
+            var spec = FacturaSpecifications.conFiltros(null, null, null, null, null, null);
+            var orden = Sort.by("fechaEmision").descending();
+
+            Slice<Factura> primera = facturaRepository.buscarSlice(spec, PageRequest.of(0, 5, orden));
+            Slice<Factura> segunda = facturaRepository.buscarSlice(spec, PageRequest.of(1, 5, orden));
+
+            assertEquals(5, primera.getNumberOfElements());
+            assertTrue(primera.hasNext());
+            assertEquals("B-2", primera.getContent().get(0).getNumeroFactura());
+            assertEquals(3, segunda.getNumberOfElements());
+            assertFalse(segunda.hasNext());
+        }
+    }
+
+    private Suscripcion suscripcion(Usuario usuario, Plan plan) {
+        return Suscripcion.builder()
+                .usuario(usuario)
+                .plan(plan)
+                .fechaInicio(LocalDate.of(2024, 1, 1))
+                .fechaProximoCobro(LocalDate.of(2024, 2, 1))
+                .estado(EstadoSuscripcion.ACTIVA)
+                .precioActual(plan.getPrecioMensual())
+                .build();
+    }
+
+    private Factura factura(String numero, Suscripcion suscripcion, LocalDate emision, String total, EstadoFactura estado) {
+        return Factura.builder()
+                .numeroFactura(numero)
+                .suscripcion(suscripcion)
+                .fechaEmision(emision)
+                .fechaVencimiento(emision.plusDays(15))
+                .subtotal(new BigDecimal(total))
+                .porcentajeImpuestos(BigDecimal.ZERO)
+                .montoImpuestos(BigDecimal.ZERO)
+                .total(new BigDecimal(total))
+                .estado(estado)
+                .concepto("Suscripción mensual")
+                .build();
+    }
+}
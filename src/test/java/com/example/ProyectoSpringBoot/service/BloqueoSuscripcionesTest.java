@@ -0,0 +1,272 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.config.MigracionVersiones;
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.exception.ConflictoConcurrenciaException;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.PlanRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bloqueo por suscripción, versión optimista y reintentos
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BloqueoSuscripcionesTest {
+
+    @Autowired
+    private BloqueoSuscripciones bloqueo;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private SuscripcionRepository suscripcionRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private CicloVidaSuscripcionService cicloVidaService;
+
+    @Autowired
+    private MigracionVersiones migracionVersiones;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UsuarioDTO usuario;
+    private Long suscripcionId;
+
+    @BeforeEach
+    void setUp() {
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("bloqueo@example.com")
+                .password("password123")
+                .nombre("Bloqueo")
+                .build());
+        Plan masBarato = planRepository.findAll().stream()
+                .min(Comparator.comparing(Plan::getPrecioMensual)).orElseThrow();
+        suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(masBarato.getId())
+                .fechaInicio(LocalDate.now().minusDays(30))
+                .fechaProximoCobro(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Nested
+    @DisplayName("Versión optimista")
+    class VersionTests {
+
+        @Test
+        @DisplayName("Guardar una copia con versión antigua falla en lugar de pisar el cambio")
+        void testVersionAntigua() {
+            Suscripcion primera = suscripcionRepository.findById(suscripcionId).orElseThrow();
+            Suscripcion segunda = suscripcionRepository.findById(suscripcionId).orElseThrow();
+
+            primera.setRenovacionAutomatica(false);
+            suscripcionRepository.save(primera);
+
+            segunda.setFechaProximoCobro(LocalDate.now().plusDays(30));
+            assertThrows(OptimisticLockingFailureException.class, () -> suscripcionRepository.save(segunda));
+        }
+
+        @Test
+        @DisplayName("Las filas con versión NULL (ddl-auto=update) se inicializan y se pueden actualizar")
+        void testMigraVersionNula() {
+            assertEquals(0, migracionVersiones.migrar());
+
+            jdbcTemplate.execute("ALTER TABLE suscripciones ALTER COLUMN version SET NULL");
+            try {
+                jdbcTemplate.update("UPDATE suscripciones SET version = NULL WHERE id = ?", suscripcionId);
+
+                assertEquals(1, migracionVersiones.migrar());
+                Suscripcion suscripcion = suscripcionRepository.findById(suscripcionId).orElseThrow();
+                assertEquals(0L, suscripcion.getVersion());
+                suscripcion.setRenovacionAutomatica(false);
+                assertEquals(1L, suscripcionRepository.save(suscripcion).getVersion());
+            } finally {
+                jdbcTemplate.execute("ALTER TABLE suscripciones ALTER COLUMN version SET NOT NULL");
+            }
+        }
+
+        @Test
+        @DisplayName("Un conflicto de versión se reintenta en una transacción nueva")
+        void testReintento() {
+            AtomicInteger intentos = new AtomicInteger();
+
+            String resultado = bloqueo.ejecutar(suscripcionId, () -> {
+                if (intentos.incrementAndGet() == 1) {
+                    throw new OptimisticLockingFailureException("versión cambiada");
+                }
+                return "ok";
+            });
+
+            assertEquals("ok", resultado);
+            assertEquals(2, intentos.get());
+        }
+
+        @Test
+        @DisplayName("Agotados los reintentos se lanza ConflictoConcurrenciaException")
+        void testReintentosAgotados() {
+            AtomicInteger intentos = new AtomicInteger();
+
+            assertThrows(ConflictoConcurrenciaException.class, () -> bloqueo.ejecutar(suscripcionId, () -> {
+                intentos.incrementAndGet();
+                throw new OptimisticLockingFailureException("versión cambiada");
+            }));
+            assertEquals(3, intentos.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("Operaciones concurrentes sobre la misma suscripción")
+    class ConcurrenciaTests {
+
+        @Test
+        @DisplayName("Facturación y renovación simultáneas generan una sola factura")
+        void testSinDobleFacturacion() throws Exception {
+            List<Optional<Factura>> resultados = enParalelo(
+                    () -> suscripcionService.facturarMensual(suscripcionId, s -> true),
+                    () -> suscripcionService.facturarMensual(suscripcionId, s -> true));
+
+            assertEquals(1, resultados.stream().filter(Optional::isPresent).count());
+            assertEquals(1, facturaRepository.findBySuscripcionId(suscripcionId).size());
+            assertEquals(LocalDate.now().plusDays(30),
+                    suscripcionRepository.findById(suscripcionId).orElseThrow().getFechaProximoCobro());
+        }
+
+        @Test
+        @DisplayName("Cambio de plan y facturación simultáneos conservan ambos cambios")
+        void testCambioPlanYFacturacion() throws Exception {
+            Plan masCaro = planRepository.findAll().stream()
+                    .max(Comparator.comparing(Plan::getPrecioMensual)).orElseThrow();
+
+            enParalelo(
+                    () -> suscripcionService.cambiarPlan(suscripcionId, masCaro.getId()),
+                    () -> suscripcionService.facturarMensual(suscripcionId, s -> true));
+
+            Suscripcion resultado = suscripcionRepository.findById(suscripcionId).orElseThrow();
+            assertEquals(masCaro.getId(), resultado.getPlan().getId());
+            assertEquals(LocalDate.now().plusDays(30), resultado.getFechaProximoCobro());
+        }
+
+        @Test
+        @DisplayName("Actualización y facturación simultáneas conservan ambos cambios")
+        void testActualizacionYFacturacion() throws Exception {
+            Plan masCaro = planRepository.findAll().stream()
+                    .max(Comparator.comparing(Plan::getPrecioMensual)).orElseThrow();
+
+            enParalelo(
+                    () -> suscripcionService.update(suscripcionId, SuscripcionDTO.builder()
+                            .planId(masCaro.getId())
+                            .precioActual(masCaro.getPrecioMensual())
+                            .build()),
+                    () -> suscripcionService.facturarMensual(suscripcionId, s -> true));
+
+            Suscripcion resultado = suscripcionRepository.findById(suscripcionId).orElseThrow();
+            assertEquals(masCaro.getId(), resultado.getPlan().getId());
+            assertEquals(LocalDate.now().plusDays(30), resultado.getFechaProximoCobro());
+        }
+
+        @Test
+        @DisplayName("El job de morosos y un cambio de plan simultáneos conservan ambos cambios")
+        void testMorososYCambioPlan() throws Exception {
+            facturaRepository.save(Factura.builder()
+                    .numeroFactura("FAC-BLOQ-VENCIDA")
+                    .suscripcion(suscripcionRepository.findById(suscripcionId).orElseThrow())
+                    .fechaEmision(LocalDate.now().minusDays(40))
+                    .fechaVencimiento(LocalDate.now().minusDays(25))
+                    .subtotal(new BigDecimal("9.99"))
+                    .porcentajeImpuestos(new BigDecimal("21.00"))
+                    .montoImpuestos(new BigDecimal("2.10"))
+                    .total(new BigDecimal("12.09"))
+                    .estado(EstadoFactura.PENDIENTE)
+                    .concepto("Suscripción mensual vencida")
+                    .build());
+            Plan masCaro = planRepository.findAll().stream()
+                    .max(Comparator.comparing(Plan::getPrecioMensual)).orElseThrow();
+
+            enParalelo(
+                    () -> {
+                        cicloVidaService.procesarSuscripcionesMorosas();
+                        return null;
+                    },
+                    () -> suscripcionService.cambiarPlan(suscripcionId, masCaro.getId()));
+
+            Suscripcion resultado = suscripcionRepository.findById(suscripcionId).orElseThrow();
+            assertEquals(EstadoSuscripcion.MOROSA, resultado.getEstado());
+            assertEquals(masCaro.getId(), resultado.getPlan().getId());
+        }
+    }
+
+    @SafeVarargs
+    private static <T> List<T> enParalelo(Callable<T>... tareas) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tareas.length);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = Arrays.stream(tareas)
+                    .map(tarea -> pool.submit(() -> {
+                        salida.await();
+                        return tarea.call();
+                    }))
+                    .toList();
+            salida.countDown();
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get(10, TimeUnit.SECONDS));
+            }
+            return resultados;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
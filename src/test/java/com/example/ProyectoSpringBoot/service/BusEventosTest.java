@@ -0,0 +1,159 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.service.BusEventos.Entrega;
+import com.example.ProyectoSpringBoot.service.EventoDominio.PlanCambiado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios del anillo de BusEventos
+ */
+class BusEventosTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BusEventos bus;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (bus != null) {
+            bus.detener();
+        }
+    }
+
+    @Nested
+    @DisplayName("Entrega")
+    class EntregaTests {
+
+        @Test
+        @DisplayName("Todos los consumidores reciben todos los eventos en orden")
+        void testOrden() throws Exception {
+            Recolector a = new Recolector("a", e -> {});
+            Recolector b = new Recolector("b", e -> {});
+            iniciar(8, a, b);
+
+            assertEquals(19, bus.publicar(entregas(0, 20)));
+            esperarProcesado(19);
+
+            List<Long> esperados = LongStream.range(0, 20).boxed().toList();
+            assertEquals(esperados, a.ids);
+            assertEquals(esperados, b.ids);
+        }
+
+        @Test
+        @DisplayName("Un evento que falla siempre se descarta tras los reintentos")
+        void testErrorDescartado() throws Exception {
+            Recolector fallido = new Recolector("fallido", e -> {
+                if (e.id() == 0) {
+                    throw new IllegalStateException("fallo");
+                }
+            });
+            iniciar(8, fallido);
+
+            bus.publicar(entregas(0, 2));
+            esperarProcesado(1);
+
+            assertEquals(List.of(0L, 0L, 1L), fallido.ids);
+            assertEquals(1.0, meterRegistry.get("eventos.bus.errores").tag("consumidor", "fallido").counter().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Consumidores lentos")
+    class LentosTests {
+
+        @Test
+        @DisplayName("Un consumidor lento no retrasa a los demás y su retraso se ve en la métrica")
+        void testRetraso() throws Exception {
+            CountDownLatch liberar = new CountDownLatch(1);
+            Recolector lento = new Recolector("lento", e -> esperar(liberar));
+            Recolector rapido = new Recolector("rapido", e -> {});
+            iniciar(8, lento, rapido);
+
+            bus.publicar(entregas(0, 5));
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (rapido.ids.size() < 5 && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(5, rapido.ids.size());
+            assertEquals(0.0, retraso("rapido"));
+            assertEquals(5.0, retraso("lento"));
+
+            liberar.countDown();
+            esperarProcesado(4);
+            assertEquals(0.0, retraso("lento"));
+        }
+
+        @Test
+        @DisplayName("El productor espera cuando el más lento va una vuelta por detrás")
+        void testContrapresion() throws Exception {
+            CountDownLatch liberar = new CountDownLatch(1);
+            iniciar(4, new Recolector("lento", e -> esperar(liberar)));
+
+            CompletableFuture<Long> publicacion = CompletableFuture.supplyAsync(() -> bus.publicar(entregas(0, 6)));
+            assertThrows(TimeoutException.class, () -> publicacion.get(200, TimeUnit.MILLISECONDS));
+
+            liberar.countDown();
+            assertEquals(5, publicacion.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private void iniciar(int capacidad, Recolector... consumidores) {
+        bus = new BusEventos(List.of(consumidores), meterRegistry, capacidad, 2);
+        bus.iniciar();
+    }
+
+    private double retraso(String consumidor) {
+        return meterRegistry.get("eventos.bus.retraso").tag("consumidor", consumidor).gauge().value();
+    }
+
+    private void esperarProcesado(long secuencia) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bus.procesadoPorTodos() < secuencia) {
+            assertTrue(System.nanoTime() < limite, "Los consumidores no llegaron a " + secuencia);
+            Thread.sleep(5);
+        }
+    }
+
+    private static List<Entrega> entregas(long desde, long hasta) {
+        return LongStream.range(desde, hasta)
+                .mapToObj(id -> new Entrega(id, LocalDateTime.now(), new PlanCambiado(id, 1L, 2L)))
+                .toList();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Recolector(String nombre, List<Long> ids, Consumer<Entrega> accion) implements BusEventos.Consumidor {
+
+        Recolector(String nombre, Consumer<Entrega> accion) {
+            this(nombre, new CopyOnWriteArrayList<>(), accion);
+        }
+
+        @Override
+        public void procesar(Entrega entrega) {
+            ids.add(entrega.id());
+            accion.accept(entrega);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ProyectoSpringBoot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CalculoCompartido: reutilización, un solo cálculo en vuelo y errores sin cachear
+ */
+class CalculoCompartidoTest {
+
+    @Test
+    @DisplayName("Dentro del TTL se reutiliza el resultado")
+    void testReutiliza() {
+        CalculoCompartido<Integer> calculo = new CalculoCompartido<>(60_000);
+        AtomicInteger llamadas = new AtomicInteger();
+
+        assertEquals(1, calculo.obtener(llamadas::incrementAndGet));
+        assertEquals(1, calculo.obtener(llamadas::incrementAndGet));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    @DisplayName("Un error no se guarda: la siguiente llamada vuelve a calcular")
+    void testErrorNoGuardado() {
+        CalculoCompartido<Integer> calculo = new CalculoCompartido<>(60_000);
+
+        assertThrows(IllegalStateException.class, () -> calculo.obtener(() -> {
+            throw new IllegalStateException("BD caída");
+        }));
+        assertEquals(7, calculo.obtener(() -> 7));
+    }
+
+    @Test
+    @DisplayName("Con cálculos que fallan, los hilos concurrentes reciben el error y nunca una referencia vacía")
+    void testErrorConcurrente() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int ronda = 0; ronda < 200; ronda++) {
+                // TTL 0: cada llamada compite por recalcular, como al caducar el resultado
+                CalculoCompartido<Integer> calculo = new CalculoCompartido<>(0);
+                CountDownLatch salida = new CountDownLatch(1);
+                List<Future<Integer>> resultados = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    resultados.add(pool.submit(() -> {
+                        salida.await();
+                        return calculo.obtener(() -> {
+                            Thread.yield();
+                            throw new IllegalStateException("BD caída");
+                        });
+                    }));
+                }
+                salida.countDown();
+                for (Future<Integer> resultado : resultados) {
+                    ExecutionException e = assertThrows(ExecutionException.class, () -> resultado.get(5, TimeUnit.SECONDS));
+                    assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
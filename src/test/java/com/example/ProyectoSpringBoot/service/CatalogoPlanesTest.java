@@ -0,0 +1,94 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.PlanDTO;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.enums.TipoPlan;
+import com.example.ProyectoSpringBoot.repository.PlanRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static com.example.ProyectoSpringBoot.support.ContadorConsultas.contar;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Catálogo de planes en memoria + caché de segundo nivel de Plan.
+ * Sin @Transactional: la recarga del catálogo ocurre tras el commit real.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogoPlanesTest {
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Nested
+    @DisplayName("Lecturas")
+    class LecturasTests {
+
+        @Test
+        @DisplayName("Los listados y búsquedas de planes no consultan la BD")
+        void testLecturasSinConsultas() {
+            Long id = planService.findAll().get(0).getId();
+
+            long consultas = contar(() -> {
+                planService.findAll();
+                planService.findAllActive();
+                planService.findById(id);
+                planService.existsByNombre("Plan Básico");
+            });
+            assertEquals(0, consultas);
+        }
+
+        @Test
+        @DisplayName("Plan se sirve desde la caché de segundo nivel")
+        void testCacheSegundoNivel() {
+            Long id = planService.findAll().get(0).getId();
+            planRepository.findById(id);
+
+            assertTrue(emf.getCache().contains(Plan.class, id));
+            assertEquals(0, contar(() -> planRepository.findById(id)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidación tras commit")
+    class InvalidacionTests {
+
+        @Test
+        @DisplayName("Alta, cambio y baja se reflejan en el catálogo")
+        void testCicloCompleto() {
+            PlanDTO creado = planService.create(PlanDTO.builder()
+                    .nombre("Plan Catálogo")
+                    .tipoPlan(TipoPlan.BASIC)
+                    .precioMensual(new BigDecimal("4.99"))
+                    .build());
+            assertTrue(planService.findById(creado.getId()).isPresent());
+            assertTrue(planService.findAllActive().stream().anyMatch(p -> p.getId().equals(creado.getId())));
+
+            creado.setActivo(false);
+            creado.setPrecioMensual(new BigDecimal("5.99"));
+            planService.update(creado.getId(), creado);
+            assertEquals(new BigDecimal("5.99"), planService.findById(creado.getId()).orElseThrow().getPrecioMensual());
+            assertTrue(planService.findAllActive().stream().noneMatch(p -> p.getId().equals(creado.getId())));
+
+            assertTrue(planService.delete(creado.getId()));
+            assertTrue(planService.findById(creado.getId()).isEmpty());
+            assertTrue(planRepository.findById(creado.getId()).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import com.example.ProyectoSpringBoot.service.CicloVidaSuscripcionService.EstadisticasCicloVida;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.ProyectoSpringBoot.support.ContadorConsultas.contar;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Estadísticas de ciclo de vida servidas desde contadores en memoria
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContadoresCicloVidaTest {
+
+    @Autowired
+    private CicloVidaSuscripcionService cicloVidaService;
+
+    @Autowired
+    private ContadoresCicloVida contadores;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UsuarioDTO usuario;
+
+    @BeforeEach
+    void setUp() {
+        contadores.reconciliar();
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("contadores@example.com")
+                .password("password123")
+                .nombre("Contadores")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Nested
+    @DisplayName("Eventos de cambio de estado")
+    class EventosTests {
+
+        @Test
+        @DisplayName("Alta, cancelación y baja mueven los contadores sin reconciliar")
+        void testCicloCompleto() {
+            EstadisticasCicloVida inicial = cicloVidaService.obtenerEstadisticas();
+
+            SuscripcionDTO suscripcion = crearSuscripcion();
+            assertEquals(inicial.activas() + 1, cicloVidaService.obtenerEstadisticas().activas());
+
+            cicloVidaService.cancelarSuscripcion(suscripcion.getId(), "test");
+            EstadisticasCicloVida cancelada = cicloVidaService.obtenerEstadisticas();
+            assertEquals(inicial.activas(), cancelada.activas());
+            assertEquals(inicial.canceladas() + 1, cancelada.canceladas());
+
+            usuarioService.delete(usuario.getId());
+            assertEquals(inicial, cicloVidaService.obtenerEstadisticas());
+        }
+
+        @Test
+        @DisplayName("Las estadísticas no consultan la BD")
+        void testLecturaEnMemoria() {
+            cicloVidaService.obtenerEstadisticas();
+
+            assertEquals(0, contar(cicloVidaService::obtenerEstadisticas));
+        }
+    }
+
+    @Nested
+    @DisplayName("Reconciliación")
+    class ReconciliacionTests {
+
+        @Test
+        @DisplayName("Un cambio hecho fuera de los servicios se corrige al reconciliar")
+        void testCorrigeDesviacion() {
+            SuscripcionDTO suscripcion = crearSuscripcion();
+            EstadisticasCicloVida antes = cicloVidaService.obtenerEstadisticas();
+
+            jdbcTemplate.update("UPDATE suscripciones SET estado = 'MOROSA' WHERE id = ?", suscripcion.getId());
+            assertEquals(antes, cicloVidaService.obtenerEstadisticas());
+
+            contadores.reconciliar();
+            EstadisticasCicloVida despues = cicloVidaService.obtenerEstadisticas();
+            assertEquals(antes.activas() - 1, despues.activas());
+            assertEquals(antes.morosas() + 1, despues.morosas());
+        }
+
+        @Test
+        @DisplayName("Un cambio confirmado durante el recuento no se cuenta dos veces")
+        void testEventoDuranteRecuento() {
+            SuscripcionRepository suscripciones = mock(SuscripcionRepository.class);
+            FacturaRepository facturas = mock(FacturaRepository.class);
+            when(facturas.contarPorEstado()).thenReturn(List.of());
+            ContadoresCicloVida aislados = new ContadoresCicloVida(suscripciones, facturas);
+            when(suscripciones.contarPorEstado()).thenReturn(List.<Object[]>of(new Object[]{EstadoSuscripcion.ACTIVA, 5L}));
+            aislados.reconciliar();
+
+            // El alta se confirma antes del recuento (ya cuenta 6) y su evento llega mientras se cuenta
+            when(suscripciones.contarPorEstado()).thenAnswer(i -> {
+                aislados.onCambioEstadoSuscripcion(new ContadoresCicloVida.CambioEstadoSuscripcion(1L, null, EstadoSuscripcion.ACTIVA));
+                return List.<Object[]>of(new Object[]{EstadoSuscripcion.ACTIVA, 6L}, new Object[]{EstadoSuscripcion.MOROSA, 1L});
+            });
+            aislados.reconciliar();
+            assertEquals(6, aislados.suscripciones(EstadoSuscripcion.ACTIVA));
+            // Los estados sin eventos sí se corrigen
+            assertEquals(1, aislados.suscripciones(EstadoSuscripcion.MOROSA));
+
+            // Una desviación real en ese estado se corrige en la siguiente pasada tranquila
+            when(suscripciones.contarPorEstado()).thenReturn(List.<Object[]>of(new Object[]{EstadoSuscripcion.ACTIVA, 4L}));
+            aislados.reconciliar();
+            assertEquals(4, aislados.suscripciones(EstadoSuscripcion.ACTIVA));
+        }
+    }
+
+    private SuscripcionDTO crearSuscripcion() {
+        return suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(planService.findAll().get(0).getId())
+                .fechaInicio(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow();
+    }
+}
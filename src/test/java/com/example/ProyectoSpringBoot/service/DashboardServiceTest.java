@@ -0,0 +1,165 @@
+package com.example.ProyectoSpringBoot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para DashboardService: secciones en paralelo, resultados parciales y caché del panel
+ */
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final FacturaService.EstadisticasFacturacion FACTURACION = new FacturaService.EstadisticasFacturacion(
+            10, 3, 6, 1, new BigDecimal("30.00"), new BigDecimal("60.00"), new BigDecimal("12.60"));
+    private static final CicloVidaSuscripcionService.EstadisticasCicloVida CICLO_VIDA =
+            new CicloVidaSuscripcionService.EstadisticasCicloVida(5, 1, 0, 2, 0, 3);
+    private static final AuditoriaService.EstadisticasAuditoria AUDITORIA =
+            new AuditoriaService.EstadisticasAuditoria(7, Map.of("Factura", 7L), Map.of("Creación", 7L));
+
+    @Mock
+    private FacturaService facturaService;
+
+    @Mock
+    private CicloVidaSuscripcionService cicloVidaService;
+
+    @Mock
+    private AuditoriaService auditoriaService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DashboardService dashboardService;
+
+    @AfterEach
+    void tearDown() {
+        if (dashboardService != null) {
+            dashboardService.detener();
+        }
+    }
+
+    private DashboardService crear(long timeoutMs, long cacheMs) {
+        dashboardService = new DashboardService(facturaService, cicloVidaService, auditoriaService,
+                meterRegistry, timeoutMs, cacheMs, 20);
+        return dashboardService;
+    }
+
+    private void seccionesRapidas() {
+        when(facturaService.getEstadisticas()).thenReturn(FACTURACION);
+        when(facturaService.getResumenPorEstado()).thenReturn(List.of());
+        when(cicloVidaService.obtenerEstadisticas()).thenReturn(CICLO_VIDA);
+        when(auditoriaService.obtenerEstadisticas()).thenReturn(AUDITORIA);
+        when(auditoriaService.obtenerCambiosRecientes(20)).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Con todas las secciones a tiempo el panel está completo")
+    void panelCompleto() {
+        seccionesRapidas();
+
+        DashboardService.Panel panel = crear(2000, 5000).obtener();
+
+        assertTrue(panel.completo());
+        assertEquals(FACTURACION, panel.facturacion());
+        assertEquals(CICLO_VIDA, panel.cicloVida());
+        assertEquals(AUDITORIA, panel.auditoria());
+        assertEquals(20, panel.limiteAuditoria());
+        assertTrue(panel.secciones().values().stream().allMatch(DashboardService.OK::equals));
+    }
+
+    @Test
+    @DisplayName("Las secciones se consultan a la vez: el panel tarda lo que la más lenta")
+    void seccionesEnParalelo() throws InterruptedException {
+        // Cada sección espera a que las cinco hayan empezado; en serie nunca llegarían
+        CountDownLatch empezadas = new CountDownLatch(5);
+        when(facturaService.getEstadisticas()).thenAnswer(i -> esperarTodas(empezadas, FACTURACION));
+        when(facturaService.getResumenPorEstado()).thenAnswer(i -> esperarTodas(empezadas, List.of()));
+        when(cicloVidaService.obtenerEstadisticas()).thenAnswer(i -> esperarTodas(empezadas, CICLO_VIDA));
+        when(auditoriaService.obtenerEstadisticas()).thenAnswer(i -> esperarTodas(empezadas, AUDITORIA));
+        when(auditoriaService.obtenerCambiosRecientes(20)).thenAnswer(i -> esperarTodas(empezadas, List.of()));
+
+        assertTrue(crear(5000, 5000).obtener().completo());
+    }
+
+    @Test
+    @DisplayName("Una sección lenta se sirve vacía con estado timeout y el resto llega igual")
+    void seccionLentaDaPanelParcial() {
+        seccionesRapidas();
+        when(auditoriaService.obtenerEstadisticas()).thenAnswer(i -> {
+            Thread.sleep(10_000);
+            return AUDITORIA;
+        });
+
+        long inicio = System.nanoTime();
+        DashboardService.Panel panel = crear(200, 5000).obtener();
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertFalse(panel.completo());
+        assertNull(panel.auditoria());
+        assertEquals(DashboardService.TIMEOUT, panel.secciones().get("auditoria"));
+        assertEquals(FACTURACION, panel.facturacion());
+        assertEquals(DashboardService.OK, panel.secciones().get("facturacion"));
+        assertTrue(ms < 5000, "El panel no debe esperar a la sección lenta: " + ms + " ms");
+        assertEquals(1, meterRegistry.get("dashboard.seccion").tag("seccion", "auditoria")
+                .tag("estado", DashboardService.TIMEOUT).timer().count());
+    }
+
+    @Test
+    @DisplayName("Una sección que falla se sirve vacía con estado error")
+    void seccionConErrorDaPanelParcial() {
+        seccionesRapidas();
+        when(cicloVidaService.obtenerEstadisticas()).thenThrow(new IllegalStateException("BD caída"));
+
+        DashboardService.Panel panel = crear(2000, 5000).obtener();
+
+        assertFalse(panel.completo());
+        assertNull(panel.cicloVida());
+        assertEquals(DashboardService.ERROR, panel.secciones().get("cicloVida"));
+        assertEquals(AUDITORIA, panel.auditoria());
+    }
+
+    @Test
+    @DisplayName("Dentro de cache-ms se reutiliza el panel sin volver a consultar")
+    void panelCacheado() {
+        seccionesRapidas();
+        DashboardService servicio = crear(2000, 60_000);
+
+        DashboardService.Panel primero = servicio.obtener();
+        DashboardService.Panel segundo = servicio.obtener();
+
+        assertSame(primero, segundo);
+        verify(facturaService, times(1)).getEstadisticas();
+        verify(auditoriaService, times(1)).obtenerCambiosRecientes(20);
+    }
+
+    @Test
+    @DisplayName("Con el panel caducado se calcula uno nuevo")
+    void panelCaducado() {
+        seccionesRapidas();
+        DashboardService servicio = crear(2000, 0);
+
+        servicio.obtener();
+        servicio.obtener();
+
+        verify(facturaService, times(2)).getEstadisticas();
+    }
+
+    private static <T> T esperarTodas(CountDownLatch empezadas, T valor) throws InterruptedException {
+        empezadas.countDown();
+        if (!empezadas.await(4, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Las secciones no se ejecutaron a la vez");
+        }
+        return valor;
+    }
+}
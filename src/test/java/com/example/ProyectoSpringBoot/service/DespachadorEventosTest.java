@@ -0,0 +1,98 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.entity.EventoOutbox;
+import com.example.ProyectoSpringBoot.repository.EventoOutboxRepository;
+import com.example.ProyectoSpringBoot.service.EventoDominio.PlanCambiado;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios de DespachadorEventos sobre un outbox simulado
+ */
+class DespachadorEventosTest {
+
+    private final EventoOutboxRepository outboxRepository = mock(EventoOutboxRepository.class);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private BusEventos bus;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        liberar.countDown();
+        bus.detener();
+    }
+
+    @Test
+    @DisplayName("Una pasada publica varios lotes aunque los anteriores sigan en vuelo")
+    void testVariosLotesPorPasada() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<EventoOutbox> filas = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            filas.add(EventoOutbox.builder().id(id).tipo("PlanCambiado").agregadoId(id)
+                    .payload(objectMapper.writeValueAsString(new PlanCambiado(id, 1L, 2L)))
+                    .fechaCreacion(LocalDateTime.now())
+                    .build());
+        }
+        List<Long> despachados = new ArrayList<>();
+        when(outboxRepository.findPendientes(anyLong(), any(Pageable.class))).thenAnswer(i -> {
+            long desde = i.getArgument(0);
+            Pageable pagina = i.getArgument(1);
+            return filas.stream()
+                    .filter(f -> f.getId() > desde && !despachados.contains(f.getId()))
+                    .limit(pagina.getPageSize())
+                    .toList();
+        });
+        when(outboxRepository.marcarDespachados(anyCollection(), any())).thenAnswer(i -> {
+            despachados.addAll(i.<Collection<Long>>getArgument(0));
+            return despachados.size();
+        });
+
+        // El consumidor no procesa nada hasta liberar: ningún lote se confirma durante la pasada
+        BusEventos.Consumidor bloqueado = new BusEventos.Consumidor() {
+            public String nombre() {
+                return "bloqueado";
+            }
+
+            public void procesar(BusEventos.Entrega entrega) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        bus = new BusEventos(List.of(bloqueado), new SimpleMeterRegistry(), 16, 1);
+        bus.iniciar();
+        DespachadorEventos despachador = new DespachadorEventos(outboxRepository, bus, objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 2, 7);
+
+        assertEquals(5, despachador.despachar());
+        assertTrue(despachados.isEmpty());
+
+        liberar.countDown();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (bus.procesadoPorTodos() < 4) {
+            assertTrue(System.nanoTime() < limite, "El consumidor no terminó");
+            Thread.sleep(5);
+        }
+        assertEquals(0, despachador.despachar());
+        assertEquals(LongStream.rangeClosed(1, 5).boxed().toList(), despachados);
+    }
+}
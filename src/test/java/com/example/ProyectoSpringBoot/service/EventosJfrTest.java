@@ -0,0 +1,162 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.PlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Eventos JFR de facturación, jobs, cambio de plan y auditoría, grabados con /actuator/jfr
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EventosJfrTest {
+
+    private static final String PREFIJO = "com.example.ProyectoSpringBoot.";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FacturacionScheduledService facturacionScheduledService;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    private UsuarioDTO usuario;
+    private Long suscripcionId;
+    private Long planCaroId;
+    private Path grabacion;
+
+    @BeforeEach
+    void setUp() {
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("jfr@example.com")
+                .password("password123")
+                .nombre("JFR")
+                .build());
+        List<Plan> planes = planRepository.findAll().stream()
+                .sorted(Comparator.comparing(Plan::getPrecioMensual)).toList();
+        planCaroId = planes.get(planes.size() - 1).getId();
+        suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(planes.get(0).getId())
+                .fechaInicio(LocalDate.now().minusDays(30))
+                .fechaProximoCobro(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        usuarioService.delete(usuario.getId());
+        if (grabacion != null) {
+            Files.deleteIfExists(grabacion);
+        }
+    }
+
+    @Test
+    @DisplayName("Una grabación iniciada y detenida por Actuator contiene los eventos con su suscripción")
+    void testGrabacion() throws Exception {
+        // default: los eventos propios sin los umbrales de facturacion.jfc
+        mockMvc.perform(post("/actuator/jfr/iniciar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"configuracion\": \"default\", \"minutos\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activa").value(true));
+        mockMvc.perform(post("/actuator/jfr/iniciar").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+
+        facturacionScheduledService.procesarFacturacionAutomatica();
+        suscripcionService.cambiarPlan(suscripcionId, planCaroId);
+        auditoriaService.obtenerHistorialSuscripciones(5);
+
+        String respuesta = mockMvc.perform(post("/actuator/jfr/detener").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        grabacion = Path.of(objectMapper.readTree(respuesta).get("archivo").asText());
+        mockMvc.perform(get("/actuator/jfr")).andExpect(jsonPath("$.activa").value(false));
+
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(grabacion);
+        RecordedEvent impuestos = evento(eventos, "FaseFacturacion", "fase", "impuestos", "mensual");
+        assertEquals("facturacionAutomatica", impuestos.getString("job"));
+        assertFalse(impuestos.getDuration().isNegative());
+        assertEquals("procesado", evento(eventos, "ElementoJob", "job", "facturacionAutomatica").getString("resultado"));
+        assertEquals("prorrateo", evento(eventos, "FaseFacturacion", "fase", "insercion", "prorrateo").getString("tipo"));
+        RecordedEvent cambio = evento(eventos, "CambioPlan", null, null);
+        assertTrue(cambio.getBoolean("aplicado"));
+        assertEquals(planCaroId, cambio.getLong("planNuevoId"));
+        assertTrue(eventos.stream().anyMatch(e -> e.getEventType().getName().equals(PREFIJO + "ConsultaAuditoria")
+                && "Suscripcion".equals(e.getString("entidad"))));
+    }
+
+    @Test
+    @DisplayName("/actuator/jfr rechaza las peticiones que no vienen de la propia máquina")
+    void testSoloLocal() throws Exception {
+        mockMvc.perform(post("/actuator/jfr/volcar").with(peticion -> {
+                    peticion.setRemoteAddr("10.0.0.5");
+                    return peticion;
+                }))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/jfr").with(peticion -> {
+                    peticion.setRemoteAddr("10.0.0.5");
+                    return peticion;
+                }))
+                .andExpect(status().isForbidden());
+    }
+
+    private RecordedEvent evento(List<RecordedEvent> eventos, String tipo, String campo, String valor) {
+        return evento(eventos, tipo, campo, valor, null);
+    }
+
+    // Evento de esta suscripción del tipo indicado, con campo = valor y, si se pide, de ese tipo de factura
+    private RecordedEvent evento(List<RecordedEvent> eventos, String tipo, String campo, String valor,
+                                 String tipoFactura) {
+        return eventos.stream()
+                .filter(e -> e.getEventType().getName().equals(PREFIJO + tipo))
+                .filter(e -> e.getLong("suscripcionId") == suscripcionId)
+                .filter(e -> campo == null || valor.equals(e.getString(campo)))
+                .filter(e -> tipoFactura == null || tipoFactura.equals(e.getString("tipo")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Sin evento " + tipo + " " + campo + "=" + valor));
+    }
+}
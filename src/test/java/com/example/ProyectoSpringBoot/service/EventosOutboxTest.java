@@ -0,0 +1,151 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.EventoOutbox;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.EventoOutboxRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Eventos de dominio guardados en el outbox y despachados al bus
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EventosOutboxTest {
+
+    @Autowired
+    private DespachadorEventos despachador;
+
+    @Autowired
+    private EventoOutboxRepository outboxRepository;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private SuscripcionRepository suscripcionRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UsuarioDTO usuario;
+    private Long suscripcionId;
+
+    @BeforeEach
+    void setUp() {
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("eventos@example.com")
+                .password("password123")
+                .nombre("Eventos")
+                .build());
+        suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(planService.findAll().get(0).getId())
+                .fechaInicio(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Nested
+    @DisplayName("Outbox")
+    class OutboxTests {
+
+        @Test
+        @DisplayName("Generar y pagar una factura deja sus eventos en el outbox")
+        void testEventosGuardados() {
+            Factura factura = generarFactura();
+            facturaService.marcarComoPagada(factura.getId());
+
+            // Facturas y suscripciones comparten espacio de ids: se filtra por tipo
+            List<String> tipos = eventosDe(factura.getId()).stream()
+                    .map(EventoOutbox::getTipo)
+                    .filter(tipo -> tipo.startsWith("Factura"))
+                    .toList();
+            assertEquals(List.of("FacturaGenerada", "FacturaPagada"), tipos);
+            assertTrue(eventosDe(suscripcionId).stream().anyMatch(e -> e.getTipo().equals("EstadoSuscripcionCambiado")));
+        }
+
+        @Test
+        @DisplayName("Si la transacción se deshace el evento tampoco queda")
+        void testRollback() {
+            long antes = outboxRepository.count();
+
+            transactionTemplate.executeWithoutResult(estado -> {
+                suscripcionService.generarFacturaMensual(suscripcionRepository.findById(suscripcionId).orElseThrow());
+                estado.setRollbackOnly();
+            });
+
+            assertEquals(antes, outboxRepository.count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Despacho")
+    class DespachoTests {
+
+        @Test
+        @DisplayName("Los eventos llegan a los consumidores y se marcan como despachados")
+        void testDespacho() throws InterruptedException {
+            double pagadasAntes = meterRegistry.counter("facturacion.facturas.pagadas").count();
+            Factura factura = generarFactura();
+            facturaService.marcarComoPagada(factura.getId());
+
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (eventosDe(factura.getId()).stream().anyMatch(e -> e.getFechaDespacho() == null)) {
+                assertTrue(System.nanoTime() < limite, "Eventos sin despachar");
+                despachador.despachar();
+                Thread.sleep(20);
+            }
+
+            assertTrue(meterRegistry.counter("facturacion.facturas.pagadas").count() >= pagadasAntes + 1);
+        }
+    }
+
+    private Factura generarFactura() {
+        return transactionTemplate.execute(estado ->
+                suscripcionService.generarFacturaMensual(suscripcionRepository.findById(suscripcionId).orElseThrow()));
+    }
+
+    private List<EventoOutbox> eventosDe(Long agregadoId) {
+        return outboxRepository.findAll().stream()
+                .filter(e -> agregadoId.equals(e.getAgregadoId()))
+                .toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository.TotalesFacturacion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios de FacturaService: caché de estadísticas
+ */
+@ExtendWith(MockitoExtension.class)
+class FacturaServiceTest {
+
+    @Mock
+    private FacturaRepository facturaRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PublicadorEventos publicadorEventos;
+
+    @Mock
+    private ResumenMensualFacturas resumenMensual;
+
+    @Mock
+    private ImpuestoService impuestoService;
+
+    @Mock
+    private TotalesFacturacion totales;
+
+    @InjectMocks
+    private FacturaService facturaService;
+
+    @Nested
+    @DisplayName("Tests de estadísticas")
+    class EstadisticasTests {
+
+        @Test
+        @DisplayName("Dentro del TTL se reutiliza el resultado sin volver a consultar")
+        void testCacheDentroDelTtl() {
+            when(totales.getTotal()).thenReturn(3L);
+            when(facturaRepository.getTotales(any(), any(), any())).thenReturn(totales);
+
+            var primera = facturaService.getEstadisticas();
+            var segunda = facturaService.getEstadisticas();
+
+            assertSame(primera, segunda);
+            assertEquals(3, primera.totalFacturas());
+            assertEquals(BigDecimal.ZERO, primera.totalPendiente());
+            verify(facturaRepository, times(1)).getTotales(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Peticiones concurrentes comparten una única consulta en vuelo")
+        void testCoalescencia() throws Exception {
+            CountDownLatch consultando = new CountDownLatch(1);
+            CountDownLatch liberar = new CountDownLatch(1);
+            when(facturaRepository.getTotales(any(), any(), any())).thenAnswer(inv -> {
+                consultando.countDown();
+                liberar.await(5, TimeUnit.SECONDS);
+                return totales;
+            });
+
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<FacturaService.EstadisticasFacturacion>> resultados = new ArrayList<>();
+                resultados.add(pool.submit(facturaService::getEstadisticas));
+                assertTrue(consultando.await(5, TimeUnit.SECONDS));
+                for (int i = 0; i < 7; i++) {
+                    resultados.add(pool.submit(facturaService::getEstadisticas));
+                }
+                liberar.countDown();
+
+                var primera = resultados.get(0).get(5, TimeUnit.SECONDS);
+                for (var resultado : resultados) {
+                    assertSame(primera, resultado.get(5, TimeUnit.SECONDS));
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            verify(facturaRepository, times(1)).getTotales(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Un error no se cachea: la siguiente petición vuelve a consultar")
+        void testErrorNoCacheado() {
+            when(facturaRepository.getTotales(any(), any(), any()))
+                    .thenThrow(new IllegalStateException("BD caída"))
+                    .thenReturn(totales);
+
+            assertThrows(IllegalStateException.class, facturaService::getEstadisticas);
+            assertNotNull(facturaService.getEstadisticas());
+            verify(facturaRepository, times(2)).getTotales(any(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.config.GeneradorDatosSinteticos;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carga sintética por JDBC y job de facturación sobre esos datos
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FacturacionSinteticaTest {
+
+    private static final int SUSCRIPCIONES = 300;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ImpuestoService impuestoService;
+
+    @Autowired
+    private FacturacionScheduledService facturacionScheduledService;
+
+    @Autowired
+    private ContadoresCicloVida contadores;
+
+    @Autowired
+    private ResumenMensualFacturas resumenMensual;
+
+    private JdbcTemplate jdbc;
+    private GeneradorDatosSinteticos.Resumen resumen;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        resumen = new GeneradorDatosSinteticos(dataSource, impuestoService, "hash-no-usado", 42, 64)
+                .generar(SUSCRIPCIONES, 6);
+    }
+
+    @AfterEach
+    void tearDown() {
+        String usuarios = " BETWEEN " + resumen.primerUsuarioId() + " AND " + resumen.ultimoUsuarioId();
+        jdbc.update("DELETE FROM facturas WHERE suscripcion_id IN (SELECT id FROM suscripciones WHERE usuario_id" + usuarios + ")");
+        jdbc.update("DELETE FROM suscripciones WHERE usuario_id" + usuarios);
+        jdbc.update("DELETE FROM metodos_pago WHERE usuario_id" + usuarios);
+        jdbc.update("DELETE FROM perfiles WHERE usuario_id" + usuarios);
+        jdbc.update("DELETE FROM usuarios WHERE id" + usuarios);
+        contadores.reconciliar();
+        resumenMensual.reconstruir(resumen.desde(), resumen.hasta());
+    }
+
+    @Test
+    @DisplayName("Carga usuarios completos con historial y países de la tabla de impuestos")
+    void testCarga() {
+        assertEquals(SUSCRIPCIONES, resumen.ultimoUsuarioId() - resumen.primerUsuarioId() + 1);
+        assertEquals(SUSCRIPCIONES, contar("SELECT COUNT(*) FROM suscripciones WHERE usuario_id BETWEEN ? AND ?"));
+        assertEquals(SUSCRIPCIONES, contar("SELECT COUNT(*) FROM metodos_pago WHERE usuario_id BETWEEN ? AND ?"));
+        assertEquals(resumen.facturas(), contar("SELECT COUNT(*) FROM facturas f JOIN suscripciones s ON s.id = f.suscripcion_id " +
+                "WHERE s.usuario_id BETWEEN ? AND ?"));
+        assertEquals(SUSCRIPCIONES, contar("SELECT COUNT(*) FROM perfiles WHERE usuario_id BETWEEN ? AND ?"));
+
+        // Las facturas guardan el país ya normalizado; los perfiles, tal como lo escribió el usuario
+        List<String> paises = jdbc.queryForList("SELECT DISTINCT f.pais_facturacion FROM facturas f " +
+                "JOIN suscripciones s ON s.id = f.suscripcion_id WHERE s.usuario_id BETWEEN ? AND ?",
+                String.class, resumen.primerUsuarioId(), resumen.ultimoUsuarioId());
+        assertTrue(paises.containsAll(List.of("ES", "MX", "DE", "US")));
+        assertTrue(paises.stream().allMatch(pais -> pais.length() == 2));
+    }
+
+    @Test
+    @DisplayName("La facturación automática cobra todas las suscripciones activas con renovación que vencen hoy")
+    void testFacturacionAutomatica() {
+        String vencidas = "SELECT COUNT(*) FROM suscripciones WHERE usuario_id BETWEEN ? AND ? " +
+                "AND estado = 'ACTIVA' AND renovacion_automatica = true AND fecha_proximo_cobro <= CURRENT_DATE";
+        long pendientes = contar(vencidas);
+        assertTrue(pendientes > 0, "La semilla debería dejar alguna suscripción con cobro hoy");
+        String facturas = "SELECT COUNT(*) FROM facturas f JOIN suscripciones s ON s.id = f.suscripcion_id " +
+                "WHERE s.usuario_id BETWEEN ? AND ?";
+        long facturasAntes = contar(facturas);
+
+        facturacionScheduledService.procesarFacturacionAutomatica();
+
+        assertEquals(0, contar(vencidas));
+        assertEquals(facturasAntes + pendientes, contar(facturas));
+    }
+
+    private long contar(String sql) {
+        Long total = jdbc.queryForObject(sql, Long.class, resumen.primerUsuarioId(), resumen.ultimoUsuarioId());
+        return total != null ? total : 0;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.enums.EstadoTrabajo;
+import com.example.ProyectoSpringBoot.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para GestorJobs: encolado, progreso, cancelación, un trabajo por tipo y cola acotada.
+ * Los jobs de los servicios se sustituyen por uno que recorre elementos con MonitorJobs real
+ */
+@ExtendWith(MockitoExtension.class)
+class GestorJobsTest {
+
+    @Mock
+    private FacturacionScheduledService facturacionScheduledService;
+
+    @Mock
+    private CicloVidaSuscripcionService cicloVidaService;
+
+    private MonitorJobs monitorJobs;
+    private GestorJobs gestorJobs;
+
+    // El job de prueba espera a esta señal antes de cada elemento a partir del segundo
+    private final CountDownLatch continuar = new CountDownLatch(1);
+    private final CountDownLatch empezado = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        monitorJobs = new MonitorJobs(new SimpleMeterRegistry(), 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        continuar.countDown();
+        if (gestorJobs != null) {
+            gestorJobs.detener();
+        }
+    }
+
+    private GestorJobs crear(int hilos, int cola) {
+        gestorJobs = new GestorJobs(facturacionScheduledService, cicloVidaService, monitorJobs,
+                new SimpleMeterRegistry(), hilos, cola, 100);
+        return gestorJobs;
+    }
+
+    // Job de 10 elementos: procesa el primero y espera a continuar para el resto
+    private void jobFacturacion() {
+        doAnswer(i -> monitorJobs.ejecutar("facturacionAutomatica", ejecucion -> {
+            ejecucion.total(10);
+            for (int n = 0; n < 10; n++) {
+                if (ejecucion.cancelada()) {
+                    break;
+                }
+                ejecucion.elemento((long) n, null);
+                if (n == 1) {
+                    empezado.countDown();
+                    esperar(continuar);
+                }
+                ejecucion.procesado();
+            }
+        })).when(facturacionScheduledService).procesarFacturacionAutomatica();
+    }
+
+    private GestorJobs.Trabajo esperarFin(String id) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < limite) {
+            GestorJobs.Trabajo trabajo = gestorJobs.trabajo(id).orElseThrow();
+            if (trabajo.estado().terminado()) {
+                return trabajo;
+            }
+            Thread.sleep(10);
+        }
+        fail("El trabajo " + id + " no terminó");
+        return null;
+    }
+
+    @Test
+    @DisplayName("Enviar devuelve el id al momento y el trabajo termina con el resultado del job")
+    void trabajoCompleto() throws InterruptedException {
+        jobFacturacion();
+        crear(2, 4);
+
+        GestorJobs.Envio envio = gestorJobs.enviar(GestorJobs.FACTURACION);
+        assertTrue(envio.nuevo());
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+
+        GestorJobs.Trabajo enCurso = gestorJobs.trabajo(envio.trabajo().id()).orElseThrow();
+        assertEquals(EstadoTrabajo.EN_CURSO, enCurso.estado());
+        assertEquals("facturacionAutomatica", enCurso.job());
+        assertEquals(10, enCurso.progreso().total());
+        assertEquals(1, enCurso.progreso().hechos());
+        assertNull(enCurso.resultado());
+
+        continuar.countDown();
+        GestorJobs.Trabajo terminado = esperarFin(envio.trabajo().id());
+        assertEquals(EstadoTrabajo.COMPLETADO, terminado.estado());
+        assertEquals("completada", terminado.resultado().resultado());
+        assertEquals(10, terminado.resultado().procesados());
+        assertEquals(0L, terminado.progreso().etaSegundos());
+    }
+
+    @Test
+    @DisplayName("Solo hay un trabajo de cada tipo: enviar otro devuelve el que está en curso")
+    void unTrabajoPorTipo() throws InterruptedException {
+        jobFacturacion();
+        crear(2, 4);
+
+        GestorJobs.Envio primero = gestorJobs.enviar(GestorJobs.FACTURACION);
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+        GestorJobs.Envio segundo = gestorJobs.enviar(GestorJobs.FACTURACION);
+
+        assertFalse(segundo.nuevo());
+        assertEquals(primero.trabajo().id(), segundo.trabajo().id());
+
+        continuar.countDown();
+        esperarFin(primero.trabajo().id());
+        assertTrue(gestorJobs.enviar(GestorJobs.FACTURACION).nuevo());
+    }
+
+    @Test
+    @DisplayName("Cancelar un trabajo en curso para el job tras el elemento actual")
+    void cancelarEnCurso() throws InterruptedException {
+        jobFacturacion();
+        crear(2, 4);
+
+        String id = gestorJobs.enviar(GestorJobs.FACTURACION).trabajo().id();
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+        gestorJobs.cancelar(id);
+        continuar.countDown();
+
+        GestorJobs.Trabajo trabajo = esperarFin(id);
+        assertEquals(EstadoTrabajo.CANCELADO, trabajo.estado());
+        assertEquals("cancelada", trabajo.resultado().resultado());
+        assertEquals(2, trabajo.resultado().procesados());
+        assertEquals("cancelada", monitorJobs.historial("facturacionAutomatica").get(0).resultado());
+    }
+
+    @Test
+    @DisplayName("Con el pool ocupado los trabajos esperan en cola, se pueden cancelar y con la cola llena se rechazan")
+    void colaAcotada() throws InterruptedException {
+        jobFacturacion();
+        crear(1, 1);
+
+        gestorJobs.enviar(GestorJobs.FACTURACION);
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+        GestorJobs.Trabajo enCola = gestorJobs.enviar(GestorJobs.RENOVACIONES).trabajo();
+        assertEquals(EstadoTrabajo.EN_COLA, enCola.estado());
+
+        assertThrows(ServicioSaturadoException.class, () -> gestorJobs.enviar(GestorJobs.MOROSOS));
+
+        assertEquals(EstadoTrabajo.CANCELADO, gestorJobs.cancelar(enCola.id()).orElseThrow().estado());
+        // Su sitio en la cola queda libre
+        assertTrue(gestorJobs.enviar(GestorJobs.MOROSOS).nuevo());
+        continuar.countDown();
+        verify(cicloVidaService, never()).procesarRenovacionesAutomaticas();
+    }
+
+    @Test
+    @DisplayName("Si la programación ya está corriendo el job, el trabajo termina como fallido")
+    void jobYaEnCursoPorLaProgramacion() throws InterruptedException {
+        doAnswer(i -> monitorJobs.ejecutar("expiraciones", ejecucion -> {}))
+                .when(cicloVidaService).procesarExpiraciones();
+        crear(2, 4);
+
+        CountDownLatch programadoEnCurso = new CountDownLatch(1);
+        CountDownLatch terminarProgramado = new CountDownLatch(1);
+        Thread programado = Thread.ofVirtual().start(() -> monitorJobs.ejecutar("expiraciones", ejecucion -> {
+            programadoEnCurso.countDown();
+            esperar(terminarProgramado);
+        }));
+        assertTrue(programadoEnCurso.await(5, TimeUnit.SECONDS));
+
+        GestorJobs.Trabajo trabajo = esperarFin(gestorJobs.enviar(GestorJobs.EXPIRACIONES).trabajo().id());
+        terminarProgramado.countDown();
+        programado.join();
+
+        assertEquals(EstadoTrabajo.FALLIDO, trabajo.estado());
+        assertNotNull(trabajo.error());
+        assertNull(trabajo.resultado());
+    }
+
+    @Test
+    @DisplayName("Un tipo de trabajo desconocido se rechaza")
+    void tipoDesconocido() {
+        crear(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> gestorJobs.enviar("inexistente"));
+    }
+
+    private static void esperar(CountDownLatch senal) {
+        try {
+            senal.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
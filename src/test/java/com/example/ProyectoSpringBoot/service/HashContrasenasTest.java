@@ -0,0 +1,107 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.exception.ServicioSaturadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pool acotado de BCrypt: resultados, rechazo rápido y métricas
+ */
+class HashContrasenasTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private HashContrasenas hashContrasenas;
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        hashContrasenas.cerrar();
+    }
+
+    @Nested
+    @DisplayName("Tests de hash")
+    class HashTests {
+
+        @Test
+        @DisplayName("Codifica y verifica con BCrypt en el pool")
+        void testCodificarYVerificar() {
+            hashContrasenas = new HashContrasenas(new BCryptPasswordEncoder(4), registry, 2, 4, 5_000);
+
+            String hash = hashContrasenas.codificar("password123");
+
+            assertTrue(hashContrasenas.coincide("password123", hash));
+            assertFalse(hashContrasenas.coincide("otra", hash));
+            assertEquals(1, registry.get("hash.latencia").tag("operacion", "codificar").timer().count());
+            assertEquals(2, registry.get("hash.latencia").tag("operacion", "verificar").timer().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests de saturación")
+    class SaturacionTests {
+
+        @Test
+        @DisplayName("Con el hilo ocupado y la cola llena rechaza al momento")
+        void testColaLlena() throws Exception {
+            hashContrasenas = new HashContrasenas(encoderBloqueado(), registry, 1, 1, 5_000);
+
+            // Uno calculando y otro en cola
+            CompletableFuture.runAsync(() -> hashContrasenas.codificar("a"));
+            esperarHasta(() -> registry.get("hash.activos").gauge().value() == 1);
+            CompletableFuture.runAsync(() -> hashContrasenas.codificar("b"));
+            esperarHasta(() -> registry.get("hash.cola").gauge().value() == 1);
+
+            assertThrows(ServicioSaturadoException.class, () -> hashContrasenas.codificar("c"));
+            assertEquals(1, registry.get("hash.rechazos").counter().count());
+        }
+
+        @Test
+        @DisplayName("Si el cálculo no termina a tiempo responde saturado")
+        void testEsperaMaxima() {
+            hashContrasenas = new HashContrasenas(encoderBloqueado(), registry, 1, 1, 50);
+
+            assertThrows(ServicioSaturadoException.class, () -> hashContrasenas.codificar("a"));
+        }
+    }
+
+    // Encoder que no termina hasta que el test lo libera
+    private PasswordEncoder encoderBloqueado() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicion.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "La condición no se cumplió a tiempo");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ProyectoSpringBoot.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Jobs programados instrumentados y expuestos por Actuator
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CicloVidaSuscripcionService cicloVidaService;
+
+    @Test
+    @DisplayName("Una ejecución de un job aparece en /actuator/jobs y en las métricas")
+    void testHistorialYMetricas() throws Exception {
+        cicloVidaService.procesarSuspensiones();
+
+        mockMvc.perform(get("/actuator/jobs/suspensiones"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].job").value("suspensiones"))
+                .andExpect(jsonPath("$[0].resultado").value("completada"))
+                .andExpect(jsonPath("$[0].fasesMs.consulta").exists());
+        mockMvc.perform(get("/actuator/jobs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].job", hasItem("suspensiones")));
+        mockMvc.perform(get("/actuator/metrics/jobs.duracion").param("tag", "job:suspensiones"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/jobs.ultimo.exito").param("tag", "job:suspensiones"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.EventoOutbox;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.enums.ResultadoLiquidacion;
+import com.example.ProyectoSpringBoot.repository.EventoOutboxRepository;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import com.example.ProyectoSpringBoot.service.LiquidacionFacturas.Liquidacion;
+import com.example.ProyectoSpringBoot.service.LiquidacionFacturas.Pago;
+import com.example.ProyectoSpringBoot.service.ResumenMensualFacturas.TotalesPeriodo;
+import jakarta.persistence.EntityManager;
+import org.hibernate.envers.AuditReaderFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Liquidación masiva de pagos por lotes (lote de 2 para que cada prueba cruce varios)
+ */
+@SpringBootTest(properties = "app.facturas.liquidacion.lote=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LiquidacionFacturasTest {
+
+    private static final YearMonth MES = YearMonth.now();
+
+    @Autowired
+    private LiquidacionFacturas liquidacion;
+
+    @Autowired
+    private ResumenMensualFacturas resumenMensual;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private EventoOutboxRepository outboxRepository;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private SuscripcionRepository suscripcionRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private UsuarioDTO usuario;
+    private List<Factura> facturas;
+
+    @BeforeEach
+    void setUp() {
+        resumenMensual.reconstruir(MES, MES);
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("liquidacion@example.com")
+                .password("password123")
+                .nombre("Liquidacion")
+                .pais("ES")
+                .build());
+        Long suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(planService.findAll().get(0).getId())
+                .fechaInicio(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+        facturas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            facturas.add(transactionTemplate.execute(estado -> suscripcionService.generarFacturaMensual(
+                    suscripcionRepository.findById(suscripcionId).orElseThrow())));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Test
+    @DisplayName("Cada pago recibe su resultado y los aplicados dejan estado, resumen, eventos y auditoría al día")
+    void testResultadosPorPago() {
+        TotalesPeriodo inicial = resumenMensual.totalesPagados(MES.atDay(1), MES.atEndOfMonth());
+        Factura f0 = facturas.get(0);
+        Factura f1 = facturas.get(1);
+        Factura f2 = facturas.get(2);
+        LocalDate ayer = LocalDate.now().minusDays(1);
+
+        Liquidacion resultado = liquidacion.liquidar(Arrays.asList(
+                new Pago(f0.getId(), null, f0.getTotal(), ayer, null),
+                new Pago(null, f1.getNumeroFactura(), f1.getTotal(), null, "transferencia"),
+                new Pago(f1.getId(), null, f1.getTotal(), null, null),
+                new Pago(f2.getId(), null, f2.getTotal().add(BigDecimal.ONE), null, null),
+                new Pago(Long.MAX_VALUE, null, BigDecimal.TEN, null, null),
+                new Pago(null, null, BigDecimal.TEN, null, null),
+                new Pago(f2.getId(), null, f2.getTotal(), null, "bitcoin"),
+                new Pago(f2.getId(), f2.getNumeroFactura(), f2.getTotal(), null, null),
+                null).iterator());
+
+        assertNull(resultado.error());
+        assertEquals(9, resultado.pagos());
+        assertEquals(List.of(ResultadoLiquidacion.PAGADA, ResultadoLiquidacion.PAGADA, ResultadoLiquidacion.YA_PAGADA,
+                        ResultadoLiquidacion.IMPORTE_INCORRECTO, ResultadoLiquidacion.NO_ENCONTRADA,
+                        ResultadoLiquidacion.INVALIDA, ResultadoLiquidacion.INVALIDA, ResultadoLiquidacion.INVALIDA,
+                        ResultadoLiquidacion.INVALIDA),
+                resultado.resultados().stream().map(LiquidacionFacturas.ResultadoPago::resultado).toList());
+        assertEquals(f1.getId(), resultado.resultados().get(1).facturaId());
+        assertEquals(2L, resultado.resumen().get(ResultadoLiquidacion.PAGADA));
+        assertEquals("Indique facturaId o numeroFactura, no ambos", resultado.resultados().get(7).mensaje());
+        // El usuario no tiene transferencias registradas: se paga igual, con aviso
+        assertNotNull(resultado.resultados().get(1).mensaje());
+        assertEquals("Indique facturaId o numeroFactura", resultado.resultados().get(5).mensaje());
+
+        Factura pagada = facturaRepository.findById(f0.getId()).orElseThrow();
+        assertEquals(EstadoFactura.PAGADA, pagada.getEstado());
+        assertEquals(ayer.atStartOfDay(), pagada.getFechaPago());
+        assertEquals(EstadoFactura.PAGADA, facturaRepository.findById(f1.getId()).orElseThrow().getEstado());
+        assertEquals(EstadoFactura.PENDIENTE, facturaRepository.findById(f2.getId()).orElseThrow().getEstado());
+
+        TotalesPeriodo pagado = resumenMensual.totalesPagados(MES.atDay(1), MES.atEndOfMonth());
+        assertEquals(0, inicial.totalFacturado().add(f0.getTotal()).add(f1.getTotal()).compareTo(pagado.totalFacturado()));
+
+        List<Long> eventos = outboxRepository.findAll().stream()
+                .filter(e -> e.getTipo().equals("FacturaPagada"))
+                .map(EventoOutbox::getAgregadoId)
+                .toList();
+        assertTrue(eventos.containsAll(List.of(f0.getId(), f1.getId())));
+        assertFalse(eventos.contains(f2.getId()));
+
+        // Los dos pagos del primer lote comparten revisión de Envers
+        transactionTemplate.executeWithoutResult(estado -> {
+            var reader = AuditReaderFactory.get(entityManager);
+            List<Number> revisiones0 = reader.getRevisions(Factura.class, f0.getId());
+            List<Number> revisiones1 = reader.getRevisions(Factura.class, f1.getId());
+            assertEquals(revisiones0.get(revisiones0.size() - 1), revisiones1.get(revisiones1.size() - 1));
+        });
+    }
+
+    @Test
+    @DisplayName("Si un lote no se puede confirmar, sus pagos se reintentan uno a uno")
+    void testLoteFallidoPagoAPago() {
+        Factura f0 = facturas.get(0);
+        Factura f1 = facturas.get(1);
+        // Concepto vacío: la validación de la entidad rechaza el UPDATE de f1 al confirmar
+        jdbcTemplate.update("UPDATE facturas SET concepto = '' WHERE id = ?", f1.getId());
+
+        Liquidacion resultado = liquidacion.liquidar(List.of(
+                new Pago(f0.getId(), null, f0.getTotal(), null, null),
+                new Pago(f1.getId(), null, f1.getTotal(), null, null)).iterator());
+
+        assertEquals(ResultadoLiquidacion.PAGADA, resultado.resultados().get(0).resultado());
+        assertEquals(ResultadoLiquidacion.ERROR, resultado.resultados().get(1).resultado());
+        assertEquals(EstadoFactura.PAGADA, facturaRepository.findById(f0.getId()).orElseThrow().getEstado());
+        assertEquals(EstadoFactura.PENDIENTE, facturaRepository.findById(f1.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    @DisplayName("POST /api/facturas/liquidar acepta NDJSON y un array JSON cortado aplica lo leído")
+    void testEndpoint() throws Exception {
+        Factura f0 = facturas.get(0);
+        Factura f1 = facturas.get(1);
+        Factura f2 = facturas.get(2);
+
+        String ndjson = "{\"facturaId\":" + f0.getId() + ",\"importe\":" + f0.getTotal() + "}\n"
+                + "{\"numeroFactura\":\"" + f1.getNumeroFactura() + "\",\"importe\":" + f1.getTotal() + "}\n";
+        mockMvc.perform(post("/api/facturas/liquidar").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pagos").value(2))
+                .andExpect(jsonPath("$.resumen.PAGADA").value(2))
+                .andExpect(jsonPath("$.resultados[1].facturaId").value(f1.getId()));
+
+        String cortado = "[{\"facturaId\":" + f2.getId() + ",\"importe\":" + f2.getTotal() + "}, {\"facturaId\": ";
+        mockMvc.perform(post("/api/facturas/liquidar").contentType(MediaType.APPLICATION_JSON).content(cortado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pagos").value(1))
+                .andExpect(jsonPath("$.resultados[0].resultado").value("PAGADA"))
+                .andExpect(jsonPath("$.error").isNotEmpty());
+        assertEquals(EstadoFactura.PAGADA, facturaRepository.findById(f2.getId()).orElseThrow().getEstado());
+    }
+}
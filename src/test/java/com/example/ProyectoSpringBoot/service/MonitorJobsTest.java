@@ -0,0 +1,126 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.service.MonitorJobs.EjecucionJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios de MonitorJobs: métricas, historial y fin de ejecución al confirmar
+ */
+class MonitorJobsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MonitorJobs monitor = new MonitorJobs(meterRegistry, 3);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("Métricas")
+    class MetricasTests {
+
+        @Test
+        @DisplayName("Cuenta elementos por resultado, mide fases y deja pendientes a cero")
+        void testEjecucionCompleta() {
+            monitor.ejecutar("prueba", ejecucion -> {
+                List<Integer> elementos = ejecucion.fase("consulta", () -> List.of(1, 2, 3, 4));
+                ejecucion.total(elementos.size());
+                ejecucion.procesado();
+                ejecucion.procesado();
+                assertEquals(2.0, pendientes("prueba"));
+                ejecucion.omitido();
+                ejecucion.fallido();
+                monitor.registrarFase("impuestos", System.nanoTime());
+            });
+
+            assertEquals(2.0, elementos("procesado"));
+            assertEquals(1.0, elementos("omitido"));
+            assertEquals(1.0, elementos("fallido"));
+            assertEquals(0.0, pendientes("prueba"));
+            assertEquals(1, meterRegistry.get("jobs.fase").tags("job", "prueba", "fase", "consulta").timer().count());
+            assertEquals(1, meterRegistry.get("jobs.fase").tags("job", "prueba", "fase", "impuestos").timer().count());
+            assertEquals(1, meterRegistry.get("jobs.duracion").tags("job", "prueba", "resultado", "completada").timer().count());
+            assertTrue(meterRegistry.get("jobs.ultimo.exito").tag("job", "prueba").gauge().value() > 0);
+
+            EjecucionJob registro = monitor.historial("prueba").get(0);
+            assertEquals(4, registro.total());
+            assertEquals(List.of("consulta", "impuestos"), List.copyOf(registro.fasesMs().keySet()));
+        }
+
+        @Test
+        @DisplayName("Un job que lanza una excepción queda como fallido y no actualiza el último éxito")
+        void testEjecucionFallida() {
+            assertThrows(IllegalStateException.class, () -> monitor.ejecutar("roto", ejecucion -> {
+                throw new IllegalStateException("fallo");
+            }));
+
+            EjecucionJob registro = monitor.historial("roto").get(0);
+            assertEquals("fallida", registro.resultado());
+            assertTrue(registro.error().contains("fallo"));
+            assertTrue(meterRegistry.find("jobs.ultimo.exito").tag("job", "roto").gauges().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Sin job en curso registrarFase no hace nada")
+        void testFaseSinJob() {
+            monitor.registrarFase("impuestos", System.nanoTime());
+            monitor.medirConfirmacion();
+
+            assertNull(meterRegistry.find("jobs.fase").timer());
+        }
+    }
+
+    @Nested
+    @DisplayName("Historial")
+    class HistorialTests {
+
+        @Test
+        @DisplayName("Guarda solo las últimas ejecuciones, la más reciente primero")
+        void testLimite() {
+            for (int i = 0; i < 5; i++) {
+                int total = i;
+                monitor.ejecutar(i % 2 == 0 ? "par" : "impar", ejecucion -> ejecucion.total(total));
+            }
+
+            assertEquals(List.of(4L, 3L, 2L), monitor.historial(null).stream().map(EjecucionJob::total).toList());
+            assertEquals(List.of(4L, 2L), monitor.historial("par").stream().map(EjecucionJob::total).toList());
+        }
+
+        @Test
+        @DisplayName("Dentro de una transacción la ejecución termina al confirmar, con la fase confirmacion")
+        void testConfirmacion() {
+            TransactionSynchronizationManager.initSynchronization();
+            monitor.ejecutar("transaccional", ejecucion -> ejecucion.total(1));
+            assertTrue(monitor.historial("transaccional").isEmpty());
+
+            List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+            sincronizaciones.forEach(s -> s.beforeCommit(false));
+            sincronizaciones.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            EjecucionJob registro = monitor.historial("transaccional").get(0);
+            assertEquals("completada", registro.resultado());
+            assertTrue(registro.fasesMs().containsKey("confirmacion"));
+        }
+    }
+
+    private double elementos(String resultado) {
+        return meterRegistry.get("jobs.elementos").tags("job", "prueba", "resultado", resultado).counter().count();
+    }
+
+    private double pendientes(String job) {
+        return meterRegistry.get("jobs.pendientes").tag("job", job).gauge().value();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.FacturaDTO;
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * País de facturación y regla de impuesto guardados en la factura
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaisFacturacionTest {
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private SuscripcionRepository suscripcionRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private RellenoPaisFacturacion rellenoPaisFacturacion;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UsuarioDTO usuario;
+    private Factura factura;
+
+    @BeforeEach
+    void setUp() {
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("pais@example.com")
+                .password("password123")
+                .nombre("País")
+                .pais("Portugal")
+                .build());
+        Long suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(planService.findAll().get(0).getId())
+                .fechaInicio(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+        factura = transactionTemplate.execute(estado ->
+                suscripcionService.generarFacturaMensual(suscripcionRepository.findById(suscripcionId).orElseThrow()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Nested
+    @DisplayName("Generación")
+    class GeneracionTests {
+
+        @Test
+        @DisplayName("La factura guarda el país normalizado y la regla aplicada")
+        void testPaisYReglaAlGenerar() {
+            assertEquals("PT", factura.getPaisFacturacion());
+            assertEquals("IVA-PT-23.00", factura.getReglaImpuesto());
+        }
+
+        @Test
+        @DisplayName("El filtro por país acepta nombre o código y no depende del perfil actual")
+        void testFiltroPorPais() {
+            usuarioService.update(usuario.getId(), UsuarioDTO.builder().pais("Francia").build());
+
+            assertTrue(facturaService.findByPaisFacturacion("portugal").stream()
+                    .map(FacturaDTO::getId).anyMatch(factura.getId()::equals));
+            assertTrue(facturaService.findByPaisFacturacion("FR").stream()
+                    .map(FacturaDTO::getId).noneMatch(factura.getId()::equals));
+        }
+    }
+
+    @Nested
+    @DisplayName("Relleno de facturas antiguas")
+    class RellenoTests {
+
+        @Test
+        @DisplayName("Rellena por lotes las facturas sin país usando la tasa guardada")
+        void testRelleno() {
+            jdbcTemplate.update("UPDATE facturas SET pais_facturacion = NULL, regla_impuesto = NULL WHERE id = ?", factura.getId());
+
+            assertTrue(rellenoPaisFacturacion.ejecutar(1) >= 1);
+
+            Factura rellenada = facturaRepository.findById(factura.getId()).orElseThrow();
+            assertEquals("PT", rellenada.getPaisFacturacion());
+            assertEquals("IVA-PT-23.00", rellenada.getReglaImpuesto());
+            assertEquals(0, rellenoPaisFacturacion.ejecutar(1));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.config.JpaAuditingConfig;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.Perfil;
+import com.example.ProyectoSpringBoot.entity.Plan;
+import com.example.ProyectoSpringBoot.entity.Suscripcion;
+import com.example.ProyectoSpringBoot.entity.Usuario;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.enums.TipoPlan;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.example.ProyectoSpringBoot.support.ContadorConsultas.assertMaxConsultas;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Presupuesto de consultas de los endpoints de lectura.
+ * Las listas deben costar O(1) consultas sin importar cuántas filas devuelvan.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaAuditingConfig.class, BCryptPasswordEncoder.class, SimpleMeterRegistry.class, HashContrasenas.class,
+        ImpuestoService.class, CatalogoPlanes.class, RegistroAccesos.class, ResumenMensualFacturas.class,
+        BloqueoSuscripciones.class, ObjectMapper.class, PublicadorEventos.class, MonitorJobs.class,
+        FacturaService.class, SuscripcionService.class, UsuarioService.class})
+class PresupuestoConsultasTest {
+
+    private static final int USUARIOS = 10;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    private Long facturaId;
+    private Long suscripcionId;
+    private Long usuarioId;
+
+    @BeforeEach
+    void setUp() {
+        Plan plan = em.persist(Plan.builder()
+                .nombre("Plan Premium")
+                .tipoPlan(TipoPlan.PREMIUM)
+                .precioMensual(new BigDecimal("29.99"))
+                .build());
+
+        for (int i = 0; i < USUARIOS; i++) {
+            Usuario usuario = Usuario.builder().email("u" + i + "@example.com").password("password123").build();
+            usuario.setPerfil(Perfil.builder().nombre("Nombre" + i).apellidos("Apellido").pais("ES").usuario(usuario).build());
+            em.persist(usuario);
+
+            Suscripcion suscripcion = em.persist(Suscripcion.builder()
+                    .usuario(usuario)
+                    .plan(plan)
+                    .fechaInicio(LocalDate.now().minusDays(10))
+                    .fechaProximoCobro(LocalDate.now().plusDays(20))
+                    .estado(EstadoSuscripcion.ACTIVA)
+                    .precioActual(plan.getPrecioMensual())
+                    .build());
+
+            for (int j = 0; j < 2; j++) {
+                Factura factura = em.persist(Factura.builder()
+                        .numeroFactura("FAC-" + i + "-" + j)
+                        .suscripcion(suscripcion)
+                        .fechaEmision(LocalDate.now().minusDays(j))
+                        .fechaVencimiento(LocalDate.now().plusDays(15))
+                        .subtotal(new BigDecimal("29.99"))
+                        .porcentajeImpuestos(new BigDecimal("21.00"))
+                        .montoImpuestos(new BigDecimal("6.30"))
+                        .total(new BigDecimal("36.29"))
+                        .estado(EstadoFactura.PENDIENTE)
+                        .concepto("Suscripción mensual - Plan Premium")
+                        .build());
+                facturaId = factura.getId();
+            }
+            suscripcionId = suscripcion.getId();
+            usuarioId = usuario.getId();
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Nested
+    @DisplayName("Listados")
+    class ListadosTests {
+
+        @Test
+        @DisplayName("GET /api/facturas cuesta una consulta")
+        void testFacturasFindAll() {
+            var facturas = assertMaxConsultas(1, "FacturaService.findAll", facturaService::findAll);
+            assertEquals(USUARIOS * 2, facturas.size());
+            assertTrue(facturas.stream().allMatch(f -> f.getUsuarioNombre() != null));
+        }
+
+        @Test
+        @DisplayName("GET /api/facturas/buscar cuesta consulta + conteo como máximo")
+        void testFacturasBuscar() {
+            var pagina = assertMaxConsultas(2, "FacturaService.buscarConFiltros", () ->
+                    facturaService.buscarConFiltros(null, null, null, null, EstadoFactura.PENDIENTE, null,
+                            PageRequest.of(0, 5, Sort.by("fechaEmision").descending()), true));
+            assertEquals(5, pagina.getNumberOfElements());
+        }
+
+        @Test
+        @DisplayName("GET /api/suscripciones cuesta una consulta")
+        void testSuscripcionesFindAll() {
+            var suscripciones = assertMaxConsultas(1, "SuscripcionService.findAll", suscripcionService::findAll);
+            assertEquals(USUARIOS, suscripciones.size());
+            assertTrue(suscripciones.stream().allMatch(s -> s.getPlanNombre() != null && s.getUsuarioNombre() != null));
+        }
+
+        @Test
+        @DisplayName("GET /api/usuarios cuesta usuarios + últimos accesos")
+        void testUsuariosFindAll() {
+            var usuarios = assertMaxConsultas(2, "UsuarioService.findAll", usuarioService::findAll);
+            assertEquals(USUARIOS, usuarios.size());
+            assertTrue(usuarios.stream().allMatch(u -> u.getSuscripcionId() != null && u.getNombre() != null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Detalles")
+    class DetallesTests {
+
+        @Test
+        @DisplayName("GET /api/facturas/{id} cuesta una consulta")
+        void testFacturaFindById() {
+            var factura = assertMaxConsultas(1, "FacturaService.findById", () -> facturaService.findById(facturaId));
+            assertTrue(factura.isPresent());
+        }
+
+        @Test
+        @DisplayName("GET /api/suscripciones/{id} cuesta una consulta")
+        void testSuscripcionFindById() {
+            var suscripcion = assertMaxConsultas(1, "SuscripcionService.findById", () -> suscripcionService.findById(suscripcionId));
+            assertTrue(suscripcion.isPresent());
+        }
+
+        @Test
+        @DisplayName("GET /api/usuarios/{id} cuesta usuario + último acceso")
+        void testUsuarioFindById() {
+            var usuario = assertMaxConsultas(2, "UsuarioService.findById", () -> usuarioService.findById(usuarioId));
+            assertTrue(usuario.isPresent());
+        }
+    }
+
+    @Nested
+    @DisplayName("Estadísticas")
+    class EstadisticasTests {
+
+        @Test
+        @DisplayName("GET /api/facturas/estadisticas cuesta una consulta")
+        void testTotalesEnUnaConsulta() {
+            // getEstadisticas corre fuera de la transacción del test: se comprueba su consulta directamente
+            var totales = assertMaxConsultas(1, "FacturaRepository.getTotales", () ->
+                    facturaRepository.getTotales(LocalDate.now().plusDays(30), LocalDate.now().minusDays(30), LocalDate.now()));
+            assertEquals(USUARIOS * 2, totales.getTotal());
+            assertEquals(USUARIOS * 2, totales.getPendientes());
+            assertEquals(0, totales.getPagadas());
+            assertEquals(USUARIOS * 2, totales.getVencidas());
+            assertEquals(0, new BigDecimal("36.29").multiply(BigDecimal.valueOf(USUARIOS * 2)).compareTo(totales.getTotalPendiente()));
+            assertEquals(0, BigDecimal.ZERO.compareTo(totales.getIngresos()));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.config.MigracionAccesos;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.repository.AccesoUsuarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.example.ProyectoSpringBoot.support.ContadorConsultas.contar;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Último acceso con escritura diferida: el login no toca usuarios ni genera revisiones
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RegistroAccesosTest {
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private RegistroAccesos registroAccesos;
+
+    @Autowired
+    private AccesoUsuarioRepository accesoUsuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MigracionAccesos migracionAccesos;
+
+    private UsuarioDTO usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("accesos@example.com")
+                .password("password123")
+                .nombre("Acceso")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        registroAccesos.volcar();
+        accesoUsuarioRepository.deleteById(usuario.getId());
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Nested
+    @DisplayName("Login")
+    class LoginTests {
+
+        @Test
+        @DisplayName("El login no genera revisiones de auditoría de Usuario")
+        void testLoginSinRevision() {
+            long revisionesAntes = revisionesUsuario();
+
+            assertTrue(usuarioService.login("accesos@example.com", "password123").isPresent());
+            assertTrue(usuarioService.login("accesos@example.com", "password123").isPresent());
+            registroAccesos.volcar();
+
+            assertEquals(revisionesAntes, revisionesUsuario());
+            assertTrue(accesoUsuarioRepository.findById(usuario.getId()).isPresent());
+        }
+
+        @Test
+        @DisplayName("El último acceso pendiente de volcar ya se ve en las lecturas")
+        void testAccesoPendienteVisible() {
+            UsuarioDTO logueado = usuarioService.login("accesos@example.com", "password123").orElseThrow();
+
+            assertEquals(logueado.getUltimoAcceso(), usuarioService.findById(usuario.getId()).orElseThrow().getUltimoAcceso());
+        }
+    }
+
+    @Nested
+    @DisplayName("Volcado")
+    class VolcadoTests {
+
+        @Test
+        @DisplayName("Varios accesos del mismo usuario se combinan en una fila con el más reciente")
+        void testCombinaPorUsuario() {
+            LocalDateTime primero = LocalDateTime.of(2024, 5, 1, 10, 0);
+            LocalDateTime ultimo = primero.plusMinutes(5);
+
+            registroAccesos.volcar();
+            registroAccesos.registrar(usuario.getId(), ultimo);
+            registroAccesos.registrar(usuario.getId(), primero);
+
+            assertEquals(1, registroAccesos.volcar());
+            assertEquals(ultimo, accesoUsuarioRepository.findById(usuario.getId()).orElseThrow().getUltimoAcceso());
+        }
+
+        @Test
+        @DisplayName("Un volcado posterior nunca retrocede el último acceso")
+        void testNoRetrocede() {
+            LocalDateTime reciente = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+            registroAccesos.registrar(usuario.getId(), reciente);
+            registroAccesos.volcar();
+            registroAccesos.registrar(usuario.getId(), reciente.minusHours(1));
+            registroAccesos.volcar();
+
+            assertEquals(reciente, accesoUsuarioRepository.findById(usuario.getId()).orElseThrow().getUltimoAcceso());
+        }
+
+        @Test
+        @DisplayName("Las filas nuevas se insertan sin un SELECT por usuario")
+        void testNuevosSinSelect() {
+            List<Long> ids = LongStream.range(900_001, 900_006).boxed().toList();
+            registroAccesos.volcar();
+            ids.forEach(id -> registroAccesos.registrar(id, LocalDateTime.of(2024, 5, 1, 10, 0)));
+            try {
+                // findAllById y el lote de INSERT; con merge() serían 5 SELECT más
+                long consultas = contar(registroAccesos::volcar);
+                assertTrue(consultas <= 3, "Volcado con " + consultas + " consultas");
+                assertEquals(ids.size(), accesoUsuarioRepository.findAllById(ids).size());
+            } finally {
+                accesoUsuarioRepository.deleteAllById(ids);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Migración")
+    class MigracionTests {
+
+        @Test
+        @DisplayName("Copia usuarios.ultimo_acceso sin pisar accesos ya registrados")
+        void testMigraColumnaAntigua() {
+            assertEquals(0, migracionAccesos.migrar());
+
+            LocalDateTime antiguo = LocalDateTime.of(2023, 1, 1, 9, 0);
+            jdbcTemplate.execute("ALTER TABLE usuarios ADD COLUMN ultimo_acceso TIMESTAMP(6)");
+            try {
+                jdbcTemplate.update("UPDATE usuarios SET ultimo_acceso = ? WHERE id = ?", antiguo, usuario.getId());
+
+                assertEquals(1, migracionAccesos.migrar());
+                assertEquals(antiguo, accesoUsuarioRepository.findById(usuario.getId()).orElseThrow().getUltimoAcceso());
+
+                LocalDateTime nuevo = antiguo.plusYears(1);
+                registroAccesos.registrar(usuario.getId(), nuevo);
+                registroAccesos.volcar();
+                assertEquals(0, migracionAccesos.migrar());
+                assertEquals(nuevo, accesoUsuarioRepository.findById(usuario.getId()).orElseThrow().getUltimoAcceso());
+            } finally {
+                jdbcTemplate.execute("ALTER TABLE usuarios DROP COLUMN ultimo_acceso");
+            }
+        }
+    }
+
+    private long revisionesUsuario() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM usuarios_AUD WHERE id = ?", Long.class, usuario.getId());
+    }
+}
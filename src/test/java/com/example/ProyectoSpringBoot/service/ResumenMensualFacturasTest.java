@@ -0,0 +1,162 @@
+package com.example.ProyectoSpringBoot.service;
+
+import com.example.ProyectoSpringBoot.dto.SuscripcionDTO;
+import com.example.ProyectoSpringBoot.dto.UsuarioDTO;
+import com.example.ProyectoSpringBoot.entity.Factura;
+import com.example.ProyectoSpringBoot.entity.ResumenMensualFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoFactura;
+import com.example.ProyectoSpringBoot.enums.EstadoSuscripcion;
+import com.example.ProyectoSpringBoot.repository.FacturaRepository;
+import com.example.ProyectoSpringBoot.repository.ResumenMensualFacturaRepository;
+import com.example.ProyectoSpringBoot.repository.SuscripcionRepository;
+import com.example.ProyectoSpringBoot.service.ResumenMensualFacturas.TotalesPeriodo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Resumen mensual de facturación mantenido en la misma transacción que las facturas
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResumenMensualFacturasTest {
+
+    private static final YearMonth MES = YearMonth.now();
+
+    @Autowired
+    private ResumenMensualFacturas resumenMensual;
+
+    @Autowired
+    private ResumenMensualFacturaRepository resumenRepository;
+
+    @Autowired
+    private FacturaRepository facturaRepository;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private SuscripcionService suscripcionService;
+
+    @Autowired
+    private SuscripcionRepository suscripcionRepository;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private PlanService planService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UsuarioDTO usuario;
+    private Long suscripcionId;
+
+    @BeforeEach
+    void setUp() {
+        resumenMensual.reconstruir(MES, MES);
+        usuario = usuarioService.create(UsuarioDTO.builder()
+                .email("resumen@example.com")
+                .password("password123")
+                .nombre("Resumen")
+                .pais("PT")
+                .build());
+        suscripcionId = suscripcionService.create(SuscripcionDTO.builder()
+                .usuarioId(usuario.getId())
+                .planId(planService.findAll().get(0).getId())
+                .fechaInicio(LocalDate.now())
+                .estado(EstadoSuscripcion.ACTIVA)
+                .build()).orElseThrow().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioService.delete(usuario.getId());
+    }
+
+    @Nested
+    @DisplayName("Mantenimiento incremental")
+    class IncrementalTests {
+
+        @Test
+        @DisplayName("Alta, pago y baja dejan el resumen igual que una reconstrucción")
+        void testCoincideConReconstruccion() {
+            TotalesPeriodo inicial = resumenMensual.totalesPagados(MES.atDay(1), MES.atEndOfMonth());
+
+            Factura factura = generarFactura();
+            facturaService.marcarComoPagada(factura.getId());
+
+            TotalesPeriodo pagado = resumenMensual.totalesPagados(MES.atDay(1), MES.atEndOfMonth());
+            assertEquals(0, inicial.totalFacturado().add(factura.getTotal()).compareTo(pagado.totalFacturado()));
+            assertEquals(0, inicial.totalImpuestos().add(factura.getMontoImpuestos()).compareTo(pagado.totalImpuestos()));
+
+            List<String> incremental = filasDelMes();
+            resumenMensual.reconstruir(MES, MES);
+            assertEquals(filasDelMes(), incremental);
+
+            usuarioService.delete(usuario.getId());
+            TotalesPeriodo borrado = resumenMensual.totalesPagados(MES.atDay(1), MES.atEndOfMonth());
+            assertEquals(0, inicial.totalFacturado().compareTo(borrado.totalFacturado()));
+        }
+    }
+
+    @Nested
+    @DisplayName("Totales por periodo")
+    class PeriodoTests {
+
+        @Test
+        @DisplayName("Periodos con días sueltos combinan resumen y facturas igual que el recorrido completo")
+        void testPeriodoParcial() {
+            facturaService.marcarComoPagada(generarFactura().getId());
+
+            LocalDate inicio = MES.minusMonths(2).atDay(10);
+            LocalDate fin = LocalDate.now();
+            TotalesPeriodo totales = resumenMensual.totalesPagados(inicio, fin);
+
+            BigDecimal esperado = facturaRepository.sumTotalFacturadoPorPeriodo(inicio, fin);
+            assertEquals(0, esperado.compareTo(totales.totalFacturado()));
+            assertEquals(0, facturaRepository.sumImpuestosPorPeriodo(inicio, fin).compareTo(totales.totalImpuestos()));
+        }
+
+        @Test
+        @DisplayName("Un periodo invertido devuelve cero")
+        void testPeriodoInvertido() {
+            TotalesPeriodo totales = resumenMensual.totalesPagados(LocalDate.now(), LocalDate.now().minusDays(1));
+            assertEquals(BigDecimal.ZERO, totales.totalFacturado());
+        }
+    }
+
+    private Factura generarFactura() {
+        return transactionTemplate.execute(estado ->
+                suscripcionService.generarFacturaMensual(suscripcionRepository.findById(suscripcionId).orElseThrow()));
+    }
+
+    private List<String> filasDelMes() {
+        return resumenRepository.findAll().stream()
+                .filter(r -> r.getMes().equals(MES.atDay(1)) && r.getCantidad() != 0)
+                .sorted(Comparator.comparing(ResumenMensualFactura::getPais)
+                        .thenComparing(ResumenMensualFactura::getEstado)
+                        .thenComparing(ResumenMensualFactura::getEsProrrateo))
+                .map(r -> r.getPais() + "|" + r.getEstado() + "|" + r.getEsProrrateo() + "|" + r.getCantidad()
+                        + "|" + r.getSubtotal().stripTrailingZeros() + "|" + r.getImpuestos().stripTrailingZeros()
+                        + "|" + r.getTotal().stripTrailingZeros())
+                .toList();
+    }
+}
@@ -18,13 +18,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -44,12 +47,30 @@ class SuscripcionServiceTest {
     @Mock
     private PlanRepository planRepository;
 
+    @Mock
+    private CatalogoPlanes catalogoPlanes;
+
     @Mock
     private FacturaRepository facturaRepository;
 
     @Mock
     private ImpuestoService impuestoService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PublicadorEventos publicadorEventos;
+
+    @Mock
+    private ResumenMensualFacturas resumenMensual;
+
+    @Mock
+    private BloqueoSuscripciones bloqueo;
+
+    @Mock
+    private MonitorJobs monitorJobs;
+
     @InjectMocks
     private SuscripcionService suscripcionService;
 
@@ -158,8 +179,10 @@ class SuscripcionServiceTest {
         @DisplayName("Debe generar factura de prorrateo al cambiar a plan más caro")
         void testCambiarPlan_DeberiaGenerarFacturaProrrateo() {
             // Given
+            ejecutarSinBloqueo();
             when(suscripcionRepository.findById(1L)).thenReturn(Optional.of(suscripcion));
-            when(planRepository.findById(2L)).thenReturn(Optional.of(planPremium));
+            when(catalogoPlanes.existe(2L)).thenReturn(true);
+            when(planRepository.getReferenceById(2L)).thenReturn(planPremium);
             when(suscripcionRepository.save(any(Suscripcion.class))).thenReturn(suscripcion);
             when(facturaRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
             // Mock del servicio de impuestos (IVA 21% por defecto para España)
@@ -185,8 +208,10 @@ class SuscripcionServiceTest {
             suscripcion.setPlan(planPremium);
             suscripcion.setPrecioActual(planPremium.getPrecioMensual());
             
+            ejecutarSinBloqueo();
             when(suscripcionRepository.findById(1L)).thenReturn(Optional.of(suscripcion));
-            when(planRepository.findById(1L)).thenReturn(Optional.of(planBasic));
+            when(catalogoPlanes.existe(1L)).thenReturn(true);
+            when(planRepository.getReferenceById(1L)).thenReturn(planBasic);
             when(suscripcionRepository.save(any(Suscripcion.class))).thenReturn(suscripcion);
 
             // When
@@ -206,6 +231,7 @@ class SuscripcionServiceTest {
         @DisplayName("Debe cambiar estado de ACTIVA a CANCELADA")
         void testCambiarEstado_ActivaACancelada() {
             // Given
+            ejecutarSinBloqueo();
             when(suscripcionRepository.findById(1L)).thenReturn(Optional.of(suscripcion));
             when(suscripcionRepository.save(any(Suscripcion.class))).thenReturn(suscripcion);
 
@@ -221,6 +247,7 @@ class SuscripcionServiceTest {
         @DisplayName("Debe cambiar estado de ACTIVA a MOROSA")
         void testCambiarEstado_ActivaAMorosa() {
             // Given
+            ejecutarSinBloqueo();
             when(suscripcionRepository.findById(1L)).thenReturn(Optional.of(suscripcion));
             when(suscripcionRepository.save(any(Suscripcion.class))).thenReturn(suscripcion);
 
@@ -236,6 +263,7 @@ class SuscripcionServiceTest {
         @DisplayName("Debe devolver vacío si la suscripción no existe")
         void testCambiarEstado_SuscripcionNoExiste() {
             // Given
+            ejecutarSinBloqueo();
             when(suscripcionRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When
@@ -261,7 +289,8 @@ class SuscripcionServiceTest {
                     .build();
 
             when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-            when(planRepository.findById(1L)).thenReturn(Optional.of(planBasic));
+            when(catalogoPlanes.existe(1L)).thenReturn(true);
+            when(planRepository.getReferenceById(1L)).thenReturn(planBasic);
             when(suscripcionRepository.save(any(Suscripcion.class))).thenAnswer(inv -> {
                 Suscripcion s = inv.getArgument(0);
                 s.setId(1L);
@@ -287,7 +316,8 @@ class SuscripcionServiceTest {
                     .build();
 
             when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-            when(planRepository.findById(1L)).thenReturn(Optional.of(planBasic));
+            when(catalogoPlanes.existe(1L)).thenReturn(true);
+            when(planRepository.getReferenceById(1L)).thenReturn(planBasic);
             when(suscripcionRepository.save(any(Suscripcion.class))).thenAnswer(inv -> {
                 Suscripcion s = inv.getArgument(0);
                 s.setId(1L);
@@ -313,7 +343,8 @@ class SuscripcionServiceTest {
                     .build();
 
             when(usuarioRepository.findById(999L)).thenReturn(Optional.empty());
-            when(planRepository.findById(1L)).thenReturn(Optional.of(planBasic));
+            when(catalogoPlanes.existe(1L)).thenReturn(true);
+            when(planRepository.getReferenceById(1L)).thenReturn(planBasic);
 
             // When
             Optional<SuscripcionDTO> resultado = suscripcionService.create(dto);
@@ -376,4 +407,9 @@ class SuscripcionServiceTest {
             assertEquals(fechaOriginal.plusDays(30), suscripcion.getFechaProximoCobro());
         }
     }
+
+    // El bloqueo se prueba en BloqueoSuscripcionesTest; aquí solo ejecuta la operación
+    private void ejecutarSinBloqueo() {
+        when(bloqueo.ejecutar(anyLong(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.ProyectoSpringBoot.support;
+
+import com.example.ProyectoSpringBoot.config.ConsultasPorPeticion;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guarda de presupuesto de consultas para tests.
+ * Cuenta las sentencias que Hibernate prepara en el hilo del test durante una acción
+ * (registro de ConsultasPorPeticion) y falla si se supera el máximo permitido (detecta N+1 en los mappers toDTO).
+ * Los jobs programados y demás trabajo en segundo plano corren en otros hilos y no se cuentan.
+ */
+public final class ContadorConsultas {
+
+    private ContadorConsultas() {
+    }
+
+    /**
+     * Ejecuta la acción y devuelve cuántas sentencias lanzó
+     */
+    public static long contar(Runnable accion) {
+        ConsultasPorPeticion.Registro registro = ConsultasPorPeticion.iniciar();
+        try {
+            accion.run();
+        } finally {
+            ConsultasPorPeticion.terminar(registro, "test", Integer.MAX_VALUE);
+        }
+        return registro.sentencias();
+    }
+
+    /**
+     * Ejecuta la acción y falla si lanza más de maxConsultas sentencias
+     */
+    public static <T> T assertMaxConsultas(long maxConsultas, String descripcion, Supplier<T> accion) {
+        Object[] resultado = new Object[1];
+        long consultas = contar(() -> resultado[0] = accion.get());
+        assertTrue(consultas <= maxConsultas,
+                descripcion + ": " + consultas + " consultas (presupuesto " + maxConsultas + ")");
+        @SuppressWarnings("unchecked")
+        T valor = (T) resultado[0];
+        return valor;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ProyectoSpringBoot.support;
+
+import com.example.ProyectoSpringBoot.config.ConsultasPorPeticion;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.SearchOption;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Extensión de @MaxConsultas: abre un registro de ConsultasPorPeticion antes del test
+ * y al terminar comprueba el presupuesto de cada petición que quedó anotada en él
+ */
+public class ExtensionConsultas implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ExtensionConsultas.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put("registro", ConsultasPorPeticion.iniciar());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        ConsultasPorPeticion.Registro registro = context.getStore(NAMESPACE)
+                .remove("registro", ConsultasPorPeticion.Registro.class);
+        ConsultasPorPeticion.terminar(registro, context.getDisplayName(), Integer.MAX_VALUE);
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+
+        MaxConsultas presupuesto = buscar(context);
+        List<ConsultasPorPeticion.Resumen> peticiones = registro.peticiones();
+        assertFalse(peticiones.isEmpty(), "@MaxConsultas sin peticiones HTTP: el test no pasó por FiltroConsultas");
+
+        List<String> fuera = peticiones.stream()
+                .filter(p -> p.sentencias() > presupuesto.value() || (presupuesto.sinRepetidas() && !p.repetidas().isEmpty()))
+                .map(p -> p.peticion() + ": " + p.sentencias() + " sentencias" + repetidas(p))
+                .toList();
+        if (!fuera.isEmpty()) {
+            fail("Presupuesto de " + presupuesto.value() + " sentencias por petición superado:\n  "
+                    + String.join("\n  ", fuera));
+        }
+    }
+
+    private static MaxConsultas buscar(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxConsultas.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxConsultas.class,
+                        SearchOption.INCLUDE_ENCLOSING_CLASSES))
+                .orElseThrow();
+    }
+
+    private static String repetidas(ConsultasPorPeticion.Resumen peticion) {
+        if (peticion.repetidas().isEmpty()) {
+            return "";
+        }
+        return peticion.repetidas().entrySet().stream()
+                .map(e -> e.getValue() + "x " + e.getKey())
+                .collect(Collectors.joining("\n      ", "\n    repetidas:\n      ", ""));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ProyectoSpringBoot.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Presupuesto de sentencias SQL por petición HTTP para un test con MockMvc.
+ * Cada petición que lance el test debe quedarse en value sentencias como máximo
+ * (las cuenta FiltroConsultas; lo que haga el test fuera de las peticiones no cuenta)
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(ExtensionConsultas.class)
+public @interface MaxConsultas {
+
+    int value();
+
+    /**
+     * Falla también si alguna petición repite la misma sentencia (app.consultas.umbral-repeticion veces): posible N+1
+     */
+    boolean sinRepetidas() default false;
+}
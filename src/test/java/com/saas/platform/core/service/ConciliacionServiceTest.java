@@ -0,0 +1,222 @@
+package com.saas.platform.core.service;
+
+import com.saas.platform.core.model.entity.Factura;
+import com.saas.platform.core.model.entity.Pago;
+import com.saas.platform.core.model.entity.PagoPaypal;
+import com.saas.platform.core.model.entity.PagoTarjeta;
+import com.saas.platform.core.model.entity.PagoTransferencia;
+import com.saas.platform.core.model.enums.EstadoFactura;
+import com.saas.platform.core.model.enums.ResultadoConciliacion;
+import com.saas.platform.core.repository.FacturaRepository;
+import com.saas.platform.core.repository.PagoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConciliacionService - Tests Unitarios")
+class ConciliacionServiceTest {
+
+    @Mock
+    private FacturaRepository facturaRepository;
+
+    @Mock
+    private PagoRepository pagoRepository;
+
+    @TempDir
+    Path directorio;
+
+    private ConciliacionService conciliacionService;
+    private final List<List<Pago>> lotes = new ArrayList<>();
+    private final Map<Long, Factura> facturas = Map.of(
+            1L, factura(1L, "100.00", EstadoFactura.PENDIENTE),
+            2L, factura(2L, "50.00", EstadoFactura.VENCIDA),
+            3L, factura(3L, "30.00", EstadoFactura.PENDIENTE),
+            4L, factura(4L, "20.00", EstadoFactura.PAGADA),
+            5L, factura(5L, "40.00", EstadoFactura.PENDIENTE));
+    // Cobrado en pagos anteriores: la 5 con referencia TRX-ANTERIOR, la 3 sin referencia
+    private final Map<Long, BigDecimal> cobrados = Map.of(5L, new BigDecimal("15.00"), 3L, new BigDecimal("5.00"));
+
+    @BeforeEach
+    void setUp() {
+        // Lote de 2 para que el extracto se guarde en varias transacciones
+        conciliacionService = new ConciliacionService(facturaRepository, pagoRepository,
+                TransactionOperations.withoutTransaction(), 2, 1000);
+
+        when(facturaRepository.streamSaldos(anyCollection())).thenAnswer(i -> facturas.values().stream()
+                .map(f -> new Object[]{f.getId(), f.getEstado(), f.getMonto(), cobrados.getOrDefault(f.getId(), BigDecimal.ZERO)}));
+        when(pagoRepository.streamReferenciasAbiertas(EstadoFactura.PAGADA)).thenReturn(Stream.of("TRX-ANTERIOR"));
+        when(pagoRepository.streamPagosSinReferenciaAbiertos(EstadoFactura.PAGADA)).thenReturn(Stream.<Object[]>of(
+                new Object[]{3L, new BigDecimal("5.00"), LocalDate.of(2026, 10, 1).atStartOfDay(), PagoTransferencia.class}));
+        lenient().when(facturaRepository.getReferenceById(anyLong())).thenAnswer(i -> facturas.get(i.<Long>getArgument(0)));
+        lenient().when(facturaRepository.findAllById(anyIterable())).thenAnswer(i -> {
+            List<Factura> encontradas = new ArrayList<>();
+            i.<Iterable<Long>>getArgument(0).forEach(id -> encontradas.add(facturas.get(id)));
+            return encontradas;
+        });
+        lenient().when(pagoRepository.saveAll(anyIterable())).thenAnswer(i -> {
+            List<Pago> lote = new ArrayList<>();
+            i.<Iterable<Pago>>getArgument(0).forEach(lote::add);
+            lotes.add(lote);
+            return lote;
+        });
+    }
+
+    private static Factura factura(Long id, String monto, EstadoFactura estado) {
+        return Factura.builder().id(id).monto(new BigDecimal(monto)).estado(estado).concepto("Factura " + id)
+                .fechaEmision(LocalDate.now()).fechaVencimiento(LocalDate.now()).esProrrateo(false).build();
+    }
+
+    private ConciliacionService.Informe conciliar(String contenido) throws IOException {
+        Path fichero = directorio.resolve("extracto.csv");
+        Files.writeString(fichero, contenido);
+        return conciliacionService.conciliar(fichero);
+    }
+
+    @Test
+    @DisplayName("Debe clasificar cada línea y guardar por lotes los pagos aplicables")
+    void conciliarExtracto() throws IOException {
+        ConciliacionService.Informe informe = conciliar("""
+                referencia;importe;fecha;metodo;referencia_banco
+                FAC-1;100,00;2026-10-01;TRANSFERENCIA;TRX-1
+                FAC-2;20,00;2026-10-01;PAYPAL;PP-1
+                FAC-2;30,00;2026-10-02;PAYPAL;PP-2
+                FAC-3;31,00;2026-10-02;TRANSFERENCIA;TRX-3
+                FAC-4;20,00;2026-10-02;TRANSFERENCIA;TRX-4
+                FAC-1;100,00;2026-10-03;TRANSFERENCIA;TRX-1B
+                FAC-5;25,00;2026-10-03;TRANSFERENCIA;TRX-5
+                FAC-5;25,00;2026-10-03;TRANSFERENCIA;TRX-ANTERIOR
+                FAC-99;10,00;2026-10-03;TRANSFERENCIA;TRX-99
+                FAC-3;1O,00;2026-10-03;TRANSFERENCIA;TRX-X
+                FAC-3;5,00;2026-10-01
+                FAC-3;4,00;2026-10-02;tarjeta
+                FAC-3;4,00;2026-10-02;TARJETA
+                FAC-1;100,00;2026-10-01;TRANSFERENCIA;TRX-1
+                """);
+
+        assertThat(informe.lineas()).isEqualTo(15);
+        assertThat(informe.totales()).containsEntry(ResultadoConciliacion.CONCILIADO, 3L)
+                .containsEntry(ResultadoConciliacion.PARCIAL, 2L)
+                .containsEntry(ResultadoConciliacion.EXCEDIDO, 1L)
+                .containsEntry(ResultadoConciliacion.DUPLICADO, 6L)
+                .containsEntry(ResultadoConciliacion.SIN_CORRESPONDENCIA, 1L)
+                .containsEntry(ResultadoConciliacion.ILEGIBLE, 1L);
+        assertThat(informe.importes().get(ResultadoConciliacion.CONCILIADO)).isEqualByComparingTo("155.00");
+        assertThat(informe.pagosCreados()).isEqualTo(5);
+        assertThat(informe.facturasPagadas()).isEqualTo(3);
+        assertThat(informe.incidencias()).hasSize(11);
+        assertThat(informe.incidenciasTruncadas()).isFalse();
+        assertThat(informe.incidencias().get(0).resultado()).isEqualTo(ResultadoConciliacion.PARCIAL);
+        assertThat(informe.incidencias().get(0).pendiente()).isEqualByComparingTo("50.00");
+
+        assertThat(lotes).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(lotes.get(2).get(0)).isInstanceOf(PagoTarjeta.class);
+        Pago primero = lotes.get(0).get(0);
+        assertThat(primero).isInstanceOf(PagoTransferencia.class);
+        assertThat(((PagoTransferencia) primero).getReferenciaTransferencia()).isEqualTo("TRX-1");
+        assertThat(primero.getFechaPago()).isEqualTo(LocalDate.of(2026, 10, 1).atStartOfDay());
+        assertThat(lotes.get(0).get(1)).isInstanceOf(PagoPaypal.class);
+        assertThat(facturas.get(1L).getEstado()).isEqualTo(EstadoFactura.PAGADA);
+        assertThat(facturas.get(2L).getEstado()).isEqualTo(EstadoFactura.PAGADA);
+        assertThat(facturas.get(3L).getEstado()).isEqualTo(EstadoFactura.PENDIENTE);
+        assertThat(facturas.get(5L).getEstado()).isEqualTo(EstadoFactura.PAGADA);
+    }
+
+    @Test
+    @DisplayName("Reimportar un extracto no vuelve a aplicar los abonos parciales sin referencia")
+    void reimportarSinReferencia() throws IOException {
+        String extracto = """
+                FAC-2;10.00;2026-10-05
+                FAC-2;10.00;2026-10-06
+                """;
+        ConciliacionService.Informe primera = conciliar(extracto);
+        assertThat(primera.totales()).containsEntry(ResultadoConciliacion.PARCIAL, 2L);
+
+        // Los pagos guardados vuelven como cobrados y como pagos sin referencia de la factura abierta
+        when(facturaRepository.streamSaldos(anyCollection())).thenAnswer(i -> Stream.<Object[]>of(
+                new Object[]{2L, EstadoFactura.VENCIDA, new BigDecimal("50.00"), new BigDecimal("20.00")}));
+        when(pagoRepository.streamReferenciasAbiertas(EstadoFactura.PAGADA)).thenReturn(Stream.empty());
+        when(pagoRepository.streamPagosSinReferenciaAbiertos(EstadoFactura.PAGADA)).thenReturn(lotes.stream()
+                .flatMap(List::stream)
+                .map(p -> new Object[]{p.getFactura().getId(), p.getMonto(), p.getFechaPago(), p.getClass()}));
+        ConciliacionService.Informe segunda = conciliar(extracto);
+
+        assertThat(segunda.totales()).containsEntry(ResultadoConciliacion.DUPLICADO, 2L)
+                .containsEntry(ResultadoConciliacion.PARCIAL, 0L);
+        assertThat(segunda.pagosCreados()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe limitar el detalle de incidencias e indicarlo")
+    void incidenciasTruncadas() throws IOException {
+        conciliacionService = new ConciliacionService(facturaRepository, pagoRepository,
+                TransactionOperations.withoutTransaction(), 2, 2);
+
+        ConciliacionService.Informe informe = conciliar("""
+                90;1.00;2026-10-01
+                91;1.00;2026-10-01
+                92;1.00;2026-10-01
+                """);
+
+        assertThat(informe.totales()).containsEntry(ResultadoConciliacion.SIN_CORRESPONDENCIA, 3L);
+        assertThat(informe.incidencias()).hasSize(2);
+        assertThat(informe.incidenciasTruncadas()).isTrue();
+        verify(pagoRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar una conciliación mientras otra está en curso")
+    void rechazarConciliacionConcurrente() throws Exception {
+        CountDownLatch cargando = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        when(facturaRepository.streamSaldos(anyCollection())).thenAnswer(i -> {
+            cargando.countDown();
+            continuar.await(5, TimeUnit.SECONDS);
+            return Stream.empty();
+        });
+        when(pagoRepository.streamReferenciasAbiertas(EstadoFactura.PAGADA)).thenAnswer(i -> Stream.empty());
+        when(pagoRepository.streamPagosSinReferenciaAbiertos(EstadoFactura.PAGADA)).thenAnswer(i -> Stream.empty());
+        Path fichero = directorio.resolve("extracto.csv");
+        Files.writeString(fichero, "FAC-1;100.00;2026-10-01\n");
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<ConciliacionService.Informe> primera = hilo.submit(() -> conciliacionService.conciliar(fichero));
+            assertThat(cargando.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> conciliacionService.conciliar(fichero))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("en curso");
+
+            continuar.countDown();
+            assertThat(primera.get(5, TimeUnit.SECONDS).lineas()).isEqualTo(1);
+            // Terminada la primera, se puede volver a conciliar
+            assertThat(conciliacionService.conciliar(fichero).lineas()).isEqualTo(1);
+        } finally {
+            hilo.shutdownNow();
+        }
+    }
+}
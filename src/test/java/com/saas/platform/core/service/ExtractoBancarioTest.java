@@ -0,0 +1,108 @@
+package com.saas.platform.core.service;
+
+import com.saas.platform.core.model.enums.MetodoPago;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ExtractoBancario - Tests Unitarios")
+class ExtractoBancarioTest {
+
+    @TempDir
+    Path directorio;
+
+    // Copia de lo que interesa de cada línea (la Linea se reutiliza)
+    private record Leida(long numero, boolean legible, long facturaId, long centimos, LocalDate fecha,
+                         MetodoPago metodo, String referencia, long huella) {
+    }
+
+    private List<Leida> leer(String contenido, int ventana) throws IOException {
+        Path fichero = directorio.resolve("extracto.csv");
+        Files.writeString(fichero, contenido, StandardCharsets.UTF_8);
+        List<Leida> leidas = new ArrayList<>();
+        ExtractoBancario.leer(fichero, linea -> leidas.add(new Leida(linea.numero(), linea.legible(),
+                linea.facturaId(), linea.centimos(),
+                linea.legible() ? linea.fecha() : null, linea.metodo(), linea.referencia(), linea.huellaReferencia())),
+                ventana);
+        return leidas;
+    }
+
+    @Test
+    @DisplayName("Debe leer los campos con ';', coma decimal, CRLF, cabecera y comentarios")
+    void leerPuntoYComa() throws IOException {
+        List<Leida> leidas = leer("""
+                referencia;importe;fecha;metodo;referencia_banco\r
+                # remesa de prueba\r
+                FAC-000123;29,99;2026-10-01;transferencia;TRX-1\r
+                \r
+                124;"10";2026-10-02;PAYPAL;\r
+                125;5.5;2026-10-03\r
+                """, ExtractoBancario.VENTANA);
+
+        assertThat(leidas).hasSize(3);
+        assertThat(leidas.get(0)).isEqualTo(new Leida(3, true, 123, 2999, LocalDate.of(2026, 10, 1),
+                MetodoPago.TRANSFERENCIA, "TRX-1", ExtractoBancario.huella("TRX-1")));
+        assertThat(leidas.get(1).numero()).isEqualTo(5);
+        assertThat(leidas.get(1).centimos()).isEqualTo(1000);
+        assertThat(leidas.get(1).metodo()).isEqualTo(MetodoPago.PAYPAL);
+        assertThat(leidas.get(1).referencia()).isNull();
+        assertThat(leidas.get(1).huella()).isZero();
+        assertThat(leidas.get(2).centimos()).isEqualTo(550);
+        assertThat(leidas.get(2).metodo()).isEqualTo(MetodoPago.TRANSFERENCIA);
+    }
+
+    @Test
+    @DisplayName("Las líneas con campos incorrectos se entregan como ilegibles")
+    void lineasIlegibles() throws IOException {
+        List<Leida> leidas = leer("""
+                1,10.00,2026-10-01
+                2,10.001,2026-10-01
+                3,-10.00,2026-10-01
+                4,10.00,2026-02-30
+                5,10.00,2026-10-01,CHEQUE
+                sin-numero,10.00,2026-10-01
+                7,10,50,2026-10-01
+                8,10.00
+                """, ExtractoBancario.VENTANA);
+
+        assertThat(leidas).extracting(Leida::legible)
+                .containsExactly(true, false, false, false, false, false, false, false);
+    }
+
+    @Test
+    @DisplayName("Debe releer en la siguiente ventana las líneas cortadas por el mapeo")
+    void lineasEntreVentanas() throws IOException {
+        StringBuilder contenido = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            contenido.append(i).append(';').append(i).append(",").append(i % 100).append(";2026-10-01;;R").append(i).append('\n');
+        }
+        // Sin salto de línea final
+        contenido.append("201;1;2026-10-01");
+
+        List<Leida> leidas = leer(contenido.toString(), 64);
+
+        assertThat(leidas).hasSize(201).allMatch(Leida::legible);
+        assertThat(leidas.get(149).facturaId()).isEqualTo(150);
+        assertThat(leidas.get(149).centimos()).isEqualTo(15050);
+        assertThat(leidas.get(149).referencia()).isEqualTo("R150");
+        assertThat(leidas.get(200).numero()).isEqualTo(201);
+    }
+
+    @Test
+    @DisplayName("Una línea mayor que la ventana es un error")
+    void lineaMayorQueVentana() {
+        assertThatThrownBy(() -> leer("1;10;2026-10-01;TRANSFERENCIA;" + "X".repeat(100) + "\n", 32))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("ventana");
+    }
+}